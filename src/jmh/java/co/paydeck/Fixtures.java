@@ -0,0 +1,103 @@
+package co.paydeck;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.Customer;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.model.deposit.CheckoutCustomization;
+import co.paydeck.model.deposit.CheckoutRequest;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Map;
+
+// Payloads and a local HTTP stand-in shared by the benchmarks; bodies mirror real provider responses
+public final class Fixtures {
+    public static final String PAYSTACK_VERIFY = "{\"status\":true,\"message\":\"Verification successful\","
+        + "\"data\":{\"id\":4099260516,\"domain\":\"test\",\"status\":\"success\","
+        + "\"reference\":\"order-1042\",\"receipt_number\":null,\"amount\":4000000,"
+        + "\"message\":null,\"gateway_response\":\"Successful\",\"paid_at\":\"2024-08-22T09:15:02.000Z\","
+        + "\"created_at\":\"2024-08-22T09:14:24.000Z\",\"channel\":\"card\",\"currency\":\"NGN\","
+        + "\"ip_address\":\"197.210.54.33\",\"metadata\":\"\",\"log\":{\"start_time\":1724318098,"
+        + "\"time_spent\":4,\"attempts\":1,\"errors\":0,\"success\":true,\"mobile\":false,\"input\":[],"
+        + "\"history\":[{\"type\":\"action\",\"message\":\"Attempted to pay with card\",\"time\":3},"
+        + "{\"type\":\"success\",\"message\":\"Successfully paid with card\",\"time\":4}]},"
+        + "\"fees\":70000,\"fees_split\":null,\"authorization\":{\"authorization_code\":\"AUTH_uh8bcl3zbn\","
+        + "\"bin\":\"408408\",\"last4\":\"4081\",\"exp_month\":\"12\",\"exp_year\":\"2030\","
+        + "\"channel\":\"card\",\"card_type\":\"visa \",\"bank\":\"TEST BANK\",\"country_code\":\"NG\","
+        + "\"brand\":\"visa\",\"reusable\":true,\"signature\":\"SIG_yEXu7dLBeqG0kU7g95Ke\","
+        + "\"account_name\":null},\"customer\":{\"id\":181873746,\"first_name\":null,\"last_name\":null,"
+        + "\"email\":\"demo@test.com\",\"customer_code\":\"CUS_1rkzaqsv4rrhqo6\",\"phone\":null,"
+        + "\"metadata\":null,\"risk_action\":\"default\",\"international_format_phone\":null},"
+        + "\"plan\":null,\"split\":{},\"order_id\":null,\"paidAt\":\"2024-08-22T09:15:02.000Z\","
+        + "\"createdAt\":\"2024-08-22T09:14:24.000Z\",\"requested_amount\":4000000,"
+        + "\"pos_transaction_data\":null,\"source\":null,\"fees_breakdown\":null}}";
+
+    public static final String FLUTTERWAVE_VERIFY = "{\"status\":\"success\",\"message\":\"Transaction fetched "
+        + "successfully\",\"data\":{\"id\":4975363,\"tx_ref\":\"order-1042\",\"flw_ref\":\"FLW-MOCK-1\","
+        + "\"device_fingerprint\":\"N/A\",\"amount\":100,\"currency\":\"NGN\",\"charged_amount\":101.4,"
+        + "\"app_fee\":1.4,\"merchant_fee\":0,\"processor_response\":\"Approved. Successful\","
+        + "\"auth_model\":\"VBVSECURECODE\",\"ip\":\"54.75.161.64\",\"narration\":\"CARD Transaction \","
+        + "\"status\":\"successful\",\"payment_type\":\"card\",\"created_at\":\"2024-08-22T09:14:24.000Z\","
+        + "\"account_id\":20937,\"card\":{\"first_6digits\":\"553188\",\"last_4digits\":\"2950\","
+        + "\"issuer\":\"MASTERCARD CREDIT\",\"country\":\"NG\",\"type\":\"MASTERCARD\","
+        + "\"expiry\":\"09/32\"},\"meta\":null,\"amount_settled\":98.6,\"customer\":{\"id\":1723,"
+        + "\"name\":\"Demo Customer\",\"phone_number\":\"N/A\",\"email\":\"demo@test.com\","
+        + "\"created_at\":\"2024-08-22T09:14:24.000Z\"}}}";
+
+    public static final String PAYSTACK_INITIALIZE = "{\"status\":true,\"message\":\"Authorization URL created\","
+        + "\"data\":{\"authorization_url\":\"https://checkout.paystack.com/3ni8kdavz62431k\","
+        + "\"access_code\":\"3ni8kdavz62431k\",\"reference\":\"order-1042\"}}";
+
+    private Fixtures() {
+    }
+
+    public static CheckoutRequest checkoutRequest() {
+        return CheckoutRequest.builder()
+            .reference("order-1042")
+            .amount(new BigDecimal("40000.00"))
+            .currency(Currency.NGN)
+            .customer(Customer.builder()
+                .email("demo@test.com")
+                .firstName("Ada")
+                .lastName("Obi")
+                .phoneNumber("+2348012345678")
+                .build())
+            .paymentMethods(EnumSet.of(PaymentMethod.CARD, PaymentMethod.BANK_TRANSFER))
+            .metadata(Map.of("order_id", "1042", "channel", "web"))
+            .customization(CheckoutCustomization.builder()
+                .title("Paydeck Store")
+                .description("Order 1042")
+                .build())
+            .build();
+    }
+
+    // Answers every request with the same body; the caller shuts the server down
+    public static MockWebServer stubServer(String body) {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody(body);
+            }
+        });
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return server;
+    }
+
+    // Base URL of the stand-in without the trailing slash, the form HttpClient expects
+    public static String baseUrl(MockWebServer server) {
+        String url = server.url("/").toString();
+        return url.substring(0, url.length() - 1);
+    }
+}
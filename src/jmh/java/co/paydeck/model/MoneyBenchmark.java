@@ -0,0 +1,90 @@
+package co.paydeck.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciliation-style aggregation: totalling a day of Paystack amounts, which arrive in kobo, and
+ * the fees on them. The BigDecimal variants follow what the mapper used to do per transaction
+ * (divide by a freshly allocated 100) before adding; the Money variants stay in minor units.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+    @Param({"10000"})
+    public int transactions;
+
+    private long[] amounts;
+    private long[] fees;
+    private String[] majorAmounts;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        amounts = new long[transactions];
+        fees = new long[transactions];
+        majorAmounts = new String[transactions];
+        for (int i = 0; i < transactions; i++) {
+            amounts[i] = random.nextLong(10_000, 5_000_000_000L);
+            fees[i] = Math.min(amounts[i] * 15 / 1000, 200_000);
+            majorAmounts[i] = BigDecimal.valueOf(amounts[i], 2).toPlainString();
+        }
+    }
+
+    @Benchmark
+    public BigDecimal netSettlementBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < amounts.length; i++) {
+            BigDecimal amount = BigDecimal.valueOf(amounts[i]).divide(new BigDecimal("100"));
+            BigDecimal fee = BigDecimal.valueOf(fees[i]).divide(new BigDecimal("100"));
+            total = total.add(amount.subtract(fee));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money netSettlementMoney() {
+        Money total = Money.zero(Currency.NGN);
+        for (int i = 0; i < amounts.length; i++) {
+            Money amount = Money.ofMinor(amounts[i], Currency.NGN);
+            Money fee = Money.ofMinor(fees[i], Currency.NGN);
+            total = total.plus(amount.minus(fee));
+        }
+        return total;
+    }
+
+    // Major-unit strings, as Flutterwave sends them, parsed and totalled
+    @Benchmark
+    public BigDecimal parseAndSumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (String amount : majorAmounts) {
+            total = total.add(new BigDecimal(amount));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money parseAndSumMoney() {
+        Money total = Money.zero(Currency.NGN);
+        for (String amount : majorAmounts) {
+            total = total.plus(Money.parse(amount, Currency.NGN));
+        }
+        return total;
+    }
+}
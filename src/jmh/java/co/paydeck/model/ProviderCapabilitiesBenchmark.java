@@ -0,0 +1,43 @@
+package co.paydeck.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+// Provider selection for a checkout; gc.alloc.rate.norm should read 0 B/op
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderCapabilitiesBenchmark {
+    private final ProviderCapabilities capabilities = ProviderCapabilities.DEFAULT;
+    private final EnumSet<PaymentMethod> methods = EnumSet.of(PaymentMethod.CARD, PaymentMethod.USSD);
+    private final String countryCode = "GH";
+
+    @Benchmark
+    public int eligibleProviders() {
+        return capabilities.eligibleProviders(methods, Currency.GHS, countryCode);
+    }
+
+    @Benchmark
+    public boolean supportsEverything() {
+        return capabilities.supportsPaymentMethods(Provider.PAYSTACK, methods)
+            && capabilities.supportsCurrency(Provider.PAYSTACK, Currency.GHS)
+            && capabilities.supportsCountry(Provider.PAYSTACK, countryCode);
+    }
+
+    @Benchmark
+    public String countryParam() {
+        return capabilities.countryParam(countryCode);
+    }
+}
@@ -0,0 +1,55 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.Fixtures;
+import co.paydeck.model.deposit.CheckoutRequest;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Checkout payload encoding into a reused buffer, so only the encoder's own allocation shows up
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutEncodingBenchmark {
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+    private CheckoutRequest request;
+
+    @Setup
+    public void setUp() {
+        request = Fixtures.checkoutRequest();
+    }
+
+    @Benchmark
+    public int paystackPayload() throws IOException {
+        buffer.reset();
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            PaystackCheckoutEncoder.payload(request).writeTo(generator);
+        }
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int flutterwavePayload() throws IOException {
+        buffer.reset();
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            FlutterwaveCheckoutEncoder.payload(request).writeTo(generator);
+        }
+        return buffer.size();
+    }
+}
@@ -0,0 +1,75 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.Fixtures;
+import co.paydeck.core.BaseDepositProvider;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.deposit.TransactionResponseData;
+import co.paydeck.util.HttpClient;
+import okhttp3.mockwebserver.MockWebServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code fetchTransaction}: request building, a loopback HTTP exchange, streaming
+ * decode and mapping. The providers hard-code their production base URL, so the client builder
+ * is subclassed to send them to the local stand-in instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class FetchTransactionBenchmark {
+    @Param({"paystack", "flutterwave"})
+    public String provider;
+
+    private MockWebServer server;
+    private BaseDepositProvider depositProvider;
+
+    @Setup
+    public void setUp() {
+        boolean paystack = provider.equals("paystack");
+        server = Fixtures.stubServer(paystack ? Fixtures.PAYSTACK_VERIFY : Fixtures.FLUTTERWAVE_VERIFY);
+        String baseUrl = Fixtures.baseUrl(server);
+
+        HttpClient.Builder clientBuilder = new HttpClient.Builder() {
+            @Override
+            public HttpClient.Builder baseUrl(String ignored) {
+                return super.baseUrl(baseUrl);
+            }
+        };
+        depositProvider = paystack
+            ? new PaystackProvider("sk_test_benchmark", clientBuilder)
+            : new FlutterwaveProvider("FLWSECK_TEST-benchmark", clientBuilder);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public PaydeckResponse<TransactionResponseData> fetchTransaction() {
+        return depositProvider.fetchTransaction("order-1042");
+    }
+
+    @Benchmark
+    public PaydeckResponse<TransactionResponseData> fetchTransactionAsync() {
+        return depositProvider.fetchTransactionAsync("order-1042").join();
+    }
+}
@@ -0,0 +1,72 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.Fixtures;
+import co.paydeck.model.deposit.TransactionResponseData;
+import co.paydeck.provider.dto.FlutterwaveTransaction;
+import co.paydeck.provider.dto.FlutterwaveTransactionResponse;
+import co.paydeck.provider.dto.PaystackTransaction;
+import co.paydeck.provider.dto.PaystackTransactionResponse;
+import co.paydeck.util.Timestamps;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+// DTO-to-model mapping and timestamp parsing, with the JSON already decoded
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionMappingBenchmark {
+    private PaystackTransaction paystackTransaction;
+    private FlutterwaveTransaction flutterwaveTransaction;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        paystackTransaction = objectMapper
+            .readValue(Fixtures.PAYSTACK_VERIFY, PaystackTransactionResponse.class)
+            .getData();
+        flutterwaveTransaction = objectMapper
+            .readValue(Fixtures.FLUTTERWAVE_VERIFY, FlutterwaveTransactionResponse.class)
+            .getData();
+    }
+
+    @Benchmark
+    public TransactionResponseData paystackTransactionResponseData() {
+        return PaystackTransactionMapper.toTransactionResponseData(paystackTransaction);
+    }
+
+    @Benchmark
+    public TransactionResponseData flutterwaveTransactionResponseData() {
+        return FlutterwaveTransactionMapper.toTransactionResponseData(flutterwaveTransaction);
+    }
+
+    @Benchmark
+    public OffsetDateTime paystackTransactionDate() {
+        return Timestamps.parse(paystackTransaction.getPaidAt());
+    }
+
+    @Benchmark
+    public OffsetDateTime flutterwaveTransactionDate() {
+        return Timestamps.parse(flutterwaveTransaction.getCreatedAt());
+    }
+
+    // Malformed input used to cost a thrown DateTimeParseException; now it is rejected in a few compares
+    @Benchmark
+    public OffsetDateTime malformedTransactionDate() {
+        return Timestamps.parse("22/08/2024 09:15");
+    }
+}
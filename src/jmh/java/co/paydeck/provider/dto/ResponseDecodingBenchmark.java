@@ -0,0 +1,66 @@
+package co.paydeck.provider.dto;
+
+import co.paydeck.Fixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a verify response into the typed DTO straight from bytes, against the earlier approach
+ * of buffering the body into a String and reading it into a Map. Compare gc.alloc.rate.norm to see
+ * what skipping the unmapped sub-trees saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseDecodingBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectReader paystackReader;
+    private ObjectReader flutterwaveReader;
+    private byte[] paystackBody;
+    private byte[] flutterwaveBody;
+
+    @Setup
+    public void setUp() {
+        paystackReader = objectMapper.readerFor(PaystackTransactionResponse.class);
+        flutterwaveReader = objectMapper.readerFor(FlutterwaveTransactionResponse.class);
+        paystackBody = Fixtures.PAYSTACK_VERIFY.getBytes(StandardCharsets.UTF_8);
+        flutterwaveBody = Fixtures.FLUTTERWAVE_VERIFY.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public PaystackTransactionResponse paystackTyped() throws IOException {
+        return paystackReader.readValue(paystackBody);
+    }
+
+    @Benchmark
+    public Map<?, ?> paystackStringToMap() throws IOException {
+        return objectMapper.readValue(new String(paystackBody, StandardCharsets.UTF_8), Map.class);
+    }
+
+    @Benchmark
+    public FlutterwaveTransactionResponse flutterwaveTyped() throws IOException {
+        return flutterwaveReader.readValue(flutterwaveBody);
+    }
+
+    @Benchmark
+    public Map<?, ?> flutterwaveStringToMap() throws IOException {
+        return objectMapper.readValue(new String(flutterwaveBody, StandardCharsets.UTF_8), Map.class);
+    }
+}
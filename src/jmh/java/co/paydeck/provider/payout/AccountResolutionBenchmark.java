@@ -0,0 +1,121 @@
+package co.paydeck.provider.payout;
+
+import co.paydeck.Fixtures;
+import co.paydeck.core.BasePayoutProvider;
+import co.paydeck.core.CachingPayoutProvider;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
+import co.paydeck.util.ConcurrentBatch;
+import co.paydeck.util.HttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving a bulk upload of {@code rows} rows that name {@code accounts} distinct accounts, against
+ * a stand-in {@code /bank/resolve} that answers after {@code latencyMillis}. {@code perRow} calls the
+ * provider once per row, {@code deduplicated} once per distinct account, and {@code cachedUpload}
+ * is next month's upload through a warmed {@link CachingPayoutProvider}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AccountResolutionBenchmark {
+    @Param({"2000"})
+    public int rows;
+
+    @Param({"200"})
+    public int accounts;
+
+    @Param({"20"})
+    public int latencyMillis;
+
+    private MockWebServer server;
+    private PaystackProvider provider;
+    private CachingPayoutProvider cachingProvider;
+    private List<AccountResolutionRequest> upload;
+    private List<Integer> rowIndexes;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS)
+                    .setBody("{\"status\":true,\"message\":\"Account number resolved\","
+                        + "\"data\":{\"account_number\":\"0123456789\",\"account_name\":\"ADA OBI\",\"bank_id\":9}}");
+            }
+        });
+        server.start();
+        String baseUrl = Fixtures.baseUrl(server);
+        HttpClient.Builder clientBuilder = new HttpClient.Builder() {
+            @Override
+            public HttpClient.Builder baseUrl(String ignored) {
+                return super.baseUrl(baseUrl);
+            }
+        };
+        provider = new PaystackProvider("sk_test_benchmark", clientBuilder);
+        cachingProvider = CachingPayoutProvider.builder().delegate(provider).build();
+
+        upload = new ArrayList<>(rows);
+        rowIndexes = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            upload.add(AccountResolutionRequest.builder()
+                .bankCode("058")
+                .accountNumber(String.format("%010d", i % accounts))
+                .build());
+            rowIndexes.add(i);
+        }
+        cachingProvider.resolveAccounts(upload);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Map<Integer, PaydeckResponse<AccountResolutionData>> perRow() {
+        return ConcurrentBatch.run(
+            rowIndexes,
+            BasePayoutProvider.DEFAULT_BATCH_CONCURRENCY,
+            row -> provider.resolveAccountAsync(upload.get(row)),
+            (row, error) -> PaydeckResponse.<AccountResolutionData>error("PROVIDER_ERROR", error.getMessage())
+        ).join();
+    }
+
+    @Benchmark
+    public Map<AccountResolutionRequest, PaydeckResponse<AccountResolutionData>> deduplicated() {
+        return provider.resolveAccounts(upload);
+    }
+
+    @Benchmark
+    public Map<AccountResolutionRequest, PaydeckResponse<AccountResolutionData>> cachedUpload() {
+        return cachingProvider.resolveAccounts(upload);
+    }
+}
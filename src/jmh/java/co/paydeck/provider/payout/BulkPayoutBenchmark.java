@@ -0,0 +1,149 @@
+package co.paydeck.provider.payout;
+
+import co.paydeck.Fixtures;
+import co.paydeck.core.BasePayoutProvider;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.util.ConcurrentBatch;
+import co.paydeck.util.HttpClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A payroll run against a stand-in that answers every request after {@code latencyMillis}, the
+ * way a remote API does. The per-transfer baseline sends one {@code /transfer} per payout with
+ * {@link BasePayoutProvider#DEFAULT_BATCH_CONCURRENCY} in flight; the bulk path sends chunks of
+ * {@link PaystackProvider#BULK_TRANSFER_LIMIT} with {@link BasePayoutProvider#DEFAULT_BULK_CONCURRENCY}
+ * in flight. Scale the single-shot times by 50k / transfers for a full payroll.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkPayoutBenchmark {
+    @Param({"5000"})
+    public int transfers;
+
+    @Param({"20"})
+    public int latencyMillis;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockWebServer server;
+    private PaystackProvider provider;
+    private List<PayoutRequest> requests;
+    private Map<String, PayoutRequest> byReference;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return echo(request);
+            }
+        });
+        server.start();
+        String baseUrl = Fixtures.baseUrl(server);
+        HttpClient.Builder clientBuilder = new HttpClient.Builder() {
+            @Override
+            public HttpClient.Builder baseUrl(String ignored) {
+                return super.baseUrl(baseUrl);
+            }
+        };
+        provider = new PaystackProvider("sk_test_benchmark", clientBuilder);
+
+        requests = new ArrayList<>(transfers);
+        byReference = new LinkedHashMap<>();
+        for (int i = 0; i < transfers; i++) {
+            PayoutRequest request = PayoutRequest.builder()
+                .merchantTransactionReference("salary-" + i)
+                .amount(new BigDecimal("250000.00"))
+                .recipientCode("RCP_" + i)
+                .narration("October salary")
+                .build();
+            requests.add(request);
+            byReference.put(request.getMerchantTransactionReference(), request);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    // Queues every transfer in the body and echoes it back, single or bulk
+    private MockResponse echo(RecordedRequest request) {
+        StringBuilder body = new StringBuilder("{\"status\":true,\"message\":\"Queued\",\"data\":");
+        try {
+            JsonNode payload = objectMapper.readTree(request.getBody().readUtf8());
+            JsonNode transfers = payload.get("transfers");
+            if (transfers == null) {
+                appendTransfer(body, payload);
+            } else {
+                body.append('[');
+                for (int i = 0; i < transfers.size(); i++) {
+                    if (i > 0) {
+                        body.append(',');
+                    }
+                    appendTransfer(body, transfers.get(i));
+                }
+                body.append(']');
+            }
+        } catch (IOException e) {
+            return new MockResponse().setResponseCode(500);
+        }
+        return new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS)
+            .setBody(body.append('}').toString());
+    }
+
+    private static void appendTransfer(StringBuilder body, JsonNode transfer) {
+        String reference = transfer.get("reference").asText();
+        body.append("{\"reference\":\"").append(reference)
+            .append("\",\"amount\":").append(transfer.get("amount").asLong())
+            .append(",\"currency\":\"NGN\",\"status\":\"received\",\"transfer_code\":\"TRF_")
+            .append(reference).append("\"}");
+    }
+
+    @Benchmark
+    public Map<String, PaydeckResponse<TransactionResponseData>> perTransfer() {
+        return ConcurrentBatch.run(
+            byReference.keySet(),
+            BasePayoutProvider.DEFAULT_BATCH_CONCURRENCY,
+            reference -> provider.initiatePayoutAsync(byReference.get(reference)),
+            (reference, error) -> PaydeckResponse.<TransactionResponseData>error("PROVIDER_ERROR", error.getMessage())
+        ).join();
+    }
+
+    @Benchmark
+    public Map<String, PaydeckResponse<TransactionResponseData>> bulk() {
+        return provider.initiateBulkPayout(requests);
+    }
+}
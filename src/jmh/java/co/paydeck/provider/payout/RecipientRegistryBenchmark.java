@@ -0,0 +1,77 @@
+package co.paydeck.provider.payout;
+
+import co.paydeck.model.Currency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recipient lookups against a registry of {@code recipients} beneficiaries, and the cost of
+ * reading the whole file back on startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RecipientRegistryBenchmark {
+    @Param({"1000000"})
+    public int recipients;
+
+    private Path file;
+    private RecipientRegistry registry;
+    private String[] accountNumbers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("recipients", ".tsv");
+        accountNumbers = new String[recipients];
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < recipients; i++) {
+                accountNumbers[i] = String.format("%010d", i * 7L);
+                writer.write("058\t" + accountNumbers[i] + "\tNGN\tRCP_" + Integer.toHexString(i) + "\n");
+            }
+        }
+        registry = RecipientRegistry.open(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        registry.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String lookup() {
+        String accountNumber = accountNumbers[next];
+        next = next + 1 == accountNumbers.length ? 0 : next + 1;
+        return registry.get("058", accountNumber, Currency.NGN);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int open() throws IOException {
+        try (RecipientRegistry reopened = RecipientRegistry.open(file)) {
+            return reopened.size();
+        }
+    }
+}
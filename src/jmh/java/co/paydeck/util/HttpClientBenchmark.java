@@ -0,0 +1,85 @@
+package co.paydeck.util;
+
+import co.paydeck.Fixtures;
+import co.paydeck.provider.dto.PaystackInitializeResponse;
+import co.paydeck.provider.dto.PaystackTransactionResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// JSON decode and encode through HttpClient over loopback HTTP
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpClientBenchmark {
+    private MockWebServer verifyServer;
+    private MockWebServer initializeServer;
+    private HttpClient verifyClient;
+    private HttpClient initializeClient;
+    private Map<String, Object> objectBody;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        verifyServer = Fixtures.stubServer(Fixtures.PAYSTACK_VERIFY);
+        initializeServer = Fixtures.stubServer(Fixtures.PAYSTACK_INITIALIZE);
+        verifyClient = HttpClient.builder().baseUrl(Fixtures.baseUrl(verifyServer)).build();
+        initializeClient = HttpClient.builder().baseUrl(Fixtures.baseUrl(initializeServer)).build();
+
+        objectBody = new LinkedHashMap<>();
+        objectBody.put("reference", "order-1042");
+        objectBody.put("amount", 4000000);
+        objectBody.put("email", "demo@test.com");
+        objectBody.put("currency", "NGN");
+        objectBody.put("channels", new String[] {"card", "bank_transfer"});
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        verifyServer.shutdown();
+        initializeServer.shutdown();
+    }
+
+    @Benchmark
+    public PaystackTransactionResponse decodeTypedResponse() throws IOException {
+        return verifyClient.get("/transaction/verify/order-1042", PaystackTransactionResponse.class);
+    }
+
+    @Benchmark
+    public PaystackInitializeResponse encodeStreamingPayload() throws IOException {
+        JsonPayload payload = generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("reference", "order-1042");
+            generator.writeNumberField("amount", 4000000);
+            generator.writeStringField("email", "demo@test.com");
+            generator.writeStringField("currency", "NGN");
+            generator.writeArrayFieldStart("channels");
+            generator.writeString("card");
+            generator.writeString("bank_transfer");
+            generator.writeEndArray();
+            generator.writeEndObject();
+        };
+        return initializeClient.post("/transaction/initialize", payload, PaystackInitializeResponse.class);
+    }
+
+    @Benchmark
+    public PaystackInitializeResponse encodeObjectBody() throws IOException {
+        return initializeClient.post("/transaction/initialize", objectBody, PaystackInitializeResponse.class);
+    }
+}
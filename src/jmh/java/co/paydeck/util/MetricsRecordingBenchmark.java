@@ -0,0 +1,53 @@
+package co.paydeck.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+// The recording path taken for every HTTP phase; gc.alloc.rate.norm should read close to zero
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class MetricsRecordingBenchmark {
+    private final Endpoint endpoint = Endpoint.of("paystack", "verify", "/transaction/verify/{reference}");
+    private final InMemoryMetrics metrics = new InMemoryMetrics();
+
+    // Spreads samples across buckets; per thread so the benchmark itself adds no contention
+    @State(Scope.Thread)
+    public static class Samples {
+        private long seed = 1;
+
+        long next() {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            return seed >>> 40;
+        }
+    }
+
+    @Benchmark
+    public void recordPhase(Samples samples) {
+        metrics.recordPhase(endpoint, RequestPhase.SERVER, samples.next());
+    }
+
+    @Benchmark
+    public void recordCall() {
+        metrics.callStarted(endpoint);
+        metrics.callEnded(endpoint, 200, 1_500_000);
+    }
+
+    @Benchmark
+    public boolean matchTemplate() {
+        return endpoint.matches("/transaction/verify/order-1042");
+    }
+}
@@ -0,0 +1,82 @@
+package co.paydeck.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a reconciliation export's worth of provider timestamps. The formatter variant is what
+ * the mappers used to do: {@code DateTimeFormatter.ISO_DATE_TIME} with a caught exception for
+ * every malformed value. {@code malformedPercent} controls how many values take that path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimestampParsingBenchmark {
+    private static final DateTimeFormatter PROVIDER_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+
+    @Param({"1000000"})
+    public int timestamps;
+
+    @Param({"0", "5"})
+    public int malformedPercent;
+
+    private String[] values;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        values = new String[timestamps];
+        for (int i = 0; i < timestamps; i++) {
+            OffsetDateTime timestamp = start
+                .plusSeconds(random.nextLong(365L * 24 * 3600))
+                .plusNanos(random.nextInt(1000) * 1_000_000L)
+                .atOffset(random.nextInt(4) == 0 ? ZoneOffset.ofHours(1) : ZoneOffset.UTC);
+            values[i] = random.nextInt(100) < malformedPercent
+                ? timestamp.toLocalDate().toString().replace('-', '/')
+                : timestamp.format(PROVIDER_FORMAT);
+        }
+    }
+
+    @Benchmark
+    public long timestamps() {
+        long checksum = 0;
+        for (String value : values) {
+            OffsetDateTime parsed = Timestamps.parse(value);
+            checksum += parsed == null ? -1 : parsed.toEpochSecond();
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long isoDateTimeFormatter() {
+        long checksum = 0;
+        for (String value : values) {
+            try {
+                checksum += LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME).toEpochSecond(ZoneOffset.UTC);
+            } catch (DateTimeParseException e) {
+                checksum--;
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,68 @@
+package co.paydeck.util;
+
+import co.paydeck.util.TransactionJournal.Operation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What journaling adds to one request: a durable intent followed by its outcome. With one caller
+ * every intent pays for its own sync; with {@code 64} callers the syncs are shared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionJournalBenchmark {
+    private final AtomicLong sequence = new AtomicLong();
+    private Path file;
+    private TransactionJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("journal", ".log");
+        journal = TransactionJournal.open(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(file);
+    }
+
+    private boolean journalRequest() {
+        String reference = "pay-" + sequence.incrementAndGet();
+        boolean started = journal.begin(Operation.PAYOUT, reference).join();
+        journal.complete(Operation.PAYOUT, reference);
+        return started;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean singleCaller() {
+        return journalRequest();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean concurrentCallers() {
+        return journalRequest();
+    }
+}
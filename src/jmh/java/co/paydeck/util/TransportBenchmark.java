@@ -0,0 +1,68 @@
+package co.paydeck.util;
+
+import co.paydeck.Fixtures;
+import co.paydeck.provider.dto.PaystackTransactionResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A client on the shared transport, which reuses pooled connections, against a client built on a
+ * fresh transport per call, which pays a connection setup every time as the SDK did before the
+ * transport was shared. The stand-in speaks plain HTTP, so the gap is the TCP handshake and pool
+ * construction; against TLS endpoints it is larger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+    private MockWebServer server;
+    private String baseUrl;
+    private HttpClient sharedClient;
+
+    @Setup
+    public void setUp() {
+        server = Fixtures.stubServer(Fixtures.PAYSTACK_VERIFY);
+        baseUrl = Fixtures.baseUrl(server);
+        sharedClient = HttpClient.builder().baseUrl(baseUrl).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public PaystackTransactionResponse sharedTransport() throws IOException {
+        return sharedClient.get("/transaction/verify/order-1042", PaystackTransactionResponse.class);
+    }
+
+    @Benchmark
+    public PaystackTransactionResponse dedicatedTransportPerCall() throws IOException {
+        HttpTransport transport = HttpTransport.builder().build();
+        try {
+            return HttpClient.builder()
+                .baseUrl(baseUrl)
+                .transport(transport)
+                .build()
+                .get("/transaction/verify/order-1042", PaystackTransactionResponse.class);
+        } finally {
+            transport.getConnectionPool().evictAll();
+            transport.getDispatcher().executorService().shutdown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package co.paydeck.webhook;
+
+import co.paydeck.model.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook intake on the request thread: signature check, parse, deduplication and enqueue.
+ * Deliveries cycle through more distinct transactions than the deduplication window holds, so
+ * receives mostly take the accepted path instead of short-circuiting as duplicates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class WebhookProcessorBenchmark {
+    private static final String SECRET = "sk_test_benchmark";
+    private static final int DELIVERIES = 8192;
+
+    private WebhookProcessor processor;
+    private byte[][] bodies;
+    private String[] signatures;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        processor = WebhookProcessor.builder()
+            .paystackSecretKey(SECRET)
+            .handler(events -> { })
+            .queueCapacity(1 << 16)
+            .deduplicationWindow(DELIVERIES / 4)
+            .build();
+
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        bodies = new byte[DELIVERIES][];
+        signatures = new String[DELIVERIES];
+        for (int i = 0; i < DELIVERIES; i++) {
+            bodies[i] = ("{\"event\":\"charge.success\",\"data\":{\"id\":" + (300000 + i) + ","
+                + "\"status\":\"success\",\"reference\":\"order-" + i + "\",\"amount\":150000,\"fees\":2250,"
+                + "\"currency\":\"NGN\",\"channel\":\"card\",\"paid_at\":\"2024-01-15T10:30:00.000Z\","
+                + "\"customer\":{\"email\":\"a@b.co\"},\"authorization\":{\"authorization_code\":\"AUTH_x\","
+                + "\"card_type\":\"visa\",\"last4\":\"4081\"}}}").getBytes(StandardCharsets.UTF_8);
+            signatures[i] = HexFormat.of().formatHex(mac.doFinal(bodies[i]));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        processor.close();
+    }
+
+    @Benchmark
+    public WebhookResult receive(Cursor cursor) {
+        int i = cursor.next++ & (DELIVERIES - 1);
+        return processor.receive(Provider.PAYSTACK, bodies[i], signatures[i]);
+    }
+}
@@ -1,17 +1,97 @@
 package co.paydeck;
 
 import co.paydeck.core.BaseDepositProvider;
+import co.paydeck.core.BasePayoutProvider;
+import co.paydeck.core.CircuitBreakerDepositProvider;
+import co.paydeck.core.ExecutorDepositProvider;
+import co.paydeck.core.ExecutorPayoutProvider;
+import co.paydeck.core.FailoverDepositProvider;
+import co.paydeck.core.RoutingDepositProvider;
 import co.paydeck.model.Provider;
 import co.paydeck.provider.deposit.FlutterwaveProvider;
 import co.paydeck.provider.deposit.PaystackProvider;
+import co.paydeck.util.CircuitBreaker;
+import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpTransport;
+import co.paydeck.util.ProviderExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public class ProviderBuilder {
 
     public static BaseDepositProvider buildProvider(Provider provider, String apiKey) {
-        return switch (provider.getCode()) {
-            case "flutterwave" -> new FlutterwaveProvider(apiKey);
-            case "paystack" -> new PaystackProvider(apiKey);
-            default -> throw new IllegalArgumentException("Unsupported provider: " + provider);
+        return buildProvider(provider, apiKey, HttpClient.builder());
+    }
+
+    public static BaseDepositProvider buildProvider(Provider provider, String apiKey, HttpTransport transport) {
+        return buildProvider(provider, apiKey, HttpClient.builder().transport(transport));
+    }
+
+    public static BaseDepositProvider buildProvider(Provider provider, String apiKey, ProviderExecutor executor) {
+        BaseDepositProvider delegate = buildProvider(provider, apiKey, executionModeFor(executor));
+        return new ExecutorDepositProvider(delegate, executor);
+    }
+
+    public static BaseDepositProvider buildProvider(Provider provider, String apiKey,
+            HttpClient.Builder httpClientBuilder) {
+        return switch (provider) {
+            case FLUTTERWAVE -> new FlutterwaveProvider(apiKey, httpClientBuilder);
+            case PAYSTACK -> new PaystackProvider(apiKey, httpClientBuilder);
+        };
+    }
+
+    // Providers are tried in the map's iteration order, so pass a LinkedHashMap with the primary first
+    public static BaseDepositProvider buildFailoverProvider(Map<Provider, String> apiKeys) {
+        return buildFailoverProvider(apiKeys, CircuitBreaker.builder());
+    }
+
+    public static BaseDepositProvider buildFailoverProvider(Map<Provider, String> apiKeys,
+            CircuitBreaker.Builder circuitBreakerBuilder) {
+        List<CircuitBreakerDepositProvider> providers = new ArrayList<>();
+        apiKeys.forEach((provider, apiKey) -> providers.add(new CircuitBreakerDepositProvider(
+            buildProvider(provider, apiKey),
+            circuitBreakerBuilder.build()
+        )));
+        return new FailoverDepositProvider(providers);
+    }
+
+    public static BaseDepositProvider buildRoutingProvider(Map<Provider, String> apiKeys) {
+        return buildRoutingProvider(apiKeys, CircuitBreaker.builder(), RoutingDepositProvider.builder());
+    }
+
+    // Each provider keeps its own circuit breaker, so an open circuit moves traffic to the next best provider
+    public static BaseDepositProvider buildRoutingProvider(Map<Provider, String> apiKeys,
+            CircuitBreaker.Builder circuitBreakerBuilder, RoutingDepositProvider.Builder routingBuilder) {
+        apiKeys.forEach((provider, apiKey) -> routingBuilder.provider(new CircuitBreakerDepositProvider(
+            buildProvider(provider, apiKey),
+            circuitBreakerBuilder.build()
+        )));
+        return routingBuilder.build();
+    }
+
+    public static BasePayoutProvider buildPayoutProvider(Provider provider, String apiKey) {
+        return buildPayoutProvider(provider, apiKey, HttpClient.builder());
+    }
+
+    public static BasePayoutProvider buildPayoutProvider(Provider provider, String apiKey,
+            ProviderExecutor executor) {
+        BasePayoutProvider delegate = buildPayoutProvider(provider, apiKey, executionModeFor(executor));
+        return new ExecutorPayoutProvider(delegate, executor);
+    }
+
+    public static BasePayoutProvider buildPayoutProvider(Provider provider, String apiKey,
+            HttpClient.Builder httpClientBuilder) {
+        return switch (provider) {
+            case PAYSTACK -> new co.paydeck.provider.payout.PaystackProvider(apiKey, httpClientBuilder);
+            default -> throw new IllegalArgumentException("Unsupported payout provider: " + provider);
         };
     }
+
+    private static HttpClient.Builder executionModeFor(ProviderExecutor executor) {
+        return HttpClient.builder().executionMode(executor.isVirtual()
+            ? HttpClient.ExecutionMode.VIRTUAL_THREAD
+            : HttpClient.ExecutionMode.BLOCKING);
+    }
 }
@@ -0,0 +1,142 @@
+package co.paydeck.core;
+
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Least-recently-used cache of account resolutions for {@link CachingPayoutProvider}.
+ *
+ * <p>Resolved names live for {@code ttl}. Accounts the provider reported as {@code INVALID_ACCOUNT}
+ * live for {@code invalidTtl}, so a bad row repeated across uploads is not looked up every time.
+ * Any other failure is not cached. Concurrent misses for the same account share one load.
+ */
+final class AccountResolutionCache {
+    private static final String INVALID_ACCOUNT = "INVALID_ACCOUNT";
+
+    private final long ttlMillis;
+    private final long invalidTtlMillis;
+    private final LongSupplier clock;
+    private final Map<AccountResolutionRequest, Entry> entries;
+    private final Map<AccountResolutionRequest, CompletableFuture<PaydeckResponse<AccountResolutionData>>> inFlight =
+        new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    AccountResolutionCache(int maximumSize, long ttlMillis, long invalidTtlMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.invalidTtlMillis = invalidTtlMillis;
+        this.clock = clock;
+        // Access order makes the eldest entry the least recently used one; guarded by itself
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AccountResolutionRequest, Entry> eldest) {
+                if (size() > maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    CompletableFuture<PaydeckResponse<AccountResolutionData>> get(AccountResolutionRequest request,
+            Function<AccountResolutionRequest, CompletableFuture<PaydeckResponse<AccountResolutionData>>> load) {
+        AccountResolutionRequest key = request.toBuilder().build();
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now < entry.expiresAt) {
+                    hits.increment();
+                    return CompletableFuture.completedFuture(entry.response);
+                }
+                entries.remove(key);
+            }
+        }
+
+        CompletableFuture<PaydeckResponse<AccountResolutionData>> promise = new CompletableFuture<>();
+        CompletableFuture<PaydeckResponse<AccountResolutionData>> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        misses.increment();
+
+        CompletableFuture<PaydeckResponse<AccountResolutionData>> fetch;
+        try {
+            fetch = load.apply(key);
+        } catch (RuntimeException e) {
+            fetch = CompletableFuture.failedFuture(e);
+        }
+
+        fetch.whenComplete((response, error) -> {
+            if (error == null) {
+                store(key, response);
+            }
+            inFlight.remove(key, promise);
+            if (error != null) {
+                promise.completeExceptionally(error);
+            } else {
+                promise.complete(response);
+            }
+        });
+        return promise;
+    }
+
+    void invalidate() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return CacheStats.builder()
+            .hits(hits.sum())
+            .misses(misses.sum())
+            .coalesced(coalesced.sum())
+            .evictions(evictions.sum())
+            .size(size)
+            .build();
+    }
+
+    private void store(AccountResolutionRequest key, PaydeckResponse<AccountResolutionData> response) {
+        long ttl;
+        if (response.isSuccess()) {
+            ttl = ttlMillis;
+        } else if (response.getError() != null && INVALID_ACCOUNT.equals(response.getError().getCode())) {
+            ttl = invalidTtlMillis;
+        } else {
+            return;
+        }
+        Entry entry = new Entry(response, clock.getAsLong() + ttl);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private static final class Entry {
+        private final PaydeckResponse<AccountResolutionData> response;
+        private final long expiresAt;
+
+        Entry(PaydeckResponse<AccountResolutionData> response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -2,17 +2,76 @@ package co.paydeck.core;
 
 import co.paydeck.model.deposit.*;
 import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.Currency;
 import co.paydeck.model.PaymentMethod;
+import co.paydeck.util.ConcurrentBatch;
+import co.paydeck.util.Futures;
 
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface BaseDepositProvider {
 
+    int DEFAULT_BATCH_CONCURRENCY = 16;
+
     String getProviderName();
 
     boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods);
 
+    default boolean supportsCurrency(Currency currency) {
+        return true;
+    }
+
+    default boolean supportsCountry(String countryCode) {
+        return true;
+    }
+
     PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request);
 
     PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference);
+
+    /**
+     * Lists transactions in the requested date range, newest first, fetching pages lazily as the
+     * stream is consumed. Close the stream (or use try-with-resources) when stopping early. A page
+     * that cannot be fetched ends the stream with an {@link java.io.UncheckedIOException}.
+     */
+    default Stream<TransactionResponseData> listTransactions(TransactionListRequest request) {
+        throw new UnsupportedOperationException(getProviderName() + " does not support listing transactions");
+    }
+
+    // Fallback for implementations without a non-blocking transport; runs the blocking call on the common pool
+    default CompletableFuture<PaydeckResponse<CheckoutResponseData>> initiateCheckoutAsync(CheckoutRequest request) {
+        return CompletableFuture.supplyAsync(() -> initiateCheckout(request));
+    }
+
+    default CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return CompletableFuture.supplyAsync(() -> fetchTransaction(merchantTransactionReference));
+    }
+
+    default Map<String, PaydeckResponse<TransactionResponseData>> fetchTransactions(Collection<String> references) {
+        return fetchTransactions(references, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    default Map<String, PaydeckResponse<TransactionResponseData>> fetchTransactions(Collection<String> references,
+            int maxConcurrency) {
+        return Futures.join(fetchTransactionsAsync(references, maxConcurrency));
+    }
+
+    // Results are keyed by merchant reference in input order; a failed lookup becomes an error entry
+    default CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> fetchTransactionsAsync(
+            Collection<String> references, int maxConcurrency) {
+        return ConcurrentBatch.run(
+            references,
+            maxConcurrency,
+            this::fetchTransactionAsync,
+            (reference, error) -> PaydeckResponse.error(
+                "PROVIDER_ERROR",
+                "Failed to fetch transaction " + reference + ": " + error.getMessage()
+            )
+        );
+    }
 }
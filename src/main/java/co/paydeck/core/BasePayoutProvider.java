@@ -1,16 +1,28 @@
 package co.paydeck.core;
 
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
 import co.paydeck.model.payout.BanksRequest;
 import co.paydeck.model.payout.BanksResponseData;
 import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.payout.TransactionResponseData;
 import co.paydeck.model.common.PaydeckResponse;
-import co.paydeck.model.deposit.TransactionResponseData;
 import co.paydeck.model.PaymentMethod;
+import co.paydeck.util.ConcurrentBatch;
+import co.paydeck.util.Futures;
 
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface BasePayoutProvider {
 
+    int DEFAULT_BATCH_CONCURRENCY = 16;
+
+    int DEFAULT_BULK_CONCURRENCY = 4;
+
     String getProviderName();
 
     boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods);
@@ -21,4 +33,98 @@ public interface BasePayoutProvider {
 
     PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference);
 
+    // An account the bank does not know is an error with code INVALID_ACCOUNT
+    PaydeckResponse<AccountResolutionData> resolveAccount(AccountResolutionRequest request);
+
+    // Fallback for implementations without a non-blocking transport; runs the blocking call on the common pool
+    default CompletableFuture<PaydeckResponse<BanksResponseData>> getBanksAsync(BanksRequest request) {
+        return CompletableFuture.supplyAsync(() -> getBanks(request));
+    }
+
+    default CompletableFuture<PaydeckResponse<TransactionResponseData>> initiatePayoutAsync(PayoutRequest request) {
+        return CompletableFuture.supplyAsync(() -> initiatePayout(request));
+    }
+
+    default CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return CompletableFuture.supplyAsync(() -> fetchTransaction(merchantTransactionReference));
+    }
+
+    default CompletableFuture<PaydeckResponse<AccountResolutionData>> resolveAccountAsync(
+            AccountResolutionRequest request) {
+        return CompletableFuture.supplyAsync(() -> resolveAccount(request));
+    }
+
+    default Map<AccountResolutionRequest, PaydeckResponse<AccountResolutionData>> resolveAccounts(
+            Collection<AccountResolutionRequest> requests) {
+        return Futures.join(resolveAccountsAsync(requests, DEFAULT_BATCH_CONCURRENCY));
+    }
+
+    // Identical accounts in the batch are resolved once; results are keyed by request in input order
+    default CompletableFuture<Map<AccountResolutionRequest, PaydeckResponse<AccountResolutionData>>> resolveAccountsAsync(
+            Collection<AccountResolutionRequest> requests, int maxConcurrency) {
+        return ConcurrentBatch.run(
+            requests,
+            maxConcurrency,
+            this::resolveAccountAsync,
+            (request, error) -> PaydeckResponse.error(
+                "PROVIDER_ERROR",
+                "Failed to resolve account " + request.getAccountNumber() + ": " + error.getMessage()
+            )
+        );
+    }
+
+    default Map<String, PaydeckResponse<TransactionResponseData>> initiateBulkPayout(Collection<PayoutRequest> requests) {
+        return Futures.join(initiateBulkPayoutAsync(requests, DEFAULT_BULK_CONCURRENCY));
+    }
+
+    /**
+     * Submits many payouts, with at most {@code maxConcurrency} provider calls in flight. Results are
+     * keyed by merchant reference in input order, and a payout that could not be submitted becomes
+     * an error entry instead of failing the batch. Providers with a bulk-transfer API send the
+     * payouts in chunks of the provider's limit, so {@code maxConcurrency} caps chunks rather than
+     * single transfers. References must be unique within a batch.
+     */
+    default CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> initiateBulkPayoutAsync(
+            Collection<PayoutRequest> requests, int maxConcurrency) {
+        Map<String, PayoutRequest> byReference = new LinkedHashMap<>();
+        for (PayoutRequest request : requests) {
+            if (byReference.put(request.getMerchantTransactionReference(), request) != null) {
+                throw new IllegalArgumentException(
+                    "Duplicate payout reference: " + request.getMerchantTransactionReference());
+            }
+        }
+        return ConcurrentBatch.run(
+            byReference.keySet(),
+            maxConcurrency,
+            reference -> initiatePayoutAsync(byReference.get(reference)),
+            (reference, error) -> PaydeckResponse.error(
+                "PROVIDER_ERROR",
+                "Failed to initiate payout " + reference + ": " + error.getMessage()
+            )
+        );
+    }
+
+    default Map<String, PaydeckResponse<TransactionResponseData>> fetchTransactions(Collection<String> references) {
+        return fetchTransactions(references, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    default Map<String, PaydeckResponse<TransactionResponseData>> fetchTransactions(Collection<String> references,
+            int maxConcurrency) {
+        return Futures.join(fetchTransactionsAsync(references, maxConcurrency));
+    }
+
+    // Results are keyed by merchant reference in input order; a failed lookup becomes an error entry
+    default CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> fetchTransactionsAsync(
+            Collection<String> references, int maxConcurrency) {
+        return ConcurrentBatch.run(
+            references,
+            maxConcurrency,
+            this::fetchTransactionAsync,
+            (reference, error) -> PaydeckResponse.error(
+                "PROVIDER_ERROR",
+                "Failed to fetch transaction " + reference + ": " + error.getMessage()
+            )
+        );
+    }
 }
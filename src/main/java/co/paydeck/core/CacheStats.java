@@ -0,0 +1,14 @@
+package co.paydeck.core;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CacheStats {
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+    private long size;
+}
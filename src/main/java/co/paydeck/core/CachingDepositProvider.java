@@ -0,0 +1,267 @@
+package co.paydeck.core;
+
+import co.paydeck.model.deposit.*;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.Currency;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.util.Futures;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Caches successful {@code fetchTransaction} results by merchant reference and coalesces
+ * concurrent lookups of the same reference into one upstream call.
+ *
+ * <p>Terminal statuses cannot change, so they live for {@code terminalTtl}. {@code PENDING}
+ * results live for {@code pendingTtl} only. Errors are never cached.
+ *
+ * <p>Memory is bounded by {@code maximumSize} with first-in, first-out eviction: every insert
+ * queues its entry, and once the queue is full the oldest entry is dropped if it is still the
+ * cached one. No lock is taken on reads or inserts.
+ */
+public class CachingDepositProvider implements BaseDepositProvider {
+    private final BaseDepositProvider delegate;
+    private final long terminalTtlNanos;
+    private final long pendingTtlNanos;
+    private final int maximumSize;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<PaydeckResponse<TransactionResponseData>>> inFlight =
+        new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CachingDepositProvider(Builder builder) {
+        this.delegate = builder.delegate;
+        this.terminalTtlNanos = builder.terminalTtl.toNanos();
+        this.pendingTtlNanos = builder.pendingTtl.toNanos();
+        this.maximumSize = builder.maximumSize;
+        this.nanoClock = builder.nanoClock;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public CacheStats getStats() {
+        return CacheStats.builder()
+            .hits(hits.sum())
+            .misses(misses.sum())
+            .coalesced(coalesced.sum())
+            .evictions(evictions.sum())
+            .size(entries.size())
+            .build();
+    }
+
+    public void invalidate(String merchantTransactionReference) {
+        entries.remove(merchantTransactionReference);
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+        return delegate.supportsPaymentMethods(methods);
+    }
+
+    @Override
+    public boolean supportsCurrency(Currency currency) {
+        return delegate.supportsCurrency(currency);
+    }
+
+    @Override
+    public boolean supportsCountry(String countryCode) {
+        return delegate.supportsCountry(countryCode);
+    }
+
+    @Override
+    public Stream<TransactionResponseData> listTransactions(TransactionListRequest request) {
+        return delegate.listTransactions(request);
+    }
+
+    // A new checkout may reuse a reference, so any cached lookup of it is dropped
+    @Override
+    public PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request) {
+        invalidate(request.getReference());
+        return delegate.initiateCheckout(request);
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<CheckoutResponseData>> initiateCheckoutAsync(CheckoutRequest request) {
+        invalidate(request.getReference());
+        return delegate.initiateCheckoutAsync(request);
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        PaydeckResponse<TransactionResponseData> cached = lookup(merchantTransactionReference);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> promise = new CompletableFuture<>();
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> existing =
+            inFlight.putIfAbsent(merchantTransactionReference, promise);
+        if (existing != null) {
+            coalesced.increment();
+            return Futures.join(existing);
+        }
+
+        // The leader makes the blocking call on its own thread; followers wait on the promise
+        misses.increment();
+        try {
+            PaydeckResponse<TransactionResponseData> response = delegate.fetchTransaction(merchantTransactionReference);
+            complete(merchantTransactionReference, promise, response, null);
+            return response;
+        } catch (RuntimeException e) {
+            complete(merchantTransactionReference, promise, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        PaydeckResponse<TransactionResponseData> cached = lookup(merchantTransactionReference);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> promise = new CompletableFuture<>();
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> existing =
+            inFlight.putIfAbsent(merchantTransactionReference, promise);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        misses.increment();
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> call;
+        try {
+            call = delegate.fetchTransactionAsync(merchantTransactionReference);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((response, error) -> complete(merchantTransactionReference, promise, response, error));
+        return promise;
+    }
+
+    private PaydeckResponse<TransactionResponseData> lookup(String reference) {
+        Entry entry = entries.get(reference);
+        if (entry != null && nanoClock.getAsLong() - entry.expiresAt < 0) {
+            hits.increment();
+            return entry.response;
+        }
+        return null;
+    }
+
+    private void complete(String reference, CompletableFuture<PaydeckResponse<TransactionResponseData>> promise,
+            PaydeckResponse<TransactionResponseData> response, Throwable error) {
+        if (error == null) {
+            store(reference, response);
+        }
+        inFlight.remove(reference, promise);
+        if (error != null) {
+            promise.completeExceptionally(error);
+        } else {
+            promise.complete(response);
+        }
+    }
+
+    private void store(String reference, PaydeckResponse<TransactionResponseData> response) {
+        if (!response.isSuccess() || response.getData() == null || response.getData().getStatus() == null) {
+            return;
+        }
+
+        long ttl = response.getData().getStatus() == TransactionStatus.PENDING ? pendingTtlNanos : terminalTtlNanos;
+        Entry entry = new Entry(reference, response, nanoClock.getAsLong() + ttl);
+        entries.put(reference, entry);
+        insertionOrder.add(entry);
+
+        // Replaced entries still hold a queue slot until they reach the head, so size <= maximumSize
+        if (queued.incrementAndGet() > maximumSize) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest != null) {
+                queued.decrementAndGet();
+                if (entries.remove(oldest.reference, oldest)) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String reference;
+        private final PaydeckResponse<TransactionResponseData> response;
+        private final long expiresAt;
+
+        Entry(String reference, PaydeckResponse<TransactionResponseData> response, long expiresAt) {
+            this.reference = reference;
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static class Builder {
+        private BaseDepositProvider delegate;
+        private Duration terminalTtl = Duration.ofHours(1);
+        private Duration pendingTtl = Duration.ofSeconds(2);
+        private int maximumSize = 10_000;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        public Builder delegate(BaseDepositProvider delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        public Builder terminalTtl(Duration terminalTtl) {
+            this.terminalTtl = terminalTtl;
+            return this;
+        }
+
+        public Builder pendingTtl(Duration pendingTtl) {
+            this.pendingTtl = pendingTtl;
+            return this;
+        }
+
+        public Builder maximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public CachingDepositProvider build() {
+            if (delegate == null) {
+                throw new IllegalStateException("delegate is required");
+            }
+            if (maximumSize < 1) {
+                throw new IllegalStateException("maximumSize must be positive");
+            }
+            return new CachingDepositProvider(this);
+        }
+    }
+}
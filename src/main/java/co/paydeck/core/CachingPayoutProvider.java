@@ -0,0 +1,405 @@
+package co.paydeck.core;
+
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
+import co.paydeck.model.payout.BanksRequest;
+import co.paydeck.model.payout.BanksResponseData;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.util.Futures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches bank directories from {@link BasePayoutProvider#getBanks}, keyed by every
+ * {@link BanksRequest} filter. Payouts and verifications pass straight through.
+ *
+ * <ul>
+ *   <li>Younger than {@code refreshAfter}: served from memory.</li>
+ *   <li>Between {@code refreshAfter} and {@code ttl}: served from memory while one background
+ *       fetch refreshes it.</li>
+ *   <li>Older than {@code ttl}: fetched again. If that fetch fails, the old list is still served
+ *       for up to {@code maxStale} past its ttl.</li>
+ * </ul>
+ *
+ * <p>Concurrent misses for the same key share one fetch. At most {@code maxBankLists} keys are
+ * kept; past that the least recently fetched list is dropped. With a snapshot file the cache is
+ * written to disk after successful fetches and read back on construction, so a restart can serve
+ * banks without touching the network. One background thread writes snapshots for every cache, and
+ * fetches that finish while a write is pending share it.
+ *
+ * <p>Account resolutions are kept in a separate least-recently-used cache of up to
+ * {@code accountCacheSize} accounts, with invalid accounts remembered for {@code invalidAccountTtl}.
+ */
+public class CachingPayoutProvider implements BasePayoutProvider {
+    private static final ExecutorService SNAPSHOT_WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "paydeck-bank-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final BasePayoutProvider delegate;
+    private final long ttlMillis;
+    private final long refreshAfterMillis;
+    private final long maxStaleMillis;
+    private final int maxBankLists;
+    private final LongSupplier clock;
+    private final Path snapshotFile;
+    private final ObjectMapper objectMapper;
+    private final AccountResolutionCache accounts;
+
+    private final Map<BanksRequest, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<BanksRequest, CompletableFuture<PaydeckResponse<BanksResponseData>>> loads =
+        new ConcurrentHashMap<>();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+    private CachingPayoutProvider(Builder builder) {
+        this.delegate = builder.delegate;
+        this.ttlMillis = builder.ttl.toMillis();
+        this.refreshAfterMillis = builder.refreshAfter.toMillis();
+        this.maxStaleMillis = builder.maxStale.toMillis();
+        this.maxBankLists = builder.maxBankLists;
+        this.clock = builder.clock;
+        this.snapshotFile = builder.snapshotFile;
+        this.objectMapper = builder.objectMapper;
+        this.accounts = new AccountResolutionCache(builder.accountCacheSize, builder.accountTtl.toMillis(),
+            builder.invalidAccountTtl.toMillis(), builder.clock);
+
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            loadSnapshot();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public void invalidateBanks() {
+        entries.clear();
+    }
+
+    public void invalidateAccounts() {
+        accounts.invalidate();
+    }
+
+    public CacheStats getAccountStats() {
+        return accounts.stats();
+    }
+
+    // Completes once the bank lists cached so far are on disk, e.g. before shutting down
+    public CompletableFuture<Void> flushSnapshot() {
+        return CompletableFuture.runAsync(this::writeSnapshot, SNAPSHOT_WRITER);
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+        return delegate.supportsPaymentMethods(methods);
+    }
+
+    @Override
+    public PaydeckResponse<BanksResponseData> getBanks(BanksRequest request) {
+        return Futures.join(getBanksAsync(request));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<BanksResponseData>> getBanksAsync(BanksRequest request) {
+        BanksRequest key = normalise(request);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long age = clock.getAsLong() - entry.fetchedAt;
+            if (age < ttlMillis) {
+                if (age >= refreshAfterMillis) {
+                    load(key);
+                }
+                return CompletableFuture.completedFuture(PaydeckResponse.success(entry.banks));
+            }
+        }
+
+        return load(key).handle((response, error) -> {
+            Entry stale = entries.get(key);
+            boolean failed = error != null || !response.isSuccess();
+            if (failed && stale != null && clock.getAsLong() - stale.fetchedAt < ttlMillis + maxStaleMillis) {
+                return CompletableFuture.completedFuture(PaydeckResponse.success(stale.banks));
+            }
+            return error != null
+                ? CompletableFuture.<PaydeckResponse<BanksResponseData>>failedFuture(Futures.unwrap(error))
+                : CompletableFuture.completedFuture(response);
+        }).thenCompose(Function.identity());
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> initiatePayout(PayoutRequest request) {
+        return delegate.initiatePayout(request);
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        return delegate.fetchTransaction(merchantTransactionReference);
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> initiatePayoutAsync(PayoutRequest request) {
+        return delegate.initiatePayoutAsync(request);
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return delegate.fetchTransactionAsync(merchantTransactionReference);
+    }
+
+    @Override
+    public PaydeckResponse<AccountResolutionData> resolveAccount(AccountResolutionRequest request) {
+        return Futures.join(resolveAccountAsync(request));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<AccountResolutionData>> resolveAccountAsync(
+            AccountResolutionRequest request) {
+        return accounts.get(request, delegate::resolveAccountAsync);
+    }
+
+    // Forwarded so a provider's bulk-transfer API is used instead of one call per payout
+    @Override
+    public CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> initiateBulkPayoutAsync(
+            Collection<PayoutRequest> requests, int maxConcurrency) {
+        return delegate.initiateBulkPayoutAsync(requests, maxConcurrency);
+    }
+
+    // Single flight: the first caller starts the fetch, everyone else for the same key joins it
+    private CompletableFuture<PaydeckResponse<BanksResponseData>> load(BanksRequest key) {
+        CompletableFuture<PaydeckResponse<BanksResponseData>> promise = new CompletableFuture<>();
+        CompletableFuture<PaydeckResponse<BanksResponseData>> existing = loads.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture<PaydeckResponse<BanksResponseData>> fetch;
+        try {
+            fetch = delegate.getBanksAsync(key);
+        } catch (RuntimeException e) {
+            fetch = CompletableFuture.failedFuture(e);
+        }
+
+        fetch.whenComplete((response, error) -> {
+            if (error == null && response.isSuccess()) {
+                store(key, new Entry(response.getData(), clock.getAsLong()));
+                scheduleSave();
+            }
+            loads.remove(key, promise);
+            if (error != null) {
+                promise.completeExceptionally(error);
+            } else {
+                promise.complete(response);
+            }
+        });
+        return promise;
+    }
+
+    // Country codes are case-insensitive, so "ng" and "NG" share one entry
+    private static BanksRequest normalise(BanksRequest request) {
+        BanksRequest.BanksRequestBuilder key = request.toBuilder();
+        if (request.getCountryCode() != null) {
+            key.countryCode(request.getCountryCode().trim().toUpperCase(Locale.ROOT));
+        }
+        return key.build();
+    }
+
+    // Cursor pages make the key space open-ended, so the least recently fetched list makes room
+    private void store(BanksRequest key, Entry entry) {
+        entries.put(key, entry);
+        while (entries.size() > maxBankLists) {
+            BanksRequest oldest = null;
+            long oldestFetchedAt = Long.MAX_VALUE;
+            for (Map.Entry<BanksRequest, Entry> candidate : entries.entrySet()) {
+                if (candidate.getValue().fetchedAt < oldestFetchedAt && !candidate.getKey().equals(key)) {
+                    oldest = candidate.getKey();
+                    oldestFetchedAt = candidate.getValue().fetchedAt;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest);
+        }
+    }
+
+    private void loadSnapshot() {
+        try {
+            Snapshot snapshot = objectMapper.readValue(snapshotFile.toFile(), Snapshot.class);
+            for (SnapshotEntry entry : snapshot.getEntries()) {
+                store(normalise(entry.getRequest()), new Entry(entry.getBanks(), entry.getFetchedAt()));
+            }
+        } catch (IOException e) {
+            // A corrupt or unreadable snapshot only costs a network fetch
+        }
+    }
+
+    // Runs off the fetch's completion thread. The flag is cleared before the entries are copied,
+    // so a fetch finishing during the write schedules one more
+    private void scheduleSave() {
+        if (snapshotFile != null && saveScheduled.compareAndSet(false, true)) {
+            SNAPSHOT_WRITER.execute(() -> {
+                saveScheduled.set(false);
+                writeSnapshot();
+            });
+        }
+    }
+
+    // Write to a sibling file and rename, so a crash mid-write never leaves a torn snapshot.
+    // Only the writer thread calls this
+    private void writeSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+
+        List<SnapshotEntry> snapshotEntries = new ArrayList<>(entries.size());
+        entries.forEach((request, entry) ->
+            snapshotEntries.add(new SnapshotEntry(request, entry.fetchedAt, entry.banks)));
+        try {
+            Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), new Snapshot(snapshotEntries));
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The in-memory cache stays correct; the next successful fetch tries again
+        }
+    }
+
+    private static final class Entry {
+        private final BanksResponseData banks;
+        private final long fetchedAt;
+
+        Entry(BanksResponseData banks, long fetchedAt) {
+            this.banks = banks;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class Snapshot {
+        private List<SnapshotEntry> entries;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class SnapshotEntry {
+        private BanksRequest request;
+        private long fetchedAt;
+        private BanksResponseData banks;
+    }
+
+    public static class Builder {
+        private BasePayoutProvider delegate;
+        private Duration ttl = Duration.ofHours(24);
+        private Duration refreshAfter = Duration.ofHours(20);
+        private Duration maxStale = Duration.ofDays(7);
+        private LongSupplier clock = System::currentTimeMillis;
+        private Path snapshotFile;
+        private ObjectMapper objectMapper = new ObjectMapper();
+        private int maxBankLists = 256;
+        private int accountCacheSize = 100_000;
+        private Duration accountTtl = Duration.ofDays(7);
+        private Duration invalidAccountTtl = Duration.ofHours(1);
+
+        public Builder delegate(BasePayoutProvider delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        public Builder refreshAfter(Duration refreshAfter) {
+            this.refreshAfter = refreshAfter;
+            return this;
+        }
+
+        public Builder maxStale(Duration maxStale) {
+            this.maxStale = maxStale;
+            return this;
+        }
+
+        // Wall-clock milliseconds; snapshot ages must survive a restart
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder snapshotFile(Path snapshotFile) {
+            this.snapshotFile = snapshotFile;
+            return this;
+        }
+
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        public Builder maxBankLists(int maxBankLists) {
+            this.maxBankLists = maxBankLists;
+            return this;
+        }
+
+        public Builder accountCacheSize(int accountCacheSize) {
+            this.accountCacheSize = accountCacheSize;
+            return this;
+        }
+
+        public Builder accountTtl(Duration accountTtl) {
+            this.accountTtl = accountTtl;
+            return this;
+        }
+
+        // Shorter than accountTtl, since a mistyped account may be opened or corrected later
+        public Builder invalidAccountTtl(Duration invalidAccountTtl) {
+            this.invalidAccountTtl = invalidAccountTtl;
+            return this;
+        }
+
+        public CachingPayoutProvider build() {
+            if (delegate == null) {
+                throw new IllegalStateException("delegate is required");
+            }
+            if (accountCacheSize < 1 || maxBankLists < 1) {
+                throw new IllegalStateException("accountCacheSize and maxBankLists must be positive");
+            }
+            if (refreshAfter.compareTo(ttl) > 0) {
+                throw new IllegalStateException("refreshAfter must not exceed ttl");
+            }
+            return new CachingPayoutProvider(this);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package co.paydeck.core;
+
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.deposit.CheckoutResponseData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers which provider created each checkout, so verification asks that provider instead of
+ * trying every one in turn and counting the misses against the others. Bounded to the
+ * {@code capacity} most recently used references; an evicted one falls back to trying in order.
+ */
+final class CheckoutOwners {
+    private final Map<String, String> owners;
+
+    CheckoutOwners(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        // Access order makes the eldest entry the least recently used one; guarded by itself
+        this.owners = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // The provider named in the checkout wins; a provider that leaves it empty is named by the caller
+    void remember(String reference, PaydeckResponse<CheckoutResponseData> response, String providerName) {
+        if (reference == null || !response.isSuccess()) {
+            return;
+        }
+        String owner = response.getData() != null && response.getData().getProvider() != null
+            ? response.getData().getProvider()
+            : providerName;
+        synchronized (owners) {
+            owners.put(reference, owner);
+        }
+    }
+
+    String ownerOf(String reference) {
+        synchronized (owners) {
+            return owners.get(reference);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package co.paydeck.core;
+
+import co.paydeck.model.deposit.*;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.Currency;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.util.CircuitBreaker;
+import co.paydeck.util.Futures;
+
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+public class CircuitBreakerDepositProvider implements BaseDepositProvider {
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+
+    private final BaseDepositProvider delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerDepositProvider(BaseDepositProvider delegate, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+        return delegate.supportsPaymentMethods(methods);
+    }
+
+    @Override
+    public boolean supportsCurrency(Currency currency) {
+        return delegate.supportsCurrency(currency);
+    }
+
+    @Override
+    public boolean supportsCountry(String countryCode) {
+        return delegate.supportsCountry(countryCode);
+    }
+
+    @Override
+    public Stream<TransactionResponseData> listTransactions(TransactionListRequest request) {
+        return delegate.listTransactions(request);
+    }
+
+    @Override
+    public PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request) {
+        return call(() -> delegate.initiateCheckout(request));
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        return call(() -> delegate.fetchTransaction(merchantTransactionReference));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<CheckoutResponseData>> initiateCheckoutAsync(CheckoutRequest request) {
+        return callAsync(() -> delegate.initiateCheckoutAsync(request));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return callAsync(() -> delegate.fetchTransactionAsync(merchantTransactionReference));
+    }
+
+    private <T> PaydeckResponse<T> call(Supplier<PaydeckResponse<T>> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return circuitOpen();
+        }
+
+        long start = circuitBreaker.now();
+        try {
+            PaydeckResponse<T> response = call.get();
+            record(response, null, start);
+            return response;
+        } catch (RuntimeException e) {
+            record(null, e, start);
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<PaydeckResponse<T>> callAsync(Supplier<CompletableFuture<PaydeckResponse<T>>> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.completedFuture(circuitOpen());
+        }
+
+        long start = circuitBreaker.now();
+        CompletableFuture<PaydeckResponse<T>> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            record(null, e, start);
+            throw e;
+        }
+        return future.whenComplete((response, error) -> record(response, error, start));
+    }
+
+    // A provider that answered, even with a rejection, is up; only outages count against it
+    private void record(PaydeckResponse<?> response, Throwable error, long start) {
+        long duration = circuitBreaker.now() - start;
+        boolean failed = error != null
+            ? ProviderFailures.isOutage(Futures.unwrap(error))
+            : ProviderFailures.isOutage(response);
+
+        if (failed) {
+            circuitBreaker.onError(duration);
+        } else if (error == null && (response.isSuccess() || response.getError().getProviderCode() != null)) {
+            circuitBreaker.onSuccess(duration);
+        } else {
+            circuitBreaker.onIgnored();
+        }
+    }
+
+    private <T> PaydeckResponse<T> circuitOpen() {
+        return PaydeckResponse.error(
+            CIRCUIT_OPEN,
+            "Circuit breaker for " + getProviderName() + " is open"
+        );
+    }
+}
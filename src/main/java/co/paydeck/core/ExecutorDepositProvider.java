@@ -0,0 +1,68 @@
+package co.paydeck.core;
+
+import co.paydeck.model.deposit.*;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.Currency;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.util.Futures;
+import co.paydeck.util.ProviderExecutor;
+
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+public class ExecutorDepositProvider implements BaseDepositProvider {
+    private final BaseDepositProvider delegate;
+    private final ProviderExecutor executor;
+
+    public ExecutorDepositProvider(BaseDepositProvider delegate, ProviderExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+        return delegate.supportsPaymentMethods(methods);
+    }
+
+    @Override
+    public boolean supportsCurrency(Currency currency) {
+        return delegate.supportsCurrency(currency);
+    }
+
+    @Override
+    public boolean supportsCountry(String countryCode) {
+        return delegate.supportsCountry(countryCode);
+    }
+
+    @Override
+    public Stream<TransactionResponseData> listTransactions(TransactionListRequest request) {
+        return delegate.listTransactions(request);
+    }
+
+    @Override
+    public PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request) {
+        return Futures.join(initiateCheckoutAsync(request));
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        return Futures.join(fetchTransactionAsync(merchantTransactionReference));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<CheckoutResponseData>> initiateCheckoutAsync(CheckoutRequest request) {
+        return executor.submit(() -> delegate.initiateCheckout(request));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return executor.submit(() -> delegate.fetchTransaction(merchantTransactionReference));
+    }
+}
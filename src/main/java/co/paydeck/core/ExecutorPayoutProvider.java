@@ -0,0 +1,77 @@
+package co.paydeck.core;
+
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
+import co.paydeck.model.payout.BanksRequest;
+import co.paydeck.model.payout.BanksResponseData;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.util.Futures;
+import co.paydeck.util.ProviderExecutor;
+
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+
+public class ExecutorPayoutProvider implements BasePayoutProvider {
+    private final BasePayoutProvider delegate;
+    private final ProviderExecutor executor;
+
+    public ExecutorPayoutProvider(BasePayoutProvider delegate, ProviderExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+        return delegate.supportsPaymentMethods(methods);
+    }
+
+    @Override
+    public PaydeckResponse<BanksResponseData> getBanks(BanksRequest request) {
+        return Futures.join(getBanksAsync(request));
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> initiatePayout(PayoutRequest request) {
+        return Futures.join(initiatePayoutAsync(request));
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        return Futures.join(fetchTransactionAsync(merchantTransactionReference));
+    }
+
+    @Override
+    public PaydeckResponse<AccountResolutionData> resolveAccount(AccountResolutionRequest request) {
+        return Futures.join(resolveAccountAsync(request));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<BanksResponseData>> getBanksAsync(BanksRequest request) {
+        return executor.submit(() -> delegate.getBanks(request));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> initiatePayoutAsync(PayoutRequest request) {
+        return executor.submit(() -> delegate.initiatePayout(request));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return executor.submit(() -> delegate.fetchTransaction(merchantTransactionReference));
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<AccountResolutionData>> resolveAccountAsync(
+            AccountResolutionRequest request) {
+        return executor.submit(() -> delegate.resolveAccount(request));
+    }
+}
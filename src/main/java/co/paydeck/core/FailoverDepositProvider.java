@@ -0,0 +1,182 @@
+package co.paydeck.core;
+
+import co.paydeck.model.deposit.*;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.Currency;
+import co.paydeck.model.PaymentMethod;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Sends each call to the first provider, in priority order, whose circuit is not open.
+ *
+ * <p>Checkouts only go to providers that support the requested payment methods. Verification
+ * asks the provider that created the checkout. A reference it does not remember, one of more than
+ * {@code checkoutOwnerCapacity} checkouts ago or from another process, is tried on each provider
+ * in order until one returns the transaction.
+ */
+public class FailoverDepositProvider implements BaseDepositProvider {
+    private static final int DEFAULT_CHECKOUT_OWNER_CAPACITY = 10_000;
+
+    private final List<CircuitBreakerDepositProvider> providers;
+    private final CheckoutOwners owners;
+
+    public FailoverDepositProvider(List<CircuitBreakerDepositProvider> providers) {
+        this(providers, DEFAULT_CHECKOUT_OWNER_CAPACITY);
+    }
+
+    public FailoverDepositProvider(List<CircuitBreakerDepositProvider> providers, int checkoutOwnerCapacity) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one provider is required");
+        }
+        this.providers = List.copyOf(providers);
+        this.owners = new CheckoutOwners(checkoutOwnerCapacity);
+    }
+
+    public List<CircuitBreakerDepositProvider> getProviders() {
+        return providers;
+    }
+
+    @Override
+    public String getProviderName() {
+        return providers.get(0).getProviderName();
+    }
+
+    @Override
+    public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+        for (BaseDepositProvider provider : providers) {
+            if (provider.supportsPaymentMethods(methods)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean supportsCurrency(Currency currency) {
+        for (BaseDepositProvider provider : providers) {
+            if (provider.supportsCurrency(currency)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean supportsCountry(String countryCode) {
+        for (BaseDepositProvider provider : providers) {
+            if (provider.supportsCountry(countryCode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Every provider may hold transactions, so their listings are concatenated in configuration order
+    @Override
+    public Stream<TransactionResponseData> listTransactions(TransactionListRequest request) {
+        return providers.stream().flatMap(provider -> provider.listTransactions(request));
+    }
+
+    @Override
+    public PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request) {
+        PaydeckResponse<CheckoutResponseData> last = null;
+        for (BaseDepositProvider provider : providers) {
+            if (!provider.supportsPaymentMethods(request.getPaymentMethods())) {
+                continue;
+            }
+            last = provider.initiateCheckout(request);
+            if (!isCircuitOpen(last)) {
+                owners.remember(request.getReference(), last, provider.getProviderName());
+                return last;
+            }
+        }
+        return last != null ? last : unsupportedPaymentMethod();
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        BaseDepositProvider owner = ownerOf(merchantTransactionReference);
+        if (owner != null) {
+            return owner.fetchTransaction(merchantTransactionReference);
+        }
+        PaydeckResponse<TransactionResponseData> last = null;
+        for (BaseDepositProvider provider : providers) {
+            last = provider.fetchTransaction(merchantTransactionReference);
+            if (last.isSuccess()) {
+                return last;
+            }
+        }
+        return last;
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<CheckoutResponseData>> initiateCheckoutAsync(CheckoutRequest request) {
+        return checkoutFrom(0, request, null);
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        BaseDepositProvider owner = ownerOf(merchantTransactionReference);
+        if (owner != null) {
+            return owner.fetchTransactionAsync(merchantTransactionReference);
+        }
+        return fetchFrom(0, merchantTransactionReference);
+    }
+
+    private CompletableFuture<PaydeckResponse<CheckoutResponseData>> checkoutFrom(int index, CheckoutRequest request,
+            PaydeckResponse<CheckoutResponseData> last) {
+        for (int i = index; i < providers.size(); i++) {
+            BaseDepositProvider provider = providers.get(i);
+            if (!provider.supportsPaymentMethods(request.getPaymentMethods())) {
+                continue;
+            }
+
+            int next = i + 1;
+            return provider.initiateCheckoutAsync(request).thenCompose(response -> {
+                if (isCircuitOpen(response)) {
+                    return checkoutFrom(next, request, response);
+                }
+                owners.remember(request.getReference(), response, provider.getProviderName());
+                return CompletableFuture.completedFuture(response);
+            });
+        }
+        return CompletableFuture.completedFuture(last != null ? last : unsupportedPaymentMethod());
+    }
+
+    private CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchFrom(int index, String reference) {
+        return providers.get(index).fetchTransactionAsync(reference).thenCompose(response ->
+            response.isSuccess() || index + 1 == providers.size()
+                ? CompletableFuture.completedFuture(response)
+                : fetchFrom(index + 1, reference));
+    }
+
+    // Only the provider that created the checkout can hold it
+    private BaseDepositProvider ownerOf(String reference) {
+        String owner = owners.ownerOf(reference);
+        if (owner != null) {
+            for (BaseDepositProvider provider : providers) {
+                if (provider.getProviderName().equals(owner)) {
+                    return provider;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isCircuitOpen(PaydeckResponse<?> response) {
+        return !response.isSuccess()
+            && CircuitBreakerDepositProvider.CIRCUIT_OPEN.equals(response.getError().getCode());
+    }
+
+    private PaydeckResponse<CheckoutResponseData> unsupportedPaymentMethod() {
+        return PaydeckResponse.error(
+            "UNSUPPORTED_PAYMENT_METHOD",
+            "none of the configured providers supports the requested payment methods"
+        );
+    }
+}
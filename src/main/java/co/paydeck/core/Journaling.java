@@ -0,0 +1,105 @@
+package co.paydeck.core;
+
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.util.ConcurrentBatch;
+import co.paydeck.util.Futures;
+import co.paydeck.util.HttpException;
+import co.paydeck.util.TransactionJournal;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Shared rules for JournalingDepositProvider and JournalingPayoutProvider
+final class Journaling {
+    static final String IN_DOUBT = "IN_DOUBT";
+    static final String NOT_FOUND = "NOT_FOUND";
+    private static final String PROVIDER_ERROR = "PROVIDER_ERROR";
+
+    private Journaling() {
+    }
+
+    /**
+     * Whether the response settles the reference. Successes do, and so do rejections: a 4xx other
+     * than a 408, a body with {@code status: false}, or an error raised before anything was sent.
+     * A transport failure, a 5xx or a 408 may or may not have reached the provider, and
+     * {@code IN_DOUBT} says so outright.
+     */
+    static boolean isDefinitive(PaydeckResponse<?> response) {
+        if (response == null) {
+            return false;
+        }
+        if (response.isSuccess()) {
+            return true;
+        }
+        PaydeckResponse.ErrorData error = response.getError();
+        if (error == null || IN_DOUBT.equals(error.getCode())) {
+            return false;
+        }
+        if (error.getHttpStatus() != null) {
+            int status = error.getHttpStatus();
+            return status >= 400 && status < 500 && status != 408;
+        }
+        return error.getProviderCode() != null || !PROVIDER_ERROR.equals(error.getCode());
+    }
+
+    static <T> PaydeckResponse<T> inDoubt(String kind, String reference) {
+        return PaydeckResponse.error(IN_DOUBT, kind + " " + reference
+            + " is already in flight or in doubt; recover it before sending it again");
+    }
+
+    static <T> void settle(TransactionJournal journal, TransactionJournal.Operation operation, String reference,
+            PaydeckResponse<T> response) {
+        if (isDefinitive(response)) {
+            journal.complete(operation, reference);
+        }
+    }
+
+    /**
+     * Looks up every in-doubt reference with the provider and closes those it gives a definitive
+     * answer for. A reference the provider rejects with a 4xx was never received and comes back as
+     * {@code NOT_FOUND}, so it is safe to send again. Auth errors, throttling, 5xx and transport
+     * failures say nothing about the reference, which stays in doubt.
+     */
+    static <T> CompletableFuture<Map<String, PaydeckResponse<T>>> recover(TransactionJournal journal,
+            TransactionJournal.Operation operation, int maxConcurrency,
+            Function<String, CompletableFuture<PaydeckResponse<T>>> fetch) {
+        return ConcurrentBatch.run(
+            journal.inDoubt(operation),
+            maxConcurrency,
+            reference -> fetch.apply(reference)
+                .exceptionally(error -> rethrowUnlessRejected(reference, Futures.unwrap(error)))
+                .thenApply(response -> {
+                    PaydeckResponse<T> recovered = notFound(reference, response);
+                    if (recovered.isSuccess() || NOT_FOUND.equals(recovered.getError().getCode())) {
+                        journal.complete(operation, reference);
+                    }
+                    return recovered;
+                }),
+            (reference, error) -> PaydeckResponse.error(
+                PROVIDER_ERROR,
+                "Failed to recover " + reference + ": " + error.getMessage()
+            )
+        );
+    }
+
+    private static <T> PaydeckResponse<T> notFound(String reference, PaydeckResponse<T> response) {
+        Integer status = response.isSuccess() ? null : response.getError().getHttpStatus();
+        if (status == null || !HttpException.isRejection(status)) {
+            return response;
+        }
+        return PaydeckResponse.httpError(NOT_FOUND, "Provider has no record of " + reference,
+            status, response.getError().getProviderMessage());
+    }
+
+    // For delegates that fail the lookup with an HttpException instead of answering with its status
+    private static <T> PaydeckResponse<T> rethrowUnlessRejected(String reference, Throwable error) {
+        if (error instanceof HttpException && HttpException.isRejection(((HttpException) error).getStatusCode())) {
+            HttpException http = (HttpException) error;
+            return PaydeckResponse.httpError(PROVIDER_ERROR, "Provider rejected lookup of " + reference,
+                http.getStatusCode(), http.getResponseBody());
+        }
+        throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+    }
+}
@@ -0,0 +1,104 @@
+package co.paydeck.core;
+
+import co.paydeck.model.deposit.*;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.Currency;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.util.Futures;
+import co.paydeck.util.TransactionJournal;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Journals every checkout in a {@link TransactionJournal} before it is sent. The intent is durable
+ * before the provider sees the request, and a definitive answer closes it. A reference still open
+ * is refused with {@code IN_DOUBT} instead of being sent twice.
+ *
+ * <p>Call {@link #recover()} on startup, before taking traffic, to settle checkouts a previous
+ * process left in doubt.
+ */
+public class JournalingDepositProvider implements BaseDepositProvider {
+    private static final TransactionJournal.Operation CHECKOUT = TransactionJournal.Operation.CHECKOUT;
+
+    private final BaseDepositProvider delegate;
+    private final TransactionJournal journal;
+
+    public JournalingDepositProvider(BaseDepositProvider delegate, TransactionJournal journal) {
+        this.delegate = delegate;
+        this.journal = journal;
+    }
+
+    /**
+     * Looks up every checkout left in doubt. A settled reference maps to the provider's transaction,
+     * or to {@code NOT_FOUND} when the provider never received it and it can be sent again. A
+     * {@code PROVIDER_ERROR} entry could not be checked and is still in doubt.
+     */
+    public CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> recover() {
+        return Journaling.recover(journal, CHECKOUT, DEFAULT_BATCH_CONCURRENCY, delegate::fetchTransactionAsync);
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+        return delegate.supportsPaymentMethods(methods);
+    }
+
+    @Override
+    public boolean supportsCurrency(Currency currency) {
+        return delegate.supportsCurrency(currency);
+    }
+
+    @Override
+    public boolean supportsCountry(String countryCode) {
+        return delegate.supportsCountry(countryCode);
+    }
+
+    @Override
+    public Stream<TransactionResponseData> listTransactions(TransactionListRequest request) {
+        return delegate.listTransactions(request);
+    }
+
+    @Override
+    public PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request) {
+        String reference = request.getReference();
+        if (!Futures.join(journal.begin(CHECKOUT, reference))) {
+            return Journaling.inDoubt("Checkout", reference);
+        }
+        PaydeckResponse<CheckoutResponseData> response = delegate.initiateCheckout(request);
+        Journaling.settle(journal, CHECKOUT, reference, response);
+        return response;
+    }
+
+    // The call is chained asynchronously so it does not run on the journal's flusher thread
+    @Override
+    public CompletableFuture<PaydeckResponse<CheckoutResponseData>> initiateCheckoutAsync(CheckoutRequest request) {
+        String reference = request.getReference();
+        return journal.begin(CHECKOUT, reference).thenComposeAsync(started -> {
+            if (!started) {
+                return CompletableFuture.completedFuture(Journaling.inDoubt("Checkout", reference));
+            }
+            return delegate.initiateCheckoutAsync(request).thenApply(response -> {
+                Journaling.settle(journal, CHECKOUT, reference, response);
+                return response;
+            });
+        });
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        return delegate.fetchTransaction(merchantTransactionReference);
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return delegate.fetchTransactionAsync(merchantTransactionReference);
+    }
+}
@@ -0,0 +1,177 @@
+package co.paydeck.core;
+
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
+import co.paydeck.model.payout.BanksRequest;
+import co.paydeck.model.payout.BanksResponseData;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.util.Futures;
+import co.paydeck.util.TransactionJournal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Journals every payout in a {@link TransactionJournal} before it is sent. The intent is durable
+ * before the provider sees the request, and a definitive answer closes it. A reference still open
+ * is refused with {@code IN_DOUBT} instead of being paid twice.
+ *
+ * <p>Bulk payouts journal every intent first, so the whole batch shares a handful of syncs, and
+ * are then forwarded to the delegate's bulk API.
+ *
+ * <p>Call {@link #recover()} on startup, before taking traffic, to settle payouts a previous
+ * process left in doubt.
+ */
+public class JournalingPayoutProvider implements BasePayoutProvider {
+    private static final TransactionJournal.Operation PAYOUT = TransactionJournal.Operation.PAYOUT;
+
+    private final BasePayoutProvider delegate;
+    private final TransactionJournal journal;
+
+    public JournalingPayoutProvider(BasePayoutProvider delegate, TransactionJournal journal) {
+        this.delegate = delegate;
+        this.journal = journal;
+    }
+
+    /**
+     * Looks up every payout left in doubt. A settled reference maps to the provider's transfer, or
+     * to {@code NOT_FOUND} when the provider never received it and it can be sent again. A
+     * {@code PROVIDER_ERROR} entry could not be checked and is still in doubt.
+     */
+    public CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> recover() {
+        return Journaling.recover(journal, PAYOUT, DEFAULT_BATCH_CONCURRENCY, delegate::fetchTransactionAsync);
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+        return delegate.supportsPaymentMethods(methods);
+    }
+
+    @Override
+    public PaydeckResponse<BanksResponseData> getBanks(BanksRequest request) {
+        return delegate.getBanks(request);
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<BanksResponseData>> getBanksAsync(BanksRequest request) {
+        return delegate.getBanksAsync(request);
+    }
+
+    @Override
+    public PaydeckResponse<AccountResolutionData> resolveAccount(AccountResolutionRequest request) {
+        return delegate.resolveAccount(request);
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<AccountResolutionData>> resolveAccountAsync(
+            AccountResolutionRequest request) {
+        return delegate.resolveAccountAsync(request);
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> initiatePayout(PayoutRequest request) {
+        String reference = request.getMerchantTransactionReference();
+        if (!Futures.join(journal.begin(PAYOUT, reference))) {
+            return Journaling.inDoubt("Payout", reference);
+        }
+        PaydeckResponse<TransactionResponseData> response = delegate.initiatePayout(request);
+        Journaling.settle(journal, PAYOUT, reference, response);
+        return response;
+    }
+
+    // The call is chained asynchronously so it does not run on the journal's flusher thread
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> initiatePayoutAsync(PayoutRequest request) {
+        String reference = request.getMerchantTransactionReference();
+        return journal.begin(PAYOUT, reference).thenComposeAsync(started -> {
+            if (!started) {
+                return CompletableFuture.completedFuture(Journaling.inDoubt("Payout", reference));
+            }
+            return delegate.initiatePayoutAsync(request).thenApply(response -> {
+                Journaling.settle(journal, PAYOUT, reference, response);
+                return response;
+            });
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> initiateBulkPayoutAsync(
+            Collection<PayoutRequest> requests, int maxConcurrency) {
+        Map<String, PayoutRequest> byReference = new LinkedHashMap<>();
+        for (PayoutRequest request : requests) {
+            if (byReference.put(request.getMerchantTransactionReference(), request) != null) {
+                throw new IllegalArgumentException(
+                    "Duplicate payout reference: " + request.getMerchantTransactionReference());
+            }
+        }
+
+        // Every intent is appended before any is awaited, so the batch shares the same few syncs.
+        // A reference that could not be journaled maps to its refusal; a started one maps to null
+        Map<String, CompletableFuture<PaydeckResponse<TransactionResponseData>>> refusals = new LinkedHashMap<>();
+        for (String reference : byReference.keySet()) {
+            refusals.put(reference, journal.begin(PAYOUT, reference).handle((started, error) -> {
+                if (error != null) {
+                    return PaydeckResponse.<TransactionResponseData>error(
+                        "PROVIDER_ERROR",
+                        "Failed to journal payout " + reference + ": " + Futures.unwrap(error).getMessage()
+                    );
+                }
+                return started ? null : Journaling.<TransactionResponseData>inDoubt("Payout", reference);
+            }));
+        }
+
+        return CompletableFuture.allOf(refusals.values().toArray(new CompletableFuture<?>[0]))
+            .thenComposeAsync(ignored -> {
+                List<PayoutRequest> started = new ArrayList<>(byReference.size());
+                refusals.forEach((reference, refusal) -> {
+                    if (refusal.join() == null) {
+                        started.add(byReference.get(reference));
+                    }
+                });
+                CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> sent = started.isEmpty()
+                    ? CompletableFuture.completedFuture(Map.of())
+                    : delegate.initiateBulkPayoutAsync(started, maxConcurrency);
+                return sent.thenApply(results -> {
+                    Map<String, PaydeckResponse<TransactionResponseData>> merged = new LinkedHashMap<>();
+                    refusals.forEach((reference, refusal) -> {
+                        PaydeckResponse<TransactionResponseData> result = results.get(reference);
+                        if (result != null) {
+                            Journaling.settle(journal, PAYOUT, reference, result);
+                            merged.put(reference, result);
+                        } else if (refusal.join() != null) {
+                            merged.put(reference, refusal.join());
+                        } else {
+                            // Sent but not answered for, so it stays in doubt
+                            merged.put(reference, PaydeckResponse.error(
+                                "PROVIDER_ERROR", "No result for payout " + reference));
+                        }
+                    });
+                    return merged;
+                });
+            });
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        return delegate.fetchTransaction(merchantTransactionReference);
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return delegate.fetchTransactionAsync(merchantTransactionReference);
+    }
+}
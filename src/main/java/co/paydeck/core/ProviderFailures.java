@@ -0,0 +1,40 @@
+package co.paydeck.core;
+
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.util.HttpException;
+
+// How the decorators read a failed call: whether it says anything about the provider's health
+final class ProviderFailures {
+    private static final String PROVIDER_ERROR = "PROVIDER_ERROR";
+
+    private ProviderFailures() {
+    }
+
+    /**
+     * Whether a response points at an unhealthy provider: no answer at all, a 5xx, a 408 or a 429.
+     * Any other 4xx rejects the request, and a body with {@code status: false} proves the provider
+     * is up. Local throttling and validation errors are not the provider's doing either.
+     */
+    static boolean isOutage(PaydeckResponse<?> response) {
+        if (response.isSuccess()) {
+            return false;
+        }
+        PaydeckResponse.ErrorData error = response.getError();
+        if (error.getHttpStatus() != null) {
+            return isOutageStatus(error.getHttpStatus());
+        }
+        return PROVIDER_ERROR.equals(error.getCode()) && error.getProviderCode() == null;
+    }
+
+    // For delegates that fail their future instead of answering with an error response
+    static boolean isOutage(Throwable error) {
+        if (error instanceof HttpException) {
+            return isOutageStatus(((HttpException) error).getStatusCode());
+        }
+        return true;
+    }
+
+    static boolean isOutageStatus(int status) {
+        return status >= 500 || status == 408 || status == 429;
+    }
+}
@@ -0,0 +1,109 @@
+package co.paydeck.core;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Live health of one provider: EWMA latency of successful calls and EWMA success ratio.
+ *
+ * <p>Calls are recorded into {@link LongAdder}s, so concurrent callers never contend on a shared
+ * word. Once per interval one caller folds the accumulated samples into the averages, which are
+ * plain volatile reads for the router.
+ */
+public class ProviderStats {
+    private final double smoothingFactor;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder successLatencyNanos = new LongAdder();
+    private final AtomicLong lastFold;
+    private final AtomicLong lastRouted = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder totalCalls = new LongAdder();
+
+    // NaN until the first successful call has been folded in
+    private volatile double latencyNanos = Double.NaN;
+    private volatile double successRatio = 1.0;
+
+    ProviderStats(double smoothingFactor, Duration interval, LongSupplier nanoClock) {
+        this.smoothingFactor = smoothingFactor;
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+        this.lastFold = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    public Duration getLatency() {
+        double latency = latencyNanos;
+        return Double.isNaN(latency) ? null : Duration.ofNanos((long) latency);
+    }
+
+    public double getSuccessRatio() {
+        return successRatio;
+    }
+
+    public long getCalls() {
+        return totalCalls.sum();
+    }
+
+    void record(long durationNanos, boolean success) {
+        calls.increment();
+        totalCalls.increment();
+        if (success) {
+            successes.increment();
+            successLatencyNanos.add(durationNanos);
+        }
+
+        long now = nanoClock.getAsLong();
+        long last = lastFold.get();
+        if (now - last >= intervalNanos && lastFold.compareAndSet(last, now)) {
+            fold();
+        }
+    }
+
+    void markRouted(long sequence) {
+        lastRouted.set(sequence);
+    }
+
+    long lastRouted() {
+        return lastRouted.get();
+    }
+
+    // Higher is better. A provider failing one call in five must be over twice as fast to win.
+    // Providers never called score highest so each one gets tried; one that has been called but
+    // has no successful call folded in scores lowest and is left to exploration.
+    double score() {
+        if (totalCalls.sum() == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double latency = latencyNanos;
+        if (Double.isNaN(latency)) {
+            return 0;
+        }
+        double ratio = successRatio;
+        return ratio * ratio * ratio * ratio / Math.max(latency, 1);
+    }
+
+    // Samples recorded between the two sumThenReset calls land in the next interval; close enough
+    private void fold() {
+        long successCount = successes.sumThenReset();
+        long latencySum = successLatencyNanos.sumThenReset();
+        long callCount = calls.sumThenReset();
+        if (callCount == 0) {
+            return;
+        }
+
+        successRatio = smooth(successRatio, (double) successCount / Math.max(callCount, successCount));
+        if (successCount > 0) {
+            double average = (double) latencySum / successCount;
+            double latency = latencyNanos;
+            latencyNanos = Double.isNaN(latency) ? average : smooth(latency, average);
+        }
+    }
+
+    private double smooth(double current, double sample) {
+        return current + smoothingFactor * (sample - current);
+    }
+}
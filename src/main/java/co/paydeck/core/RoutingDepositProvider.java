@@ -0,0 +1,340 @@
+package co.paydeck.core;
+
+import co.paydeck.model.deposit.*;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.Currency;
+import co.paydeck.model.PaymentMethod;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Routes each checkout to the provider with the best live latency and success ratio among
+ * those that support the request's payment methods, currency and customer country.
+ *
+ * <p>Every {@code explorationInterval}-th checkout goes to the eligible provider that was routed
+ * to least recently instead, so a provider that recovers is noticed. Exploration is counter based,
+ * not random, which keeps routing reproducible under a simulated clock.
+ *
+ * <p>When the chosen provider answers {@link CircuitBreakerDepositProvider#CIRCUIT_OPEN} the next
+ * best one is tried. Verification asks the provider that created the checkout; for a reference
+ * routed before the last {@code checkoutOwnerCapacity} checkouts, or by another process, it tries
+ * providers best first until one returns the transaction.
+ */
+public class RoutingDepositProvider implements BaseDepositProvider {
+    private final Route[] routes;
+    private final int explorationInterval;
+    private final LongSupplier nanoClock;
+    private final AtomicLong decisions = new AtomicLong();
+    private final CheckoutOwners owners;
+
+    private RoutingDepositProvider(Builder builder) {
+        this.routes = builder.providers.stream()
+            .map(provider -> new Route(provider,
+                new ProviderStats(builder.smoothingFactor, builder.statsInterval, builder.nanoClock)))
+            .toArray(Route[]::new);
+        this.explorationInterval = builder.explorationInterval;
+        this.nanoClock = builder.nanoClock;
+        this.owners = new CheckoutOwners(builder.checkoutOwnerCapacity);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public ProviderStats getStats(String providerName) {
+        for (Route route : routes) {
+            if (route.provider.getProviderName().equals(providerName)) {
+                return route.stats;
+            }
+        }
+        throw new IllegalArgumentException("Unknown provider: " + providerName);
+    }
+
+    @Override
+    public String getProviderName() {
+        return routes[0].provider.getProviderName();
+    }
+
+    @Override
+    public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+        for (Route route : routes) {
+            if (route.provider.supportsPaymentMethods(methods)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean supportsCurrency(Currency currency) {
+        for (Route route : routes) {
+            if (route.provider.supportsCurrency(currency)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean supportsCountry(String countryCode) {
+        for (Route route : routes) {
+            if (route.provider.supportsCountry(countryCode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Every provider may hold transactions, so their listings are concatenated in configuration order
+    @Override
+    public Stream<TransactionResponseData> listTransactions(TransactionListRequest request) {
+        return Arrays.stream(routes).flatMap(route -> route.provider.listTransactions(request));
+    }
+
+    @Override
+    public PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request) {
+        Route[] candidates = rankForCheckout(request);
+        PaydeckResponse<CheckoutResponseData> last = null;
+        for (Route route : candidates) {
+            last = route.call(() -> route.provider.initiateCheckout(request));
+            if (!isCircuitOpen(last)) {
+                owners.remember(request.getReference(), last, route.provider.getProviderName());
+                return last;
+            }
+        }
+        return last != null ? last : noEligibleProvider();
+    }
+
+    @Override
+    public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        PaydeckResponse<TransactionResponseData> last = null;
+        for (Route route : rankForFetch(merchantTransactionReference)) {
+            last = route.call(() -> route.provider.fetchTransaction(merchantTransactionReference));
+            if (last.isSuccess()) {
+                return last;
+            }
+        }
+        return last;
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<CheckoutResponseData>> initiateCheckoutAsync(CheckoutRequest request) {
+        return checkoutFrom(rankForCheckout(request), 0, request, null);
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return fetchFrom(rankForFetch(merchantTransactionReference), 0, merchantTransactionReference);
+    }
+
+    private CompletableFuture<PaydeckResponse<CheckoutResponseData>> checkoutFrom(Route[] candidates, int index,
+            CheckoutRequest request, PaydeckResponse<CheckoutResponseData> last) {
+        if (index == candidates.length) {
+            return CompletableFuture.completedFuture(last != null ? last : noEligibleProvider());
+        }
+        Route route = candidates[index];
+        return route.callAsync(() -> route.provider.initiateCheckoutAsync(request)).thenCompose(response -> {
+            if (isCircuitOpen(response)) {
+                return checkoutFrom(candidates, index + 1, request, response);
+            }
+            owners.remember(request.getReference(), response, route.provider.getProviderName());
+            return CompletableFuture.completedFuture(response);
+        });
+    }
+
+    private CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchFrom(Route[] candidates, int index,
+            String reference) {
+        Route route = candidates[index];
+        return route.callAsync(() -> route.provider.fetchTransactionAsync(reference)).thenCompose(response ->
+            response.isSuccess() || index + 1 == candidates.length
+                ? CompletableFuture.completedFuture(response)
+                : fetchFrom(candidates, index + 1, reference));
+    }
+
+    // Only the provider that created the checkout can hold it
+    private Route[] rankForFetch(String reference) {
+        String owner = owners.ownerOf(reference);
+        if (owner != null) {
+            for (Route route : routes) {
+                if (route.provider.getProviderName().equals(owner)) {
+                    return new Route[] {route};
+                }
+            }
+        }
+        return rank(routes.clone());
+    }
+
+    private Route[] rankForCheckout(CheckoutRequest request) {
+        String country = request.getCustomer() != null ? request.getCustomer().getCountryCode() : null;
+        List<Route> eligible = new ArrayList<>(routes.length);
+        for (Route route : routes) {
+            BaseDepositProvider provider = route.provider;
+            if (provider.supportsPaymentMethods(request.getPaymentMethods())
+                    && (request.getCurrency() == null || provider.supportsCurrency(request.getCurrency()))
+                    && (country == null || provider.supportsCountry(country))) {
+                eligible.add(route);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return new Route[0];
+        }
+
+        Route[] candidates = rank(eligible.toArray(new Route[0]));
+        long decision = decisions.incrementAndGet();
+        if (explorationInterval > 0 && decision % explorationInterval == 0) {
+            moveToFront(candidates, leastRecentlyRouted(candidates));
+        }
+        candidates[0].stats.markRouted(decision);
+        return candidates;
+    }
+
+    // Insertion sort on a local score array: there are only a handful of providers
+    private static Route[] rank(Route[] candidates) {
+        double[] scores = new double[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            Route route = candidates[i];
+            double score = route.stats.score();
+            int j = i;
+            while (j > 0 && scores[j - 1] < score) {
+                scores[j] = scores[j - 1];
+                candidates[j] = candidates[j - 1];
+                j--;
+            }
+            scores[j] = score;
+            candidates[j] = route;
+        }
+        return candidates;
+    }
+
+    private static int leastRecentlyRouted(Route[] candidates) {
+        int oldest = 0;
+        for (int i = 1; i < candidates.length; i++) {
+            if (candidates[i].stats.lastRouted() < candidates[oldest].stats.lastRouted()) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    private static void moveToFront(Route[] candidates, int index) {
+        Route chosen = candidates[index];
+        System.arraycopy(candidates, 0, candidates, 1, index);
+        candidates[0] = chosen;
+    }
+
+    private static boolean isCircuitOpen(PaydeckResponse<?> response) {
+        return !response.isSuccess()
+            && CircuitBreakerDepositProvider.CIRCUIT_OPEN.equals(response.getError().getCode());
+    }
+
+    private PaydeckResponse<CheckoutResponseData> noEligibleProvider() {
+        return PaydeckResponse.error(
+            "UNSUPPORTED_PAYMENT_METHOD",
+            "none of the configured providers supports the requested payment methods, currency and country"
+        );
+    }
+
+    private final class Route {
+        private final BaseDepositProvider provider;
+        private final ProviderStats stats;
+
+        Route(BaseDepositProvider provider, ProviderStats stats) {
+            this.provider = provider;
+            this.stats = stats;
+        }
+
+        <T> PaydeckResponse<T> call(Supplier<PaydeckResponse<T>> call) {
+            long start = nanoClock.getAsLong();
+            try {
+                PaydeckResponse<T> response = call.get();
+                stats.record(nanoClock.getAsLong() - start, isHealthy(response));
+                return response;
+            } catch (RuntimeException e) {
+                stats.record(nanoClock.getAsLong() - start, false);
+                throw e;
+            }
+        }
+
+        <T> CompletableFuture<PaydeckResponse<T>> callAsync(Supplier<CompletableFuture<PaydeckResponse<T>>> call) {
+            long start = nanoClock.getAsLong();
+            CompletableFuture<PaydeckResponse<T>> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                stats.record(nanoClock.getAsLong() - start, false);
+                throw e;
+            }
+            return future.whenComplete((response, error) ->
+                stats.record(nanoClock.getAsLong() - start, error == null && isHealthy(response)));
+        }
+    }
+
+    // Provider-level rejections, such as a verify miss, prove the provider is up; outages and open circuits count against it
+    private static boolean isHealthy(PaydeckResponse<?> response) {
+        return response.isSuccess()
+            || response.getError().getProviderCode() != null && !ProviderFailures.isOutage(response);
+    }
+
+    public static class Builder {
+        private final List<BaseDepositProvider> providers = new ArrayList<>();
+        private double smoothingFactor = 0.3;
+        private Duration statsInterval = Duration.ofSeconds(1);
+        private int explorationInterval = 20;
+        private LongSupplier nanoClock = System::nanoTime;
+        private int checkoutOwnerCapacity = 10_000;
+
+        public Builder provider(BaseDepositProvider provider) {
+            this.providers.add(provider);
+            return this;
+        }
+
+        public Builder smoothingFactor(double smoothingFactor) {
+            this.smoothingFactor = smoothingFactor;
+            return this;
+        }
+
+        public Builder statsInterval(Duration statsInterval) {
+            this.statsInterval = statsInterval;
+            return this;
+        }
+
+        public Builder explorationInterval(int explorationInterval) {
+            this.explorationInterval = explorationInterval;
+            return this;
+        }
+
+        public Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        // How many recent checkouts remember their provider for verification; 0 always tries in order
+        public Builder checkoutOwnerCapacity(int checkoutOwnerCapacity) {
+            this.checkoutOwnerCapacity = checkoutOwnerCapacity;
+            return this;
+        }
+
+        public RoutingDepositProvider build() {
+            if (providers.isEmpty()) {
+                throw new IllegalStateException("At least one provider is required");
+            }
+            if (smoothingFactor <= 0 || smoothingFactor > 1) {
+                throw new IllegalStateException("smoothingFactor must be in (0, 1]");
+            }
+            if (checkoutOwnerCapacity < 0) {
+                throw new IllegalStateException("checkoutOwnerCapacity must not be negative");
+            }
+            return new RoutingDepositProvider(this);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package co.paydeck.core;
+
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.deposit.TransactionResponseData;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+/**
+ * Polls pending transactions until they reach a terminal status.
+ *
+ * <p>References sit in a hashed timing wheel owned by a single ticker thread. Each tick visits
+ * one slot, so the cost of a tick depends on what is due, not on how many references are
+ * outstanding, and each reference costs one small node. Due references are checked with
+ * {@link BaseDepositProvider#fetchTransactionAsync} under a global cap on in-flight checks;
+ * checks that do not fit wait for the next tick.
+ *
+ * <p>The delay between checks of one reference starts at {@code initialDelay} and grows by
+ * {@code backoffMultiplier} up to {@code maxDelay}. The returned future completes with the first
+ * terminal response, or with the last response once {@code maxAge} has passed.
+ */
+public class TransactionStatusPoller implements AutoCloseable {
+    private final BaseDepositProvider provider;
+    private final long tickNanos;
+    private final int mask;
+    private final long initialDelayNanos;
+    private final long maxDelayNanos;
+    private final double backoffMultiplier;
+    private final long maxAgeNanos;
+    private final BiConsumer<String, PaydeckResponse<TransactionResponseData>> listener;
+
+    private final Node[] wheel;
+    private final Queue<Node> incoming = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<Node> ready = new ArrayDeque<>();
+    private final Semaphore permits;
+    private final Map<String, Node> outstanding = new ConcurrentHashMap<>();
+    private final LongAdder checks = new LongAdder();
+    private final Thread ticker;
+    private volatile boolean running = true;
+    // Owned by the ticker thread
+    private long tick;
+
+    private TransactionStatusPoller(Builder builder) {
+        this.provider = builder.provider;
+        this.tickNanos = builder.tickDuration.toNanos();
+        this.initialDelayNanos = builder.initialDelay.toNanos();
+        this.maxDelayNanos = builder.maxDelay.toNanos();
+        this.backoffMultiplier = builder.backoffMultiplier;
+        this.maxAgeNanos = builder.maxAge.toNanos();
+        this.listener = builder.listener;
+        this.permits = new Semaphore(builder.maxConcurrentChecks);
+
+        int wheelSize = Integer.highestOneBit(Math.max(builder.wheelSize - 1, 1)) << 1;
+        this.wheel = new Node[wheelSize];
+        this.mask = wheelSize - 1;
+
+        this.ticker = new Thread(this::run, "paydeck-status-poller");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Registering a reference that is already being polled returns the existing future
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> register(String merchantTransactionReference) {
+        if (!running) {
+            throw new IllegalStateException("Poller is closed");
+        }
+        Node node = new Node(merchantTransactionReference, System.nanoTime(), initialDelayNanos);
+        Node existing = outstanding.putIfAbsent(merchantTransactionReference, node);
+        if (existing != null) {
+            return existing.future;
+        }
+        incoming.add(node);
+        return node.future;
+    }
+
+    public boolean cancel(String merchantTransactionReference) {
+        Node node = outstanding.remove(merchantTransactionReference);
+        if (node == null) {
+            return false;
+        }
+        node.cancelled = true;
+        return node.future.cancel(false);
+    }
+
+    public int getOutstanding() {
+        return outstanding.size();
+    }
+
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        ticker.interrupt();
+        try {
+            ticker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        outstanding.values().forEach(node -> node.future.cancel(false));
+        outstanding.clear();
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime() + tickNanos;
+        while (running) {
+            long wait = nextTick - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                if (Thread.interrupted() && !running) {
+                    return;
+                }
+                continue;
+            }
+
+            // A ticker that fell behind runs the missed ticks back to back without parking
+            Node node;
+            while ((node = incoming.poll()) != null) {
+                schedule(node);
+            }
+            expire(tick++ & mask);
+            dispatch();
+            nextTick += tickNanos;
+        }
+    }
+
+    private void schedule(Node node) {
+        if (node.cancelled) {
+            return;
+        }
+        long ticks = Math.max(1, (node.delayNanos + tickNanos - 1) / tickNanos);
+        long target = tick + ticks - 1;
+        node.rounds = (target - tick) / wheel.length;
+        int slot = (int) (target & mask);
+        node.next = wheel[slot];
+        wheel[slot] = node;
+    }
+
+    private void expire(long slot) {
+        Node node = wheel[(int) slot];
+        Node kept = null;
+        while (node != null) {
+            Node next = node.next;
+            if (node.cancelled) {
+                node.next = null;
+            } else if (node.rounds > 0) {
+                node.rounds--;
+                node.next = kept;
+                kept = node;
+            } else {
+                node.next = null;
+                ready.add(node);
+            }
+            node = next;
+        }
+        wheel[(int) slot] = kept;
+    }
+
+    private void dispatch() {
+        while (!ready.isEmpty() && permits.tryAcquire()) {
+            Node node = ready.poll();
+            if (node.cancelled) {
+                permits.release();
+                continue;
+            }
+            checks.increment();
+
+            CompletableFuture<PaydeckResponse<TransactionResponseData>> check;
+            try {
+                check = provider.fetchTransactionAsync(node.reference);
+            } catch (RuntimeException e) {
+                check = CompletableFuture.failedFuture(e);
+            }
+            check.whenComplete((response, error) -> {
+                permits.release();
+                onChecked(node, error == null
+                    ? response
+                    : PaydeckResponse.error("PROVIDER_ERROR", "Failed to fetch transaction: " + error.getMessage()));
+            });
+        }
+    }
+
+    // Runs on whichever thread completed the check; rescheduling goes back through the ticker
+    private void onChecked(Node node, PaydeckResponse<TransactionResponseData> response) {
+        if (node.cancelled) {
+            return;
+        }
+        boolean expired = System.nanoTime() - node.registeredAt >= maxAgeNanos;
+        if (isTerminal(response) || expired || !running) {
+            // The listener runs first so it has seen the result by the time the future completes
+            if (outstanding.remove(node.reference, node)) {
+                try {
+                    if (listener != null) {
+                        listener.accept(node.reference, response);
+                    }
+                } finally {
+                    node.future.complete(response);
+                }
+            }
+            return;
+        }
+
+        node.delayNanos = Math.min(maxDelayNanos, (long) (node.delayNanos * backoffMultiplier));
+        incoming.add(node);
+    }
+
+    private static boolean isTerminal(PaydeckResponse<TransactionResponseData> response) {
+        return response.isSuccess()
+            && response.getData() != null
+            && response.getData().getStatus() != null
+            && response.getData().getStatus() != TransactionStatus.PENDING;
+    }
+
+    private static final class Node {
+        private final String reference;
+        private final long registeredAt;
+        private final CompletableFuture<PaydeckResponse<TransactionResponseData>> future = new CompletableFuture<>();
+        private long delayNanos;
+        private long rounds;
+        private Node next;
+        private volatile boolean cancelled;
+
+        Node(String reference, long registeredAt, long delayNanos) {
+            this.reference = reference;
+            this.registeredAt = registeredAt;
+            this.delayNanos = delayNanos;
+        }
+    }
+
+    public static class Builder {
+        private BaseDepositProvider provider;
+        private Duration tickDuration = Duration.ofMillis(100);
+        private int wheelSize = 512;
+        private Duration initialDelay = Duration.ofSeconds(5);
+        private Duration maxDelay = Duration.ofMinutes(2);
+        private double backoffMultiplier = 1.5;
+        private Duration maxAge = Duration.ofHours(1);
+        private int maxConcurrentChecks = 32;
+        private BiConsumer<String, PaydeckResponse<TransactionResponseData>> listener;
+
+        public Builder provider(BaseDepositProvider provider) {
+            this.provider = provider;
+            return this;
+        }
+
+        public Builder tickDuration(Duration tickDuration) {
+            this.tickDuration = tickDuration;
+            return this;
+        }
+
+        // Rounded up to a power of two
+        public Builder wheelSize(int wheelSize) {
+            this.wheelSize = wheelSize;
+            return this;
+        }
+
+        public Builder initialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        public Builder maxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        public Builder backoffMultiplier(double backoffMultiplier) {
+            this.backoffMultiplier = backoffMultiplier;
+            return this;
+        }
+
+        public Builder maxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        public Builder maxConcurrentChecks(int maxConcurrentChecks) {
+            this.maxConcurrentChecks = maxConcurrentChecks;
+            return this;
+        }
+
+        // Called once per reference, with the response its future completes with
+        public Builder onResolved(BiConsumer<String, PaydeckResponse<TransactionResponseData>> listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public TransactionStatusPoller build() {
+            if (provider == null) {
+                throw new IllegalStateException("provider is required");
+            }
+            if (tickDuration.isZero() || tickDuration.isNegative() || maxConcurrentChecks < 1 || wheelSize < 1) {
+                throw new IllegalStateException("tickDuration, wheelSize and maxConcurrentChecks must be positive");
+            }
+            if (backoffMultiplier < 1) {
+                throw new IllegalStateException("backoffMultiplier must be at least 1");
+            }
+            return new TransactionStatusPoller(this);
+        }
+    }
+}
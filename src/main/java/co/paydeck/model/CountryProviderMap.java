@@ -1,32 +1,29 @@
 package co.paydeck.model;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * @deprecated Use {@link ProviderCapabilities#DEFAULT}, which this map is derived from.
+ */
+@Deprecated
 public class CountryProviderMap {
+    private static final Map<String, Map<String, String>> PROVIDER_COUNTRY_MAP = build();
+
     private CountryProviderMap() {
     }
-    
-    public static Map<String, Map<String, String>> getProviderCountryMap() {
-        Map<String, Map<String, String>> providerCountryMap = new HashMap<>();
-        Map<String, String> flutterwaveCountries = Map.of(
-            "NG", "Nigeria",
-            "GH", "Ghana",
-            "KE", "Kenya",
-            "ZA", "South Africa"
-        );
-
-        providerCountryMap.put(Provider.FLUTTERWAVE.getCode(), flutterwaveCountries);
 
-        Map<String, String> paystackCountries = Map.of(
-            "NG", "Nigeria",
-            "GH", "Ghana",
-            "KE", "Kenya",
-            "ZA", "South Africa"
-        );
-
-        providerCountryMap.put(Provider.PAYSTACK.getCode(), paystackCountries);
+    // Built once; the returned maps are immutable
+    public static Map<String, Map<String, String>> getProviderCountryMap() {
+        return PROVIDER_COUNTRY_MAP;
+    }
 
-        return providerCountryMap;
+    private static Map<String, Map<String, String>> build() {
+        Map<String, Map<String, String>> map = new LinkedHashMap<>();
+        for (Provider provider : Provider.values()) {
+            map.put(provider.getCode(), ProviderCapabilities.DEFAULT.countries(provider));
+        }
+        return Collections.unmodifiableMap(map);
     }
 }
@@ -1,12 +1,38 @@
 package co.paydeck.model;
 
 public enum Currency {
-    NGN,
-    USD,
-    EUR,
-    GBP,
-    KES,
-    GHS,
-    UGX,
-    ZAR
+    NGN(2),
+    USD(2),
+    EUR(2),
+    GBP(2),
+    KES(2),
+    GHS(2),
+    UGX(0),
+    ZAR(2);
+
+    private static final Currency[] VALUES = values();
+
+    private final int exponent;
+
+    Currency(int exponent) {
+        this.exponent = exponent;
+    }
+
+    // ISO 4217 minor unit digits: 2 for kobo and cents, 0 for UGX
+    public int getExponent() {
+        return exponent;
+    }
+
+    // Lenient lookup for provider payloads; null for codes the SDK does not model, instead of throwing
+    public static Currency fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        for (Currency currency : VALUES) {
+            if (currency.name().equalsIgnoreCase(code)) {
+                return currency;
+            }
+        }
+        return null;
+    }
 }
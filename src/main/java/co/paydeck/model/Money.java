@@ -0,0 +1,154 @@
+package co.paydeck.model;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * An amount as a whole number of minor units (kobo, cents, shillings) of a {@link Currency}.
+ *
+ * <p>Arithmetic is exact {@code long} arithmetic and throws {@link ArithmeticException} on
+ * overflow, so sums over large ledgers neither round nor allocate intermediate BigDecimals.
+ * Conversions from major units refuse amounts with more fraction digits than the currency has
+ * instead of truncating them.
+ */
+public final class Money implements Comparable<Money> {
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L
+    };
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    // Exact: 12.345 NGN or an amount beyond the long range throws ArithmeticException
+    public static Money of(BigDecimal majorUnits, Currency currency) {
+        return new Money(majorUnits.movePointRight(currency.getExponent()).longValueExact(), currency);
+    }
+
+    /**
+     * Parses a plain decimal such as {@code "1500"}, {@code "-12.5"} or {@code "101.40"} in major
+     * units without going through BigDecimal. Exponent notation is not accepted.
+     */
+    public static Money parse(CharSequence majorUnits, Currency currency) {
+        int exponent = currency.getExponent();
+        int length = majorUnits.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (majorUnits.charAt(0) == '-' || majorUnits.charAt(0) == '+')) {
+            negative = majorUnits.charAt(0) == '-';
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < length; i++) {
+            char c = majorUnits.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a decimal amount: " + majorUnits);
+            }
+            digits++;
+            if (fractionDigits >= 0 && ++fractionDigits > exponent) {
+                if (c != '0') {
+                    throw new ArithmeticException(currency + " has " + exponent + " fraction digits: " + majorUnits);
+                }
+                continue;
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a decimal amount: " + majorUnits);
+        }
+        int scale = Math.max(fractionDigits, 0);
+        long minorUnits = Math.multiplyExact(value, POWERS_OF_TEN[exponent - Math.min(scale, exponent)]);
+        return new Money(negative ? -minorUnits : minorUnits, currency);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    // Scale equals the currency exponent, so 150000 kobo becomes 1500.00
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getExponent());
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency == other.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return currency + " " + toBigDecimal().toPlainString();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package co.paydeck.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What each provider can take: deposit payment methods, payout methods, currencies and countries.
+ *
+ * <p>The index is immutable and built once. Every capability is stored as a bitmask, per provider
+ * and inverted per payment method, currency and country, where bit {@code i} is the provider,
+ * method or currency with ordinal {@code i}. Country codes map to a dense index through a
+ * 26 x 26 table, so no query hashes a string or allocates. {@link #eligibleProviders} answers
+ * "which providers can take this checkout" with a few array reads and ANDs.
+ *
+ * <p>{@link #DEFAULT} describes the providers this SDK ships and is what the providers consult.
+ */
+public final class ProviderCapabilities {
+    private static final Provider[] PROVIDERS = Provider.values();
+    private static final PaymentMethod[] METHODS = PaymentMethod.values();
+    private static final int MAX_COUNTRIES = Long.SIZE;
+
+    public static final ProviderCapabilities DEFAULT = builder()
+        .country("NG", "Nigeria")
+        .country("GH", "Ghana")
+        .country("KE", "Kenya")
+        .country("ZA", "South Africa")
+        .provider(Provider.FLUTTERWAVE)
+            .paymentMethods(PaymentMethod.CARD, PaymentMethod.BANK_TRANSFER, PaymentMethod.USSD,
+                PaymentMethod.MOBILE_MONEY)
+            .currencies(Currency.NGN, Currency.USD, Currency.EUR, Currency.GBP, Currency.KES, Currency.GHS,
+                Currency.UGX, Currency.ZAR)
+            .countries("NG", "GH", "KE", "ZA")
+        .provider(Provider.PAYSTACK)
+            .paymentMethods(PaymentMethod.CARD, PaymentMethod.BANK_TRANSFER, PaymentMethod.USSD, PaymentMethod.QR)
+            .payoutMethods(PaymentMethod.BANK_TRANSFER)
+            .currencies(Currency.NGN, Currency.USD, Currency.GHS, Currency.KES, Currency.ZAR)
+            .countries("NG", "GH", "KE", "ZA")
+        .build();
+
+    // Indexed by Provider ordinal
+    private final int[] methodsByProvider;
+    private final int[] payoutMethodsByProvider;
+    private final int[] currenciesByProvider;
+    private final long[] countriesByProvider;
+    // Provider bitmasks, indexed by PaymentMethod ordinal, Currency ordinal and country index
+    private final int[] providersByMethod;
+    private final int[] providersByCurrency;
+    private final int[] providersByCountry;
+    // Country index + 1 for each two-letter code, 0 when the code is unknown
+    private final byte[] countryIndex;
+    private final String[] countryCodes;
+    private final String[] countryNames;
+    private final String[] countryParams;
+
+    private ProviderCapabilities(Builder builder) {
+        int countries = builder.countryNames.size();
+        this.countryCodes = builder.countryNames.keySet().toArray(new String[0]);
+        this.countryNames = builder.countryNames.values().toArray(new String[0]);
+        this.countryParams = new String[countries];
+        this.countryIndex = new byte[26 * 26];
+        for (int i = 0; i < countries; i++) {
+            countryIndex[slot(countryCodes[i])] = (byte) (i + 1);
+            countryParams[i] = countryNames[i].toLowerCase(Locale.ROOT);
+        }
+
+        this.methodsByProvider = new int[PROVIDERS.length];
+        this.payoutMethodsByProvider = new int[PROVIDERS.length];
+        this.currenciesByProvider = new int[PROVIDERS.length];
+        this.countriesByProvider = new long[PROVIDERS.length];
+        this.providersByMethod = new int[METHODS.length];
+        this.providersByCurrency = new int[Currency.values().length];
+        this.providersByCountry = new int[countries];
+
+        builder.providers.forEach((provider, entry) -> {
+            int p = provider.ordinal();
+            int bit = 1 << p;
+            for (PaymentMethod method : entry.paymentMethods) {
+                methodsByProvider[p] |= 1 << method.ordinal();
+                providersByMethod[method.ordinal()] |= bit;
+            }
+            for (PaymentMethod method : entry.payoutMethods) {
+                payoutMethodsByProvider[p] |= 1 << method.ordinal();
+            }
+            for (Currency currency : entry.currencies) {
+                currenciesByProvider[p] |= 1 << currency.ordinal();
+                providersByCurrency[currency.ordinal()] |= bit;
+            }
+            for (String country : entry.countries) {
+                int index = countryIndex[slot(country)] - 1;
+                countriesByProvider[p] |= 1L << index;
+                providersByCountry[index] |= bit;
+            }
+        });
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean supportsPaymentMethods(Provider provider, Set<PaymentMethod> methods) {
+        int requested = mask(methods);
+        return (methodsByProvider[provider.ordinal()] & requested) == requested;
+    }
+
+    // Payout providers accept a request when they can pay out by any of its methods
+    public boolean supportsPayoutMethods(Provider provider, Set<PaymentMethod> methods) {
+        return (payoutMethodsByProvider[provider.ordinal()] & mask(methods)) != 0;
+    }
+
+    public boolean supportsCurrency(Provider provider, Currency currency) {
+        return currency != null && (currenciesByProvider[provider.ordinal()] & (1 << currency.ordinal())) != 0;
+    }
+
+    public boolean supportsCountry(Provider provider, String countryCode) {
+        int index = countryIndex(countryCode);
+        return index >= 0 && (countriesByProvider[provider.ordinal()] & (1L << index)) != 0;
+    }
+
+    /**
+     * The providers that support every requested payment method, the currency and the country, as
+     * a bitmask over {@link Provider} ordinals; test it with {@link #contains}. A null currency or
+     * country places no constraint, matching a checkout that does not specify one.
+     */
+    public int eligibleProviders(Set<PaymentMethod> methods, Currency currency, String countryCode) {
+        int eligible = -1 >>> (Integer.SIZE - PROVIDERS.length);
+        for (PaymentMethod method : METHODS) {
+            if (methods.contains(method)) {
+                eligible &= providersByMethod[method.ordinal()];
+            }
+        }
+        if (currency != null) {
+            eligible &= providersByCurrency[currency.ordinal()];
+        }
+        if (countryCode != null) {
+            int index = countryIndex(countryCode);
+            eligible &= index >= 0 ? providersByCountry[index] : 0;
+        }
+        return eligible;
+    }
+
+    public static boolean contains(int providers, Provider provider) {
+        return (providers & (1 << provider.ordinal())) != 0;
+    }
+
+    public static EnumSet<Provider> toSet(int providers) {
+        EnumSet<Provider> set = EnumSet.noneOf(Provider.class);
+        for (Provider provider : PROVIDERS) {
+            if (contains(providers, provider)) {
+                set.add(provider);
+            }
+        }
+        return set;
+    }
+
+    // Display name for a known country code, such as "South Africa" for ZA; null otherwise
+    public String countryName(String countryCode) {
+        int index = countryIndex(countryCode);
+        return index >= 0 ? countryNames[index] : null;
+    }
+
+    // The value providers expect in a country query parameter: the lower-case name, or the code if unknown
+    public String countryParam(String countryCode) {
+        int index = countryIndex(countryCode);
+        return index >= 0 ? countryParams[index] : countryCode;
+    }
+
+    // Country code to name for each country the provider supports
+    public Map<String, String> countries(Provider provider) {
+        Map<String, String> countries = new LinkedHashMap<>();
+        long mask = countriesByProvider[provider.ordinal()];
+        for (int i = 0; i < countryCodes.length; i++) {
+            if ((mask & (1L << i)) != 0) {
+                countries.put(countryCodes[i], countryNames[i]);
+            }
+        }
+        return Collections.unmodifiableMap(countries);
+    }
+
+    public EnumSet<PaymentMethod> paymentMethods(Provider provider) {
+        int mask = methodsByProvider[provider.ordinal()];
+        EnumSet<PaymentMethod> methods = EnumSet.noneOf(PaymentMethod.class);
+        for (PaymentMethod method : METHODS) {
+            if ((mask & (1 << method.ordinal())) != 0) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    private int countryIndex(String countryCode) {
+        if (countryCode == null || countryCode.length() != 2) {
+            return -1;
+        }
+        int slot = slot(countryCode);
+        return slot < 0 ? -1 : countryIndex[slot] - 1;
+    }
+
+    private static int mask(Set<PaymentMethod> methods) {
+        int mask = 0;
+        for (PaymentMethod method : METHODS) {
+            if (methods.contains(method)) {
+                mask |= 1 << method.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    // Position of a two-letter code in the 26 x 26 table, case-insensitive; -1 for anything else
+    private static int slot(String countryCode) {
+        int first = letter(countryCode.charAt(0));
+        int second = letter(countryCode.charAt(1));
+        return first < 0 || second < 0 ? -1 : first * 26 + second;
+    }
+
+    private static int letter(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return -1;
+    }
+
+    public static class Builder {
+        private final Map<String, String> countryNames = new LinkedHashMap<>();
+        private final Map<Provider, Entry> providers = new EnumMap<>(Provider.class);
+        private Entry current;
+
+        public Builder country(String code, String name) {
+            if (code == null || code.length() != 2 || slot(code) < 0) {
+                throw new IllegalArgumentException("Country code must be two letters: " + code);
+            }
+            countryNames.put(code.toUpperCase(Locale.ROOT), name);
+            return this;
+        }
+
+        // Starts describing a provider; the methods below apply to the most recent one
+        public Builder provider(Provider provider) {
+            current = providers.computeIfAbsent(provider, p -> new Entry());
+            return this;
+        }
+
+        public Builder paymentMethods(PaymentMethod... methods) {
+            entry().paymentMethods.addAll(Arrays.asList(methods));
+            return this;
+        }
+
+        public Builder payoutMethods(PaymentMethod... methods) {
+            entry().payoutMethods.addAll(Arrays.asList(methods));
+            return this;
+        }
+
+        public Builder currencies(Currency... currencies) {
+            entry().currencies.addAll(Arrays.asList(currencies));
+            return this;
+        }
+
+        public Builder countries(String... codes) {
+            for (String code : codes) {
+                entry().countries.add(code.toUpperCase(Locale.ROOT));
+            }
+            return this;
+        }
+
+        public ProviderCapabilities build() {
+            if (PROVIDERS.length > Integer.SIZE || METHODS.length > Integer.SIZE
+                    || Currency.values().length > Integer.SIZE) {
+                throw new IllegalStateException("Too many providers, payment methods or currencies for an int mask");
+            }
+            if (countryNames.size() > MAX_COUNTRIES) {
+                throw new IllegalStateException("At most " + MAX_COUNTRIES + " countries are supported");
+            }
+            providers.values().forEach(entry -> entry.countries.forEach(code -> {
+                if (!countryNames.containsKey(code)) {
+                    throw new IllegalStateException("Unknown country " + code + "; declare it with country()");
+                }
+            }));
+            return new ProviderCapabilities(this);
+        }
+
+        private Entry entry() {
+            if (current == null) {
+                throw new IllegalStateException("Call provider() first");
+            }
+            return current;
+        }
+    }
+
+    private static final class Entry {
+        private final Set<PaymentMethod> paymentMethods = EnumSet.noneOf(PaymentMethod.class);
+        private final Set<PaymentMethod> payoutMethods = EnumSet.noneOf(PaymentMethod.class);
+        private final Set<Currency> currencies = EnumSet.noneOf(Currency.class);
+        private final Set<String> countries = new LinkedHashSet<>();
+    }
+}
@@ -19,6 +19,8 @@ public class PaydeckResponse<T> {
         private String message;
         private String providerCode;
         private String providerMessage;
+        // Set when the provider answered with a non-2xx status
+        private Integer httpStatus;
     }
 
     public static <T> PaydeckResponse<T> success(T data) {
@@ -50,4 +52,19 @@ public class PaydeckResponse<T> {
                 .build())
             .build();
     }
+
+    // The status doubles as the provider code, so callers that only read providerCode still see it
+    public static <T> PaydeckResponse<T> httpError(String code, String message,
+            int httpStatus, String providerMessage) {
+        return PaydeckResponse.<T>builder()
+            .success(false)
+            .error(ErrorData.builder()
+                .code(code)
+                .message(message)
+                .providerCode(String.valueOf(httpStatus))
+                .providerMessage(providerMessage)
+                .httpStatus(httpStatus)
+                .build())
+            .build();
+    }
 }
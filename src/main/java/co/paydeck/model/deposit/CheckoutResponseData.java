@@ -7,6 +7,7 @@ import java.util.Map;
 @Data
 @Builder
 public class CheckoutResponseData {
+    private String provider;
     private String checkoutUrl;
     private String transactionId;
     private String providerTransactionReference;
@@ -0,0 +1,16 @@
+package co.paydeck.model.deposit;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.LocalDate;
+
+// Dates are UTC calendar days and both ends are inclusive
+@Data
+@Builder
+public class TransactionListRequest {
+  private LocalDate from;
+  private LocalDate to;
+  // Honoured by providers that let the caller choose a page size
+  @Builder.Default
+  private int pageSize = 100;
+}
@@ -3,9 +3,10 @@ package co.paydeck.model.deposit;
 import lombok.Builder;
 import lombok.Data;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.Map;
 
+import co.paydeck.model.Money;
 import co.paydeck.model.TransactionStatus;
 
 @Data
@@ -19,8 +20,14 @@ public class TransactionResponseData {
     private BigDecimal chargedAmount;
     private BigDecimal settledAmount;
     private BigDecimal feeAmount;
+    // The same amounts as exact minor units; null when the currency is not one the SDK models
+    private Money money;
+    private Money chargedMoney;
+    private Money settledMoney;
+    private Money feeMoney;
     private String currency;
-    private LocalDateTime transactionDate;
+    // As sent by the provider, offset included; null when missing or not a valid ISO-8601 timestamp
+    private OffsetDateTime transactionDate;
     private String paymentMethod;
     private Map<String, String> providerMetadata;
 }
@@ -0,0 +1,15 @@
+package co.paydeck.model.payout;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+@Data
+@Builder
+@Jacksonized
+public class AccountResolutionData {
+    private String bankCode;
+    private String accountNumber;
+    // The account holder's name as the bank reports it
+    private String accountName;
+}
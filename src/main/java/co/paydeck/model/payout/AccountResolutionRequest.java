@@ -0,0 +1,14 @@
+package co.paydeck.model.payout;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+// Equality covers both fields, so identical rows in a batch resolve once and share a cache entry
+@Data
+@Builder(toBuilder = true)
+@Jacksonized
+public class AccountResolutionRequest {
+    private String bankCode;
+    private String accountNumber;
+}
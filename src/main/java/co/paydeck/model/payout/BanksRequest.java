@@ -4,9 +4,12 @@ import java.util.Currency;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
+// Equality covers every filter, so a copy of the request doubles as the bank directory cache key
 @Data
-@Builder
+@Builder(toBuilder = true)
+@Jacksonized
 public class BanksRequest {
     private String countryCode;
     private Boolean useCursor;
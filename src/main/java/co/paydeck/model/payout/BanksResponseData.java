@@ -2,14 +2,17 @@ package co.paydeck.model.payout;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 @Data
 @Builder
+@Jacksonized
 public class BanksResponseData {
     private Bank[] banks;
     
     @Data
     @Builder
+    @Jacksonized
     public static class Bank {
         private String bankCode;
         private String bankName;
@@ -1,5 +1,23 @@
 package co.paydeck.model.payout;
 
+import co.paydeck.model.Currency;
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+@Builder(toBuilder = true)
 public class PayoutRequest {
-  
-}
\ No newline at end of file
+    // Unique per payout; providers reject a second transfer with the same reference, so retries are safe
+    private String merchantTransactionReference;
+    private BigDecimal amount;
+    // Defaults to the provider's home currency (NGN for Paystack) when null
+    private Currency currency;
+    // The provider's id for the beneficiary account, such as Paystack's RCP_ recipient code
+    private String recipientCode;
+    // Used to look up or create the recipient when recipientCode is null
+    private String bankCode;
+    private String accountNumber;
+    private String accountName;
+    private String narration;
+}
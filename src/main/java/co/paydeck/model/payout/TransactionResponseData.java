@@ -2,6 +2,8 @@ package co.paydeck.model.payout;
 
 import java.math.BigDecimal;
 
+import co.paydeck.model.Money;
+import co.paydeck.model.TransactionStatus;
 import lombok.Builder;
 import lombok.Data;
 
@@ -11,11 +13,13 @@ public class TransactionResponseData {
     private String id;
     private String transactionReference;
     private String merchantTransactionReference;
-    private String status;
+    private TransactionStatus status;
     private BigDecimal amount;
+    // The amount as exact minor units
+    private Money money;
     private String currency;
     private String provider;
-    private BigDecimal fee ;
+    private BigDecimal fee;
     private String feeCurrency;
     private String message;
     private String narration;
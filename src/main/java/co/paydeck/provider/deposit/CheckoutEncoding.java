@@ -0,0 +1,67 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.PaymentMethod;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Lookup tables shared by the provider checkout encoders
+final class CheckoutEncoding {
+    private static final PaymentMethod[] METHODS = PaymentMethod.values();
+
+    private CheckoutEncoding() {
+    }
+
+    static int mask(Set<PaymentMethod> methods) {
+        int mask = 0;
+        if (methods != null) {
+            for (PaymentMethod method : methods) {
+                mask |= 1 << method.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    // Precomputes one value per subset of PaymentMethod, indexed by mask()
+    static SerializedString[] methodCombinations(Function<List<String>, String> render) {
+        SerializedString[] values = new SerializedString[1 << METHODS.length];
+        for (int mask = 0; mask < values.length; mask++) {
+            List<String> names = new ArrayList<>();
+            for (PaymentMethod method : METHODS) {
+                if ((mask & (1 << method.ordinal())) != 0) {
+                    names.add(method.name().toLowerCase());
+                }
+            }
+            values[mask] = new SerializedString(render.apply(names));
+        }
+        return values;
+    }
+
+    static SerializedString[] currencyValues() {
+        Currency[] currencies = Currency.values();
+        SerializedString[] values = new SerializedString[currencies.length];
+        for (Currency currency : currencies) {
+            values[currency.ordinal()] = new SerializedString(currency.name());
+        }
+        return values;
+    }
+
+    static void writeMetadata(Map<String, String> metadata, JsonGenerator generator) throws IOException {
+        if (metadata == null) {
+            generator.writeNull();
+            return;
+        }
+
+        generator.writeStartObject();
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            generator.writeStringField(entry.getKey(), entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+}
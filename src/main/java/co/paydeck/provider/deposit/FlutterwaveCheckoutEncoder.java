@@ -0,0 +1,91 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.Customer;
+import co.paydeck.model.deposit.CheckoutCustomization;
+import co.paydeck.model.deposit.CheckoutRequest;
+import co.paydeck.util.JsonPayload;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.IOException;
+
+final class FlutterwaveCheckoutEncoder {
+    private static final SerializedString TX_REF = new SerializedString("tx_ref");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString CURRENCY = new SerializedString("currency");
+    private static final SerializedString PAYMENT_OPTIONS = new SerializedString("payment_options");
+    private static final SerializedString REDIRECT_URL = new SerializedString("redirect_url");
+    private static final SerializedString CUSTOMER = new SerializedString("customer");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString PHONE_NUMBER = new SerializedString("phone_number");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString CUSTOMIZATION = new SerializedString("customization");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString LOGO = new SerializedString("logo");
+    private static final SerializedString META = new SerializedString("meta");
+
+    private static final SerializedString[] CURRENCY_VALUES = CheckoutEncoding.currencyValues();
+    // Comma separated option strings such as "card,ussd", one per PaymentMethod combination
+    private static final SerializedString[] PAYMENT_OPTION_VALUES = CheckoutEncoding.methodCombinations(
+        names -> String.join(",", names)
+    );
+
+    private FlutterwaveCheckoutEncoder() {
+    }
+
+    static JsonPayload payload(CheckoutRequest request) {
+        return generator -> write(request, generator);
+    }
+
+    static void write(CheckoutRequest request, JsonGenerator generator) throws IOException {
+        Customer customer = request.getCustomer();
+        CheckoutCustomization customization = request.getCustomization();
+
+        generator.writeStartObject();
+        generator.writeFieldName(TX_REF);
+        generator.writeString(request.getReference());
+        generator.writeFieldName(AMOUNT);
+        generator.writeNumber(request.getAmount());
+        generator.writeFieldName(CURRENCY);
+        writeCurrency(request.getCurrency(), generator);
+        generator.writeFieldName(PAYMENT_OPTIONS);
+        generator.writeString(PAYMENT_OPTION_VALUES[CheckoutEncoding.mask(request.getPaymentMethods())]);
+        generator.writeFieldName(REDIRECT_URL);
+        generator.writeString(customization == null ? null : customization.getReturnUrl());
+
+        generator.writeFieldName(CUSTOMER);
+        generator.writeStartObject();
+        generator.writeFieldName(EMAIL);
+        generator.writeString(customer.getEmail());
+        generator.writeFieldName(PHONE_NUMBER);
+        generator.writeString(customer.getPhoneNumber());
+        generator.writeFieldName(NAME);
+        generator.writeString(customer.getFirstName() + " " + customer.getLastName());
+        generator.writeEndObject();
+
+        generator.writeFieldName(CUSTOMIZATION);
+        generator.writeStartObject();
+        if (customization != null) {
+            generator.writeFieldName(TITLE);
+            generator.writeString(customization.getTitle());
+            generator.writeFieldName(DESCRIPTION);
+            generator.writeString(customization.getDescription());
+            generator.writeFieldName(LOGO);
+            generator.writeString(customization.getLogoUrl());
+        }
+        generator.writeEndObject();
+
+        generator.writeFieldName(META);
+        CheckoutEncoding.writeMetadata(request.getMetadata(), generator);
+        generator.writeEndObject();
+    }
+
+    private static void writeCurrency(Currency currency, JsonGenerator generator) throws IOException {
+        if (currency == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(CURRENCY_VALUES[currency.ordinal()]);
+        }
+    }
+}
@@ -1,35 +1,51 @@
 package co.paydeck.provider.deposit;
 
 import co.paydeck.core.BaseDepositProvider;
+import co.paydeck.model.Currency;
 import co.paydeck.model.PaymentMethod;
 import co.paydeck.model.Provider;
-import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.ProviderCapabilities;
 import co.paydeck.model.deposit.*;
 import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.provider.dto.FlutterwavePayment;
+import co.paydeck.provider.dto.FlutterwavePaymentResponse;
+import co.paydeck.provider.dto.FlutterwaveTransaction;
+import co.paydeck.provider.dto.FlutterwaveTransactionListResponse;
+import co.paydeck.provider.dto.FlutterwaveTransactionResponse;
+import co.paydeck.util.Endpoint;
+import co.paydeck.util.Futures;
 import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpException;
+import co.paydeck.util.JsonPayload;
+import co.paydeck.util.PageIterator;
+import co.paydeck.util.RateLimitedException;
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 public class FlutterwaveProvider implements BaseDepositProvider {
     private final HttpClient httpClient;
-    private static final Set<PaymentMethod> SUPPORTED_METHODS = EnumSet.of(
-        PaymentMethod.CARD,
-        PaymentMethod.BANK_TRANSFER,
-        PaymentMethod.USSD,
-        PaymentMethod.MOBILE_MONEY
-    );
     private static final String PROVIDER_ERROR = "PROVIDER_ERROR";
+    private static final String RATE_LIMITED = "RATE_LIMITED";
+    private static final String IN_DOUBT = "IN_DOUBT";
+    private static final Endpoint[] ENDPOINTS = {
+        Endpoint.of(Provider.FLUTTERWAVE.getCode(), "initialize", "/payments"),
+        Endpoint.of(Provider.FLUTTERWAVE.getCode(), "verify", "/transactions/verify_by_reference"),
+        Endpoint.of(Provider.FLUTTERWAVE.getCode(), "list", "/transactions")
+    };
 
     public FlutterwaveProvider(String secretKey) {
-        this.httpClient = HttpClient.builder()
+        this(secretKey, HttpClient.builder());
+    }
+
+    public FlutterwaveProvider(String secretKey, HttpClient.Builder httpClientBuilder) {
+        this.httpClient = httpClientBuilder
             .baseUrl("https://api.flutterwave.com/v3")
             .addDefaultHeader("Authorization", "Bearer " + secretKey)
             .addDefaultHeader("Content-Type", "application/json")
+            .endpoints(ENDPOINTS)
             .build();
     }
 
@@ -40,164 +56,196 @@ public class FlutterwaveProvider implements BaseDepositProvider {
     
     @Override
     public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
-        return SUPPORTED_METHODS.containsAll(methods);
+        return ProviderCapabilities.DEFAULT.supportsPaymentMethods(Provider.FLUTTERWAVE, methods);
+    }
+
+    @Override
+    public boolean supportsCurrency(Currency currency) {
+        return ProviderCapabilities.DEFAULT.supportsCurrency(Provider.FLUTTERWAVE, currency);
+    }
+
+    @Override
+    public boolean supportsCountry(String countryCode) {
+        return ProviderCapabilities.DEFAULT.supportsCountry(Provider.FLUTTERWAVE, countryCode);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request) {
         if (!supportsPaymentMethods(request.getPaymentMethods()))
         {
-            return PaydeckResponse.error(
-                "UNSUPPORTED_PAYMENT_METHOD",
-                "one or more of the provided Payment method is not" + 
-                " not supported by " + getProviderName()
-            );
+            return unsupportedPaymentMethod();
         }
 
         try {
-            Map<String, Object> payload = buildCheckoutPayload(request);
-            Map<String, Object> response = httpClient.post("/payments", payload, Map.class);
-
-            String status = (String) response.get("status");
-            String message = (String) response.get("message");
-    
-            if (!"success".equalsIgnoreCase(status)) {
-                return PaydeckResponse.providerError(
-                  PROVIDER_ERROR,
-                    "Flutterwave request failed",
-                    status,
-                    message
-                );
-            }
-    
-            Map<String, Object> data = (Map<String, Object>) response.get("data");
-            return PaydeckResponse.success(buildCheckoutResponseData(data));
-        } catch (IOException e) {
-            return PaydeckResponse.error(
-              PROVIDER_ERROR,
-                "Failed to communicate with Flutterwave: " + e.getMessage()
+            JsonPayload payload = FlutterwaveCheckoutEncoder.payload(request);
+            return toCheckoutResponse(
+                httpClient.postIdempotent("/payments", payload, FlutterwavePaymentResponse.class,
+                    request.getReference())
             );
+        } catch (IOException | HttpException e) {
+            return checkoutFailure(e);
         }
     }
 
-    @SuppressWarnings("unchecked")
+    @Override
+    public CompletableFuture<PaydeckResponse<CheckoutResponseData>> initiateCheckoutAsync(CheckoutRequest request) {
+        if (!supportsPaymentMethods(request.getPaymentMethods()))
+        {
+            return CompletableFuture.completedFuture(unsupportedPaymentMethod());
+        }
+
+        JsonPayload payload = FlutterwaveCheckoutEncoder.payload(request);
+        return Futures.recoverRequestFailure(
+            httpClient.postIdempotentAsync("/payments", payload, FlutterwavePaymentResponse.class,
+                    request.getReference())
+                .thenApply(this::toCheckoutResponse),
+            this::checkoutFailure
+        );
+    }
+
     @Override
     public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
         try {
-            Map<String, Object> response = httpClient.get(
-                "/transactions/verify_by_reference?tx_ref="+ merchantTransactionReference,
-                Map.class
+            return toTransactionResponse(
+                httpClient.get(verifyPath(merchantTransactionReference), FlutterwaveTransactionResponse.class)
             );
+        } catch (IOException | HttpException e) {
+            return fetchFailure(e);
+        }
+    }
 
-            String status = (String) response.get("status");
-            String message = (String) response.get("message");
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return Futures.recoverRequestFailure(
+            httpClient.getAsync(verifyPath(merchantTransactionReference), FlutterwaveTransactionResponse.class)
+                .thenApply(this::toTransactionResponse),
+            this::fetchFailure
+        );
+    }
 
-            if (!"success".equalsIgnoreCase(status)) {
-                return PaydeckResponse.providerError(
-                  PROVIDER_ERROR,
-                    "Flutterwave transaction verification failed",
-                    status,
-                    message
-                );
-            }
+    // Flutterwave fixes the page size, so request.getPageSize() is not sent
+    @Override
+    public Stream<TransactionResponseData> listTransactions(TransactionListRequest request) {
+        return PageIterator.stream(1, page ->
+            httpClient.getAsync(listPath(request, page), FlutterwaveTransactionListResponse.class)
+                .thenApply(this::toTransactionPage)
+        );
+    }
 
-            Map<String, Object> data = (Map<String, Object>) response.get("data");
+    private PaydeckResponse<CheckoutResponseData> unsupportedPaymentMethod() {
+        return PaydeckResponse.error(
+            "UNSUPPORTED_PAYMENT_METHOD",
+            "one or more of the provided Payment method is not" + 
+            " not supported by " + getProviderName()
+        );
+    }
+
+    private PaydeckResponse<CheckoutResponseData> toCheckoutResponse(FlutterwavePaymentResponse response) {
+        String status = response.getStatus();
+        String message = response.getMessage();
 
-            return PaydeckResponse.success(buildTransactionResponseData(data));
-        } catch (IOException e) {
-            return PaydeckResponse.error(
+        if (!"success".equalsIgnoreCase(status)) {
+            return PaydeckResponse.providerError(
               PROVIDER_ERROR,
-                "Failed to get transaction status from Flutterwave: " + e.getMessage()
+                "Flutterwave request failed",
+                status,
+                message
             );
         }
+
+        return PaydeckResponse.success(buildCheckoutResponseData(response.getData()));
     }
 
-    private Map<String, Object> buildCheckoutPayload(CheckoutRequest request) {
-        String methodsString = String.join(",", request.getPaymentMethods().stream()
-            .map(PaymentMethod::name)
-            .collect(Collectors.toList()));
+    // A rejected replay may be refusing a duplicate of a first attempt that landed, so it is no answer.
+    // Verification cannot tell either: an unpaid checkout looks the same whether or not it was created
+    private PaydeckResponse<CheckoutResponseData> checkoutFailure(Exception e) {
+        if (e instanceof HttpException && ((HttpException) e).isRejectedReplay()) {
+            HttpException http = (HttpException) e;
+            return PaydeckResponse.httpError(IN_DOUBT,
+                "Flutterwave rejected a replayed checkout whose first attempt may have been created: " + e.getMessage(),
+                http.getStatusCode(), http.getResponseBody());
+        }
+        return transportFailure("Failed to communicate with Flutterwave: ", e);
+    }
+
+    private String verifyPath(String merchantTransactionReference) {
+        return "/transactions/verify_by_reference?tx_ref=" + merchantTransactionReference;
+    }
 
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("tx_ref", request.getReference());
-        payload.put("amount", request.getAmount());
-        payload.put("currency", request.getCurrency());
-        payload.put("payment_options", methodsString.toLowerCase());
-        payload.put("redirect_url", request.getCustomization().getReturnUrl());
-        
-        payload.put("customer", buildCustomerData(request));
-        payload.put("customization", buildCustomizationData(request));
-        payload.put("meta", request.getMetadata());
+    private PaydeckResponse<TransactionResponseData> toTransactionResponse(FlutterwaveTransactionResponse response) {
+        String status = response.getStatus();
+        String message = response.getMessage();
 
-        return payload;
+        if (!"success".equalsIgnoreCase(status)) {
+            return PaydeckResponse.providerError(
+              PROVIDER_ERROR,
+                "Flutterwave transaction verification failed",
+                status,
+                message
+            );
+        }
+
+        return PaydeckResponse.success(FlutterwaveTransactionMapper.toTransactionResponseData(response.getData()));
     }
 
-    private Map<String, String> buildCustomerData(CheckoutRequest request) {
-        Map<String, String> customer = new HashMap<>();
-        String fullName = request.getCustomer().getFirstName() + " " + request.getCustomer().getLastName();
-        customer.put("email", request.getCustomer().getEmail());
-        customer.put("phone_number", request.getCustomer().getPhoneNumber());
-        customer.put("name", fullName);
-        return customer;
+    private PaydeckResponse<TransactionResponseData> fetchFailure(Exception e) {
+        return transportFailure("Failed to get transaction status from Flutterwave: ", e);
     }
 
-    private Map<String, String> buildCustomizationData(CheckoutRequest request) {
-        Map<String, String> customization = new HashMap<>();
-        customization.put("title", request.getCustomization().getTitle());
-        customization.put("description", request.getCustomization().getDescription());
-        customization.put("logo", request.getCustomization().getLogoUrl());
-        return customization;
+    private String listPath(TransactionListRequest request, int page) {
+        StringBuilder path = new StringBuilder("/transactions?page=").append(page);
+        if (request.getFrom() != null) {
+            path.append("&from=").append(request.getFrom());
+        }
+        if (request.getTo() != null) {
+            path.append("&to=").append(request.getTo());
+        }
+        return path.toString();
     }
 
-    private CheckoutResponseData buildCheckoutResponseData(Map<String, Object> data) {
-        Map<String, String> metadata = new HashMap<>();
-        metadata.put("flw_ref", (String) data.get("flw_ref"));
-        metadata.put("tx_ref", (String) data.get("tx_ref"));
+    private PageIterator.Page<TransactionResponseData> toTransactionPage(FlutterwaveTransactionListResponse response) {
+        if (!"success".equalsIgnoreCase(response.getStatus())) {
+            throw new CompletionException(
+                new IOException("Flutterwave transaction listing failed: " + response.getMessage()));
+        }
 
-        return CheckoutResponseData.builder()
-            .checkoutUrl((String) data.get("link"))
-            .transactionId((String) data.get("transaction_id"))
-            .providerTransactionReference((String) data.get("flw_ref"))
-            .providerMetadata(metadata)
-            .build();
+        List<TransactionResponseData> transactions = new ArrayList<>(response.getData().size());
+        for (FlutterwaveTransaction transaction : response.getData()) {
+            transactions.add(FlutterwaveTransactionMapper.toTransactionResponseData(transaction));
+        }
+        FlutterwaveTransactionListResponse.PageInfo pageInfo = response.getMeta() != null
+            ? response.getMeta().getPageInfo()
+            : null;
+        return new PageIterator.Page<>(transactions,
+            pageInfo != null && pageInfo.getCurrentPage() < pageInfo.getTotalPages());
     }
 
-    private TransactionResponseData buildTransactionResponseData(Map<String, Object> data) {
+    private CheckoutResponseData buildCheckoutResponseData(FlutterwavePayment data) {
         Map<String, String> metadata = new HashMap<>();
-        metadata.put("flw_ref", (String) data.get("flw_ref"));
-        metadata.put("processor_response", (String) data.get("processor_response"));
-
-        return TransactionResponseData.builder()
-            .transactionId(data.get("id").toString())
-            .merchantTransactionReference((String) data.get("tx_ref"))
-            .providerTransactionReference((String) data.get("flw_ref"))
-            .status(mapTransactionStatus((String) data.get("status")))
-            .amount(new BigDecimal(data.get("amount").toString()))
-            .chargedAmount(new BigDecimal(data.get("charged_amount").toString()))
-            .settledAmount(new BigDecimal(data.get("amount_settled").toString()))
-            .feeAmount(new BigDecimal(data.get("app_fee").toString()))
-            .currency((String) data.get("currency"))
-            .transactionDate(parseTransactionDate((String) data.get("created_at")))
-            .paymentMethod((String) data.get("payment_type"))
+        metadata.put("flw_ref", data.getFlwRef());
+        metadata.put("tx_ref", data.getTxRef());
+
+        return CheckoutResponseData.builder()
+            .provider(getProviderName())
+            .checkoutUrl(data.getLink())
+            .transactionId(data.getTransactionId())
+            .providerTransactionReference(data.getFlwRef())
             .providerMetadata(metadata)
             .build();
     }
 
-    private TransactionStatus mapTransactionStatus(String flwStatus) {
-        return switch (flwStatus.toLowerCase()) {
-            case "successful" -> TransactionStatus.SUCCESSFUL;
-            case "failed" -> TransactionStatus.FAILED;
-            case "cancelled" -> TransactionStatus.CANCELLED;
-            case "pending" -> TransactionStatus.PENDING;
-            default -> TransactionStatus.FAILED;
-        };
-    }
-
-    private LocalDateTime parseTransactionDate(String dateStr) {
-    try {
-        return LocalDateTime.parse(dateStr, DateTimeFormatter.ISO_DATE_TIME);
-    } catch (DateTimeParseException e) {
-        return LocalDateTime.now();
+    // Local throttling says nothing about the provider's health, so it gets its own code. A non-2xx
+    // answer keeps its status, so callers can tell a rejected request from an outage
+    private <T> PaydeckResponse<T> transportFailure(String message, Exception e) {
+        if (e instanceof HttpException) {
+            HttpException http = (HttpException) e;
+            return PaydeckResponse.httpError(PROVIDER_ERROR, message + e.getMessage(),
+                http.getStatusCode(), http.getResponseBody());
+        }
+        return PaydeckResponse.error(
+            e instanceof RateLimitedException ? RATE_LIMITED : PROVIDER_ERROR,
+            message + e.getMessage()
+        );
     }
 }
-}
@@ -0,0 +1,73 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.Money;
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.deposit.TransactionResponseData;
+import co.paydeck.provider.dto.FlutterwaveTransaction;
+import co.paydeck.util.Timestamps;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Shared by transaction verification and webhook parsing
+public final class FlutterwaveTransactionMapper {
+    private FlutterwaveTransactionMapper() {
+    }
+
+    public static TransactionResponseData toTransactionResponseData(FlutterwaveTransaction data) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("flw_ref", data.getFlwRef());
+        metadata.put("processor_response", data.getProcessorResponse());
+
+        // An unparseable date is left null rather than guessed; the raw value is kept for reconciliation
+        OffsetDateTime transactionDate = Timestamps.parse(data.getCreatedAt());
+        if (transactionDate == null && data.getCreatedAt() != null) {
+            metadata.put("unparsed_transaction_date", data.getCreatedAt());
+        }
+
+        Currency currency = Currency.fromCode(data.getCurrency());
+
+        return TransactionResponseData.builder()
+            .transactionId(Long.toString(data.getId()))
+            .merchantTransactionReference(data.getTxRef())
+            .providerTransactionReference(data.getFlwRef())
+            .status(mapTransactionStatus(data.getStatus()))
+            .amount(data.getAmount())
+            .chargedAmount(data.getChargedAmount())
+            .settledAmount(data.getAmountSettled())
+            .feeAmount(data.getAppFee())
+            .money(toMoney(data.getAmount(), currency))
+            .chargedMoney(toMoney(data.getChargedAmount(), currency))
+            .settledMoney(toMoney(data.getAmountSettled(), currency))
+            .feeMoney(toMoney(data.getAppFee(), currency))
+            .currency(data.getCurrency())
+            .transactionDate(transactionDate)
+            .paymentMethod(data.getPaymentType())
+            .providerMetadata(metadata)
+            .build();
+    }
+
+    // Flutterwave reports major units; a value finer than the currency's minor unit yields no Money
+    private static Money toMoney(BigDecimal majorUnits, Currency currency) {
+        if (majorUnits == null || currency == null) {
+            return null;
+        }
+        try {
+            return Money.of(majorUnits, currency);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    static TransactionStatus mapTransactionStatus(String flwStatus) {
+        return switch (flwStatus.toLowerCase()) {
+            case "successful" -> TransactionStatus.SUCCESSFUL;
+            case "failed" -> TransactionStatus.FAILED;
+            case "cancelled" -> TransactionStatus.CANCELLED;
+            case "pending" -> TransactionStatus.PENDING;
+            default -> TransactionStatus.FAILED;
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.Customer;
+import co.paydeck.model.Money;
+import co.paydeck.model.deposit.CheckoutCustomization;
+import co.paydeck.model.deposit.CheckoutRequest;
+import co.paydeck.util.JsonPayload;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.IOException;
+
+final class PaystackCheckoutEncoder {
+    private static final SerializedString REFERENCE = new SerializedString("reference");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString CURRENCY = new SerializedString("currency");
+    private static final SerializedString CALLBACK_URL = new SerializedString("callback_url");
+    private static final SerializedString CHANNELS = new SerializedString("channels");
+    private static final SerializedString CUSTOMER = new SerializedString("customer");
+    private static final SerializedString PHONE = new SerializedString("phone");
+    private static final SerializedString FIRST_NAME = new SerializedString("first_name");
+    private static final SerializedString LAST_NAME = new SerializedString("last_name");
+    private static final SerializedString CUSTOMIZATION = new SerializedString("customization");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString LOGO = new SerializedString("logo");
+    private static final SerializedString METADATA = new SerializedString("metadata");
+
+    private static final SerializedString[] CURRENCY_VALUES = CheckoutEncoding.currencyValues();
+    // Raw JSON arrays such as ["card","ussd"], one per PaymentMethod combination
+    private static final SerializedString[] CHANNEL_ARRAYS = CheckoutEncoding.methodCombinations(
+        names -> names.isEmpty() ? "[]" : "[\"" + String.join("\",\"", names) + "\"]"
+    );
+
+    private PaystackCheckoutEncoder() {
+    }
+
+    // Converts the amount up front, so an amount Paystack cannot represent fails here, not mid-write
+    static JsonPayload payload(CheckoutRequest request) {
+        long amount = minorUnits(request);
+        return generator -> write(request, amount, generator);
+    }
+
+    // Paystack takes minor units and defaults to NGN; throws ArithmeticException rather than truncating
+    static long minorUnits(CheckoutRequest request) {
+        Currency currency = request.getCurrency() != null ? request.getCurrency() : Currency.NGN;
+        return Money.of(request.getAmount(), currency).getMinorUnits();
+    }
+
+    static void write(CheckoutRequest request, long amount, JsonGenerator generator) throws IOException {
+        Customer customer = request.getCustomer();
+        CheckoutCustomization customization = request.getCustomization();
+
+        generator.writeStartObject();
+        generator.writeFieldName(REFERENCE);
+        generator.writeString(request.getReference());
+        generator.writeFieldName(AMOUNT);
+        generator.writeNumber(amount);
+        generator.writeFieldName(EMAIL);
+        generator.writeString(customer.getEmail());
+        generator.writeFieldName(CURRENCY);
+        writeCurrency(request.getCurrency(), generator);
+        generator.writeFieldName(CALLBACK_URL);
+        generator.writeString(customization == null ? null : customization.getReturnUrl());
+        generator.writeFieldName(CHANNELS);
+        generator.writeRawValue(CHANNEL_ARRAYS[CheckoutEncoding.mask(request.getPaymentMethods())]);
+
+        generator.writeFieldName(CUSTOMER);
+        generator.writeStartObject();
+        generator.writeFieldName(EMAIL);
+        generator.writeString(customer.getEmail());
+        generator.writeFieldName(PHONE);
+        generator.writeString(customer.getPhoneNumber());
+        generator.writeFieldName(FIRST_NAME);
+        generator.writeString(customer.getFirstName());
+        generator.writeFieldName(LAST_NAME);
+        generator.writeString(customer.getLastName());
+        generator.writeEndObject();
+
+        generator.writeFieldName(CUSTOMIZATION);
+        generator.writeStartObject();
+        if (customization != null) {
+            generator.writeFieldName(TITLE);
+            generator.writeString(customization.getTitle());
+            generator.writeFieldName(DESCRIPTION);
+            generator.writeString(customization.getDescription());
+            generator.writeFieldName(LOGO);
+            generator.writeString(customization.getLogoUrl());
+        }
+        generator.writeEndObject();
+
+        generator.writeFieldName(METADATA);
+        CheckoutEncoding.writeMetadata(request.getMetadata(), generator);
+        generator.writeEndObject();
+    }
+
+    private static void writeCurrency(Currency currency, JsonGenerator generator) throws IOException {
+        if (currency == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(CURRENCY_VALUES[currency.ordinal()]);
+        }
+    }
+}
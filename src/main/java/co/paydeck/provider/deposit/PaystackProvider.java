@@ -1,34 +1,51 @@
 package co.paydeck.provider.deposit;
 
 import co.paydeck.core.BaseDepositProvider;
+import co.paydeck.model.Currency;
 import co.paydeck.model.PaymentMethod;
 import co.paydeck.model.Provider;
-import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.ProviderCapabilities;
 import co.paydeck.model.deposit.*;
 import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.provider.dto.PaystackInitialization;
+import co.paydeck.provider.dto.PaystackInitializeResponse;
+import co.paydeck.provider.dto.PaystackTransaction;
+import co.paydeck.provider.dto.PaystackTransactionListResponse;
+import co.paydeck.provider.dto.PaystackTransactionResponse;
+import co.paydeck.util.Endpoint;
+import co.paydeck.util.Futures;
 import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpException;
+import co.paydeck.util.JsonPayload;
+import co.paydeck.util.PageIterator;
+import co.paydeck.util.RateLimitedException;
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 public class PaystackProvider implements BaseDepositProvider {
     private final HttpClient httpClient;
-    private static final Set<PaymentMethod> SUPPORTED_METHODS = EnumSet.of(
-        PaymentMethod.CARD,
-        PaymentMethod.BANK_TRANSFER,
-        PaymentMethod.USSD,
-        PaymentMethod.QR
-    );
     private static final String PROVIDER_ERROR = "PROVIDER_ERROR";
+    private static final String RATE_LIMITED = "RATE_LIMITED";
+    private static final String IN_DOUBT = "IN_DOUBT";
+    private static final Endpoint[] ENDPOINTS = {
+        Endpoint.of(Provider.PAYSTACK.getCode(), "initialize", "/transaction/initialize"),
+        Endpoint.of(Provider.PAYSTACK.getCode(), "verify", "/transaction/verify/{reference}"),
+        Endpoint.of(Provider.PAYSTACK.getCode(), "list", "/transaction")
+    };
 
     public PaystackProvider(String secretKey) {
-        this.httpClient = HttpClient.builder()
+        this(secretKey, HttpClient.builder());
+    }
+
+    public PaystackProvider(String secretKey, HttpClient.Builder httpClientBuilder) {
+        this.httpClient = httpClientBuilder
             .baseUrl("https://api.paystack.co")
             .addDefaultHeader("Authorization", "Bearer " + secretKey)
             .addDefaultHeader("Content-Type", "application/json")
+            .endpoints(ENDPOINTS)
             .build();
     }
 
@@ -39,173 +56,216 @@ public class PaystackProvider implements BaseDepositProvider {
 
     @Override
     public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
-        return SUPPORTED_METHODS.containsAll(methods);
+        return ProviderCapabilities.DEFAULT.supportsPaymentMethods(Provider.PAYSTACK, methods);
+    }
+
+    @Override
+    public boolean supportsCurrency(Currency currency) {
+        return ProviderCapabilities.DEFAULT.supportsCurrency(Provider.PAYSTACK, currency);
+    }
+
+    @Override
+    public boolean supportsCountry(String countryCode) {
+        return ProviderCapabilities.DEFAULT.supportsCountry(Provider.PAYSTACK, countryCode);
     }
 
 
-    @SuppressWarnings("unchecked")
     @Override
     public PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request) {
         if (!supportsPaymentMethods(request.getPaymentMethods()))
         {
-            return PaydeckResponse.error(
-                "UNSUPPORTED_PAYMENT_METHOD",
-                "one or more of the provided Payment method is not" + 
-                " not supported by " + getProviderName()
-            );
+            return unsupportedPaymentMethod();
         }
 
+        JsonPayload payload;
+        try {
+            payload = PaystackCheckoutEncoder.payload(request);
+        } catch (ArithmeticException e) {
+            return invalidAmount(request);
+        }
 
         try {
-            Map<String, Object> payload = buildCheckoutPayload(request);
-            Map<String, Object> response = httpClient.post("/transaction/initialize", payload, Map.class);
-
-            Boolean status = (Boolean) response.get("status");
-            String message = (String) response.get("message");
-    
-            if (!Boolean.TRUE.equals(status)) {
-                return PaydeckResponse.providerError(
-                    PROVIDER_ERROR,
-                    "Paystack request failed",
-                    status ? "success" : "failed",
-                    message
-                );
-            }
-    
-            Map<String, Object> data = (Map<String, Object>) response.get("data");
-            return PaydeckResponse.success(buildCheckoutResponseData(data));
-        } catch (IOException e) {
-            return PaydeckResponse.error(
-                PROVIDER_ERROR,
-                "Failed to communicate with Paystack: " + e.getMessage()
+            return toCheckoutResponse(
+                httpClient.postIdempotent("/transaction/initialize", payload, PaystackInitializeResponse.class,
+                    request.getReference())
             );
+        } catch (IOException | HttpException e) {
+            return checkoutFailure(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<CheckoutResponseData>> initiateCheckoutAsync(CheckoutRequest request) {
+        if (!supportsPaymentMethods(request.getPaymentMethods()))
+        {
+            return CompletableFuture.completedFuture(unsupportedPaymentMethod());
         }
+
+        JsonPayload payload;
+        try {
+            payload = PaystackCheckoutEncoder.payload(request);
+        } catch (ArithmeticException e) {
+            return CompletableFuture.completedFuture(invalidAmount(request));
+        }
+        return Futures.recoverRequestFailure(
+            httpClient.postIdempotentAsync("/transaction/initialize", payload, PaystackInitializeResponse.class,
+                    request.getReference())
+                .thenApply(this::toCheckoutResponse),
+            this::checkoutFailure
+        );
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
         try {
-            Map<String, Object> response = httpClient.get(
-                "/transaction/verify/" + merchantTransactionReference,
-                Map.class
+            return toTransactionResponse(
+                httpClient.get(verifyPath(merchantTransactionReference), PaystackTransactionResponse.class)
             );
+        } catch (IOException | HttpException e) {
+            return fetchFailure(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return Futures.recoverRequestFailure(
+            httpClient.getAsync(verifyPath(merchantTransactionReference), PaystackTransactionResponse.class)
+                .thenApply(this::toTransactionResponse),
+            this::fetchFailure
+        );
+    }
 
-            Boolean status = (Boolean) response.get("status");
-            String message = (String) response.get("message");
+    @Override
+    public Stream<TransactionResponseData> listTransactions(TransactionListRequest request) {
+        return PageIterator.stream(1, page ->
+            httpClient.getAsync(listPath(request, page), PaystackTransactionListResponse.class)
+                .thenApply(this::toTransactionPage)
+        );
+    }
 
-            if (!Boolean.TRUE.equals(response.get("status"))) {
-                return PaydeckResponse.providerError(
-                    PROVIDER_ERROR,
-                    "Paystack transaction verification failed",
-                    status ? "success" : "failed",
-                    message
-                );
-            }
+    private PaydeckResponse<CheckoutResponseData> unsupportedPaymentMethod() {
+        return PaydeckResponse.error(
+            "UNSUPPORTED_PAYMENT_METHOD",
+            "one or more of the provided Payment method is not" + 
+            " not supported by " + getProviderName()
+        );
+    }
 
-            Map<String, Object> data = (Map<String, Object>) response.get("data");
+    private PaydeckResponse<CheckoutResponseData> invalidAmount(CheckoutRequest request) {
+        return PaydeckResponse.error(
+            "INVALID_AMOUNT",
+            "Amount " + request.getAmount() + " cannot be expressed exactly in minor units of "
+                + (request.getCurrency() != null ? request.getCurrency() : "NGN")
+        );
+    }
 
-            return PaydeckResponse.success(buildTransactionResponseData(data));
-        } catch (IOException e) {
-            return PaydeckResponse.error(
+    private PaydeckResponse<CheckoutResponseData> toCheckoutResponse(PaystackInitializeResponse response) {
+        Boolean status = response.getStatus();
+        String message = response.getMessage();
+
+        if (!Boolean.TRUE.equals(status)) {
+            return PaydeckResponse.providerError(
                 PROVIDER_ERROR,
-                "Failed to get transaction status from Paystack: " + e.getMessage()
+                "Paystack request failed",
+                "failed",
+                message
             );
         }
+
+        return PaydeckResponse.success(buildCheckoutResponseData(response.getData()));
     }
 
-    private Map<String, Object> buildCheckoutPayload(CheckoutRequest request) {
-        String[] channels = request.getPaymentMethods().stream()
-        .map(PaymentMethod::name)
-        .map(String::toLowerCase)
-        .toArray(String[]::new);
+    // A rejected replay may be refusing a duplicate of a first attempt that landed, so it is no answer.
+    // Verification cannot tell either: an unpaid checkout looks the same whether or not it was created
+    private PaydeckResponse<CheckoutResponseData> checkoutFailure(Exception e) {
+        if (e instanceof HttpException && ((HttpException) e).isRejectedReplay()) {
+            HttpException http = (HttpException) e;
+            return PaydeckResponse.httpError(IN_DOUBT,
+                "Paystack rejected a replayed checkout whose first attempt may have been created: " + e.getMessage(),
+                http.getStatusCode(), http.getResponseBody());
+        }
+        return transportFailure("Failed to communicate with Paystack: ", e);
+    }
+
+    private String verifyPath(String merchantTransactionReference) {
+        return "/transaction/verify/" + merchantTransactionReference;
+    }
 
+    private PaydeckResponse<TransactionResponseData> toTransactionResponse(PaystackTransactionResponse response) {
+        Boolean status = response.getStatus();
+        String message = response.getMessage();
 
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("reference", request.getReference());
-        payload.put("amount", request.getAmount().multiply(new BigDecimal("100")).intValue()); // Convert to kobo
-        payload.put("email", request.getCustomer().getEmail());
-        payload.put("currency", request.getCurrency());
-        payload.put("callback_url", request.getCustomization().getReturnUrl());
-        payload.put("channels", channels);
-        payload.put("customer", buildCustomerData(request));
-        payload.put("customization", buildCustomizationData(request));
-        payload.put("metadata", request.getMetadata());
+        if (!Boolean.TRUE.equals(status)) {
+            return PaydeckResponse.providerError(
+                PROVIDER_ERROR,
+                "Paystack transaction verification failed",
+                "failed",
+                message
+            );
+        }
 
-        return payload;
+        return PaydeckResponse.success(PaystackTransactionMapper.toTransactionResponseData(response.getData()));
     }
 
-    private Map<String, String> buildCustomerData(CheckoutRequest request) {
-        Map<String, String> customer = new HashMap<>();
-        customer.put("email", request.getCustomer().getEmail());
-        customer.put("phone", request.getCustomer().getPhoneNumber());
-        customer.put("first_name", request.getCustomer().getFirstName());
-        customer.put("last_name", request.getCustomer().getLastName());
-        return customer;
+    private PaydeckResponse<TransactionResponseData> fetchFailure(Exception e) {
+        return transportFailure("Failed to get transaction status from Paystack: ", e);
     }
 
-    private Map<String, String> buildCustomizationData(CheckoutRequest request) {
-        Map<String, String> customization = new HashMap<>();
-        customization.put("title", request.getCustomization().getTitle());
-        customization.put("description", request.getCustomization().getDescription());
-        customization.put("logo", request.getCustomization().getLogoUrl());
-        return customization;
+    // Paystack filters on timestamps, so the inclusive day range is widened to whole UTC days
+    private String listPath(TransactionListRequest request, int page) {
+        StringBuilder path = new StringBuilder("/transaction?perPage=")
+            .append(request.getPageSize())
+            .append("&page=")
+            .append(page);
+        if (request.getFrom() != null) {
+            path.append("&from=").append(request.getFrom()).append("T00:00:00.000Z");
+        }
+        if (request.getTo() != null) {
+            path.append("&to=").append(request.getTo()).append("T23:59:59.999Z");
+        }
+        return path.toString();
     }
 
-    private CheckoutResponseData buildCheckoutResponseData(Map<String, Object> data) {
-        Map<String, String> metadata = new HashMap<>();
-        metadata.put("access_code", (String) data.get("access_code"));
-        metadata.put("reference", (String) data.get("reference"));
+    private PageIterator.Page<TransactionResponseData> toTransactionPage(PaystackTransactionListResponse response) {
+        if (!Boolean.TRUE.equals(response.getStatus())) {
+            throw new CompletionException(
+                new IOException("Paystack transaction listing failed: " + response.getMessage()));
+        }
 
-        return CheckoutResponseData.builder()
-            .checkoutUrl((String) data.get("authorization_url"))
-            .transactionId((String) data.get("reference"))
-            .providerTransactionReference((String) data.get("access_code"))
-            .providerMetadata(metadata)
-            .build();
+        List<TransactionResponseData> transactions = new ArrayList<>(response.getData().size());
+        for (PaystackTransaction transaction : response.getData()) {
+            transactions.add(PaystackTransactionMapper.toTransactionResponseData(transaction));
+        }
+        PaystackTransactionListResponse.Meta meta = response.getMeta();
+        return new PageIterator.Page<>(transactions, meta != null && meta.getPage() < meta.getPageCount());
     }
 
-    private TransactionResponseData buildTransactionResponseData(Map<String, Object> data) {
+    private CheckoutResponseData buildCheckoutResponseData(PaystackInitialization data) {
         Map<String, String> metadata = new HashMap<>();
-        metadata.put("authorization_code", (String) data.get("authorization_code"));
-        metadata.put("card_type", (String) data.get("card_type"));
-        metadata.put("last4", (String) data.get("last4"));
-        metadata.put("channel", (String) data.get("channel"));
-
-        BigDecimal amount = new BigDecimal(data.get("amount").toString())
-            .divide(new BigDecimal("100")); // Convert from kobo to main currency
-
-        return TransactionResponseData.builder()
-            .transactionId(data.get("id").toString())
-            .merchantTransactionReference((String) data.get("reference"))
-            .providerTransactionReference((String) data.get("authorization_code"))
-            .status(mapTransactionStatus((String) data.get("status")))
-            .amount(amount)
-            .chargedAmount(amount)
-            .settledAmount(amount)
-            .feeAmount(new BigDecimal(data.get("fees").toString()).divide(new BigDecimal("100")))
-            .currency((String) data.get("currency"))
-            .transactionDate(parseTransactionDate((String) data.get("paid_at")))
-            .paymentMethod((String) data.get("channel"))
+        metadata.put("access_code", data.getAccessCode());
+        metadata.put("reference", data.getReference());
+
+        return CheckoutResponseData.builder()
+            .provider(getProviderName())
+            .checkoutUrl(data.getAuthorizationUrl())
+            .transactionId(data.getReference())
+            .providerTransactionReference(data.getAccessCode())
             .providerMetadata(metadata)
             .build();
     }
 
-    private TransactionStatus mapTransactionStatus(String paystackStatus) {
-        return switch (paystackStatus.toLowerCase()) {
-            case "success" -> TransactionStatus.SUCCESSFUL;
-            case "failed" -> TransactionStatus.FAILED;
-            case "abandoned" -> TransactionStatus.CANCELLED;
-            case "pending" -> TransactionStatus.PENDING;
-            default -> TransactionStatus.FAILED;
-        };
-    }
-
-    private LocalDateTime parseTransactionDate(String dateStr) {
-        try {
-            return LocalDateTime.parse(dateStr, DateTimeFormatter.ISO_DATE_TIME);
-        } catch (DateTimeParseException e) {
-            return LocalDateTime.now();
+    // Local throttling says nothing about the provider's health, so it gets its own code. A non-2xx
+    // answer keeps its status, so callers can tell a rejected request from an outage
+    private <T> PaydeckResponse<T> transportFailure(String message, Exception e) {
+        if (e instanceof HttpException) {
+            HttpException http = (HttpException) e;
+            return PaydeckResponse.httpError(PROVIDER_ERROR, message + e.getMessage(),
+                http.getStatusCode(), http.getResponseBody());
         }
+        return PaydeckResponse.error(
+            e instanceof RateLimitedException ? RATE_LIMITED : PROVIDER_ERROR,
+            message + e.getMessage()
+        );
     }
 }
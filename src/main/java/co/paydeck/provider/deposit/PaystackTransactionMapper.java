@@ -0,0 +1,78 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.Money;
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.deposit.TransactionResponseData;
+import co.paydeck.provider.dto.PaystackTransaction;
+import co.paydeck.util.Timestamps;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Shared by transaction verification and webhook parsing
+public final class PaystackTransactionMapper {
+    private PaystackTransactionMapper() {
+    }
+
+    public static TransactionResponseData toTransactionResponseData(PaystackTransaction data) {
+        PaystackTransaction.Authorization authorization = data.getAuthorization() != null
+            ? data.getAuthorization()
+            : new PaystackTransaction.Authorization();
+
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("authorization_code", authorization.getAuthorizationCode());
+        metadata.put("card_type", authorization.getCardType());
+        metadata.put("last4", authorization.getLast4());
+        metadata.put("channel", data.getChannel());
+
+        // An unparseable date is left null rather than guessed; the raw value is kept for reconciliation
+        OffsetDateTime transactionDate = Timestamps.parse(data.getPaidAt());
+        if (transactionDate == null && data.getPaidAt() != null) {
+            metadata.put("unparsed_transaction_date", data.getPaidAt());
+        }
+
+        // Paystack reports minor units and omits the currency only for NGN. A currency we do not know
+        // has no known minor unit, so its amounts are left null and the raw value is kept instead
+        Currency currency = data.getCurrency() == null ? Currency.NGN : Currency.fromCode(data.getCurrency());
+        Money amount = null;
+        Money fees = null;
+        if (currency != null) {
+            amount = Money.ofMinor(data.getAmount(), currency);
+            fees = Money.ofMinor(data.getFees() == null ? 0 : data.getFees(), currency);
+        } else {
+            metadata.put("unparsed_amount", Long.toString(data.getAmount()));
+        }
+        BigDecimal majorAmount = amount != null ? amount.toBigDecimal() : null;
+
+        return TransactionResponseData.builder()
+            .transactionId(Long.toString(data.getId()))
+            .merchantTransactionReference(data.getReference())
+            .providerTransactionReference(authorization.getAuthorizationCode())
+            .status(mapTransactionStatus(data.getStatus()))
+            .amount(majorAmount)
+            .chargedAmount(majorAmount)
+            .settledAmount(majorAmount)
+            .feeAmount(fees != null ? fees.toBigDecimal() : null)
+            .money(amount)
+            .chargedMoney(amount)
+            .settledMoney(amount)
+            .feeMoney(fees)
+            .currency(data.getCurrency() != null ? data.getCurrency() : Currency.NGN.name())
+            .transactionDate(transactionDate)
+            .paymentMethod(data.getChannel())
+            .providerMetadata(metadata)
+            .build();
+    }
+
+    static TransactionStatus mapTransactionStatus(String paystackStatus) {
+        return switch (paystackStatus.toLowerCase()) {
+            case "success" -> TransactionStatus.SUCCESSFUL;
+            case "failed" -> TransactionStatus.FAILED;
+            case "abandoned" -> TransactionStatus.CANCELLED;
+            case "pending" -> TransactionStatus.PENDING;
+            default -> TransactionStatus.FAILED;
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FlutterwavePayment {
+    private String link;
+    @JsonProperty("transaction_id")
+    private String transactionId;
+    @JsonProperty("flw_ref")
+    private String flwRef;
+    @JsonProperty("tx_ref")
+    private String txRef;
+}
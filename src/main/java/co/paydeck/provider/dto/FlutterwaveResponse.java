@@ -0,0 +1,12 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FlutterwaveResponse<T> {
+    private String status;
+    private String message;
+    private T data;
+}
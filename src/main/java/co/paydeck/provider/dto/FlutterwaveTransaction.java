@@ -0,0 +1,32 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import java.math.BigDecimal;
+
+// Only the fields the SDK maps; card, customer, meta and similar sub-trees are skipped unparsed
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FlutterwaveTransaction {
+    private long id;
+    @JsonProperty("tx_ref")
+    private String txRef;
+    @JsonProperty("flw_ref")
+    private String flwRef;
+    private String status;
+    private BigDecimal amount;
+    @JsonProperty("charged_amount")
+    private BigDecimal chargedAmount;
+    @JsonProperty("amount_settled")
+    private BigDecimal amountSettled;
+    @JsonProperty("app_fee")
+    private BigDecimal appFee;
+    private String currency;
+    @JsonProperty("created_at")
+    private String createdAt;
+    @JsonProperty("payment_type")
+    private String paymentType;
+    @JsonProperty("processor_response")
+    private String processorResponse;
+}
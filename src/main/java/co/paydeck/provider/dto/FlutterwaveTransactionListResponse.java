@@ -0,0 +1,31 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FlutterwaveTransactionListResponse extends FlutterwaveResponse<List<FlutterwaveTransaction>> {
+    private Meta meta;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Meta {
+        @JsonProperty("page_info")
+        private PageInfo pageInfo;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PageInfo {
+        private long total;
+        @JsonProperty("current_page")
+        private int currentPage;
+        @JsonProperty("total_pages")
+        private int totalPages;
+    }
+}
@@ -0,0 +1,4 @@
+package co.paydeck.provider.dto;
+
+public class FlutterwaveTransactionResponse extends FlutterwaveResponse<FlutterwaveTransaction> {
+}
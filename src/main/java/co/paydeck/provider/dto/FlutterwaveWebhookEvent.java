@@ -0,0 +1,11 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FlutterwaveWebhookEvent {
+    private String event;
+    private FlutterwaveTransaction data;
+}
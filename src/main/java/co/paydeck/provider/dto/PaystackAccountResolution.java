@@ -0,0 +1,17 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+// The data of a /bank/resolve response
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaystackAccountResolution {
+    @JsonProperty("account_number")
+    private String accountNumber;
+    @JsonProperty("account_name")
+    private String accountName;
+    @JsonProperty("bank_id")
+    private Long bankId;
+}
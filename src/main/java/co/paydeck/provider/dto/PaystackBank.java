@@ -0,0 +1,14 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaystackBank {
+    private String name;
+    private String code;
+    private String country;
+    private String currency;
+    private String type;
+}
@@ -0,0 +1,6 @@
+package co.paydeck.provider.dto;
+
+import java.util.List;
+
+public class PaystackBanksResponse extends PaystackResponse<List<PaystackBank>> {
+}
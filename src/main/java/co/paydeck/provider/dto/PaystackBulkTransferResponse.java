@@ -0,0 +1,6 @@
+package co.paydeck.provider.dto;
+
+import java.util.List;
+
+public class PaystackBulkTransferResponse extends PaystackResponse<List<PaystackTransfer>> {
+}
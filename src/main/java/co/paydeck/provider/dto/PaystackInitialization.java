@@ -0,0 +1,15 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaystackInitialization {
+    @JsonProperty("authorization_url")
+    private String authorizationUrl;
+    @JsonProperty("access_code")
+    private String accessCode;
+    private String reference;
+}
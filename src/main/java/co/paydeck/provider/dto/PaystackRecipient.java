@@ -0,0 +1,18 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+// A transfer recipient as returned by /transferrecipient
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaystackRecipient {
+    private Long id;
+    private String name;
+    private String type;
+    private String currency;
+    @JsonProperty("recipient_code")
+    private String recipientCode;
+    private Boolean active;
+}
@@ -0,0 +1,4 @@
+package co.paydeck.provider.dto;
+
+public class PaystackRecipientResponse extends PaystackResponse<PaystackRecipient> {
+}
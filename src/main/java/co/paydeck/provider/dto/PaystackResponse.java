@@ -0,0 +1,12 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaystackResponse<T> {
+    private Boolean status;
+    private String message;
+    private T data;
+}
@@ -0,0 +1,33 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+// Only the fields the SDK maps; log, customer, history and similar sub-trees are skipped unparsed
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaystackTransaction {
+    private long id;
+    private String status;
+    private String reference;
+    private long amount;
+    private Long fees;
+    private String currency;
+    private String channel;
+    @JsonProperty("paid_at")
+    private String paidAt;
+    @JsonProperty("created_at")
+    private String createdAt;
+    private Authorization authorization;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Authorization {
+        @JsonProperty("authorization_code")
+        private String authorizationCode;
+        @JsonProperty("card_type")
+        private String cardType;
+        private String last4;
+    }
+}
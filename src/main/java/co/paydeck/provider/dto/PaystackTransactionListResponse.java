@@ -0,0 +1,21 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaystackTransactionListResponse extends PaystackResponse<List<PaystackTransaction>> {
+    private Meta meta;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Meta {
+        private long total;
+        private int page;
+        private int pageCount;
+    }
+}
@@ -0,0 +1,4 @@
+package co.paydeck.provider.dto;
+
+public class PaystackTransactionResponse extends PaystackResponse<PaystackTransaction> {
+}
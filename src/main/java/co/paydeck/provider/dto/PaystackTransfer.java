@@ -0,0 +1,21 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+// A transfer as returned by /transfer, /transfer/verify and each entry of /transfer/bulk
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaystackTransfer {
+    private Long id;
+    private String reference;
+    private long amount;
+    private String currency;
+    private String status;
+    private String reason;
+    @JsonProperty("transfer_code")
+    private String transferCode;
+    private String createdAt;
+    private String updatedAt;
+}
@@ -0,0 +1,11 @@
+package co.paydeck.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaystackWebhookEvent {
+    private String event;
+    private PaystackTransaction data;
+}
@@ -1,29 +1,82 @@
 package co.paydeck.provider.payout;
 
 import co.paydeck.core.BasePayoutProvider;
+import co.paydeck.model.Currency;
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
 import co.paydeck.model.payout.BanksRequest;
 import co.paydeck.model.payout.BanksResponseData;
 import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.provider.dto.PaystackAccountResolutionResponse;
+import co.paydeck.provider.dto.PaystackBank;
+import co.paydeck.provider.dto.PaystackBanksResponse;
+import co.paydeck.provider.dto.PaystackBulkTransferResponse;
+import co.paydeck.provider.dto.PaystackRecipientResponse;
+import co.paydeck.provider.dto.PaystackTransfer;
+import co.paydeck.provider.dto.PaystackTransferResponse;
+import co.paydeck.util.ConcurrentBatch;
+import co.paydeck.util.Endpoint;
+import co.paydeck.util.Futures;
 import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpException;
+import co.paydeck.util.JsonPayload;
+import co.paydeck.util.RateLimitedException;
 import co.paydeck.model.common.PaydeckResponse;
-import co.paydeck.model.deposit.TransactionResponseData;
-import co.paydeck.model.CountryProviderMap;
 import co.paydeck.model.PaymentMethod;
 import co.paydeck.model.Provider;
+import co.paydeck.model.ProviderCapabilities;
 
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class PaystackProvider implements BasePayoutProvider {
 
+    // Most transfers Paystack accepts in one /transfer/bulk request
+    public static final int BULK_TRANSFER_LIMIT = 100;
+
     private final HttpClient httpClient;
+    private final RecipientRegistry recipients;
+    private static final String PROVIDER_ERROR = "PROVIDER_ERROR";
+    private static final String RATE_LIMITED = "RATE_LIMITED";
+    private static final String IN_DOUBT = "IN_DOUBT";
+    private static final Endpoint[] ENDPOINTS = {
+        Endpoint.of(Provider.PAYSTACK.getCode(), "bank", "/bank"),
+        Endpoint.of(Provider.PAYSTACK.getCode(), "resolve_account", "/bank/resolve"),
+        Endpoint.of(Provider.PAYSTACK.getCode(), "transfer", "/transfer"),
+        Endpoint.of(Provider.PAYSTACK.getCode(), "bulk_transfer", "/transfer/bulk"),
+        Endpoint.of(Provider.PAYSTACK.getCode(), "verify_transfer", "/transfer/verify/{reference}"),
+        Endpoint.of(Provider.PAYSTACK.getCode(), "recipient", "/transferrecipient")
+    };
 
     public PaystackProvider(String secretKey) {
-        this.httpClient = HttpClient.builder()
+        this(secretKey, HttpClient.builder());
+    }
+
+    public PaystackProvider(String secretKey, HttpClient.Builder httpClientBuilder) {
+        this(secretKey, httpClientBuilder, RecipientRegistry.inMemory());
+    }
+
+    // Pass a registry opened on a file to keep recipient codes across restarts
+    public PaystackProvider(String secretKey, HttpClient.Builder httpClientBuilder, RecipientRegistry recipients) {
+        this.httpClient = httpClientBuilder
             .baseUrl("https://api.paystack.co")
             .addDefaultHeader("Authorization", "Bearer " + secretKey)
             .addDefaultHeader("Content-Type", "application/json")
+            .endpoints(ENDPOINTS)
             .build();
+        this.recipients = recipients;
     }
 
     @Override
@@ -33,45 +86,531 @@ public class PaystackProvider implements BasePayoutProvider {
 
     @Override
     public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
-        return methods.contains(PaymentMethod.BANK_TRANSFER);
+        return ProviderCapabilities.DEFAULT.supportsPayoutMethods(Provider.PAYSTACK, methods);
     }
 
     @Override
     public PaydeckResponse<BanksResponseData> getBanks(BanksRequest request) {
-        String path = buildBankPath(request);
-        Map<String, Object> response = httpClient.get(path, Map.class);
+        try {
+            return toBanksResponse(httpClient.get(buildBankPath(request), PaystackBanksResponse.class), request);
+        } catch (IOException | HttpException e) {
+            return banksFailure(e);
+        }
+    }
 
-        Boolean status = (Boolean) response.get("status");
-        String message = (String) response.get("message");
+    @Override
+    public CompletableFuture<PaydeckResponse<BanksResponseData>> getBanksAsync(BanksRequest request) {
+        return Futures.recoverRequestFailure(
+            httpClient.getAsync(buildBankPath(request), PaystackBanksResponse.class)
+                .thenApply(response -> toBanksResponse(response, request)),
+            this::banksFailure
+        );
+    }
 
-        if (!status.booleanValue()) {
-            return PaydeckResponse.providerError(message, message, path, message);
+    @Override
+    public PaydeckResponse<TransactionResponseData> initiatePayout(PayoutRequest request) {
+        PaydeckResponse<TransactionResponseData> invalid = validate(request);
+        if (invalid != null) {
+            return invalid;
+        }
+        if (!hasRecipientCode(request)) {
+            return Futures.join(initiatePayoutAsync(request));
         }
 
-        BanksResponseData data = new BanksResponseData();
-        data.setBanks((Map<String, String>) response.get("data"));
-
-        return PaydeckResponse.success(data);
+        String reference = request.getMerchantTransactionReference();
+        try {
+            return toTransferResponse(
+                httpClient.postIdempotent("/transfer", PaystackTransferEncoder.payload(request),
+                    PaystackTransferResponse.class, reference),
+                "Paystack transfer request failed"
+            );
+        } catch (HttpException e) {
+            return e.isRejectedReplay() ? confirmTransfer(reference, e, fetchTransaction(reference)) : payoutFailure(e);
+        } catch (IOException e) {
+            return payoutFailure(e);
+        }
     }
 
     @Override
-    public PaydeckResponse<TransactionResponseData> initiatePayout(PayoutRequest request) {
-        return null;
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> initiatePayoutAsync(PayoutRequest request) {
+        PaydeckResponse<TransactionResponseData> invalid = validate(request);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
+        }
+
+        String reference = request.getMerchantTransactionReference();
+        return Futures.recoverRequestFailure(
+            withRecipient(request)
+                .thenCompose(resolved -> httpClient.postIdempotentAsync("/transfer",
+                    PaystackTransferEncoder.payload(resolved), PaystackTransferResponse.class, reference))
+                .thenApply(response -> CompletableFuture.completedFuture(
+                    toTransferResponse(response, "Paystack transfer request failed"))),
+            e -> e instanceof HttpException && ((HttpException) e).isRejectedReplay()
+                ? fetchTransactionAsync(reference).thenApply(lookup -> confirmTransfer(reference, (HttpException) e, lookup))
+                : CompletableFuture.completedFuture(payoutFailure(e))
+        ).thenCompose(response -> response);
     }
 
     @Override
     public PaydeckResponse<TransactionResponseData> fetchTransaction(String merchantTransactionReference) {
+        try {
+            return toTransferResponse(
+                httpClient.get(verifyPath(merchantTransactionReference), PaystackTransferResponse.class),
+                "Paystack transfer verification failed"
+            );
+        } catch (IOException | HttpException e) {
+            return fetchFailure(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<TransactionResponseData>> fetchTransactionAsync(
+            String merchantTransactionReference) {
+        return Futures.recoverRequestFailure(
+            httpClient.getAsync(verifyPath(merchantTransactionReference), PaystackTransferResponse.class)
+                .thenApply(response -> toTransferResponse(response, "Paystack transfer verification failed")),
+            this::fetchFailure
+        );
+    }
+
+    @Override
+    public PaydeckResponse<AccountResolutionData> resolveAccount(AccountResolutionRequest request) {
+        try {
+            return toAccountResponse(
+                httpClient.get(resolvePath(request), PaystackAccountResolutionResponse.class), request);
+        } catch (HttpException e) {
+            return accountHttpFailure(e, request);
+        } catch (IOException e) {
+            return accountFailure(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<PaydeckResponse<AccountResolutionData>> resolveAccountAsync(
+            AccountResolutionRequest request) {
+        return Futures.recoverRequestFailure(
+            httpClient.getAsync(resolvePath(request), PaystackAccountResolutionResponse.class)
+                .thenApply(response -> toAccountResponse(response, request)),
+            e -> e instanceof HttpException ? accountHttpFailure((HttpException) e, request) : accountFailure(e)
+        );
+    }
+
+    /**
+     * Sends the payouts through {@code /transfer/bulk}, grouped by currency and split into chunks of
+     * {@link #BULK_TRANSFER_LIMIT}. Up to {@code maxConcurrency} chunks are in flight at once. A chunk
+     * that fails turns into an error entry for each of its references; the other chunks are unaffected.
+     * Payouts given as bank accounts have their recipients looked up or created first, once per
+     * distinct account.
+     */
+    @Override
+    public CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> initiateBulkPayoutAsync(
+            Collection<PayoutRequest> requests, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+
+        // Invalid payouts are answered up front and never sent
+        Map<String, PaydeckResponse<TransactionResponseData>> results = new LinkedHashMap<>(requests.size() * 4 / 3 + 1);
+        List<PayoutRequest> accepted = new ArrayList<>(requests.size());
+        Map<RecipientRegistry.Key, PayoutRequest> accounts = new LinkedHashMap<>();
+        for (PayoutRequest request : requests) {
+            String reference = request.getMerchantTransactionReference();
+            if (results.containsKey(reference)) {
+                throw new IllegalArgumentException("Duplicate payout reference: " + reference);
+            }
+            PaydeckResponse<TransactionResponseData> invalid = validate(request);
+            results.put(reference, invalid);
+            if (invalid == null) {
+                accepted.add(request);
+                if (!hasRecipientCode(request)) {
+                    accounts.putIfAbsent(recipientKey(request), request);
+                }
+            }
+        }
+
+        return ConcurrentBatch.run(
+            accounts.keySet(),
+            DEFAULT_BATCH_CONCURRENCY,
+            key -> withRecipient(accounts.get(key)).thenApply(PaydeckResponse::success),
+            (key, error) -> recipientFailure(error)
+        ).thenCompose(resolved -> submitChunks(accepted, resolved, results, maxConcurrency));
+    }
+
+    private CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> submitChunks(
+            List<PayoutRequest> accepted, Map<RecipientRegistry.Key, PaydeckResponse<PayoutRequest>> resolved,
+            Map<String, PaydeckResponse<TransactionResponseData>> results, int maxConcurrency) {
+        Map<Currency, List<PayoutRequest>> byCurrency = new EnumMap<>(Currency.class);
+        for (PayoutRequest request : accepted) {
+            if (!hasRecipientCode(request)) {
+                PaydeckResponse<PayoutRequest> recipient = resolved.get(recipientKey(request));
+                if (!recipient.isSuccess()) {
+                    results.put(request.getMerchantTransactionReference(), PaydeckResponse.<TransactionResponseData>builder()
+                        .success(false)
+                        .error(recipient.getError())
+                        .build());
+                    continue;
+                }
+                request = request.toBuilder().recipientCode(recipient.getData().getRecipientCode()).build();
+            }
+            byCurrency.computeIfAbsent(PaystackTransferEncoder.currency(request), c -> new ArrayList<>())
+                .add(request);
+        }
+
+        List<BulkChunk> chunks = new ArrayList<>();
+        byCurrency.forEach((currency, pending) -> {
+            for (int from = 0; from < pending.size(); from += BULK_TRANSFER_LIMIT) {
+                chunks.add(new BulkChunk(currency,
+                    pending.subList(from, Math.min(from + BULK_TRANSFER_LIMIT, pending.size()))));
+            }
+        });
+
+        List<Integer> chunkIndexes = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            chunkIndexes.add(i);
+        }
+
+        return ConcurrentBatch.run(
+            chunkIndexes,
+            maxConcurrency,
+            index -> submitChunk(chunks.get(index)),
+            (index, error) -> chunkFailure(chunks.get(index), error)
+        ).thenApply(chunkResults -> {
+            for (Map<String, PaydeckResponse<TransactionResponseData>> chunkResult : chunkResults.values()) {
+                results.putAll(chunkResult);
+            }
+            return results;
+        });
+    }
+
+    private PaydeckResponse<BanksResponseData> toBanksResponse(PaystackBanksResponse response, BanksRequest request) {
+        Boolean status = response.getStatus();
+        String message = response.getMessage();
+
+        if (!Boolean.TRUE.equals(status)) {
+            return PaydeckResponse.providerError(
+                PROVIDER_ERROR,
+                "Paystack bank list request failed",
+                "failed",
+                message
+            );
+        }
+
+        return PaydeckResponse.success(buildBanksResponseData(response.getData(), request.getCountryCode()));
+    }
+
+    private PaydeckResponse<TransactionResponseData> validate(PayoutRequest request) {
+        if (!hasRecipientCode(request) && (isEmpty(request.getBankCode()) || isEmpty(request.getAccountNumber()))) {
+            return PaydeckResponse.error(
+                "INVALID_RECIPIENT",
+                "Payout " + request.getMerchantTransactionReference()
+                    + " has neither a recipient code nor a bank code and account number"
+            );
+        }
+        try {
+            PaystackTransferEncoder.minorUnits(request);
+        } catch (ArithmeticException e) {
+            return PaydeckResponse.error(
+                "INVALID_AMOUNT",
+                "Amount " + request.getAmount() + " cannot be expressed exactly in minor units of "
+                    + PaystackTransferEncoder.currency(request)
+            );
+        }
         return null;
     }
 
+    private static boolean hasRecipientCode(PayoutRequest request) {
+        return !isEmpty(request.getRecipientCode());
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static RecipientRegistry.Key recipientKey(PayoutRequest request) {
+        return new RecipientRegistry.Key(request.getBankCode(), request.getAccountNumber(),
+            PaystackTransferEncoder.currency(request));
+    }
+
+    // Looks the account's recipient up in the registry, creating it with Paystack on a miss
+    private CompletableFuture<PayoutRequest> withRecipient(PayoutRequest request) {
+        if (hasRecipientCode(request)) {
+            return CompletableFuture.completedFuture(request);
+        }
+        return recipients.getOrCreate(request.getBankCode(), request.getAccountNumber(),
+                PaystackTransferEncoder.currency(request), () -> createRecipient(request))
+            .thenApply(recipientCode -> request.toBuilder().recipientCode(recipientCode).build());
+    }
+
+    // A recipient moves no money, so replaying its creation is safe even though the key is not sent.
+    // A rejected replay may be refusing the first attempt, so the creation is sent once more as a
+    // fresh request: Paystack answers it with the recipient it already holds, or a rejection that stands
+    private CompletableFuture<String> createRecipient(PayoutRequest request) {
+        JsonPayload payload = PaystackTransferEncoder.recipientPayload(request);
+        CompletableFuture<PaystackRecipientResponse> created = httpClient.postIdempotentAsync("/transferrecipient",
+            payload, PaystackRecipientResponse.class,
+            "recipient:" + request.getBankCode() + ":" + request.getAccountNumber());
+        return created
+            .handle((response, error) -> {
+                Throwable cause = error != null ? Futures.unwrap(error) : null;
+                if (cause instanceof HttpException && ((HttpException) cause).isRejectedReplay()) {
+                    return httpClient.postAsync("/transferrecipient", payload, PaystackRecipientResponse.class);
+                }
+                return created;
+            })
+            .thenCompose(response -> response)
+            .thenApply(response -> {
+                if (!Boolean.TRUE.equals(response.getStatus()) || response.getData() == null
+                        || isEmpty(response.getData().getRecipientCode())) {
+                    throw new CompletionException(
+                        new IOException("Paystack recipient creation failed: " + response.getMessage()));
+                }
+                return response.getData().getRecipientCode();
+            });
+    }
+
+    private PaydeckResponse<PayoutRequest> recipientFailure(Throwable error) {
+        return error instanceof IOException || error instanceof HttpException
+            ? transportFailure("Failed to create transfer recipient with Paystack: ", (Exception) error)
+            : PaydeckResponse.error(PROVIDER_ERROR,
+                "Failed to create transfer recipient with Paystack: " + error.getMessage());
+    }
+
+    private PaydeckResponse<TransactionResponseData> toTransferResponse(PaystackTransferResponse response,
+            String failure) {
+        if (!Boolean.TRUE.equals(response.getStatus())) {
+            return PaydeckResponse.providerError(
+                PROVIDER_ERROR,
+                failure,
+                "failed",
+                response.getMessage()
+            );
+        }
+
+        return PaydeckResponse.success(PaystackTransferMapper.toTransactionResponseData(response.getData()));
+    }
+
+    private PaydeckResponse<TransactionResponseData> payoutFailure(Exception e) {
+        return transportFailure("Failed to initiate transfer with Paystack: ", e);
+    }
+
+    /**
+     * Settles a rejected replay by looking the transfer up. Found means the first attempt landed and
+     * the rejection was Paystack refusing a duplicate of it. A lookup that is itself rejected means
+     * no transfer exists, so the rejection stands. Anything else leaves the payout in doubt.
+     */
+    private PaydeckResponse<TransactionResponseData> confirmTransfer(String reference, HttpException rejection,
+            PaydeckResponse<TransactionResponseData> lookup) {
+        if (lookup.isSuccess()) {
+            return lookup;
+        }
+        Integer lookupStatus = lookup.getError().getHttpStatus();
+        if (lookupStatus != null && HttpException.isRejection(lookupStatus)) {
+            return payoutFailure(rejection);
+        }
+        return PaydeckResponse.httpError(IN_DOUBT,
+            "Paystack rejected a replayed transfer " + reference + " that could not be looked up: "
+                + rejection.getMessage(),
+            rejection.getStatusCode(), rejection.getResponseBody());
+    }
+
+    private PaydeckResponse<TransactionResponseData> fetchFailure(Exception e) {
+        return transportFailure("Failed to get transfer status from Paystack: ", e);
+    }
+
+    private String verifyPath(String merchantTransactionReference) {
+        return "/transfer/verify/" + merchantTransactionReference;
+    }
+
+    // The key only lets the retry policy replay the chunk; it is not sent. Paystack refuses references
+    // it already holds, so a replay cannot pay twice, but if the first attempt landed the replay is
+    // rejected while the money moved. Each reference of a rejected replay is then looked up
+    private CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> submitChunk(BulkChunk chunk) {
+        long[] amounts = new long[chunk.requests.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = PaystackTransferEncoder.minorUnits(chunk.requests.get(i));
+        }
+        JsonPayload payload = PaystackTransferEncoder.bulkPayload(chunk.currency, chunk.requests, amounts);
+        return Futures.recoverRequestFailure(
+            httpClient.postIdempotentAsync("/transfer/bulk", payload, PaystackBulkTransferResponse.class,
+                    "bulk:" + chunk.requests.get(0).getMerchantTransactionReference())
+                .thenApply(response -> CompletableFuture.completedFuture(toChunkResults(chunk, response))),
+            e -> e instanceof HttpException && ((HttpException) e).isRejectedReplay()
+                ? confirmChunk(chunk, (HttpException) e)
+                : CompletableFuture.completedFuture(chunkFailure(chunk, e))
+        ).thenCompose(results -> results);
+    }
+
+    private CompletableFuture<Map<String, PaydeckResponse<TransactionResponseData>>> confirmChunk(BulkChunk chunk,
+            HttpException rejection) {
+        List<String> references = new ArrayList<>(chunk.requests.size());
+        for (PayoutRequest request : chunk.requests) {
+            references.add(request.getMerchantTransactionReference());
+        }
+        return fetchTransactionsAsync(references, DEFAULT_BATCH_CONCURRENCY).thenApply(lookups -> {
+            Map<String, PaydeckResponse<TransactionResponseData>> results = new HashMap<>(references.size() * 4 / 3 + 1);
+            for (String reference : references) {
+                results.put(reference, confirmTransfer(reference, rejection, lookups.get(reference)));
+            }
+            return results;
+        });
+    }
+
+    private Map<String, PaydeckResponse<TransactionResponseData>> toChunkResults(BulkChunk chunk,
+            PaystackBulkTransferResponse response) {
+        Map<String, PaydeckResponse<TransactionResponseData>> results = new HashMap<>(chunk.requests.size() * 4 / 3 + 1);
+        if (!Boolean.TRUE.equals(response.getStatus()) || response.getData() == null) {
+            for (PayoutRequest request : chunk.requests) {
+                results.put(request.getMerchantTransactionReference(), PaydeckResponse.providerError(
+                    PROVIDER_ERROR,
+                    "Paystack bulk transfer request failed",
+                    "failed",
+                    response.getMessage()
+                ));
+            }
+            return results;
+        }
+
+        Map<String, PaystackTransfer> transfers = new HashMap<>(response.getData().size() * 4 / 3 + 1);
+        for (PaystackTransfer transfer : response.getData()) {
+            transfers.put(transfer.getReference(), transfer);
+        }
+        // Paystack answers per transfer; a reference it left out was not queued
+        for (PayoutRequest request : chunk.requests) {
+            String reference = request.getMerchantTransactionReference();
+            PaystackTransfer transfer = transfers.get(reference);
+            results.put(reference, transfer != null
+                ? PaydeckResponse.success(PaystackTransferMapper.toTransactionResponseData(transfer))
+                : PaydeckResponse.error(PROVIDER_ERROR, "Paystack bulk transfer response has no entry for " + reference));
+        }
+        return results;
+    }
+
+    private Map<String, PaydeckResponse<TransactionResponseData>> chunkFailure(BulkChunk chunk, Throwable error) {
+        PaydeckResponse<TransactionResponseData> failure = error instanceof IOException || error instanceof HttpException
+            ? payoutFailure((Exception) error)
+            : PaydeckResponse.error(PROVIDER_ERROR, "Failed to initiate transfer with Paystack: " + error.getMessage());
+        Map<String, PaydeckResponse<TransactionResponseData>> results = new HashMap<>(chunk.requests.size() * 4 / 3 + 1);
+        for (PayoutRequest request : chunk.requests) {
+            results.put(request.getMerchantTransactionReference(), failure);
+        }
+        return results;
+    }
+
+    private static final class BulkChunk {
+        private final Currency currency;
+        private final List<PayoutRequest> requests;
+
+        BulkChunk(Currency currency, List<PayoutRequest> requests) {
+            this.currency = currency;
+            this.requests = requests;
+        }
+    }
+
+    private String resolvePath(AccountResolutionRequest request) {
+        StringBuilder path = new StringBuilder("/bank/resolve");
+        appendParam(path, "account_number", request.getAccountNumber());
+        appendParam(path, "bank_code", request.getBankCode());
+        return path.toString();
+    }
+
+    private PaydeckResponse<AccountResolutionData> toAccountResponse(PaystackAccountResolutionResponse response,
+            AccountResolutionRequest request) {
+        if (!Boolean.TRUE.equals(response.getStatus()) || response.getData() == null) {
+            return PaydeckResponse.providerError(
+                PROVIDER_ERROR,
+                "Paystack account resolution failed",
+                "failed",
+                response.getMessage()
+            );
+        }
+
+        return PaydeckResponse.success(AccountResolutionData.builder()
+            .bankCode(request.getBankCode())
+            .accountNumber(response.getData().getAccountNumber())
+            .accountName(response.getData().getAccountName())
+            .build());
+    }
+
+    // Paystack answers an account it cannot resolve with a 4xx; auth and throttling errors are not about the account
+    private PaydeckResponse<AccountResolutionData> accountHttpFailure(HttpException e,
+            AccountResolutionRequest request) {
+        int status = e.getStatusCode();
+        if (status >= 400 && status < 500 && status != 401 && status != 403 && status != 429) {
+            return PaydeckResponse.providerError(
+                "INVALID_ACCOUNT",
+                "Account " + request.getAccountNumber() + " could not be resolved at bank " + request.getBankCode(),
+                String.valueOf(status),
+                e.getResponseBody()
+            );
+        }
+        return accountFailure(e);
+    }
+
+    private PaydeckResponse<AccountResolutionData> accountFailure(Exception e) {
+        return transportFailure("Failed to resolve account with Paystack: ", e);
+    }
+
+    private PaydeckResponse<BanksResponseData> banksFailure(Exception e) {
+        return transportFailure("Failed to get banks from Paystack: ", e);
+    }
+
+    private BanksResponseData buildBanksResponseData(List<PaystackBank> data, String countryCode) {
+        BanksResponseData.Bank[] banks = new BanksResponseData.Bank[data.size()];
+        for (int i = 0; i < banks.length; i++) {
+            PaystackBank bank = data.get(i);
+            banks[i] = BanksResponseData.Bank.builder()
+                .bankCode(bank.getCode())
+                .bankName(bank.getName())
+                .countryCode(countryCode)
+                .build();
+        }
+
+        return BanksResponseData.builder()
+            .banks(banks)
+            .build();
+    }
+
+    // Every filter ends up in the path, so the path alone identifies a bank list
     private String buildBankPath(BanksRequest request) {
-        String path = "/bank";
-        String countryCode = request.getCountryCode();
-        if (countryCode != null) {
-            String countryName = CountryProviderMap.getProviderCountryMap().get(this.getProviderName()).get(countryCode);
-            path += "?country=" + countryName;
+        StringBuilder path = new StringBuilder("/bank");
+        if (request.getCountryCode() != null) {
+            appendParam(path, "country", ProviderCapabilities.DEFAULT.countryParam(request.getCountryCode()));
         }
+        appendParam(path, "use_cursor", request.getUseCursor());
+        appendParam(path, "page", request.getPage());
+        appendParam(path, "perPage", request.getPageSize());
+        appendParam(path, "pay_with_bank", request.getPayWithBank());
+        appendParam(path, "pay_with_bank_transfer", request.getPayWithBankTransfer());
+        appendParam(path, "next", request.getNextPage());
+        appendParam(path, "previous", request.getPreviousPage());
+        appendParam(path, "currency", request.getCurrency() != null ? request.getCurrency().getCurrencyCode() : null);
+        appendParam(path, "type", request.getChannelType());
+        appendParam(path, "include_nip_sort_code", request.getIncludeNIPSortCode());
+
+        return path.toString();
+    }
 
-        return path;
+    private static void appendParam(StringBuilder path, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        path.append(path.indexOf("?") < 0 ? '?' : '&')
+            .append(name)
+            .append('=')
+            .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+    }
+
+    // Local throttling says nothing about the provider's health, so it gets its own code. A non-2xx
+    // answer keeps its status, so callers can tell a rejected request from an outage
+    private <T> PaydeckResponse<T> transportFailure(String message, Exception e) {
+        if (e instanceof HttpException) {
+            HttpException http = (HttpException) e;
+            return PaydeckResponse.httpError(PROVIDER_ERROR, message + e.getMessage(),
+                http.getStatusCode(), http.getResponseBody());
+        }
+        return PaydeckResponse.error(
+            e instanceof RateLimitedException ? RATE_LIMITED : PROVIDER_ERROR,
+            message + e.getMessage()
+        );
     }
-}
\ No newline at end of file
+}
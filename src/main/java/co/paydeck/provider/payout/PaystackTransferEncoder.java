@@ -0,0 +1,122 @@
+package co.paydeck.provider.payout;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.Money;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.util.JsonPayload;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.IOException;
+import java.util.List;
+
+final class PaystackTransferEncoder {
+    private static final SerializedString SOURCE = new SerializedString("source");
+    private static final SerializedString BALANCE = new SerializedString("balance");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString RECIPIENT = new SerializedString("recipient");
+    private static final SerializedString REFERENCE = new SerializedString("reference");
+    private static final SerializedString REASON = new SerializedString("reason");
+    private static final SerializedString CURRENCY = new SerializedString("currency");
+    private static final SerializedString TRANSFERS = new SerializedString("transfers");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString ACCOUNT_NUMBER = new SerializedString("account_number");
+    private static final SerializedString BANK_CODE = new SerializedString("bank_code");
+
+    private static final SerializedString[] CURRENCY_VALUES = currencyValues();
+
+    private PaystackTransferEncoder() {
+    }
+
+    static Currency currency(PayoutRequest request) {
+        return request.getCurrency() != null ? request.getCurrency() : Currency.NGN;
+    }
+
+    // Paystack takes minor units; throws ArithmeticException rather than truncating
+    static long minorUnits(PayoutRequest request) {
+        return Money.of(request.getAmount(), currency(request)).getMinorUnits();
+    }
+
+    static JsonPayload payload(PayoutRequest request) {
+        long amount = minorUnits(request);
+        return generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName(SOURCE);
+            generator.writeString(BALANCE);
+            generator.writeFieldName(CURRENCY);
+            generator.writeString(CURRENCY_VALUES[currency(request).ordinal()]);
+            writeTransfer(request, amount, generator);
+            generator.writeEndObject();
+        };
+    }
+
+    // One /transfer/bulk body; every request shares the currency and amounts are already in minor units
+    static JsonPayload bulkPayload(Currency currency, List<PayoutRequest> requests, long[] amounts) {
+        return generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName(SOURCE);
+            generator.writeString(BALANCE);
+            generator.writeFieldName(CURRENCY);
+            generator.writeString(CURRENCY_VALUES[currency.ordinal()]);
+            generator.writeFieldName(TRANSFERS);
+            generator.writeStartArray();
+            for (int i = 0; i < requests.size(); i++) {
+                generator.writeStartObject();
+                writeTransfer(requests.get(i), amounts[i], generator);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        };
+    }
+
+    // A /transferrecipient body for the request's bank account
+    static JsonPayload recipientPayload(PayoutRequest request) {
+        Currency currency = currency(request);
+        return generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName(TYPE);
+            generator.writeString(recipientType(currency));
+            generator.writeFieldName(NAME);
+            generator.writeString(request.getAccountName() != null ? request.getAccountName() : request.getAccountNumber());
+            generator.writeFieldName(ACCOUNT_NUMBER);
+            generator.writeString(request.getAccountNumber());
+            generator.writeFieldName(BANK_CODE);
+            generator.writeString(request.getBankCode());
+            generator.writeFieldName(CURRENCY);
+            generator.writeString(CURRENCY_VALUES[currency.ordinal()]);
+            generator.writeEndObject();
+        };
+    }
+
+    // Paystack names the bank-account scheme per market
+    static String recipientType(Currency currency) {
+        return switch (currency) {
+            case GHS -> "ghipss";
+            case KES -> "kepss";
+            case ZAR -> "basa";
+            default -> "nuban";
+        };
+    }
+
+    private static void writeTransfer(PayoutRequest request, long amount, JsonGenerator generator)
+            throws IOException {
+        generator.writeFieldName(AMOUNT);
+        generator.writeNumber(amount);
+        generator.writeFieldName(RECIPIENT);
+        generator.writeString(request.getRecipientCode());
+        generator.writeFieldName(REFERENCE);
+        generator.writeString(request.getMerchantTransactionReference());
+        generator.writeFieldName(REASON);
+        generator.writeString(request.getNarration());
+    }
+
+    private static SerializedString[] currencyValues() {
+        Currency[] currencies = Currency.values();
+        SerializedString[] values = new SerializedString[currencies.length];
+        for (Currency currency : currencies) {
+            values[currency.ordinal()] = new SerializedString(currency.name());
+        }
+        return values;
+    }
+}
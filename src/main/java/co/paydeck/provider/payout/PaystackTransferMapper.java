@@ -0,0 +1,48 @@
+package co.paydeck.provider.payout;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.Money;
+import co.paydeck.model.Provider;
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.provider.dto.PaystackTransfer;
+
+// Shared by single, bulk and verify responses
+final class PaystackTransferMapper {
+    private PaystackTransferMapper() {
+    }
+
+    static TransactionResponseData toTransactionResponseData(PaystackTransfer data) {
+        // Paystack reports minor units; NGN is its default when the currency is missing or unknown
+        Currency currency = Currency.fromCode(data.getCurrency());
+        Money amount = Money.ofMinor(data.getAmount(), currency != null ? currency : Currency.NGN);
+
+        return TransactionResponseData.builder()
+            .id(data.getId() != null ? Long.toString(data.getId()) : null)
+            .transactionReference(data.getTransferCode())
+            .merchantTransactionReference(data.getReference())
+            .status(mapTransferStatus(data.getStatus()))
+            .amount(amount.toBigDecimal())
+            .money(amount)
+            .currency(amount.getCurrency().name())
+            .provider(Provider.PAYSTACK.getCode())
+            .narration(data.getReason())
+            .source("balance")
+            .createdAt(data.getCreatedAt())
+            .updatedAt(data.getUpdatedAt())
+            .build();
+    }
+
+    // A transfer is only final once Paystack says so; otp, received and queued are all still in flight
+    static TransactionStatus mapTransferStatus(String paystackStatus) {
+        if (paystackStatus == null) {
+            return TransactionStatus.PENDING;
+        }
+        return switch (paystackStatus.toLowerCase()) {
+            case "success" -> TransactionStatus.SUCCESSFUL;
+            case "failed", "reversed", "rejected", "blocked" -> TransactionStatus.FAILED;
+            case "abandoned" -> TransactionStatus.CANCELLED;
+            default -> TransactionStatus.PENDING;
+        };
+    }
+}
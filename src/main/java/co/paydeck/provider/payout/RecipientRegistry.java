@@ -0,0 +1,233 @@
+package co.paydeck.provider.payout;
+
+import co.paydeck.model.Currency;
+import co.paydeck.util.Futures;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Transfer recipient codes keyed by bank code, account number and currency, so a beneficiary is
+ * registered with the provider once rather than before every payout.
+ *
+ * <p>Lookups are a single hash probe. Concurrent requests for a recipient that is not known yet
+ * share one creation call. With a file, every new recipient is appended as one tab-separated line
+ * and the file is read back on {@link #open}, so codes survive restarts. Appends are flushed but
+ * not fsynced: a record lost in a crash only costs one more creation call, and the provider
+ * returns the existing recipient for an account it already knows.
+ */
+public class RecipientRegistry implements Closeable {
+    private final Map<Key, String> recipients;
+    private final Map<Key, CompletableFuture<String>> creations = new ConcurrentHashMap<>();
+    private final Writer log;
+
+    private RecipientRegistry(Map<Key, String> recipients, Writer log) {
+        this.recipients = recipients;
+        this.log = log;
+    }
+
+    public static RecipientRegistry inMemory() {
+        return new RecipientRegistry(new ConcurrentHashMap<>(), null);
+    }
+
+    /**
+     * Loads the recipients recorded in {@code file}, creating it if needed, and appends new ones to
+     * it. A torn last line from a crash mid-append is skipped. Later lines win over earlier ones.
+     */
+    public static RecipientRegistry open(Path file) throws IOException {
+        Map<Key, String> recipients = new ConcurrentHashMap<>();
+        if (Files.exists(file)) {
+            // Without a trailing newline the last record may have been cut short, code and all
+            boolean torn = !endsWithNewline(file);
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line = reader.readLine();
+                while (line != null) {
+                    String next = reader.readLine();
+                    if (next != null || !torn) {
+                        load(recipients, line);
+                    }
+                    line = next;
+                }
+            }
+            if (torn) {
+                appendNewline(file);
+            }
+        }
+        Writer log = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new RecipientRegistry(recipients, log);
+    }
+
+    public String get(String bankCode, String accountNumber, Currency currency) {
+        return recipients.get(new Key(bankCode, accountNumber, currency));
+    }
+
+    /**
+     * Returns the known recipient code, or runs {@code create} to register one. Only one creation
+     * per account is in flight at a time; a failed creation is not remembered, so the next call
+     * tries again.
+     */
+    public CompletableFuture<String> getOrCreate(String bankCode, String accountNumber, Currency currency,
+            Supplier<CompletableFuture<String>> create) {
+        Key key = new Key(bankCode, accountNumber, currency);
+        String known = recipients.get(key);
+        if (known != null) {
+            return CompletableFuture.completedFuture(known);
+        }
+
+        CompletableFuture<String> promise = new CompletableFuture<>();
+        CompletableFuture<String> existing = creations.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing;
+        }
+        // Another caller may have finished between the lookup and claiming the creation
+        known = recipients.get(key);
+        if (known != null) {
+            creations.remove(key, promise);
+            promise.complete(known);
+            return promise;
+        }
+
+        CompletableFuture<String> creation;
+        try {
+            creation = create.get();
+        } catch (RuntimeException e) {
+            creation = CompletableFuture.failedFuture(e);
+        }
+        creation.whenComplete((recipientCode, error) -> {
+            if (error == null) {
+                put(key, recipientCode);
+            }
+            creations.remove(key, promise);
+            if (error != null) {
+                promise.completeExceptionally(Futures.unwrap(error));
+            } else {
+                promise.complete(recipientCode);
+            }
+        });
+        return promise;
+    }
+
+    public int size() {
+        return recipients.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            synchronized (log) {
+                log.close();
+            }
+        }
+    }
+
+    private void put(Key key, String recipientCode) {
+        if (recipientCode == null) {
+            return;
+        }
+        recipients.put(key, recipientCode);
+        // A field with a tab or line break would corrupt the file, so such recipients stay in memory
+        if (log == null || !key.isWritable() || !isWritable(recipientCode)) {
+            return;
+        }
+        synchronized (log) {
+            try {
+                log.write(key.bankCode);
+                log.write('\t');
+                log.write(key.accountNumber);
+                log.write('\t');
+                log.write(key.currency.name());
+                log.write('\t');
+                log.write(recipientCode);
+                log.write('\n');
+                log.flush();
+            } catch (IOException e) {
+                // The code is still served from memory; only a restart would need to recreate it
+            }
+        }
+    }
+
+    private static boolean isWritable(String value) {
+        return value.indexOf('\t') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0;
+    }
+
+    // A complete record is bank code, account number, currency and recipient code
+    private static void load(Map<Key, String> recipients, String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 4 || fields[3].isEmpty()) {
+            return;
+        }
+        Currency currency = Currency.fromCode(fields[2]);
+        if (currency != null) {
+            recipients.put(new Key(fields[0], fields[1], currency), fields[3]);
+        }
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    // Otherwise the next record would be glued to the torn line
+    private static void appendNewline(Path file) throws IOException {
+        Files.write(file, new byte[]{'\n'}, StandardOpenOption.APPEND);
+    }
+
+    // Hashes from the fields' cached String hashes, so a lookup builds no new string
+    static final class Key {
+        private final String bankCode;
+        private final String accountNumber;
+        private final Currency currency;
+        private final int hash;
+
+        Key(String bankCode, String accountNumber, Currency currency) {
+            this.bankCode = bankCode;
+            this.accountNumber = accountNumber;
+            this.currency = currency != null ? currency : Currency.NGN;
+            this.hash = (bankCode.hashCode() * 31 + accountNumber.hashCode()) * 31 + this.currency.ordinal();
+        }
+
+        boolean isWritable() {
+            return RecipientRegistry.isWritable(bankCode) && RecipientRegistry.isWritable(accountNumber);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                && currency == other.currency
+                && accountNumber.equals(other.accountNumber)
+                && bankCode.equals(other.bankCode);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package co.paydeck.util;
+
+import okhttp3.Dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link Dns} that keeps resolved addresses for {@code ttl} and refreshes them in the background.
+ *
+ * <p>A lookup of a fresh entry never leaves the process. Once an entry is older than {@code ttl}
+ * the cached addresses are still returned, and one background resolution per host replaces them,
+ * so callers do not wait on DNS after the first lookup. Entries older than {@code ttl + maxStale}
+ * are resolved again on the caller's thread. A failed background refresh keeps the old addresses
+ * until they are that old.
+ */
+public class CachingDns implements Dns {
+    private final Dns delegate;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    private CachingDns(Builder builder) {
+        this.delegate = builder.delegate;
+        this.ttlNanos = builder.ttl.toNanos();
+        this.maxStaleNanos = builder.maxStale.toNanos();
+        this.refreshExecutor = builder.refreshExecutor;
+        this.nanoClock = builder.nanoClock;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        Entry entry = entries.get(hostname);
+        long now = nanoClock.getAsLong();
+        if (entry != null) {
+            long age = now - entry.resolvedAt;
+            if (age < ttlNanos) {
+                hits.increment();
+                return entry.addresses;
+            }
+            if (age < ttlNanos + maxStaleNanos) {
+                hits.increment();
+                refreshInBackground(hostname, entry);
+                return entry.addresses;
+            }
+        }
+        misses.increment();
+        return resolve(hostname);
+    }
+
+    // Resolves the hosts now, so the first connection to each skips DNS; unresolvable hosts are skipped
+    public void prefetch(String... hostnames) {
+        for (String hostname : hostnames) {
+            try {
+                resolve(hostname);
+            } catch (UnknownHostException e) {
+                // The first real lookup reports it
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    private List<InetAddress> resolve(String hostname) throws UnknownHostException {
+        List<InetAddress> addresses = List.copyOf(delegate.lookup(hostname));
+        entries.put(hostname, new Entry(addresses, nanoClock.getAsLong()));
+        return addresses;
+    }
+
+    private void refreshInBackground(String hostname, Entry stale) {
+        if (!stale.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshes.increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    resolve(hostname);
+                } catch (UnknownHostException | RuntimeException e) {
+                    // Let a later lookup try again
+                    stale.refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            stale.refreshing.set(false);
+        }
+    }
+
+    private static final class Entry {
+        private final List<InetAddress> addresses;
+        private final long resolvedAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(List<InetAddress> addresses, long resolvedAt) {
+            this.addresses = addresses;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+
+    public static class Builder {
+        private Dns delegate = Dns.SYSTEM;
+        private Duration ttl = Duration.ofMinutes(1);
+        private Duration maxStale = Duration.ofMinutes(10);
+        private Executor refreshExecutor = ForkJoinPool.commonPool();
+        private LongSupplier nanoClock = System::nanoTime;
+
+        public Builder delegate(Dns delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        // How long past the ttl cached addresses may still be served while a refresh runs
+        public Builder maxStale(Duration maxStale) {
+            this.maxStale = maxStale;
+            return this;
+        }
+
+        public Builder refreshExecutor(Executor refreshExecutor) {
+            this.refreshExecutor = refreshExecutor;
+            return this;
+        }
+
+        public Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public CachingDns build() {
+            if (delegate == null || refreshExecutor == null) {
+                throw new IllegalStateException("delegate and refreshExecutor are required");
+            }
+            if (ttl.isNegative() || maxStale.isNegative()) {
+                throw new IllegalStateException("ttl and maxStale must not be negative");
+            }
+            return new CachingDns(this);
+        }
+    }
+}
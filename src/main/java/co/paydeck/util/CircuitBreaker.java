@@ -0,0 +1,246 @@
+package co.paydeck.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker with closed, open and half-open states.
+ *
+ * <p>The last {@code slidingWindowSize} outcomes live in a ring of atomic slots. Recording an
+ * outcome swaps one slot and adjusts the running counters, so the hot path is a handful of
+ * atomic operations and never takes a lock. Under heavy contention the rates are approximate,
+ * which is fine for deciding when to trip.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final int EMPTY = 0;
+    private static final int RECORDED = 1;
+    private static final int FAILED = 2;
+    private static final int SLOW = 4;
+    // openedAt while the breaker is not open, or is opening and has not stamped the time yet
+    private static final long NOT_OPEN = Long.MIN_VALUE;
+
+    private final int slidingWindowSize;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long waitInOpenNanos;
+    private final int permittedCallsInHalfOpen;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicLong openedAt = new AtomicLong(NOT_OPEN);
+    private final AtomicIntegerArray window;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenCalls = new AtomicInteger();
+    private final AtomicInteger halfOpenFailures = new AtomicInteger();
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    private CircuitBreaker(Builder builder) {
+        this.slidingWindowSize = builder.slidingWindowSize;
+        this.minimumCalls = Math.min(builder.minimumCalls, builder.slidingWindowSize);
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallNanos = builder.slowCallDuration.toNanos();
+        this.waitInOpenNanos = builder.waitDurationInOpenState.toNanos();
+        this.permittedCallsInHalfOpen = builder.permittedCallsInHalfOpenState;
+        this.nanoClock = builder.nanoClock;
+        this.window = new AtomicIntegerArray(builder.slidingWindowSize);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    public long now() {
+        return nanoClock.getAsLong();
+    }
+
+    public boolean tryAcquirePermission() {
+        while (true) {
+            State current = state.get();
+            switch (current) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    long opened = openedAt.get();
+                    if (opened == NOT_OPEN || nanoClock.getAsLong() - opened < waitInOpenNanos) {
+                        rejectedCalls.incrementAndGet();
+                        return false;
+                    }
+                    // Claiming openedAt elects one thread, which resets the trial counters before
+                    // any caller can see HALF_OPEN
+                    if (openedAt.compareAndSet(opened, NOT_OPEN)) {
+                        halfOpenCalls.set(0);
+                        halfOpenFailures.set(0);
+                        halfOpenPermits.set(permittedCallsInHalfOpen);
+                        state.set(State.HALF_OPEN);
+                    }
+                    break;
+                default:
+                    if (halfOpenPermits.getAndDecrement() > 0) {
+                        return true;
+                    }
+                    rejectedCalls.incrementAndGet();
+                    return false;
+            }
+        }
+    }
+
+    public void onSuccess(long durationNanos) {
+        record(durationNanos >= slowCallNanos ? RECORDED | SLOW : RECORDED);
+    }
+
+    public void onError(long durationNanos) {
+        record(durationNanos >= slowCallNanos ? RECORDED | FAILED | SLOW : RECORDED | FAILED);
+    }
+
+    // The call says nothing about provider health, e.g. it was rejected locally; hand back a half-open trial
+    public void onIgnored() {
+        if (state.get() == State.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    // Calls finishing after the breaker opened were started before it; they neither enter the
+    // window nor push the open period out
+    private void record(int outcome) {
+        State current = state.get();
+        if (current == State.OPEN) {
+            return;
+        }
+        if (current == State.HALF_OPEN) {
+            recordHalfOpen(outcome);
+            return;
+        }
+
+        int slot = (int) (cursor.getAndIncrement() % slidingWindowSize);
+        int previous = window.getAndSet(slot, outcome);
+        int total = previous == EMPTY ? calls.incrementAndGet() : calls.get();
+        int failed = failures.addAndGet(bit(outcome, FAILED) - bit(previous, FAILED));
+        int slow = slowCalls.addAndGet(bit(outcome, SLOW) - bit(previous, SLOW));
+
+        if (total >= minimumCalls && (exceeds(failed, total, failureRateThreshold)
+                || exceeds(slow, total, slowCallRateThreshold))) {
+            trip(State.CLOSED);
+        }
+    }
+
+    private void recordHalfOpen(int outcome) {
+        int failed = (outcome & FAILED) != 0 || (outcome & SLOW) != 0
+            ? halfOpenFailures.incrementAndGet()
+            : halfOpenFailures.get();
+        int completed = halfOpenCalls.incrementAndGet();
+
+        if (exceeds(failed, permittedCallsInHalfOpen, failureRateThreshold)) {
+            trip(State.HALF_OPEN);
+        } else if (completed >= permittedCallsInHalfOpen && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            resetWindow();
+        }
+    }
+
+    private void trip(State from) {
+        if (state.compareAndSet(from, State.OPEN)) {
+            openedAt.set(nanoClock.getAsLong());
+        }
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < slidingWindowSize; i++) {
+            int previous = window.getAndSet(i, EMPTY);
+            if (previous != EMPTY) {
+                calls.decrementAndGet();
+                failures.addAndGet(-bit(previous, FAILED));
+                slowCalls.addAndGet(-bit(previous, SLOW));
+            }
+        }
+    }
+
+    private static int bit(int outcome, int flag) {
+        return (outcome & flag) != 0 ? 1 : 0;
+    }
+
+    private static boolean exceeds(int count, int total, float thresholdPercent) {
+        return count * 100f >= thresholdPercent * total;
+    }
+
+    public static class Builder {
+        private int slidingWindowSize = 100;
+        private int minimumCalls = 20;
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpenState = 5;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        public Builder slidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+            return this;
+        }
+
+        public Builder minimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        public Builder failureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        public Builder slowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        public Builder slowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+            return this;
+        }
+
+        public Builder waitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+            return this;
+        }
+
+        public Builder permittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+            return this;
+        }
+
+        public Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public CircuitBreaker build() {
+            if (slidingWindowSize < 1 || permittedCallsInHalfOpenState < 1) {
+                throw new IllegalStateException("slidingWindowSize and permittedCallsInHalfOpenState must be positive");
+            }
+            return new CircuitBreaker(this);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package co.paydeck.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Fans a collection of keys out to an async call with at most {@code maxConcurrency}
+ * calls in flight. A new call is started from the completion of the previous one, so
+ * no thread is parked while the batch runs. Failures are mapped per key and never
+ * fail the batch.
+ */
+public final class ConcurrentBatch<K, V> {
+    private final List<K> keys;
+    private final Function<K, CompletableFuture<V>> call;
+    private final BiFunction<K, Throwable, V> onFailure;
+    private final AtomicReferenceArray<V> results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final CompletableFuture<Map<K, V>> result = new CompletableFuture<>();
+
+    private ConcurrentBatch(List<K> keys, Function<K, CompletableFuture<V>> call,
+            BiFunction<K, Throwable, V> onFailure) {
+        this.keys = keys;
+        this.call = call;
+        this.onFailure = onFailure;
+        this.results = new AtomicReferenceArray<>(keys.size());
+    }
+
+    public static <K, V> CompletableFuture<Map<K, V>> run(Collection<K> keys, int maxConcurrency,
+            Function<K, CompletableFuture<V>> call, BiFunction<K, Throwable, V> onFailure) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+
+        List<K> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        if (distinctKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+
+        ConcurrentBatch<K, V> batch = new ConcurrentBatch<>(distinctKeys, call, onFailure);
+        int workers = Math.min(maxConcurrency, distinctKeys.size());
+        for (int i = 0; i < workers; i++) {
+            batch.drain();
+        }
+        return batch.result;
+    }
+
+    private void drain() {
+        while (true) {
+            int index = next.getAndIncrement();
+            if (index >= keys.size()) {
+                return;
+            }
+
+            CompletableFuture<V> future;
+            try {
+                future = call.apply(keys.get(index));
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+
+            // Completed futures are recorded inline to keep the stack flat on cache hits
+            if (future.isDone()) {
+                record(index, future.handle((value, error) -> resolve(index, value, error)).join());
+                continue;
+            }
+
+            future.whenComplete((value, error) -> {
+                record(index, resolve(index, value, error));
+                drain();
+            });
+            return;
+        }
+    }
+
+    private V resolve(int index, V value, Throwable error) {
+        return error == null ? value : onFailure.apply(keys.get(index), Futures.unwrap(error));
+    }
+
+    private void record(int index, V value) {
+        results.set(index, value);
+        if (completed.incrementAndGet() == keys.size()) {
+            Map<K, V> ordered = new LinkedHashMap<>(keys.size() * 4 / 3 + 1);
+            for (int i = 0; i < keys.size(); i++) {
+                ordered.put(keys.get(i), results.get(i));
+            }
+            result.complete(ordered);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package co.paydeck.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A logical provider endpoint such as Paystack {@code verify}, identified by a path template like
+ * {@code /transaction/verify/{reference}}. Metrics are keyed by endpoint rather than raw path,
+ * so per-reference paths share one series. Instances are created once, at client construction,
+ * and compared by identity.
+ */
+public final class Endpoint {
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    // Requests whose path matches no registered template
+    public static final Endpoint OTHER = new Endpoint("unknown", "other", "");
+
+    private final int id;
+    private final String provider;
+    private final String name;
+    private final String template;
+    private final String[] segments;
+
+    private Endpoint(String provider, String name, String template) {
+        this.id = NEXT_ID.getAndIncrement();
+        this.provider = provider;
+        this.name = name;
+        this.template = template;
+        this.segments = template.isEmpty() ? new String[0] : template.substring(1).split("/", -1);
+    }
+
+    // Segments written as {name} match any single non-empty path segment
+    public static Endpoint of(String provider, String name, String template) {
+        if (!template.startsWith("/")) {
+            throw new IllegalArgumentException("Endpoint template must start with '/': " + template);
+        }
+        return new Endpoint(provider, name, template);
+    }
+
+    // Dense, process-wide index; recorders may use it to address arrays instead of hashing
+    public int getId() {
+        return id;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    // Compares segment by segment in place; the query string, if any, is ignored
+    boolean matches(String path) {
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.length();
+        }
+        int position = 0;
+        for (String segment : segments) {
+            if (position >= end || path.charAt(position) != '/') {
+                return false;
+            }
+            int start = position + 1;
+            int next = path.indexOf('/', start);
+            if (next < 0 || next > end) {
+                next = end;
+            }
+            boolean matched = segment.startsWith("{")
+                ? next > start
+                : next - start == segment.length() && path.regionMatches(start, segment, 0, segment.length());
+            if (!matched) {
+                return false;
+            }
+            position = next;
+        }
+        return position == end;
+    }
+
+    @Override
+    public String toString() {
+        return provider + ":" + name;
+    }
+}
@@ -0,0 +1,73 @@
+package co.paydeck.util;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+public final class Futures {
+    private Futures() {
+    }
+
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    // join() that rethrows the original unchecked exception instead of a CompletionException
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Maps an {@link IOException} failure to a value, the async equivalent of
+     * {@code catch (IOException e)}. Any other failure is propagated unchanged.
+     */
+    public static <T> CompletableFuture<T> recoverIOException(CompletableFuture<T> future,
+            Function<IOException, T> recovery) {
+        return future.exceptionally(error -> {
+            Throwable cause = unwrap(error);
+            if (cause instanceof IOException) {
+                return recovery.apply((IOException) cause);
+            }
+            throw rethrow(cause);
+        });
+    }
+
+    /**
+     * Maps a failed request to a value, the async equivalent of
+     * {@code catch (IOException | HttpException e)}: the request never got an answer, or got a
+     * non-2xx one. Any other failure is propagated unchanged.
+     */
+    public static <T> CompletableFuture<T> recoverRequestFailure(CompletableFuture<T> future,
+            Function<Exception, T> recovery) {
+        return future.exceptionally(error -> {
+            Throwable cause = unwrap(error);
+            if (cause instanceof IOException || cause instanceof HttpException) {
+                return recovery.apply((Exception) cause);
+            }
+            throw rethrow(cause);
+        });
+    }
+
+    private static CompletionException rethrow(Throwable cause) {
+        return cause instanceof CompletionException
+            ? (CompletionException) cause
+            : new CompletionException(cause);
+    }
+}
@@ -1,26 +1,59 @@
 package co.paydeck.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import okhttp3.*;
+import okio.BufferedSink;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.X509TrustManager;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpClient {
     private final String baseUrl;
     private final Map<String, String> defaultHeaders;
     private final ObjectMapper objectMapper;
     private final OkHttpClient client;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final List<Endpoint> endpoints;
+    private final boolean tagEndpoints;
+    private final RetryPolicy retryPolicy;
+    private final RateLimiter rateLimiter;
+    private CompletableFuture<Integer> warmUp = CompletableFuture.completedFuture(0);
     private static final MediaType JSON = MediaType.parse("application/json");
 
+    // Both run the exchange on the calling thread, so the dispatcher's per-host cap and platform
+    // threads never apply and the caller's executor is the only limit. VIRTUAL_THREAD also speaks
+    // HTTP/1.1 only: an HTTP/2 stream waits for frames inside a monitor, which pins the carrier
+    // thread before JDK 24, while an HTTP/1.1 socket read unmounts the virtual thread.
+    public enum ExecutionMode {
+        BLOCKING,
+        VIRTUAL_THREAD
+    }
+
     // Private constructor to force builder usage
     private HttpClient(String baseUrl, Map<String, String> defaultHeaders, 
-                      ObjectMapper objectMapper, OkHttpClient client) {
+                      ObjectMapper objectMapper, OkHttpClient client,
+                      List<Endpoint> endpoints, boolean tagEndpoints, RetryPolicy retryPolicy,
+                      RateLimiter rateLimiter) {
         this.baseUrl = baseUrl;
         this.defaultHeaders = defaultHeaders;
         this.objectMapper = objectMapper;
         this.client = client;
+        this.endpoints = endpoints;
+        this.tagEndpoints = tagEndpoints;
+        this.retryPolicy = retryPolicy;
+        this.rateLimiter = rateLimiter;
     }
 
     // Builder class
@@ -31,6 +64,20 @@ public class HttpClient {
         private int connectTimeout = 30;
         private int readTimeout = 30;
         private int writeTimeout = 30;
+        private HttpTransport transport = HttpTransport.shared();
+        private ExecutionMode executionMode = ExecutionMode.BLOCKING;
+        private RetryPolicy retryPolicy;
+        private RateLimiter rateLimiter;
+        private MetricsRecorder metricsRecorder;
+        private List<Endpoint> endpoints = List.of();
+        private Dns dns;
+        private int maxIdleConnections;
+        private Duration keepAlive;
+        private Duration pingInterval;
+        private SSLSocketFactory sslSocketFactory;
+        private X509TrustManager trustManager;
+        private int warmUpConnections;
+        private String warmUpPath = "/";
 
         public Builder baseUrl(String baseUrl) {
             this.baseUrl = baseUrl;
@@ -67,18 +114,125 @@ public class HttpClient {
             return this;
         }
 
+        public Builder transport(HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        public Builder executionMode(ExecutionMode executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        public Builder metricsRecorder(MetricsRecorder metricsRecorder) {
+            this.metricsRecorder = metricsRecorder;
+            return this;
+        }
+
+        // Templates that metrics are keyed by; replaces any previously set, first match wins
+        public Builder endpoints(Endpoint... endpoints) {
+            this.endpoints = List.of(endpoints);
+            return this;
+        }
+
+        // Use CachingDns to keep provider hosts resolved across calls
+        public Builder dns(Dns dns) {
+            this.dns = dns;
+            return this;
+        }
+
+        // Gives this client its own pool instead of the transport's shared one
+        public Builder connectionPool(int maxIdleConnections, Duration keepAlive) {
+            this.maxIdleConnections = maxIdleConnections;
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        // Interval between HTTP/2 pings; a connection whose ping is not answered in time is closed
+        public Builder pingInterval(Duration pingInterval) {
+            this.pingInterval = pingInterval;
+            return this;
+        }
+
+        public Builder sslSocketFactory(SSLSocketFactory sslSocketFactory, X509TrustManager trustManager) {
+            this.sslSocketFactory = sslSocketFactory;
+            this.trustManager = trustManager;
+            return this;
+        }
+
+        // Opens this many keep-alive connections in the background as soon as the client is built
+        public Builder warmUpConnections(int warmUpConnections) {
+            this.warmUpConnections = warmUpConnections;
+            return this;
+        }
+
+        // Path the warm-up HEAD requests go to; any response, even an error status, warms the connection
+        public Builder warmUpPath(String warmUpPath) {
+            this.warmUpPath = warmUpPath;
+            return this;
+        }
+
         public HttpClient build() {
             if (baseUrl == null || baseUrl.isEmpty()) {
                 throw new IllegalStateException("baseUrl is required");
             }
+            if (warmUpConnections < 0) {
+                throw new IllegalStateException("warmUpConnections must not be negative");
+            }
+            if ((sslSocketFactory == null) != (trustManager == null)) {
+                throw new IllegalStateException("sslSocketFactory and trustManager must be set together");
+            }
 
-            OkHttpClient client = new OkHttpClient.Builder()
+            OkHttpClient.Builder clientBuilder = transport.newClientBuilder()
                 .connectTimeout(connectTimeout, TimeUnit.SECONDS)
                 .readTimeout(readTimeout, TimeUnit.SECONDS)
-                .writeTimeout(writeTimeout, TimeUnit.SECONDS)
-                .build();
+                .writeTimeout(writeTimeout, TimeUnit.SECONDS);
 
-            return new HttpClient(baseUrl, defaultHeaders, objectMapper, client);
+            if (retryPolicy != null) {
+                clientBuilder.addInterceptor(new RetryInterceptor(retryPolicy));
+            }
+            if (rateLimiter != null) {
+                clientBuilder.addInterceptor(new RateLimitInterceptor(rateLimiter));
+            }
+            if (metricsRecorder != null) {
+                clientBuilder.eventListenerFactory(MetricsEventListener.factory(metricsRecorder));
+            }
+            if (dns != null) {
+                clientBuilder.dns(dns);
+            }
+            if (keepAlive != null) {
+                clientBuilder.connectionPool(
+                    new ConnectionPool(maxIdleConnections, keepAlive.toNanos(), TimeUnit.NANOSECONDS));
+            }
+            if (pingInterval != null) {
+                clientBuilder.pingInterval(pingInterval);
+            }
+            if (sslSocketFactory != null) {
+                clientBuilder.sslSocketFactory(sslSocketFactory, trustManager);
+            }
+            if (executionMode == ExecutionMode.VIRTUAL_THREAD) {
+                clientBuilder.protocols(List.of(Protocol.HTTP_1_1));
+            }
+            OkHttpClient client = clientBuilder.build();
+
+            // Copied so a builder reused for another client cannot change this one's headers
+            Map<String, String> headers = defaultHeaders == null ? Map.of() : Map.copyOf(defaultHeaders);
+            HttpClient httpClient = new HttpClient(baseUrl, headers, objectMapper, client,
+                endpoints, metricsRecorder != null, retryPolicy, rateLimiter);
+            if (warmUpConnections > 0) {
+                httpClient.warmUp = httpClient.warmUp(warmUpConnections, warmUpPath);
+            }
+            return httpClient;
         }
     }
 
@@ -86,41 +240,126 @@ public class HttpClient {
         return new Builder();
     }
 
+    // The warm-up started by the builder; completes with 0 when none was configured
+    // Protocols the underlying client will negotiate
+    List<Protocol> protocols() {
+        return client.protocols();
+    }
+
+    public CompletableFuture<Integer> getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * Resolves the base URL's host and sends {@code connections} concurrent HEAD requests to
+     * {@code path}, leaving their connections idle in the pool for the first real calls. Over
+     * HTTP/1.1 each request opens its own connection; over HTTP/2 they share one. Completes with
+     * the number of requests that got a response and never fails: a failed warm-up only means the
+     * first calls connect as usual. Connections beyond the pool's idle limit are closed again.
+     */
+    public CompletableFuture<Integer> warmUp(int connections, String path) {
+        if (connections <= 0) {
+            return CompletableFuture.completedFuture(0);
+        }
+        HttpUrl url = HttpUrl.get(baseUrl + path);
+        CompletableFuture<Integer> warmed = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(connections);
+        AtomicInteger succeeded = new AtomicInteger();
+        Callback callback = new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                done();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                succeeded.incrementAndGet();
+                done();
+            }
+
+            private void done() {
+                if (pending.decrementAndGet() == 0) {
+                    warmed.complete(succeeded.get());
+                }
+            }
+        };
+
+        // One lookup before the requests, so a caching Dns is filled once rather than by every request
+        client.dispatcher().executorService().execute(() -> {
+            try {
+                client.dns().lookup(url.host());
+            } catch (IOException | RuntimeException e) {
+                // The requests below fail the same way and count as not warmed
+            }
+            for (int i = 0; i < connections; i++) {
+                client.newCall(new Request.Builder().url(url).head().build()).enqueue(callback);
+            }
+        });
+        return warmed;
+    }
+
     // GET request
     public <T> T get(String path, Class<T> responseType) throws IOException {
         return get(path, responseType, null);
     }
 
     public <T> T get(String path, Class<T> responseType, Map<String, String> headers) throws IOException {
-        Request request = new Request.Builder()
-            .url(baseUrl + path)
-            .headers(buildHeaders(headers))
+        Request request = newRequest(path, headers)
             .get()
             .build();
 
         return executeRequest(request, responseType);
     }
 
+    public <T> CompletableFuture<T> getAsync(String path, Class<T> responseType) {
+        return getAsync(path, responseType, null);
+    }
+
+    public <T> CompletableFuture<T> getAsync(String path, Class<T> responseType, Map<String, String> headers) {
+        Request request = newRequest(path, headers)
+            .get()
+            .build();
+
+        return executeRequestAsync(request, responseType);
+    }
+
     // POST request
     public <T> T post(String path, Object body, Class<T> responseType) throws IOException {
         return post(path, body, responseType, null);
     }
 
     public <T> T post(String path, Object body, Class<T> responseType, Map<String, String> headers) throws IOException {
-        String jsonBody = objectMapper.writeValueAsString(body);
-        
-        RequestBody requestBody = RequestBody.create(
-            jsonBody, 
-            JSON
-        );
+        return executeRequest(buildPostRequest(path, body, headers, null), responseType);
+    }
 
-        Request request = new Request.Builder()
-            .url(baseUrl + path)
-            .headers(buildHeaders(headers))
-            .post(requestBody)
-            .build();
+    // POST that the retry policy may replay. The key is not sent to the provider; a replay whose first
+    // attempt landed fails with an HttpException whose isRejectedReplay() is true
+    public <T> T postIdempotent(String path, Object body, Class<T> responseType, String idempotencyKey)
+            throws IOException {
+        return executeRequest(buildPostRequest(path, body, null, idempotencyKey), responseType);
+    }
 
-        return executeRequest(request, responseType);
+    public <T> CompletableFuture<T> postAsync(String path, Object body, Class<T> responseType) {
+        return postAsync(path, body, responseType, null);
+    }
+
+    public <T> CompletableFuture<T> postAsync(String path, Object body, Class<T> responseType,
+            Map<String, String> headers) {
+        try {
+            return executeRequestAsync(buildPostRequest(path, body, headers, null), responseType);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public <T> CompletableFuture<T> postIdempotentAsync(String path, Object body, Class<T> responseType,
+            String idempotencyKey) {
+        try {
+            return executeRequestAsync(buildPostRequest(path, body, null, idempotencyKey), responseType);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
     // PUT request
@@ -129,16 +368,9 @@ public class HttpClient {
     }
 
     public <T> T put(String path, Object body, Class<T> responseType, Map<String, String> headers) throws IOException {
-        String jsonBody = objectMapper.writeValueAsString(body);
-        
-        RequestBody requestBody = RequestBody.create(
-            jsonBody, 
-            JSON
-        );
+        RequestBody requestBody = jsonBody(body);
 
-        Request request = new Request.Builder()
-            .url(baseUrl + path)
-            .headers(buildHeaders(headers))
+        Request request = newRequest(path, headers)
             .put(requestBody)
             .build();
 
@@ -151,16 +383,9 @@ public class HttpClient {
     }
 
     public <T> T patch(String path, Object body, Class<T> responseType, Map<String, String> headers) throws IOException {
-        String jsonBody = objectMapper.writeValueAsString(body);
-        
-        RequestBody requestBody = RequestBody.create(
-            jsonBody, 
-            MediaType.parse("application/json")
-        );
+        RequestBody requestBody = jsonBody(body);
 
-        Request request = new Request.Builder()
-            .url(baseUrl + path)
-            .headers(buildHeaders(headers))
+        Request request = newRequest(path, headers)
             .patch(requestBody)
             .build();
 
@@ -173,9 +398,7 @@ public class HttpClient {
     }
 
     public <T> T delete(String path, Class<T> responseType, Map<String, String> headers) throws IOException {
-        Request request = new Request.Builder()
-            .url(baseUrl + path)
-            .headers(buildHeaders(headers))
+        Request request = newRequest(path, headers)
             .delete()
             .build();
 
@@ -183,6 +406,43 @@ public class HttpClient {
     }
 
     // Helper methods
+    private Request buildPostRequest(String path, Object body, Map<String, String> headers,
+            String idempotencyKey) throws IOException {
+        Request.Builder request = newRequest(path, headers)
+            .post(jsonBody(body));
+
+        if (idempotencyKey != null) {
+            request.tag(RetryInterceptor.IdempotencyKey.class, new RetryInterceptor.IdempotencyKey(idempotencyKey));
+        }
+        return request.build();
+    }
+
+    private RequestBody jsonBody(Object body) throws IOException {
+        if (body instanceof JsonPayload) {
+            return new StreamingJsonBody((JsonPayload) body, objectMapper.getFactory());
+        }
+        return RequestBody.create(objectMapper.writeValueAsBytes(body), JSON);
+    }
+
+    private Request.Builder newRequest(String path, Map<String, String> headers) {
+        Request.Builder request = new Request.Builder()
+            .url(baseUrl + path)
+            .headers(buildHeaders(headers));
+        if (tagEndpoints) {
+            request.tag(Endpoint.class, endpointFor(path));
+        }
+        return request;
+    }
+
+    private Endpoint endpointFor(String path) {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.matches(path)) {
+                return endpoint;
+            }
+        }
+        return Endpoint.OTHER;
+    }
+
     private Headers buildHeaders(Map<String, String> additionalHeaders) {
         Headers.Builder headersBuilder = new Headers.Builder();
         
@@ -201,21 +461,160 @@ public class HttpClient {
 
     private <T> T executeRequest(Request request, Class<T> responseType) throws IOException {
         try (Response response = client.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                handleErrorResponse(response);
+            return readResponse(response, responseType);
+        }
+    }
+
+    // Retries and rate-limit waits are timers here rather than sleeps in the interceptors, so an
+    // async call only holds a dispatcher thread while it is on the wire
+    private <T> CompletableFuture<T> executeRequestAsync(Request request, Class<T> responseType) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Request.Builder tagged = request.newBuilder();
+        if (retryPolicy != null) {
+            tagged.tag(RetryInterceptor.Attempts.class, new RetryInterceptor.Attempts(retryPolicy, request));
+        }
+        if (rateLimiter != null) {
+            tagged.tag(RateLimitInterceptor.AsyncPermit.class, new RateLimitInterceptor.AsyncPermit());
+        }
+        AsyncCall<T> call = new AsyncCall<>(tagged.build(), responseType, future);
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        call.attempt();
+        return future;
+    }
+
+    private final class AsyncCall<T> implements Callback {
+        private final Request request;
+        private final Class<T> responseType;
+        private final CompletableFuture<T> future;
+        private final RetryInterceptor.Attempts attempts;
+        private volatile Call current;
+
+        AsyncCall(Request request, Class<T> responseType, CompletableFuture<T> future) {
+            this.request = request;
+            this.responseType = responseType;
+            this.future = future;
+            this.attempts = request.tag(RetryInterceptor.Attempts.class);
+        }
+
+        void attempt() {
+            if (rateLimiter == null) {
+                enqueue();
+                return;
+            }
+            rateLimiter.acquireAsync(request.url().host(), request.url().encodedPath())
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                    } else {
+                        enqueue();
+                    }
+                });
+        }
+
+        private void enqueue() {
+            if (future.isDone()) {
+                return;
+            }
+            Call call = client.newCall(request);
+            current = call;
+            call.enqueue(this);
+            if (future.isCancelled()) {
+                call.cancel();
             }
+        }
+
+        void cancel() {
+            Call call = current;
+            if (call != null) {
+                call.cancel();
+            }
+        }
+
+        // Runs on the dispatcher thread that completed the exchange; no caller thread waits on I/O
+        @Override
+        public void onFailure(Call call, IOException e) {
+            long backoff = backoff(call, null, e);
+            if (backoff >= 0) {
+                retryAfter(backoff);
+            } else {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            long backoff = backoff(call, response, null);
+            if (backoff >= 0) {
+                response.close();
+                retryAfter(backoff);
+                return;
+            }
+            try (response) {
+                future.complete(readResponse(response, responseType));
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
 
-            String responseBody = response.body().string();
-            return objectMapper.readValue(responseBody, responseType);
+        private long backoff(Call call, Response response, IOException failure) {
+            return attempts == null ? -1 : attempts.next(response, failure, call.isCanceled());
+        }
+
+        private void retryAfter(long backoffNanos) {
+            CompletableFuture.delayedExecutor(backoffNanos, TimeUnit.NANOSECONDS).execute(this::attempt);
+        }
+    }
+
+    private <T> T readResponse(Response response, Class<T> responseType) throws IOException {
+        if (!response.isSuccessful()) {
+            handleErrorResponse(response);
+        }
+
+        try (InputStream body = response.body().byteStream()) {
+            return readerFor(responseType).readValue(body);
+        }
+    }
+
+    private ObjectReader readerFor(Class<?> responseType) {
+        return readers.computeIfAbsent(responseType, objectMapper::readerFor);
+    }
+
+    // Encodes on every writeTo call, so the body stays replayable for retries and redirects
+    private static class StreamingJsonBody extends RequestBody {
+        private final JsonPayload payload;
+        private final JsonFactory jsonFactory;
+
+        StreamingJsonBody(JsonPayload payload, JsonFactory jsonFactory) {
+            this.payload = payload;
+            this.jsonFactory = jsonFactory;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return JSON;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            try (JsonGenerator generator = jsonFactory.createGenerator(sink.outputStream())) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                payload.writeTo(generator);
+            }
         }
     }
 
     private void handleErrorResponse(Response response) throws IOException {
         String errorBody = response.body().string();
+        RetryInterceptor.IdempotencyKey idempotencyKey = response.request().tag(RetryInterceptor.IdempotencyKey.class);
         throw new HttpException(
             String.format("HTTP %d Error: %s", response.code(), errorBody),
             response.code(),
-            errorBody
+            errorBody,
+            idempotencyKey != null && idempotencyKey.isReplayed()
         );
     }
 }
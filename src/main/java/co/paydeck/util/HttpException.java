@@ -6,10 +6,34 @@ import lombok.Getter;
 public class HttpException extends RuntimeException {
     private final int statusCode;
     private final String responseBody;
+    // The request was a POST replayed by the retry policy
+    private final boolean replayed;
 
     public HttpException(String message, int statusCode, String responseBody) {
+        this(message, statusCode, responseBody, false);
+    }
+
+    public HttpException(String message, int statusCode, String responseBody, boolean replayed) {
         super(message);
         this.statusCode = statusCode;
         this.responseBody = responseBody;
+        this.replayed = replayed;
+    }
+
+    /**
+     * Whether a status rejects the request itself. Auth failures, timeouts and throttling say
+     * nothing about the request, and a 5xx is the provider's own failure.
+     */
+    public static boolean isRejection(int statusCode) {
+        return statusCode >= 400 && statusCode < 500
+            && statusCode != 401 && statusCode != 403 && statusCode != 408 && statusCode != 429;
+    }
+
+    /**
+     * Whether a replayed POST was rejected. Its first attempt may have landed, in which case the
+     * provider is refusing a duplicate of it, so the rejection does not mean nothing happened.
+     */
+    public boolean isRejectedReplay() {
+        return replayed && isRejection(statusCode);
     }
 }
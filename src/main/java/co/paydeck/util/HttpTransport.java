@@ -0,0 +1,83 @@
+package co.paydeck.util;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide HTTP transport shared by every {@link HttpClient}.
+ *
+ * <p>Holds a single connection pool and dispatcher. Per-provider clients are
+ * derived from it through {@link OkHttpClient#newBuilder()}, so they keep their
+ * own timeouts and interceptors while reusing warm connections and threads.
+ */
+public class HttpTransport {
+    private static final HttpTransport SHARED = builder().build();
+
+    private final OkHttpClient baseClient;
+
+    private HttpTransport(OkHttpClient baseClient) {
+        this.baseClient = baseClient;
+    }
+
+    public static HttpTransport shared() {
+        return SHARED;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public ConnectionPool getConnectionPool() {
+        return baseClient.connectionPool();
+    }
+
+    public Dispatcher getDispatcher() {
+        return baseClient.dispatcher();
+    }
+
+    OkHttpClient.Builder newClientBuilder() {
+        return baseClient.newBuilder();
+    }
+
+    public static class Builder {
+        private int maxIdleConnections = 32;
+        private long keepAliveSeconds = 300;
+        private int maxRequests = 256;
+        private int maxRequestsPerHost = 64;
+
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        public Builder keepAliveSeconds(long keepAliveSeconds) {
+            this.keepAliveSeconds = keepAliveSeconds;
+            return this;
+        }
+
+        public Builder maxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        public HttpTransport build() {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(maxRequests);
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+            OkHttpClient baseClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .build();
+
+            return new HttpTransport(baseClient);
+        }
+    }
+}
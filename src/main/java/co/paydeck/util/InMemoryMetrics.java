@@ -0,0 +1,92 @@
+package co.paydeck.util;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MetricsRecorder} that keeps everything in memory: one {@link LatencyHistogram} per
+ * endpoint and phase, request counts by status code and an in-flight gauge. Export it by reading
+ * the getters periodically, or share one instance across providers for a process-wide view.
+ */
+public class InMemoryMetrics implements MetricsRecorder {
+    // Index 0 counts calls that failed without an HTTP response
+    private static final int STATUS_CODES = 600;
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+
+    private final Map<Endpoint, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public void callStarted(Endpoint endpoint) {
+        metrics(endpoint).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void callEnded(Endpoint endpoint, int statusCode, long durationNanos) {
+        EndpointMetrics metrics = metrics(endpoint);
+        metrics.inFlight.decrementAndGet();
+        metrics.requests.increment();
+        metrics.statusCodes.incrementAndGet(statusCode > 0 && statusCode < STATUS_CODES ? statusCode : 0);
+        metrics.phases.get(RequestPhase.TOTAL).record(durationNanos);
+    }
+
+    @Override
+    public void recordPhase(Endpoint endpoint, RequestPhase phase, long durationNanos) {
+        metrics(endpoint).phases.get(phase).record(durationNanos);
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return new ArrayList<>(endpoints.keySet());
+    }
+
+    public LatencyHistogram getHistogram(Endpoint endpoint, RequestPhase phase) {
+        return metrics(endpoint).phases.get(phase);
+    }
+
+    public long getRequests(Endpoint endpoint) {
+        return metrics(endpoint).requests.sum();
+    }
+
+    public int getInFlight(Endpoint endpoint) {
+        return metrics(endpoint).inFlight.get();
+    }
+
+    // Pass 0 for calls that failed without a response
+    public long getStatusCount(Endpoint endpoint, int statusCode) {
+        return statusCode >= 0 && statusCode < STATUS_CODES ? metrics(endpoint).statusCodes.get(statusCode) : 0;
+    }
+
+    // Calls that ended with a 4xx/5xx status or without a response
+    public long getErrors(Endpoint endpoint) {
+        AtomicLongArray statusCodes = metrics(endpoint).statusCodes;
+        long errors = statusCodes.get(0);
+        for (int code = 400; code < STATUS_CODES; code++) {
+            errors += statusCodes.get(code);
+        }
+        return errors;
+    }
+
+    // get() first: computeIfAbsent would lock the bin even when the entry exists
+    private EndpointMetrics metrics(Endpoint endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        return metrics != null ? metrics : endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+    }
+
+    private static final class EndpointMetrics {
+        private final EnumMap<RequestPhase, LatencyHistogram> phases = new EnumMap<>(RequestPhase.class);
+        private final LongAdder requests = new LongAdder();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLongArray statusCodes = new AtomicLongArray(STATUS_CODES);
+
+        EndpointMetrics() {
+            for (RequestPhase phase : PHASES) {
+                phases.put(phase, new LatencyHistogram());
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package co.paydeck.util;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class JournalStats {
+    private long appends;
+    private long syncs;
+    private long rolls;
+    private int openIntents;
+    private int usedBytes;
+}
@@ -0,0 +1,11 @@
+package co.paydeck.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+
+// A request body that writes itself straight into the outgoing stream; HttpClient never builds an intermediate String
+@FunctionalInterface
+public interface JsonPayload {
+
+    void writeTo(JsonGenerator generator) throws IOException;
+}
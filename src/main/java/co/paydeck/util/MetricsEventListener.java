@@ -0,0 +1,130 @@
+package co.paydeck.util;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Turns OkHttp's per-call events into phase timings. OkHttp creates one listener per call and
+ * delivers its events sequentially, so the timestamps need no synchronisation. Calls without an
+ * {@link Endpoint} tag are not recorded.
+ */
+class MetricsEventListener extends EventListener {
+    private final MetricsRecorder recorder;
+    private Endpoint endpoint;
+    private int statusCode;
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestStart;
+    private long requestEnd;
+    private long responseStart;
+
+    private MetricsEventListener(MetricsRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    static EventListener.Factory factory(MetricsRecorder recorder) {
+        return call -> call.request().tag(Endpoint.class) != null
+            ? new MetricsEventListener(recorder)
+            : EventListener.NONE;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        endpoint = call.request().tag(Endpoint.class);
+        callStart = System.nanoTime();
+        recorder.callStarted(endpoint);
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+        record(RequestPhase.DNS, dnsStart);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+        connectStart = System.nanoTime();
+        secureConnectStart = 0;
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStart = System.nanoTime();
+        record(RequestPhase.CONNECT, connectStart);
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        record(RequestPhase.TLS, secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+        if (secureConnectStart == 0) {
+            record(RequestPhase.CONNECT, connectStart);
+        }
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        responseStart = System.nanoTime();
+        if (requestStart != 0) {
+            recorder.recordPhase(endpoint, RequestPhase.REQUEST, requestEnd - requestStart);
+            recorder.recordPhase(endpoint, RequestPhase.SERVER, responseStart - requestEnd);
+        }
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        statusCode = response.code();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        record(RequestPhase.RESPONSE, responseStart);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        recorder.callEnded(endpoint, statusCode, System.nanoTime() - callStart);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        recorder.callEnded(endpoint, 0, System.nanoTime() - callStart);
+    }
+
+    private void record(RequestPhase phase, long start) {
+        recorder.recordPhase(endpoint, phase, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,19 @@
+package co.paydeck.util;
+
+/**
+ * Receives per-request measurements from {@link HttpClient}. Implementations bridge to a metrics
+ * library, or use {@link InMemoryMetrics}.
+ *
+ * <p>Methods are called on OkHttp's threads while requests are in progress, so they must be
+ * thread-safe, cheap and non-blocking. Look per-endpoint state up by {@link Endpoint} identity
+ * or {@link Endpoint#getId()} so recording does not allocate.
+ */
+public interface MetricsRecorder {
+
+    void callStarted(Endpoint endpoint);
+
+    // statusCode is the last HTTP status seen, or 0 when the call failed
+    void callEnded(Endpoint endpoint, int statusCode, long durationNanos);
+
+    void recordPhase(Endpoint endpoint, RequestPhase phase, long durationNanos);
+}
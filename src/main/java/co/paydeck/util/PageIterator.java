@@ -0,0 +1,118 @@
+package co.paydeck.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily walks a paginated endpoint.
+ *
+ * <p>Nothing is requested until the first {@link #hasNext()}. As soon as a page arrives the request for the following one is sent, so the next page
+ * downloads while the caller consumes the current one. At most two pages are held at a time
+ * however many pages the endpoint has. A failed page surfaces as an {@link UncheckedIOException}
+ * from {@link #hasNext()}.
+ */
+public final class PageIterator<T> implements Iterator<T>, AutoCloseable {
+    private final IntFunction<CompletableFuture<Page<T>>> fetcher;
+    private Iterator<T> current = Collections.emptyIterator();
+    private CompletableFuture<Page<T>> next;
+    private int nextPage;
+    private boolean started;
+
+    public PageIterator(int firstPage, IntFunction<CompletableFuture<Page<T>>> fetcher) {
+        this.fetcher = fetcher;
+        this.nextPage = firstPage;
+    }
+
+    public static <T> Stream<T> stream(int firstPage, IntFunction<CompletableFuture<Page<T>>> fetcher) {
+        PageIterator<T> iterator = new PageIterator<>(firstPage, fetcher);
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false
+        ).onClose(iterator::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            next = fetcher.apply(nextPage);
+        }
+        while (!current.hasNext()) {
+            if (next == null) {
+                return false;
+            }
+            Page<T> page = await(next);
+            next = null;
+            // An empty page ends the walk even if the provider claims there are more
+            if (page.hasMore() && !page.getItems().isEmpty()) {
+                next = fetcher.apply(++nextPage);
+            }
+            current = page.getItems().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    // Drops the prefetched page when the caller stops early
+    @Override
+    public void close() {
+        started = true;
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+        current = Collections.emptyIterator();
+    }
+
+    private Page<T> await(CompletableFuture<Page<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            close();
+            Throwable cause = Futures.unwrap(e);
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException(cause.getMessage(), (IOException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    public static final class Page<T> {
+        private final List<T> items;
+        private final boolean hasMore;
+
+        public Page(List<T> items, boolean hasMore) {
+            this.items = items;
+            this.hasMore = hasMore;
+        }
+
+        public List<T> getItems() {
+            return items;
+        }
+
+        public boolean hasMore() {
+            return hasMore;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package co.paydeck.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking provider calls off the caller's thread with a cap on in-flight calls.
+ *
+ * <p>On Java 21+ {@link #virtualThreads(int)} uses a virtual-thread-per-task executor, looked up
+ * reflectively so the SDK still compiles and runs on Java 17, where it falls back to a bounded
+ * pool of daemon platform threads.
+ */
+public class ProviderExecutor implements AutoCloseable {
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final boolean virtual;
+
+    private ProviderExecutor(ExecutorService executor, int maxInFlight, boolean virtual) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.virtual = virtual;
+    }
+
+    public static ProviderExecutor virtualThreads(int maxInFlight) {
+        ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+        if (virtualExecutor != null) {
+            return new ProviderExecutor(virtualExecutor, maxInFlight, true);
+        }
+        return platformThreads(maxInFlight);
+    }
+
+    public static ProviderExecutor platformThreads(int maxInFlight) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            maxInFlight, maxInFlight, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "paydeck-provider");
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return new ProviderExecutor(pool, maxInFlight, false);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int availablePermits() {
+        return inFlight.availablePermits();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return task.get();
+            } finally {
+                inFlight.release();
+            }
+        }, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
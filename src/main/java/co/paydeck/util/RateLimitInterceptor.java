@@ -0,0 +1,33 @@
+package co.paydeck.util;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import java.io.IOException;
+
+// Sits inside the retry interceptor, so every attempt, including replays, takes its own permit
+class RateLimitInterceptor implements Interceptor {
+    private final RateLimiter rateLimiter;
+
+    RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    // Tags an asynchronous attempt whose permit was taken before it was enqueued
+    static final class AsyncPermit {
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String host = request.url().host();
+        String path = request.url().encodedPath();
+
+        if (request.tag(AsyncPermit.class) == null) {
+            rateLimiter.acquire(host, path);
+        }
+        Response response = chain.proceed(request);
+        rateLimiter.onResponse(host, path, response.code(), response.header("Retry-After"));
+        return response;
+    }
+}
@@ -0,0 +1,10 @@
+package co.paydeck.util;
+
+import java.io.IOException;
+
+// Thrown before a request is sent when the client-side rate limiter has no permit to give
+public class RateLimitedException extends IOException {
+    public RateLimitedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,306 @@
+package co.paydeck.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side token bucket per provider host and endpoint class, shared by every
+ * {@link HttpClient} built with it.
+ *
+ * <p>The endpoint class of a path is the longest prefix registered with
+ * {@link Builder#limit(String, double, int)}, or else its first two segments, so
+ * {@code /transaction/verify/ref-1} and {@code /transaction/verify/ref-2} share a bucket.
+ *
+ * <p>Each bucket is a single atomic "next free slot" timestamp, so taking a permit is one CAS.
+ * A 429 halves the bucket's rate, at most once per second, and successful responses grow it back
+ * by a twentieth of the configured rate. A {@code Retry-After} header on a 429 or 503 holds the
+ * whole bucket until the given time.
+ *
+ * <p>Every attempt of an asynchronous call, replays included, takes its permit with
+ * {@link #acquireAsync(String, String)} before it is enqueued, so a BLOCK or TIMEOUT wait is a
+ * timer and never parks a dispatcher thread.
+ */
+public class RateLimiter {
+    public enum Mode {
+        // Wait as long as it takes for a permit
+        BLOCK,
+        // Wait up to the configured timeout, then fail with RateLimitedException
+        TIMEOUT,
+        // Fail with RateLimitedException when no permit is free right now
+        FAIL_FAST
+    }
+
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double MIN_RATE_FRACTION = 0.05;
+
+    private final Limit defaultLimit;
+    private final Map<String, Limit> limits;
+    private final Mode mode;
+    private final long timeoutNanos;
+    private final long maxRetryAfterNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private RateLimiter(Builder builder) {
+        this.defaultLimit = new Limit(builder.permitsPerSecond, builder.burst);
+        this.limits = Map.copyOf(builder.limits);
+        this.mode = builder.mode;
+        this.timeoutNanos = builder.timeout.toNanos();
+        this.maxRetryAfterNanos = builder.maxRetryAfter.toNanos();
+        this.nanoClock = builder.nanoClock;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Current, possibly reduced, rate of the bucket serving this host and path
+    public double getPermitsPerSecond(String host, String path) {
+        return bucket(host, path).permitsPerSecond();
+    }
+
+    public void acquire(String host, String path) throws IOException {
+        long wait = reserve(host, path, maxWaitNanos());
+        if (wait < 0) {
+            throw limited(host, path);
+        }
+        if (wait > 0) {
+            sleep(wait);
+        }
+    }
+
+    // Same permit as acquire, but the wait completes the future from a timer instead of sleeping
+    public CompletableFuture<Void> acquireAsync(String host, String path) {
+        long wait = reserve(host, path, maxWaitNanos());
+        if (wait < 0) {
+            return CompletableFuture.failedFuture(limited(host, path));
+        }
+        if (wait == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+            CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS));
+    }
+
+    public void onResponse(String host, String path, int statusCode, String retryAfter) {
+        Bucket bucket = bucket(host, path);
+        long now = nanoClock.getAsLong();
+        if (statusCode == 429) {
+            bucket.decrease(now);
+        } else if (statusCode < 400) {
+            bucket.increase();
+        }
+        if ((statusCode == 429 || statusCode == 503) && retryAfter != null) {
+            long delay = parseRetryAfter(retryAfter);
+            if (delay > 0) {
+                bucket.holdUntil(now + Math.min(delay, maxRetryAfterNanos));
+            }
+        }
+    }
+
+    // Nanoseconds the caller must wait for its permit, or -1 when that exceeds maxWaitNanos
+    long reserve(String host, String path, long maxWaitNanos) {
+        return bucket(host, path).reserve(nanoClock.getAsLong(), maxWaitNanos);
+    }
+
+    private long maxWaitNanos() {
+        return mode == Mode.BLOCK ? Long.MAX_VALUE : mode == Mode.TIMEOUT ? timeoutNanos : 0;
+    }
+
+    private RateLimitedException limited(String host, String path) {
+        return new RateLimitedException("Client rate limit reached for " + host + endpointClass(path));
+    }
+
+    private Bucket bucket(String host, String path) {
+        String endpointClass = endpointClass(path);
+        return buckets.computeIfAbsent(host + endpointClass,
+            key -> new Bucket(limits.getOrDefault(endpointClass, defaultLimit)));
+    }
+
+    private String endpointClass(String path) {
+        String best = null;
+        for (String prefix : limits.keySet()) {
+            if (path.startsWith(prefix) && (best == null || prefix.length() > best.length())) {
+                best = prefix;
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+
+        int end = path.length();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int first = path.indexOf('/', 1);
+        if (first < 0 || first >= end) {
+            return path.substring(0, end);
+        }
+        int second = path.indexOf('/', first + 1);
+        return path.substring(0, second < 0 || second > end ? end : second);
+    }
+
+    // Retry-After is either delta-seconds or an HTTP date
+    static long parseRetryAfter(String value) {
+        String trimmed = value.trim();
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(trimmed));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Duration.between(ZonedDateTime.now(at.getZone()), at).toNanos();
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a rate limit permit");
+        }
+    }
+
+    private static final class Limit {
+        private final double permitsPerSecond;
+        private final int burst;
+
+        Limit(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+    }
+
+    // Generic cell rate algorithm: nextFree is when the bucket would be empty again
+    private static final class Bucket {
+        private final Limit limit;
+        private final AtomicLong nextFree = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong lastDecrease = new AtomicLong(Long.MIN_VALUE);
+        private volatile double permitsPerSecond;
+
+        Bucket(Limit limit) {
+            this.limit = limit;
+            this.permitsPerSecond = limit.permitsPerSecond;
+        }
+
+        double permitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        long reserve(long now, long maxWaitNanos) {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+            long tolerance = interval * (limit.burst - 1);
+            while (true) {
+                long current = nextFree.get();
+                long start = current == Long.MIN_VALUE ? now : Math.max(current, now);
+                long wait = start - tolerance - now;
+                if (wait > maxWaitNanos) {
+                    return -1;
+                }
+                if (nextFree.compareAndSet(current, start + interval)) {
+                    return Math.max(wait, 0);
+                }
+            }
+        }
+
+        void holdUntil(long until) {
+            long tolerance = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) * (limit.burst - 1);
+            nextFree.accumulateAndGet(until + tolerance, Math::max);
+        }
+
+        // Racy read-modify-write on the rate is fine: the adjustment only needs to be roughly right
+        void decrease(long now) {
+            long last = lastDecrease.get();
+            if (last != Long.MIN_VALUE && now - last < DECREASE_COOLDOWN_NANOS) {
+                return;
+            }
+            if (lastDecrease.compareAndSet(last, now)) {
+                permitsPerSecond = Math.max(permitsPerSecond / 2, limit.permitsPerSecond * MIN_RATE_FRACTION);
+            }
+        }
+
+        void increase() {
+            double current = permitsPerSecond;
+            if (current < limit.permitsPerSecond) {
+                permitsPerSecond = Math.min(current + limit.permitsPerSecond / 20, limit.permitsPerSecond);
+            }
+        }
+    }
+
+    public static class Builder {
+        private double permitsPerSecond = 50;
+        private int burst = 20;
+        private final Map<String, Limit> limits = new LinkedHashMap<>();
+        private Mode mode = Mode.BLOCK;
+        private Duration timeout = Duration.ofSeconds(5);
+        private Duration maxRetryAfter = Duration.ofSeconds(60);
+        private LongSupplier nanoClock = System::nanoTime;
+
+        public Builder permitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+            return this;
+        }
+
+        public Builder burst(int burst) {
+            this.burst = burst;
+            return this;
+        }
+
+        // Own bucket for paths starting with pathPrefix, e.g. "/transaction/initialize"
+        public Builder limit(String pathPrefix, double permitsPerSecond, int burst) {
+            this.limits.put(pathPrefix, new Limit(permitsPerSecond, burst));
+            return this;
+        }
+
+        public Builder mode(Mode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder maxRetryAfter(Duration maxRetryAfter) {
+            this.maxRetryAfter = maxRetryAfter;
+            return this;
+        }
+
+        public Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public RateLimiter build() {
+            if (permitsPerSecond <= 0 || burst < 1) {
+                throw new IllegalStateException("permitsPerSecond and burst must be positive");
+            }
+            for (Limit limit : limits.values()) {
+                if (limit.permitsPerSecond <= 0 || limit.burst < 1) {
+                    throw new IllegalStateException("permitsPerSecond and burst must be positive");
+                }
+            }
+            return new RateLimiter(this);
+        }
+    }
+}
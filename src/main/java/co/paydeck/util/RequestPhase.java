@@ -0,0 +1,18 @@
+package co.paydeck.util;
+
+// Stages of one HTTP exchange as reported by OkHttp's event callbacks
+public enum RequestPhase {
+    // Name resolution; absent when the connection is reused
+    DNS,
+    // TCP connect, excluding the TLS handshake
+    CONNECT,
+    TLS,
+    // Writing request headers and body
+    REQUEST,
+    // From the request being sent to the first response byte: provider processing plus one round trip
+    SERVER,
+    // Reading the response body; HttpClient decodes JSON as it streams, so this includes decoding
+    RESPONSE,
+    // The whole call, including retries and waits inside interceptors
+    TOTAL
+}
@@ -0,0 +1,121 @@
+package co.paydeck.util;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+class RetryInterceptor implements Interceptor {
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
+    private final RetryPolicy policy;
+
+    RetryInterceptor(RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    // Lets the policy replay a non-idempotent request. The key is a local tag and is never sent, so the
+    // provider cannot deduplicate on it: a replay whose first attempt landed is rejected as a duplicate.
+    // The replayed flag lets the response reader report such a rejection for what it is
+    static final class IdempotencyKey {
+        private final String value;
+        private volatile boolean replayed;
+
+        IdempotencyKey(String value) {
+            this.value = value;
+        }
+
+        boolean isReplayed() {
+            return replayed;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    // Retry state of one logical request. The interceptor keeps it for a blocking call; an async
+    // call carries it as a tag and HttpClient retries it, waiting out the backoff on a timer so no
+    // dispatcher thread sleeps. Attempts follow one another, so the fields need no synchronisation
+    static final class Attempts {
+        private final RetryPolicy policy;
+        private final IdempotencyKey idempotencyKey;
+        private final boolean replayable;
+        private int attempt = 1;
+        private long firstAttemptEnd;
+
+        Attempts(RetryPolicy policy, Request request) {
+            this.policy = policy;
+            this.idempotencyKey = request.tag(IdempotencyKey.class);
+            this.replayable = IDEMPOTENT_METHODS.contains(request.method()) || idempotencyKey != null;
+            policy.onRequest();
+        }
+
+        // Backoff before the next attempt, or -1 when this outcome is final
+        long next(Response response, IOException failure, boolean canceled) {
+            if (attempt == 1) {
+                firstAttemptEnd = System.nanoTime();
+            }
+
+            boolean retryable = response != null
+                ? replayable && policy.isRetryable(response.code())
+                : policy.isRetryable(failure) && (replayable || policy.isConnectFailure(failure));
+
+            if (!retryable || attempt >= policy.getMaxAttempts() || canceled || !policy.tryAcquireRetry()) {
+                if (attempt > 1) {
+                    policy.onRetriedRequestComplete(System.nanoTime() - firstAttemptEnd);
+                }
+                return -1;
+            }
+
+            if (idempotencyKey != null) {
+                idempotencyKey.replayed = true;
+            }
+            return policy.backoffNanos(attempt++);
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.tag(Attempts.class) != null) {
+            return chain.proceed(request);
+        }
+
+        Attempts attempts = new Attempts(policy, request);
+        while (true) {
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            long backoff = attempts.next(response, failure, chain.call().isCanceled());
+            if (backoff < 0) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+            if (response != null) {
+                response.close();
+            }
+            sleep(backoff);
+        }
+    }
+
+    private void sleep(long nanos) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package co.paydeck.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLException;
+
+/**
+ * Retry settings shared by every {@link HttpClient} built with it.
+ *
+ * <p>Backoff is exponential with full jitter. A retry budget caps retries at a percentage of
+ * requests, on top of a small reserve, so a provider outage cannot multiply traffic.
+ * Counters are kept on the policy; see {@link #getStats()}.
+ */
+public class RetryPolicy {
+    private static final long TOKEN = 1000;
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final long depositPerRequest;
+    private final long budgetCap;
+    private final Set<Integer> retryableStatusCodes;
+
+    private final AtomicLong budget;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final LongAdder retriedRequests = new LongAdder();
+    private final LongAdder addedLatencyNanos = new LongAdder();
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayNanos = builder.baseDelay.toNanos();
+        this.maxDelayNanos = builder.maxDelay.toNanos();
+        this.depositPerRequest = Math.round(builder.retryBudgetPercent * TOKEN / 100.0);
+        this.budgetCap = builder.retryBudgetReserve * TOKEN;
+        this.retryableStatusCodes = Set.copyOf(builder.retryableStatusCodes);
+        this.budget = new AtomicLong(budgetCap);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isRetryable(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    public boolean isRetryable(Throwable error) {
+        if (error instanceof HttpException) {
+            return isRetryable(((HttpException) error).getStatusCode());
+        }
+        if (error instanceof SocketTimeoutException) {
+            return true;
+        }
+        // Cancellation, TLS failures and local throttling will not succeed on a second attempt
+        if (error instanceof InterruptedIOException || error instanceof SSLException
+                || error instanceof RateLimitedException) {
+            return false;
+        }
+        return error instanceof IOException;
+    }
+
+    // True when the failure happened before any byte of the request reached the provider
+    public boolean isConnectFailure(Throwable error) {
+        return error instanceof ConnectException
+            || error instanceof NoRouteToHostException
+            || error instanceof UnknownHostException;
+    }
+
+    public long backoffNanos(int attempt) {
+        long ceiling = baseDelayNanos << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayNanos) {
+            ceiling = maxDelayNanos;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    void onRequest() {
+        requests.increment();
+        long current;
+        do {
+            current = budget.get();
+            if (current >= budgetCap) {
+                return;
+            }
+        } while (!budget.compareAndSet(current, Math.min(budgetCap, current + depositPerRequest)));
+    }
+
+    boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN) {
+                budgetExhausted.increment();
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - TOKEN));
+        retries.increment();
+        return true;
+    }
+
+    void onRetriedRequestComplete(long addedNanos) {
+        retriedRequests.increment();
+        addedLatencyNanos.add(addedNanos);
+    }
+
+    public RetryStats getStats() {
+        return RetryStats.builder()
+            .requests(requests.sum())
+            .retries(retries.sum())
+            .retriedRequests(retriedRequests.sum())
+            .budgetExhausted(budgetExhausted.sum())
+            .addedLatency(Duration.ofNanos(addedLatencyNanos.sum()))
+            .build();
+    }
+
+    public static class Builder {
+        private int maxAttempts = 3;
+        private Duration baseDelay = Duration.ofMillis(100);
+        private Duration maxDelay = Duration.ofSeconds(2);
+        private double retryBudgetPercent = 20;
+        private int retryBudgetReserve = 50;
+        private Set<Integer> retryableStatusCodes = Set.of(408, 429, 500, 502, 503, 504);
+
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder baseDelay(Duration baseDelay) {
+            this.baseDelay = baseDelay;
+            return this;
+        }
+
+        public Builder maxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        public Builder retryBudgetPercent(double retryBudgetPercent) {
+            this.retryBudgetPercent = retryBudgetPercent;
+            return this;
+        }
+
+        public Builder retryBudgetReserve(int retryBudgetReserve) {
+            this.retryBudgetReserve = retryBudgetReserve;
+            return this;
+        }
+
+        public Builder retryableStatusCodes(Set<Integer> retryableStatusCodes) {
+            this.retryableStatusCodes = retryableStatusCodes;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            if (maxAttempts < 1) {
+                throw new IllegalStateException("maxAttempts must be at least 1");
+            }
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package co.paydeck.util;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.Duration;
+
+@Data
+@Builder
+public class RetryStats {
+    private long requests;
+    private long retries;
+    private long retriedRequests;
+    private long budgetExhausted;
+    private Duration addedLatency;
+}
@@ -0,0 +1,138 @@
+package co.paydeck.util;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Parser for the ISO-8601 timestamps providers send, such as Paystack's {@code paid_at} and
+ * Flutterwave's {@code created_at} ({@code 2024-01-15T10:30:00.000Z}).
+ *
+ * <p>Accepts {@code yyyy-MM-ddTHH:mm:ss}, a space instead of the {@code T}, an optional fraction of
+ * up to nine digits and an optional {@code Z}, {@code ±HH:mm}, {@code ±HHmm} or {@code ±HH}
+ * offset. A timestamp without an offset is taken as UTC. Anything else, including out-of-range
+ * fields such as February 30th, returns {@code null}; the parser never throws, so bad input costs
+ * no more than good input.
+ */
+public final class Timestamps {
+    private static final int NO_OFFSET = Integer.MIN_VALUE;
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    private Timestamps() {
+    }
+
+    /**
+     * Returns the parsed timestamp, keeping the offset it was sent with, or {@code null} when the
+     * text is null or not in one of the accepted forms.
+     */
+    public static OffsetDateTime parse(CharSequence text) {
+        if (text == null || text.length() < 19) {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        char separator = text.charAt(10);
+        if ((year | month | day | hour | minute | second) < 0
+                || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || (separator != 'T' && separator != 't' && separator != ' ')
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return null;
+        }
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+
+        int length = text.length();
+        int position = 19;
+        int nanos = 0;
+        if (position < length && text.charAt(position) == '.') {
+            int start = ++position;
+            while (position < length && isDigit(text.charAt(position))) {
+                if (position - start == 9) {
+                    return null;
+                }
+                nanos = nanos * 10 + (text.charAt(position++) - '0');
+            }
+            if (position == start) {
+                return null;
+            }
+            for (int i = position - start; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+
+        int offsetSeconds = offsetSeconds(text, position, length);
+        if (offsetSeconds == NO_OFFSET) {
+            return null;
+        }
+        ZoneOffset offset = offsetSeconds == 0 ? ZoneOffset.UTC : ZoneOffset.ofTotalSeconds(offsetSeconds);
+        return OffsetDateTime.of(year, month, day, hour, minute, second, nanos, offset);
+    }
+
+    // The offset in seconds from `position` to the end of the text, or NO_OFFSET if it is malformed
+    private static int offsetSeconds(CharSequence text, int position, int length) {
+        if (position == length) {
+            return 0;
+        }
+        char sign = text.charAt(position);
+        if (sign == 'Z' || sign == 'z') {
+            return position + 1 == length ? 0 : NO_OFFSET;
+        }
+        if (sign != '+' && sign != '-') {
+            return NO_OFFSET;
+        }
+
+        int remaining = length - position - 1;
+        int hours;
+        int minutes;
+        if (remaining == 2) {
+            hours = digits(text, position + 1, 2);
+            minutes = 0;
+        } else if (remaining == 4) {
+            hours = digits(text, position + 1, 2);
+            minutes = digits(text, position + 3, 2);
+        } else if (remaining == 5 && text.charAt(position + 3) == ':') {
+            hours = digits(text, position + 1, 2);
+            minutes = digits(text, position + 4, 2);
+        } else {
+            return NO_OFFSET;
+        }
+        if (hours < 0 || minutes < 0 || minutes > 59) {
+            return NO_OFFSET;
+        }
+        int seconds = hours * 3600 + minutes * 60;
+        if (seconds > MAX_OFFSET_SECONDS) {
+            return NO_OFFSET;
+        }
+        return sign == '-' ? -seconds : seconds;
+    }
+
+    // The value of `count` decimal digits starting at `start`, or -1 if any of them is not a digit
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
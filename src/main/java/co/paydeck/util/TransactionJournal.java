@@ -0,0 +1,458 @@
+package co.paydeck.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of outbound checkouts and payouts, keyed by merchant reference.
+ *
+ * <p>{@link #begin} records the intent to send a request and completes once that record is on
+ * disk. {@link #complete} records that the provider gave a definitive answer. A reference that was
+ * begun but never completed is in doubt: the process may have stopped before, during or after the
+ * provider accepted it. After a restart {@link #inDoubt} lists those references so they can be
+ * checked with the provider instead of being sent a second time.
+ *
+ * <p>Records are appended to a memory-mapped file of fixed capacity, so an append is a memory
+ * copy. One flusher thread forces the file to disk, and every intent appended while a force is
+ * running is covered by the next one. The number of syncs therefore stays flat as the request rate
+ * grows. Outcomes are not waited on: losing one only means the reference is checked again.
+ *
+ * <p>Each record carries a CRC32 and reading stops at the first record that does not check out, so
+ * a write torn by a power cut is dropped. Opening the journal, and filling it up, rewrites the file
+ * with just the open intents and swaps it in by rename.
+ */
+public final class TransactionJournal implements Closeable {
+    public static final int DEFAULT_CAPACITY = 64 * 1024 * 1024;
+
+    private static final byte INTENT = 1;
+    private static final byte OUTCOME = 2;
+    // Body length and CRC32 of the body
+    private static final int HEADER_BYTES = 8;
+    // Record type, operation and reference length, ahead of the reference itself
+    private static final int PREFIX_BYTES = 4;
+    private static final int MAX_REFERENCE_BYTES = 0xFFFF;
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    public enum Operation {
+        CHECKOUT,
+        PAYOUT
+    }
+
+    private final Path file;
+    private final int capacity;
+    private final CRC32 crc = new CRC32();
+    private final Map<Operation, Set<String>> open = new EnumMap<>(Operation.class);
+    private final ArrayDeque<Commit> commits = new ArrayDeque<>();
+    private final List<Commit> durable = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Thread flusher;
+
+    // Guarded by lock
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private int flushed;
+    private long generation;
+    private boolean closed;
+    private long appends;
+    private long syncs;
+    private long rolls;
+
+    private TransactionJournal(Path file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+        for (Operation operation : OPERATIONS) {
+            open.put(operation, new LinkedHashSet<>());
+        }
+        this.flusher = new Thread(this::flushLoop, "paydeck-journal-" + file.getFileName());
+        this.flusher.setDaemon(true);
+    }
+
+    public static TransactionJournal open(Path file) throws IOException {
+        return open(file, DEFAULT_CAPACITY);
+    }
+
+    // Capacity bounds the file; it must hold every intent that can be open at once
+    public static TransactionJournal open(Path file, int capacity) throws IOException {
+        if (capacity < HEADER_BYTES + PREFIX_BYTES) {
+            throw new IllegalArgumentException("capacity is too small: " + capacity);
+        }
+        TransactionJournal journal = new TransactionJournal(file, capacity);
+        journal.lock.lock();
+        try {
+            journal.replay();
+            journal.roll();
+        } finally {
+            journal.lock.unlock();
+        }
+        journal.flusher.start();
+        return journal;
+    }
+
+    /**
+     * Records the intent to send {@code reference}. The future completes with {@code true} once the
+     * record is durable, or straight away with {@code false} when the reference is already open,
+     * whether in flight in this process or left in doubt by an earlier one. The future may complete
+     * on the journal's flusher thread, so anything slow should be chained asynchronously.
+     */
+    public CompletableFuture<Boolean> begin(Operation operation, String reference) {
+        byte[] encoded = encode(reference);
+        List<Commit> released;
+        CompletableFuture<Boolean> result;
+        lock.lock();
+        try {
+            ensureOpen();
+            if (!open.get(operation).add(reference)) {
+                return CompletableFuture.completedFuture(false);
+            }
+            try {
+                append(INTENT, operation, encoded);
+                if (position == flushed) {
+                    result = CompletableFuture.completedFuture(true);
+                } else {
+                    Commit commit = new Commit(position);
+                    commits.add(commit);
+                    appended.signal();
+                    result = commit.future;
+                }
+            } catch (IOException | RuntimeException e) {
+                open.get(operation).remove(reference);
+                result = CompletableFuture.failedFuture(e);
+            }
+            released = takeDurable();
+        } finally {
+            lock.unlock();
+        }
+        release(released, null);
+        return result;
+    }
+
+    // Closes the intent. Best effort: an outcome that cannot be written leaves the reference to be checked again
+    public void complete(Operation operation, String reference) {
+        List<Commit> released;
+        lock.lock();
+        try {
+            if (closed || !open.get(operation).remove(reference)) {
+                return;
+            }
+            try {
+                append(OUTCOME, operation, encode(reference));
+                appended.signal();
+            } catch (IOException | RuntimeException e) {
+                // Already dropped from the open set; the record on disk stays an intent until the next start
+            }
+            released = takeDurable();
+        } finally {
+            lock.unlock();
+        }
+        release(released, null);
+    }
+
+    // References begun but not completed, in the order they were begun
+    public Set<String> inDoubt(Operation operation) {
+        lock.lock();
+        try {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(open.get(operation)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public JournalStats getStats() {
+        lock.lock();
+        try {
+            int openIntents = 0;
+            for (Set<String> references : open.values()) {
+                openIntents += references.size();
+            }
+            return JournalStats.builder()
+                .appends(appends)
+                .syncs(syncs)
+                .rolls(rolls)
+                .openIntents(openIntents)
+                .usedBytes(position)
+                .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        List<Commit> released;
+        lock.lock();
+        try {
+            buffer.force();
+            flushed = position;
+            markDurable();
+            released = takeDurable();
+            channel.close();
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        release(released, null);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed: " + file);
+        }
+    }
+
+    private static byte[] encode(String reference) {
+        byte[] bytes = reference.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0 || bytes.length > MAX_REFERENCE_BYTES) {
+            throw new IllegalArgumentException("Reference must be 1 to " + MAX_REFERENCE_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    // Lock held. A record that does not fit triggers a roll, which already writes every open intent
+    private void append(byte type, Operation operation, byte[] reference) throws IOException {
+        int length = HEADER_BYTES + PREFIX_BYTES + reference.length;
+        if (length > capacity - position) {
+            roll();
+            return;
+        }
+        position = write(buffer, position, type, operation, reference);
+        appends++;
+    }
+
+    private int write(ByteBuffer target, int at, byte type, Operation operation, byte[] reference) {
+        int bodyLength = PREFIX_BYTES + reference.length;
+        target.put(at + HEADER_BYTES, type);
+        target.put(at + HEADER_BYTES + 1, (byte) operation.ordinal());
+        target.putShort(at + HEADER_BYTES + 2, (short) reference.length);
+        target.put(at + HEADER_BYTES + PREFIX_BYTES, reference);
+        target.putInt(at + 4, checksum(target, at + HEADER_BYTES, bodyLength));
+        // The length goes in last, so a reader never sees a length without its body
+        target.putInt(at, bodyLength);
+        return at + HEADER_BYTES + bodyLength;
+    }
+
+    private int checksum(ByteBuffer source, int at, int length) {
+        crc.reset();
+        crc.update(source.slice(at, length));
+        return (int) crc.getValue();
+    }
+
+    // Lock held, before the flusher starts. Stops at the end of the log or the first record that does not check out
+    private void replay() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel existing = FileChannel.open(file, StandardOpenOption.READ)) {
+            int size = (int) Math.min(existing.size(), Integer.MAX_VALUE);
+            ByteBuffer log = existing.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int at = 0;
+            while (size - at >= HEADER_BYTES + PREFIX_BYTES) {
+                int bodyLength = log.getInt(at);
+                if (bodyLength <= PREFIX_BYTES || bodyLength > size - at - HEADER_BYTES
+                        || checksum(log, at + HEADER_BYTES, bodyLength) != log.getInt(at + 4)) {
+                    break;
+                }
+                byte type = log.get(at + HEADER_BYTES);
+                int operation = log.get(at + HEADER_BYTES + 1);
+                int referenceLength = log.getShort(at + HEADER_BYTES + 2) & 0xFFFF;
+                if (referenceLength != bodyLength - PREFIX_BYTES || operation < 0 || operation >= OPERATIONS.length) {
+                    break;
+                }
+                byte[] reference = new byte[referenceLength];
+                log.get(at + HEADER_BYTES + PREFIX_BYTES, reference);
+                Set<String> references = open.get(OPERATIONS[operation]);
+                String decoded = new String(reference, StandardCharsets.UTF_8);
+                if (type == INTENT) {
+                    references.add(decoded);
+                } else if (type == OUTCOME) {
+                    references.remove(decoded);
+                } else {
+                    break;
+                }
+                at += HEADER_BYTES + bodyLength;
+            }
+        }
+    }
+
+    /**
+     * Lock held. Writes the open intents to a sibling file, forces it and renames it over the journal,
+     * so a crash part way leaves either the old file or the new one. Every pending commit is covered.
+     */
+    private void roll() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel next = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int at = 0;
+        MappedByteBuffer mapped;
+        try {
+            mapped = next.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            for (Operation operation : OPERATIONS) {
+                for (String reference : open.get(operation)) {
+                    byte[] encoded = reference.getBytes(StandardCharsets.UTF_8);
+                    if (HEADER_BYTES + PREFIX_BYTES + encoded.length > capacity - at) {
+                        throw new IllegalStateException("Journal is full of open intents: " + file);
+                    }
+                    at = write(mapped, at, INTENT, operation, encoded);
+                }
+            }
+            mapped.force();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+        } catch (IOException | RuntimeException e) {
+            next.close();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        if (channel != null) {
+            channel.close();
+        }
+        channel = next;
+        buffer = mapped;
+        position = at;
+        flushed = at;
+        generation++;
+        rolls++;
+        syncs++;
+        markDurable();
+    }
+
+    // Makes the rename itself durable; not every platform lets a directory be opened, so failure is ignored
+    private void syncDirectory() {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel handle = FileChannel.open(directory, StandardOpenOption.READ)) {
+            handle.force(true);
+        } catch (IOException e) {
+            // The file contents are durable; only the rename may be replayed from the old file
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer mapped;
+            long flushingGeneration;
+            int from;
+            int to;
+            lock.lock();
+            try {
+                while (!closed && flushed == position) {
+                    appended.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                mapped = buffer;
+                flushingGeneration = generation;
+                from = flushed;
+                to = position;
+            } finally {
+                lock.unlock();
+            }
+
+            // Appends carry on while the force runs and are picked up by the next pass
+            RuntimeException failure = null;
+            try {
+                mapped.force(from, to - from);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+
+            // A roll in the meantime has already covered this range and completed its commits
+            List<Commit> released = List.of();
+            lock.lock();
+            try {
+                if (flushingGeneration == generation) {
+                    syncs++;
+                    flushed = to;
+                    markDurable();
+                    released = takeDurable();
+                }
+            } finally {
+                lock.unlock();
+            }
+            release(released, failure);
+        }
+    }
+
+    // Lock held
+    private void markDurable() {
+        while (!commits.isEmpty() && commits.peek().position <= flushed) {
+            durable.add(commits.poll());
+        }
+    }
+
+    // Lock held
+    private List<Commit> takeDurable() {
+        if (durable.isEmpty()) {
+            return List.of();
+        }
+        List<Commit> taken = new ArrayList<>(durable);
+        durable.clear();
+        return taken;
+    }
+
+    // Outside the lock, since continuations run on the completing thread
+    private void release(List<Commit> released, RuntimeException failure) {
+        for (Commit commit : released) {
+            if (failure == null) {
+                commit.future.complete(true);
+            } else {
+                commit.future.completeExceptionally(new UncheckedIOException(
+                    new IOException("Failed to sync journal " + file, failure)));
+            }
+        }
+    }
+
+    private static final class Commit {
+        private final int position;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        Commit(int position) {
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package co.paydeck.webhook;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Remembers the last `capacity` delivery keys; older keys are forgotten first in, first out
+final class DeliveryDeduplicator {
+    private final int capacity;
+    // Each key maps to the sequence number of the delivery that added it, so a forgotten and
+    // re-added key is only evicted through its own, newer place in the order
+    private final Map<String, Long> seen = new ConcurrentHashMap<>();
+    private final Queue<Slot> order = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+
+    DeliveryDeduplicator(int capacity) {
+        this.capacity = capacity;
+    }
+
+    boolean firstDelivery(String key) {
+        long generation = sequence.incrementAndGet();
+        if (seen.putIfAbsent(key, generation) != null) {
+            return false;
+        }
+        order.add(new Slot(key, generation));
+        size.incrementAndGet();
+        evict();
+        return true;
+    }
+
+    // Lets a redelivery through after the first attempt could not be queued or handled
+    void forget(String key) {
+        if (seen.remove(key) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    // Slots left behind by forget are skipped; only removing a live key frees room
+    private void evict() {
+        while (size.get() > capacity) {
+            Slot oldest = order.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (seen.remove(oldest.key, oldest.generation)) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class Slot {
+        private final String key;
+        private final long generation;
+
+        Slot(String key, long generation) {
+            this.key = key;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package co.paydeck.webhook;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Paystack's {@code x-paystack-signature}: hex HMAC-SHA512 of the raw body under the secret key.
+ *
+ * <p>Each thread keeps an initialised {@link Mac}; {@code doFinal} resets it for the next event.
+ * The hex header is compared against the digest bytes directly, in constant time, so no hex
+ * string is built per event.
+ */
+final class HmacSha512Verifier implements SignatureVerifier {
+    private static final String ALGORITHM = "HmacSHA512";
+
+    private final ThreadLocal<Mac> macs;
+
+    HmacSha512Verifier(String secretKey) {
+        SecretKeySpec key = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        newMac(key);
+        this.macs = ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    @Override
+    public boolean verify(byte[] body, int offset, int length, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        Mac mac = macs.get();
+        mac.update(body, offset, length);
+        return matchesHex(mac.doFinal(), signature);
+    }
+
+    static boolean matchesHex(byte[] digest, String hex) {
+        if (hex.length() != digest.length * 2) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < digest.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            // digit() returns -1 for a non-hex character, which sets the sign bit
+            diff |= (high | low) & 0x80000000;
+            diff |= ((high << 4) | low) ^ (digest[i] & 0xff);
+        }
+        return diff == 0;
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA512 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package co.paydeck.webhook;
+
+// Flutterwave's verif-hash header carries the secret hash configured on the dashboard as-is
+final class SecretHashVerifier implements SignatureVerifier {
+    private final String secretHash;
+
+    SecretHashVerifier(String secretHash) {
+        this.secretHash = secretHash;
+    }
+
+    // Constant time in the header length, so response timing does not leak a matching prefix
+    @Override
+    public boolean verify(byte[] body, int offset, int length, String signature) {
+        if (signature == null || signature.length() != secretHash.length()) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < signature.length(); i++) {
+            diff |= signature.charAt(i) ^ secretHash.charAt(i);
+        }
+        return diff == 0;
+    }
+}
@@ -0,0 +1,5 @@
+package co.paydeck.webhook;
+
+interface SignatureVerifier {
+    boolean verify(byte[] body, int offset, int length, String signature);
+}
@@ -0,0 +1,16 @@
+package co.paydeck.webhook;
+
+import co.paydeck.model.Provider;
+import co.paydeck.model.deposit.TransactionResponseData;
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+
+@Data
+@Builder
+public class WebhookEvent {
+    private Provider provider;
+    private String event;
+    private TransactionResponseData transaction;
+    private Instant receivedAt;
+}
@@ -0,0 +1,9 @@
+package co.paydeck.webhook;
+
+import java.util.List;
+
+// Called from a dispatcher thread with up to maxBatchSize events in arrival order
+@FunctionalInterface
+public interface WebhookHandler {
+    void onEvents(List<WebhookEvent> events) throws Exception;
+}
@@ -0,0 +1,370 @@
+package co.paydeck.webhook;
+
+import co.paydeck.model.Provider;
+import co.paydeck.model.deposit.TransactionResponseData;
+import co.paydeck.provider.deposit.FlutterwaveTransactionMapper;
+import co.paydeck.provider.deposit.PaystackTransactionMapper;
+import co.paydeck.provider.dto.FlutterwaveWebhookEvent;
+import co.paydeck.provider.dto.PaystackWebhookEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies, parses, deduplicates and dispatches provider webhooks.
+ *
+ * <p>{@link #receive} runs on the caller's thread (the HTTP endpoint) and only verifies the
+ * signature, parses the body into a {@link TransactionResponseData} and offers the event to a
+ * bounded queue. Dispatcher threads drain the queue in batches and hand each batch to the
+ * {@link WebhookHandler}. When the queue is full the event is refused with
+ * {@link WebhookResult#QUEUE_FULL} so the provider redelivers it later.
+ *
+ * <p>Redeliveries are recognised by provider, transaction id and status, so a transaction that
+ * moves from pending to successful still produces two events.
+ *
+ * <p>A batch the handler throws on is retried up to {@code handlerAttempts} times. After that its
+ * events go to the optional dead-letter handler, and their keys are forgotten so a later
+ * redelivery is handled instead of being dropped as a duplicate.
+ */
+public class WebhookProcessor implements AutoCloseable {
+    public static final String PAYSTACK_SIGNATURE_HEADER = "x-paystack-signature";
+    public static final String FLUTTERWAVE_SIGNATURE_HEADER = "verif-hash";
+
+    private final SignatureVerifier paystackVerifier;
+    private final SignatureVerifier flutterwaveVerifier;
+    private final ObjectReader paystackReader;
+    private final ObjectReader flutterwaveReader;
+    private final WebhookHandler handler;
+    private final WebhookHandler deadLetterHandler;
+    private final int handlerAttempts;
+    private final long handlerRetryDelayMillis;
+    private final int maxBatchSize;
+    private final DeliveryDeduplicator deduplicator;
+    private final BlockingQueue<WebhookEvent> queue;
+    private final List<Thread> dispatchers = new ArrayList<>();
+    private volatile boolean closed;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder ignored = new LongAdder();
+    private final LongAdder invalidSignatures = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder queueFull = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder handlerFailures = new LongAdder();
+    private final LongAdder handlerRetries = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    private WebhookProcessor(Builder builder) {
+        this.paystackVerifier = builder.paystackSecretKey != null
+            ? new HmacSha512Verifier(builder.paystackSecretKey)
+            : null;
+        this.flutterwaveVerifier = builder.flutterwaveSecretHash != null
+            ? new SecretHashVerifier(builder.flutterwaveSecretHash)
+            : null;
+        this.paystackReader = builder.objectMapper.readerFor(PaystackWebhookEvent.class);
+        this.flutterwaveReader = builder.objectMapper.readerFor(FlutterwaveWebhookEvent.class);
+        this.handler = builder.handler;
+        this.deadLetterHandler = builder.deadLetterHandler;
+        this.handlerAttempts = builder.handlerAttempts;
+        this.handlerRetryDelayMillis = builder.handlerRetryDelay.toMillis();
+        this.maxBatchSize = builder.maxBatchSize;
+        this.deduplicator = new DeliveryDeduplicator(builder.deduplicationWindow);
+        this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+
+        for (int i = 0; i < builder.dispatcherThreads; i++) {
+            Thread thread = new Thread(this::dispatchLoop, "paydeck-webhook-" + i);
+            thread.setDaemon(true);
+            dispatchers.add(thread);
+        }
+        dispatchers.forEach(Thread::start);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static String signatureHeader(Provider provider) {
+        return switch (provider) {
+            case PAYSTACK -> PAYSTACK_SIGNATURE_HEADER;
+            case FLUTTERWAVE -> FLUTTERWAVE_SIGNATURE_HEADER;
+        };
+    }
+
+    public WebhookResult receive(Provider provider, byte[] body, String signature) {
+        return receive(provider, body, 0, body.length, signature);
+    }
+
+    public WebhookResult receive(Provider provider, byte[] body, int offset, int length, String signature) {
+        SignatureVerifier verifier = provider == Provider.PAYSTACK ? paystackVerifier : flutterwaveVerifier;
+        if (verifier == null) {
+            throw new IllegalStateException("No webhook secret configured for " + provider);
+        }
+        if (closed) {
+            queueFull.increment();
+            return WebhookResult.QUEUE_FULL;
+        }
+        if (!verifier.verify(body, offset, length, signature)) {
+            invalidSignatures.increment();
+            return WebhookResult.INVALID_SIGNATURE;
+        }
+
+        WebhookEvent event;
+        long transactionId;
+        try {
+            if (provider == Provider.PAYSTACK) {
+                PaystackWebhookEvent parsed = paystackReader.readValue(body, offset, length);
+                if (parsed.getData() == null || !isCharge(parsed.getEvent())) {
+                    ignored.increment();
+                    return WebhookResult.IGNORED;
+                }
+                transactionId = parsed.getData().getId();
+                event = event(provider, parsed.getEvent(),
+                    PaystackTransactionMapper.toTransactionResponseData(parsed.getData()));
+            } else {
+                FlutterwaveWebhookEvent parsed = flutterwaveReader.readValue(body, offset, length);
+                if (parsed.getData() == null || !isCharge(parsed.getEvent())) {
+                    ignored.increment();
+                    return WebhookResult.IGNORED;
+                }
+                transactionId = parsed.getData().getId();
+                event = event(provider, parsed.getEvent(),
+                    FlutterwaveTransactionMapper.toTransactionResponseData(parsed.getData()));
+            }
+        } catch (IOException | RuntimeException e) {
+            malformed.increment();
+            return WebhookResult.MALFORMED;
+        }
+
+        String key = deliveryKey(provider, Long.toString(transactionId), event);
+        if (!deduplicator.firstDelivery(key)) {
+            duplicates.increment();
+            return WebhookResult.DUPLICATE;
+        }
+        // A close() that ran since the check above may have let the dispatchers exit before the offer;
+        // the event is then taken back, unless a dispatcher already took it
+        if (!queue.offer(event) || closed && queue.remove(event)) {
+            deduplicator.forget(key);
+            queueFull.increment();
+            return WebhookResult.QUEUE_FULL;
+        }
+        accepted.increment();
+        return WebhookResult.ACCEPTED;
+    }
+
+    public WebhookStats getStats() {
+        return WebhookStats.builder()
+            .accepted(accepted.sum())
+            .duplicates(duplicates.sum())
+            .ignored(ignored.sum())
+            .invalidSignatures(invalidSignatures.sum())
+            .malformed(malformed.sum())
+            .queueFull(queueFull.sum())
+            .dispatched(dispatched.sum())
+            .batches(batches.sum())
+            .handlerFailures(handlerFailures.sum())
+            .handlerRetries(handlerRetries.sum())
+            .deadLettered(deadLettered.sum())
+            .build();
+    }
+
+    // Stops accepting events and waits for the dispatchers to drain what is already queued
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread dispatcher : dispatchers) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static boolean isCharge(String event) {
+        return event != null && event.startsWith("charge.");
+    }
+
+    private static String deliveryKey(Provider provider, String transactionId, WebhookEvent event) {
+        return provider.getCode() + ':' + transactionId + ':' + event.getTransaction().getStatus();
+    }
+
+    private static WebhookEvent event(Provider provider, String type, TransactionResponseData transaction) {
+        return WebhookEvent.builder()
+            .provider(provider)
+            .event(type)
+            .transaction(transaction)
+            .receivedAt(Instant.now())
+            .build();
+    }
+
+    // Blocks for the first event, then takes whatever else is already queued, up to maxBatchSize
+    private void dispatchLoop() {
+        List<WebhookEvent> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                WebhookEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                dispatch(batch);
+            } finally {
+                batches.increment();
+                batch.clear();
+            }
+        }
+    }
+
+    // Retries with a linearly growing pause; an interrupt ends the retries early
+    private void dispatch(List<WebhookEvent> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                handler.onEvents(batch);
+                dispatched.add(batch.size());
+                return;
+            } catch (Exception e) {
+                handlerFailures.increment();
+            }
+            if (attempt >= handlerAttempts || !pause(handlerRetryDelayMillis * attempt)) {
+                deadLetter(batch);
+                return;
+            }
+            handlerRetries.increment();
+        }
+    }
+
+    // The events were acknowledged to the provider but never handled
+    private void deadLetter(List<WebhookEvent> batch) {
+        deadLettered.add(batch.size());
+        for (WebhookEvent event : batch) {
+            deduplicator.forget(deliveryKey(event.getProvider(), event.getTransaction().getTransactionId(), event));
+        }
+        if (deadLetterHandler != null) {
+            try {
+                deadLetterHandler.onEvents(List.copyOf(batch));
+            } catch (Exception e) {
+                handlerFailures.increment();
+            }
+        }
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public static class Builder {
+        private String paystackSecretKey;
+        private String flutterwaveSecretHash;
+        private WebhookHandler handler;
+        private WebhookHandler deadLetterHandler;
+        private int handlerAttempts = 3;
+        private Duration handlerRetryDelay = Duration.ofMillis(100);
+        private int queueCapacity = 10_000;
+        private int maxBatchSize = 256;
+        private int dispatcherThreads = 1;
+        private int deduplicationWindow = 100_000;
+        private ObjectMapper objectMapper = new ObjectMapper();
+
+        public Builder paystackSecretKey(String paystackSecretKey) {
+            this.paystackSecretKey = paystackSecretKey;
+            return this;
+        }
+
+        public Builder flutterwaveSecretHash(String flutterwaveSecretHash) {
+            this.flutterwaveSecretHash = flutterwaveSecretHash;
+            return this;
+        }
+
+        public Builder handler(WebhookHandler handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        // Receives the events of a batch the handler still failed on after every attempt
+        public Builder deadLetterHandler(WebhookHandler deadLetterHandler) {
+            this.deadLetterHandler = deadLetterHandler;
+            return this;
+        }
+
+        public Builder handlerAttempts(int handlerAttempts) {
+            this.handlerAttempts = handlerAttempts;
+            return this;
+        }
+
+        // Pause before the first retry; each later retry waits one more multiple of it
+        public Builder handlerRetryDelay(Duration handlerRetryDelay) {
+            this.handlerRetryDelay = handlerRetryDelay;
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder dispatcherThreads(int dispatcherThreads) {
+            this.dispatcherThreads = dispatcherThreads;
+            return this;
+        }
+
+        // Number of recent deliveries remembered for duplicate detection
+        public Builder deduplicationWindow(int deduplicationWindow) {
+            this.deduplicationWindow = deduplicationWindow;
+            return this;
+        }
+
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        public WebhookProcessor build() {
+            if (handler == null) {
+                throw new IllegalStateException("handler is required");
+            }
+            if (paystackSecretKey == null && flutterwaveSecretHash == null) {
+                throw new IllegalStateException("At least one provider secret is required");
+            }
+            if (queueCapacity < 1 || maxBatchSize < 1 || dispatcherThreads < 1 || deduplicationWindow < 1) {
+                throw new IllegalStateException("Queue, batch, thread and window sizes must be positive");
+            }
+            if (handlerAttempts < 1) {
+                throw new IllegalStateException("handlerAttempts must be at least 1");
+            }
+            if (handlerRetryDelay == null || handlerRetryDelay.isNegative()) {
+                throw new IllegalStateException("handlerRetryDelay must not be negative");
+            }
+            return new WebhookProcessor(this);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package co.paydeck.webhook;
+
+public enum WebhookResult {
+    ACCEPTED(200),
+    // A redelivery of an event already accepted; acknowledge it so the provider stops retrying
+    DUPLICATE(200),
+    // A well-signed event the SDK does not map, e.g. a transfer or subscription event
+    IGNORED(200),
+    INVALID_SIGNATURE(401),
+    MALFORMED(400),
+    // The dispatch queue is full; a non-2xx answer makes the provider redeliver later
+    QUEUE_FULL(503);
+
+    private final int httpStatus;
+
+    WebhookResult(int httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+}
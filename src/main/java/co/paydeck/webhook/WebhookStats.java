@@ -0,0 +1,21 @@
+package co.paydeck.webhook;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class WebhookStats {
+    private long accepted;
+    private long duplicates;
+    private long ignored;
+    private long invalidSignatures;
+    private long malformed;
+    private long queueFull;
+    private long dispatched;
+    private long batches;
+    // Failed handler calls, counting each retry
+    private long handlerFailures;
+    private long handlerRetries;
+    private long deadLettered;
+}
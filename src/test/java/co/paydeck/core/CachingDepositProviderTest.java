@@ -0,0 +1,142 @@
+package co.paydeck.core;
+
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.deposit.TransactionResponseData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingDepositProviderTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<String, TransactionStatus> statuses = new ConcurrentHashMap<>();
+    private final FakeProvider.Deposit delegate = FakeProvider.deposit("fake");
+
+    // References with a status are found; the rest are answered with a 404
+    @BeforeEach
+    void setUp() {
+        delegate.onFetch = reference -> {
+            TransactionStatus status = statuses.get(reference);
+            return CompletableFuture.completedFuture(status == null
+                ? FakeProvider.rejected(404, "Transaction reference not found")
+                : PaydeckResponse.success(TransactionResponseData.builder()
+                    .merchantTransactionReference(reference)
+                    .status(status)
+                    .build()));
+        };
+    }
+
+    private CachingDepositProvider newCache(int maximumSize) {
+        return CachingDepositProvider.builder()
+            .delegate(delegate)
+            .terminalTtl(Duration.ofHours(1))
+            .pendingTtl(Duration.ofSeconds(2))
+            .maximumSize(maximumSize)
+            .nanoClock(clock::get)
+            .build();
+    }
+
+    @Test
+    void testTerminalStatusIsCachedLongTerm() {
+        CachingDepositProvider cache = newCache(100);
+        statuses.put("ref-1", TransactionStatus.SUCCESSFUL);
+
+        cache.fetchTransaction("ref-1");
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(30));
+        PaydeckResponse<TransactionResponseData> response = cache.fetchTransaction("ref-1");
+
+        assertEquals(TransactionStatus.SUCCESSFUL, response.getData().getStatus());
+        assertEquals(1, delegate.fetches.get());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    void testPendingStatusExpiresQuickly() {
+        CachingDepositProvider cache = newCache(100);
+        statuses.put("ref-1", TransactionStatus.PENDING);
+
+        cache.fetchTransaction("ref-1");
+        cache.fetchTransaction("ref-1");
+        assertEquals(1, delegate.fetches.get());
+
+        statuses.put("ref-1", TransactionStatus.SUCCESSFUL);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+
+        assertEquals(TransactionStatus.SUCCESSFUL, cache.fetchTransaction("ref-1").getData().getStatus());
+        assertEquals(2, delegate.fetches.get());
+    }
+
+    @Test
+    void testErrorsAreNotCached() {
+        CachingDepositProvider cache = newCache(100);
+
+        assertFalse(cache.fetchTransaction("missing").isSuccess());
+        assertFalse(cache.fetchTransaction("missing").isSuccess());
+
+        assertEquals(2, delegate.fetches.get());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void testConcurrentLookupsAreCoalesced() {
+        CachingDepositProvider cache = newCache(100);
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> pending = new CompletableFuture<>();
+        delegate.onFetch = reference -> pending;
+
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> first = cache.fetchTransactionAsync("ref-1");
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> second = cache.fetchTransactionAsync("ref-1");
+        pending.complete(PaydeckResponse.success(TransactionResponseData.builder()
+            .status(TransactionStatus.FAILED)
+            .build()));
+
+        assertSame(first.join(), second.join());
+        assertEquals(1, delegate.fetches.get());
+        assertEquals(1, cache.getStats().getCoalesced());
+        assertTrue(cache.fetchTransactionAsync("ref-1").isDone());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        CachingDepositProvider cache = newCache(3);
+        for (int i = 0; i < 10; i++) {
+            statuses.put("ref-" + i, TransactionStatus.SUCCESSFUL);
+            cache.fetchTransaction("ref-" + i);
+        }
+
+        assertEquals(3, cache.getStats().getSize());
+        assertEquals(7, cache.getStats().getEvictions());
+
+        cache.fetchTransaction("ref-9");
+        cache.fetchTransaction("ref-0");
+        assertEquals(11, delegate.fetches.get());
+    }
+
+    @Test
+    void testFailedSharedLookupIsNotCached() {
+        CachingDepositProvider cache = newCache(100);
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> pending = new CompletableFuture<>();
+        delegate.onFetch = reference -> pending;
+
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> first = cache.fetchTransactionAsync("ref-1");
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> second = cache.fetchTransactionAsync("ref-1");
+        pending.completeExceptionally(new IllegalStateException("connection reset"));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+
+        // Neither the failure nor the in-flight lookup outlives it
+        statuses.put("ref-1", TransactionStatus.SUCCESSFUL);
+        delegate.onFetch = reference -> CompletableFuture.completedFuture(PaydeckResponse.success(
+            TransactionResponseData.builder().status(statuses.get(reference)).build()));
+        assertEquals(TransactionStatus.SUCCESSFUL, cache.fetchTransaction("ref-1").getData().getStatus());
+        assertEquals(2, delegate.fetches.get());
+    }
+}
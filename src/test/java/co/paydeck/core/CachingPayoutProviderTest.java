@@ -0,0 +1,272 @@
+package co.paydeck.core;
+
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
+import co.paydeck.model.payout.BanksRequest;
+import co.paydeck.model.payout.BanksResponseData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingPayoutProviderTest {
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final FakeProvider.Payout delegate = FakeProvider.payout("fake");
+    private final Queue<CompletableFuture<PaydeckResponse<BanksResponseData>>> responses = new ArrayDeque<>();
+    private final CompletableFuture<PaydeckResponse<AccountResolutionData>> slowResolution = new CompletableFuture<>();
+
+    // Bank lists come from a queue the test fills. Account numbers starting with 9 do not exist,
+    // "down" accounts hit an outage and "slow" ones stay unresolved until completed
+    @BeforeEach
+    void setUp() {
+        delegate.onBanks = request -> responses.remove();
+        Function<AccountResolutionRequest, CompletableFuture<PaydeckResponse<AccountResolutionData>>> resolve =
+            delegate.onResolve;
+        delegate.onResolve = request -> {
+            String accountNumber = request.getAccountNumber();
+            if (accountNumber.startsWith("slow")) {
+                return slowResolution;
+            }
+            if (accountNumber.startsWith("9")) {
+                return CompletableFuture.completedFuture(PaydeckResponse.error("INVALID_ACCOUNT", "unknown"));
+            }
+            if (accountNumber.startsWith("down")) {
+                return CompletableFuture.completedFuture(FakeProvider.outage());
+            }
+            return resolve.apply(request);
+        };
+    }
+
+    private void willReturn(String bankName) {
+        responses.add(CompletableFuture.completedFuture(PaydeckResponse.success(banks(bankName))));
+    }
+
+    private void willFail() {
+        responses.add(CompletableFuture.completedFuture(FakeProvider.outage()));
+    }
+
+    private static BanksResponseData banks(String bankName) {
+        return BanksResponseData.builder()
+            .banks(new BanksResponseData.Bank[] {
+                BanksResponseData.Bank.builder().bankCode("058").bankName(bankName).countryCode("NG").build()
+            })
+            .build();
+    }
+
+    private CachingPayoutProvider.Builder newCache() {
+        return CachingPayoutProvider.builder()
+            .delegate(delegate)
+            .ttl(Duration.ofHours(24))
+            .refreshAfter(Duration.ofHours(20))
+            .maxStale(Duration.ofDays(2))
+            .clock(clock::get);
+    }
+
+    private static String bankName(PaydeckResponse<BanksResponseData> response) {
+        return response.getData().getBanks()[0].getBankName();
+    }
+
+    private static BanksRequest nigeria() {
+        return BanksRequest.builder().countryCode("NG").build();
+    }
+
+    @Test
+    void testServesFromCacheUntilRefreshAhead() {
+        CachingPayoutProvider cache = newCache().build();
+        willReturn("GTBank");
+        willReturn("GTBank Plc");
+
+        assertEquals("GTBank", bankName(cache.getBanks(nigeria())));
+        clock.addAndGet(19 * HOUR);
+        assertEquals("GTBank", bankName(cache.getBanks(nigeria())));
+        assertEquals(1, delegate.bankFetches.get());
+
+        clock.addAndGet(2 * HOUR);
+        assertEquals("GTBank", bankName(cache.getBanks(nigeria())));
+        assertEquals(2, delegate.bankFetches.get());
+        assertEquals("GTBank Plc", bankName(cache.getBanks(nigeria())));
+        assertEquals(2, delegate.bankFetches.get());
+    }
+
+    @Test
+    void testFiltersAreSeparateKeys() {
+        CachingPayoutProvider cache = newCache().build();
+        willReturn("GTBank");
+        willReturn("Kuda");
+
+        cache.getBanks(nigeria());
+        BanksRequest transfers = BanksRequest.builder().countryCode("NG").payWithBankTransfer(true).build();
+
+        assertEquals("Kuda", bankName(cache.getBanks(transfers)));
+        assertEquals("GTBank", bankName(cache.getBanks(nigeria())));
+        assertEquals(2, delegate.bankFetches.get());
+    }
+
+    @Test
+    void testServesStaleWhenRefreshFails() {
+        CachingPayoutProvider cache = newCache().build();
+        willReturn("GTBank");
+        willFail();
+        willFail();
+        cache.getBanks(nigeria());
+
+        clock.addAndGet(30 * HOUR);
+        assertEquals("GTBank", bankName(cache.getBanks(nigeria())));
+
+        clock.addAndGet(48 * HOUR);
+        assertFalse(cache.getBanks(nigeria()).isSuccess());
+    }
+
+    @Test
+    void testServesStaleWhenRefreshThrows() {
+        CachingPayoutProvider cache = newCache().build();
+        willReturn("GTBank");
+        responses.add(CompletableFuture.failedFuture(new IllegalStateException("connection reset")));
+        cache.getBanks(nigeria());
+
+        clock.addAndGet(30 * HOUR);
+        assertEquals("GTBank", bankName(cache.getBanks(nigeria())));
+
+        // Without a stale list the failure reaches the caller
+        responses.add(CompletableFuture.failedFuture(new IllegalStateException("connection reset")));
+        BanksRequest ghana = BanksRequest.builder().countryCode("GH").build();
+        assertThrows(IllegalStateException.class, () -> cache.getBanks(ghana));
+    }
+
+    @Test
+    void testConcurrentMissesShareOneFetch() {
+        CachingPayoutProvider cache = newCache().build();
+        CompletableFuture<PaydeckResponse<BanksResponseData>> pending = new CompletableFuture<>();
+        responses.add(pending);
+
+        CompletableFuture<PaydeckResponse<BanksResponseData>> first = cache.getBanksAsync(nigeria());
+        CompletableFuture<PaydeckResponse<BanksResponseData>> second = cache.getBanksAsync(nigeria());
+        pending.complete(PaydeckResponse.success(banks("GTBank")));
+
+        assertEquals("GTBank", bankName(first.join()));
+        assertEquals("GTBank", bankName(second.join()));
+        assertEquals(1, delegate.bankFetches.get());
+    }
+
+    @Test
+    void testSnapshotSurvivesRestart(@TempDir Path dir) {
+        Path snapshot = dir.resolve("banks.json");
+        willReturn("GTBank");
+        CachingPayoutProvider cache = newCache().snapshotFile(snapshot).build();
+        cache.getBanks(nigeria());
+        cache.flushSnapshot().join();
+
+        CachingPayoutProvider restarted = newCache().snapshotFile(snapshot).build();
+
+        assertEquals("GTBank", bankName(restarted.getBanks(nigeria())));
+        assertEquals(1, delegate.bankFetches.get());
+    }
+
+    @Test
+    void testBankListsAreBoundedAndCountryCodesNormalised() {
+        CachingPayoutProvider cache = newCache().maxBankLists(2).build();
+        willReturn("GTBank");
+        willReturn("Page 2");
+        willReturn("Page 3");
+        willReturn("GTBank Plc");
+
+        cache.getBanks(nigeria());
+        assertEquals("GTBank", bankName(cache.getBanks(BanksRequest.builder().countryCode(" ng").build())));
+        assertEquals(1, delegate.bankFetches.get());
+
+        clock.addAndGet(1);
+        cache.getBanks(BanksRequest.builder().countryCode("NG").nextPage("cursor-2").build());
+        clock.addAndGet(1);
+        cache.getBanks(BanksRequest.builder().countryCode("NG").nextPage("cursor-3").build());
+
+        // The first list was fetched longest ago, so it made room for the third page
+        assertEquals("GTBank Plc", bankName(cache.getBanks(nigeria())));
+        assertEquals(4, delegate.bankFetches.get());
+    }
+
+    private static AccountResolutionRequest account(String accountNumber) {
+        return AccountResolutionRequest.builder().bankCode("058").accountNumber(accountNumber).build();
+    }
+
+    @Test
+    void testBatchResolutionDeduplicatesAndCachesAccounts() {
+        CachingPayoutProvider cache = newCache().build();
+        List<AccountResolutionRequest> upload = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            upload.add(account("01234567" + (i % 25)));
+        }
+
+        Map<AccountResolutionRequest, PaydeckResponse<AccountResolutionData>> october = cache.resolveAccounts(upload);
+        Map<AccountResolutionRequest, PaydeckResponse<AccountResolutionData>> november =
+            cache.resolveAccountsAsync(upload, 4).join();
+
+        assertEquals(25, october.size());
+        assertEquals("Holder 0123456713", october.get(account("0123456713")).getData().getAccountName());
+        assertEquals(october, november);
+        assertEquals(25, delegate.resolutions.get());
+        assertEquals(25, cache.getAccountStats().getHits());
+    }
+
+    @Test
+    void testInvalidAccountsAreCachedForTheShorterTtl() {
+        CachingPayoutProvider cache = newCache().invalidAccountTtl(Duration.ofMinutes(30)).build();
+
+        assertEquals("INVALID_ACCOUNT", cache.resolveAccount(account("9000000001")).getError().getCode());
+        assertFalse(cache.resolveAccount(account("down000001")).isSuccess());
+        assertTrue(cache.resolveAccount(account("0000000001")).isSuccess());
+        cache.resolveAccount(account("9000000001"));
+        cache.resolveAccount(account("down000001"));
+        assertEquals(4, delegate.resolutions.get());
+
+        clock.addAndGet(HOUR);
+        cache.resolveAccount(account("9000000001"));
+        cache.resolveAccount(account("0000000001"));
+        assertEquals(5, delegate.resolutions.get());
+    }
+
+    @Test
+    void testAccountCacheEvictsLeastRecentlyUsed() {
+        CachingPayoutProvider cache = newCache().accountCacheSize(2).build();
+
+        cache.resolveAccount(account("0000000001"));
+        cache.resolveAccount(account("0000000002"));
+        cache.resolveAccount(account("0000000001"));
+        cache.resolveAccount(account("0000000003"));
+        assertEquals(3, delegate.resolutions.get());
+
+        cache.resolveAccount(account("0000000001"));
+        assertEquals(3, delegate.resolutions.get());
+        cache.resolveAccount(account("0000000002"));
+        assertEquals(4, delegate.resolutions.get());
+        assertEquals(2, cache.getAccountStats().getEvictions());
+        assertEquals(2, cache.getAccountStats().getSize());
+    }
+
+    @Test
+    void testConcurrentResolutionsOfOneAccountShareOneCall() {
+        CachingPayoutProvider cache = newCache().build();
+
+        CompletableFuture<PaydeckResponse<AccountResolutionData>> first = cache.resolveAccountAsync(account("slow-1"));
+        CompletableFuture<PaydeckResponse<AccountResolutionData>> second = cache.resolveAccountAsync(account("slow-1"));
+        slowResolution.complete(PaydeckResponse.success(
+            AccountResolutionData.builder().accountNumber("slow-1").accountName("Ada Obi").build()));
+
+        assertEquals("Ada Obi", first.join().getData().getAccountName());
+        assertSame(first.join(), second.join());
+        assertEquals(1, delegate.resolutions.get());
+        assertEquals(1, cache.getAccountStats().getCoalesced());
+    }
+}
@@ -0,0 +1,102 @@
+package co.paydeck.core;
+
+import co.paydeck.model.Customer;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.deposit.CheckoutRequest;
+import co.paydeck.model.deposit.CheckoutResponseData;
+import co.paydeck.model.deposit.TransactionResponseData;
+import co.paydeck.provider.deposit.PaystackProvider;
+import co.paydeck.util.CircuitBreaker;
+import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpTransport;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Paystack's real error handling behind a stand-in server, so the breaker sees what production sees
+class CircuitBreakerDepositProviderTest {
+    private MockWebServer server;
+    private CircuitBreakerDepositProvider provider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        HttpClient.Builder clientBuilder = new HttpClient.Builder() {
+            @Override
+            public HttpClient.Builder baseUrl(String ignored) {
+                return super.baseUrl(baseUrl);
+            }
+        };
+        CircuitBreaker breaker = CircuitBreaker.builder()
+            .slidingWindowSize(4)
+            .minimumCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build();
+        provider = new CircuitBreakerDepositProvider(
+            new PaystackProvider("sk_test_breaker", clientBuilder.transport(HttpTransport.builder().build())),
+            breaker);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private static CheckoutRequest checkout(String reference) {
+        return CheckoutRequest.builder()
+            .reference(reference)
+            .amount(new BigDecimal("5000"))
+            .customer(Customer.builder().email("ada@example.com").build())
+            .paymentMethods(EnumSet.of(PaymentMethod.CARD))
+            .build();
+    }
+
+    private void enqueue(int status, String message) {
+        server.enqueue(new MockResponse().setResponseCode(status)
+            .setBody("{\"status\":false,\"message\":\"" + message + "\"}"));
+    }
+
+    @Test
+    void testRejectedRequestsDoNotOpenTheCircuit() {
+        enqueue(400, "Duplicate Transaction Reference");
+        enqueue(401, "Invalid key");
+        enqueue(404, "Transaction reference not found");
+        enqueue(404, "Transaction reference not found");
+
+        PaydeckResponse<CheckoutResponseData> duplicate = provider.initiateCheckout(checkout("order-1"));
+        PaydeckResponse<CheckoutResponseData> unauthorized = provider.initiateCheckoutAsync(checkout("order-2")).join();
+        PaydeckResponse<TransactionResponseData> missing = provider.fetchTransaction("order-3");
+        provider.fetchTransactionAsync("order-4").join();
+
+        assertEquals(Integer.valueOf(400), duplicate.getError().getHttpStatus());
+        assertEquals("401", unauthorized.getError().getProviderCode());
+        assertEquals(Integer.valueOf(404), missing.getError().getHttpStatus());
+        assertEquals(CircuitBreaker.State.CLOSED, provider.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void testServerErrorsOpenTheCircuit() {
+        for (int i = 0; i < 4; i++) {
+            enqueue(i % 2 == 0 ? 500 : 429, "Unavailable");
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("PROVIDER_ERROR", provider.fetchTransactionAsync("order-" + i).join().getError().getCode());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, provider.getCircuitBreaker().getState());
+        assertEquals(CircuitBreakerDepositProvider.CIRCUIT_OPEN, provider.fetchTransaction("order-5").getError().getCode());
+        assertEquals(4, server.getRequestCount());
+    }
+}
@@ -0,0 +1,221 @@
+package co.paydeck.core;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.deposit.CheckoutRequest;
+import co.paydeck.model.deposit.CheckoutResponseData;
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
+import co.paydeck.model.payout.BanksRequest;
+import co.paydeck.model.payout.BanksResponseData;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.util.Futures;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Scriptable stand-ins for a deposit and a payout provider, shared by the decorator tests. Each
+ * operation answers through a function the test can replace, and every call is counted. Failures
+ * take the shapes the real providers produce: {@link #rejected} for a 4xx answer and
+ * {@link #outage()} for a provider that never answered.
+ */
+final class FakeProvider {
+    private FakeProvider() {
+    }
+
+    static Deposit deposit(String name) {
+        return new Deposit(name);
+    }
+
+    static Payout payout(String name) {
+        return new Payout(name);
+    }
+
+    static <T> PaydeckResponse<T> rejected(int status, String providerMessage) {
+        return PaydeckResponse.httpError("PROVIDER_ERROR", "HTTP " + status, status, providerMessage);
+    }
+
+    static <T> PaydeckResponse<T> outage() {
+        return PaydeckResponse.error("PROVIDER_ERROR", "Failed to communicate with provider: timeout");
+    }
+
+    // By default checkouts succeed, and a reference this provider did not create is answered with a 404
+    static final class Deposit implements BaseDepositProvider {
+        final String name;
+        final Set<String> created = ConcurrentHashMap.newKeySet();
+        final AtomicInteger checkouts = new AtomicInteger();
+        final AtomicInteger fetches = new AtomicInteger();
+        volatile Set<Currency> currencies = EnumSet.allOf(Currency.class);
+        volatile Function<CheckoutRequest, PaydeckResponse<CheckoutResponseData>> onCheckout = this::accept;
+        volatile Function<String, CompletableFuture<PaydeckResponse<co.paydeck.model.deposit.TransactionResponseData>>>
+            onFetch = this::lookUp;
+
+        private Deposit(String name) {
+            this.name = name;
+        }
+
+        PaydeckResponse<CheckoutResponseData> accept(CheckoutRequest request) {
+            created.add(request.getReference());
+            return PaydeckResponse.success(CheckoutResponseData.builder().provider(name).build());
+        }
+
+        CompletableFuture<PaydeckResponse<co.paydeck.model.deposit.TransactionResponseData>> lookUp(String reference) {
+            if (!created.contains(reference)) {
+                return CompletableFuture.completedFuture(rejected(404, "Transaction reference not found"));
+            }
+            return CompletableFuture.completedFuture(PaydeckResponse.success(
+                co.paydeck.model.deposit.TransactionResponseData.builder()
+                    .merchantTransactionReference(reference)
+                    .status(TransactionStatus.SUCCESSFUL)
+                    .build()));
+        }
+
+        @Override
+        public String getProviderName() {
+            return name;
+        }
+
+        @Override
+        public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsCurrency(Currency currency) {
+            return currencies.contains(currency);
+        }
+
+        @Override
+        public PaydeckResponse<CheckoutResponseData> initiateCheckout(CheckoutRequest request) {
+            checkouts.incrementAndGet();
+            return onCheckout.apply(request);
+        }
+
+        @Override
+        public PaydeckResponse<co.paydeck.model.deposit.TransactionResponseData> fetchTransaction(
+                String merchantTransactionReference) {
+            return Futures.join(fetchTransactionAsync(merchantTransactionReference));
+        }
+
+        @Override
+        public CompletableFuture<PaydeckResponse<co.paydeck.model.deposit.TransactionResponseData>>
+                fetchTransactionAsync(String merchantTransactionReference) {
+            fetches.incrementAndGet();
+            return onFetch.apply(merchantTransactionReference);
+        }
+    }
+
+    // By default payouts are accepted as pending, accounts resolve, and bank lists and verifies are down
+    static final class Payout implements BasePayoutProvider {
+        final String name;
+        final Queue<String> sent = new ConcurrentLinkedQueue<>();
+        final List<Integer> bulkSizes = new CopyOnWriteArrayList<>();
+        final AtomicInteger bankFetches = new AtomicInteger();
+        final AtomicInteger resolutions = new AtomicInteger();
+        volatile Function<BanksRequest, CompletableFuture<PaydeckResponse<BanksResponseData>>> onBanks =
+            request -> CompletableFuture.completedFuture(outage());
+        volatile Function<AccountResolutionRequest, CompletableFuture<PaydeckResponse<AccountResolutionData>>>
+            onResolve = Payout::resolve;
+        volatile Function<PayoutRequest, PaydeckResponse<co.paydeck.model.payout.TransactionResponseData>> onPayout =
+            this::accept;
+        volatile Function<String, CompletableFuture<PaydeckResponse<co.paydeck.model.payout.TransactionResponseData>>>
+            onFetch = reference -> CompletableFuture.completedFuture(outage());
+
+        private Payout(String name) {
+            this.name = name;
+        }
+
+        PaydeckResponse<co.paydeck.model.payout.TransactionResponseData> accept(PayoutRequest request) {
+            return PaydeckResponse.success(co.paydeck.model.payout.TransactionResponseData.builder()
+                .merchantTransactionReference(request.getMerchantTransactionReference())
+                .status(TransactionStatus.PENDING)
+                .provider(name)
+                .build());
+        }
+
+        private static CompletableFuture<PaydeckResponse<AccountResolutionData>> resolve(
+                AccountResolutionRequest request) {
+            return CompletableFuture.completedFuture(PaydeckResponse.success(AccountResolutionData.builder()
+                .bankCode(request.getBankCode())
+                .accountNumber(request.getAccountNumber())
+                .accountName("Holder " + request.getAccountNumber())
+                .build()));
+        }
+
+        @Override
+        public String getProviderName() {
+            return name;
+        }
+
+        @Override
+        public boolean supportsPaymentMethods(EnumSet<PaymentMethod> methods) {
+            return true;
+        }
+
+        @Override
+        public PaydeckResponse<BanksResponseData> getBanks(BanksRequest request) {
+            return Futures.join(getBanksAsync(request));
+        }
+
+        @Override
+        public CompletableFuture<PaydeckResponse<BanksResponseData>> getBanksAsync(BanksRequest request) {
+            bankFetches.incrementAndGet();
+            return onBanks.apply(request);
+        }
+
+        @Override
+        public PaydeckResponse<AccountResolutionData> resolveAccount(AccountResolutionRequest request) {
+            return Futures.join(resolveAccountAsync(request));
+        }
+
+        @Override
+        public CompletableFuture<PaydeckResponse<AccountResolutionData>> resolveAccountAsync(
+                AccountResolutionRequest request) {
+            resolutions.incrementAndGet();
+            return onResolve.apply(request);
+        }
+
+        @Override
+        public PaydeckResponse<co.paydeck.model.payout.TransactionResponseData> initiatePayout(PayoutRequest request) {
+            sent.add(request.getMerchantTransactionReference());
+            return onPayout.apply(request);
+        }
+
+        @Override
+        public CompletableFuture<PaydeckResponse<co.paydeck.model.payout.TransactionResponseData>> initiatePayoutAsync(
+                PayoutRequest request) {
+            return CompletableFuture.completedFuture(initiatePayout(request));
+        }
+
+        @Override
+        public CompletableFuture<Map<String, PaydeckResponse<co.paydeck.model.payout.TransactionResponseData>>>
+                initiateBulkPayoutAsync(Collection<PayoutRequest> requests, int maxConcurrency) {
+            bulkSizes.add(requests.size());
+            return BasePayoutProvider.super.initiateBulkPayoutAsync(requests, maxConcurrency);
+        }
+
+        @Override
+        public PaydeckResponse<co.paydeck.model.payout.TransactionResponseData> fetchTransaction(
+                String merchantTransactionReference) {
+            return Futures.join(fetchTransactionAsync(merchantTransactionReference));
+        }
+
+        @Override
+        public CompletableFuture<PaydeckResponse<co.paydeck.model.payout.TransactionResponseData>>
+                fetchTransactionAsync(String merchantTransactionReference) {
+            return onFetch.apply(merchantTransactionReference);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package co.paydeck.core;
+
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.deposit.CheckoutRequest;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.provider.payout.PaystackProvider;
+import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpTransport;
+import co.paydeck.util.TransactionJournal;
+import co.paydeck.util.TransactionJournal.Operation;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalingPayoutProviderTest {
+    private final FakeProvider.Payout delegate = FakeProvider.payout("fake");
+    private Path file;
+    private TransactionJournal journal;
+
+    @TempDir
+    Path directory;
+
+    private static PayoutRequest payout(String reference) {
+        return PayoutRequest.builder()
+            .merchantTransactionReference(reference)
+            .amount(new BigDecimal("5000"))
+            .recipientCode("RCP_" + reference)
+            .build();
+    }
+
+    // "ok" payouts are accepted, "declined" ones refused by the provider and "down" ones never answered
+    @BeforeEach
+    void setUp() throws IOException {
+        file = directory.resolve("journal.log");
+        journal = TransactionJournal.open(file);
+        delegate.onPayout = request -> {
+            String reference = request.getMerchantTransactionReference();
+            if (reference.startsWith("declined")) {
+                return FakeProvider.rejected(400, "Insufficient balance");
+            }
+            return reference.startsWith("down") ? FakeProvider.outage() : delegate.accept(request);
+        };
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    void testDefinitiveAnswersCloseTheirIntent() {
+        JournalingPayoutProvider provider = new JournalingPayoutProvider(delegate, journal);
+
+        assertTrue(provider.initiatePayout(payout("ok-1")).isSuccess());
+        assertEquals("400", provider.initiatePayoutAsync(payout("declined-1")).join().getError().getProviderCode());
+        assertFalse(provider.initiatePayout(payout("down-1")).isSuccess());
+
+        assertEquals(Set.of("down-1"), journal.inDoubt(Operation.PAYOUT));
+        assertTrue(provider.initiatePayout(payout("ok-1")).isSuccess());
+    }
+
+    @Test
+    void testInDoubtPayoutIsNotSentAgain() {
+        JournalingPayoutProvider provider = new JournalingPayoutProvider(delegate, journal);
+        provider.initiatePayoutAsync(payout("down-1")).join();
+
+        PaydeckResponse<TransactionResponseData> retry = provider.initiatePayoutAsync(payout("down-1")).join();
+        PaydeckResponse<TransactionResponseData> blockingRetry = provider.initiatePayout(payout("down-1"));
+
+        assertEquals("IN_DOUBT", retry.getError().getCode());
+        assertEquals("IN_DOUBT", blockingRetry.getError().getCode());
+        assertEquals(List.of("down-1"), new ArrayList<>(delegate.sent));
+    }
+
+    // Paystack's own status handling behind a stand-in server: verify knows "known" references, 404s
+    // "missing" ones, refuses the key for "locked" ones and is down for the rest. Transfers are refused
+    // for "declined" references and fail with a 500 for "broken" ones
+    private MockWebServer paystack() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                String reference = path.startsWith("/transfer/verify/")
+                    ? path.substring("/transfer/verify/".length())
+                    : request.getBody().readUtf8().replaceAll(".*\"reference\":\"([^\"]+)\".*", "$1");
+                if (reference.startsWith("known") || path.equals("/transfer") && reference.startsWith("ok")) {
+                    return new MockResponse().setBody("{\"status\":true,\"data\":{\"reference\":\"" + reference
+                        + "\",\"amount\":500000,\"currency\":\"NGN\",\"status\":\"success\"}}");
+                }
+                int status = reference.startsWith("missing") ? 404
+                    : reference.startsWith("declined") ? 400
+                    : reference.startsWith("locked") ? 401
+                    : reference.startsWith("broken") ? 500
+                    : 503;
+                return new MockResponse().setResponseCode(status).setBody("{\"status\":false,\"message\":\"no\"}");
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static BasePayoutProvider paystackAt(MockWebServer server) {
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        HttpClient.Builder clientBuilder = new HttpClient.Builder() {
+            @Override
+            public HttpClient.Builder baseUrl(String ignored) {
+                return super.baseUrl(baseUrl);
+            }
+        };
+        return new PaystackProvider("sk_test_journal", clientBuilder.transport(HttpTransport.builder().build()));
+    }
+
+    @Test
+    void testRecoveryAfterRestartSettlesWhatTheProviderAnswers() throws IOException {
+        for (String reference : List.of("known-1", "missing-1", "locked-1", "unreachable-1")) {
+            journal.begin(Operation.PAYOUT, reference).join();
+        }
+        journal.close();
+
+        journal = TransactionJournal.open(file);
+        MockWebServer server = paystack();
+        try {
+            JournalingPayoutProvider provider = new JournalingPayoutProvider(paystackAt(server), journal);
+            Map<String, PaydeckResponse<TransactionResponseData>> recovered = provider.recover().join();
+
+            assertEquals(List.of("known-1", "missing-1", "locked-1", "unreachable-1"),
+                new ArrayList<>(recovered.keySet()));
+            assertEquals(TransactionStatus.SUCCESSFUL, recovered.get("known-1").getData().getStatus());
+            assertEquals("NOT_FOUND", recovered.get("missing-1").getError().getCode());
+            assertEquals("404", recovered.get("missing-1").getError().getProviderCode());
+            assertEquals(Integer.valueOf(401), recovered.get("locked-1").getError().getHttpStatus());
+            assertEquals("PROVIDER_ERROR", recovered.get("unreachable-1").getError().getCode());
+            assertEquals(Set.of("locked-1", "unreachable-1"), journal.inDoubt(Operation.PAYOUT));
+            assertEquals(4, server.getRequestCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testProviderRejectionClosesItsIntentAndServerErrorDoesNot() throws IOException {
+        MockWebServer server = paystack();
+        try {
+            JournalingPayoutProvider provider = new JournalingPayoutProvider(paystackAt(server), journal);
+
+            assertTrue(provider.initiatePayout(payout("ok-1")).isSuccess());
+            assertEquals(Integer.valueOf(400), provider.initiatePayout(payout("declined-1")).getError().getHttpStatus());
+            assertEquals(Integer.valueOf(500),
+                provider.initiatePayoutAsync(payout("broken-1")).join().getError().getHttpStatus());
+
+            assertEquals(Set.of("broken-1"), journal.inDoubt(Operation.PAYOUT));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testBulkPayoutSkipsOpenReferencesAndForwardsTheRest() {
+        JournalingPayoutProvider provider = new JournalingPayoutProvider(delegate, journal);
+        journal.begin(Operation.PAYOUT, "ok-2").join();
+        List<PayoutRequest> payroll = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            payroll.add(payout("ok-" + i));
+        }
+        payroll.add(payout("down-1"));
+
+        Map<String, PaydeckResponse<TransactionResponseData>> results = provider.initiateBulkPayout(payroll);
+
+        assertEquals(List.of(50), delegate.bulkSizes);
+        assertEquals(51, results.size());
+        assertEquals("ok-0", results.keySet().iterator().next());
+        assertEquals("IN_DOUBT", results.get("ok-2").getError().getCode());
+        assertTrue(results.get("ok-49").isSuccess());
+        assertEquals(Set.of("ok-2", "down-1"), journal.inDoubt(Operation.PAYOUT));
+        assertThrows(IllegalArgumentException.class,
+            () -> provider.initiateBulkPayoutAsync(List.of(payout("dup"), payout("dup")), 2));
+    }
+
+    @Test
+    void testCheckoutsAreJournaledApartFromPayouts() {
+        FakeProvider.Deposit deposits = FakeProvider.deposit("fake");
+        deposits.onCheckout = request -> FakeProvider.outage();
+        JournalingDepositProvider provider = new JournalingDepositProvider(deposits, journal);
+        CheckoutRequest request = CheckoutRequest.builder().reference("order-1").amount(BigDecimal.TEN).build();
+
+        assertFalse(provider.initiateCheckoutAsync(request).join().isSuccess());
+        assertEquals("IN_DOUBT", provider.initiateCheckout(request).getError().getCode());
+        assertEquals(1, deposits.checkouts.get());
+        assertEquals(Set.of("order-1"), journal.inDoubt(Operation.CHECKOUT));
+        assertTrue(new JournalingPayoutProvider(delegate, journal).initiatePayout(payout("order-1")).isSuccess());
+    }
+}
@@ -0,0 +1,187 @@
+package co.paydeck.core;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.deposit.CheckoutRequest;
+import co.paydeck.model.deposit.CheckoutResponseData;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingDepositProviderTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Map<String, Long> latencies = new ConcurrentHashMap<>();
+
+    // Simulated provider: each checkout advances the shared clock by the provider's current latency
+    private FakeProvider.Deposit provider(String name, long latencyMillis, Set<Currency> currencies) {
+        FakeProvider.Deposit provider = FakeProvider.deposit(name);
+        provider.currencies = currencies;
+        latencies.put(name, latencyMillis);
+        answer(provider, provider::accept);
+        return provider;
+    }
+
+    private void answer(FakeProvider.Deposit provider,
+            Function<CheckoutRequest, PaydeckResponse<CheckoutResponseData>> answer) {
+        provider.onCheckout = request -> {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencies.get(provider.name)));
+            return answer.apply(request);
+        };
+    }
+
+    private RoutingDepositProvider newRouter(FakeProvider.Deposit... providers) {
+        RoutingDepositProvider.Builder builder = RoutingDepositProvider.builder()
+            .statsInterval(Duration.ZERO)
+            .explorationInterval(10)
+            .nanoClock(clock::get);
+        for (FakeProvider.Deposit provider : providers) {
+            builder.provider(provider);
+        }
+        return builder.build();
+    }
+
+    private Map<String, Integer> route(RoutingDepositProvider router, Currency currency, int checkouts) {
+        Map<String, Integer> counts = new HashMap<>();
+        CheckoutRequest request = CheckoutRequest.builder()
+            .reference("ref")
+            .amount(new BigDecimal("100"))
+            .currency(currency)
+            .paymentMethods(EnumSet.of(PaymentMethod.CARD))
+            .build();
+        for (int i = 0; i < checkouts; i++) {
+            PaydeckResponse<CheckoutResponseData> response = router.initiateCheckout(request);
+            String provider = response.isSuccess() ? response.getData().getProvider() : "failed";
+            counts.merge(provider, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    void testTrafficShiftsAwayFromSlowProvider() {
+        Set<Currency> all = EnumSet.allOf(Currency.class);
+        FakeProvider.Deposit fast = provider("fast", 100, all);
+        FakeProvider.Deposit slow = provider("slow", 400, all);
+        RoutingDepositProvider router = newRouter(fast, slow);
+
+        Map<String, Integer> before = route(router, Currency.NGN, 200);
+        assertTrue(before.get("fast") >= 170, "fast provider should win: " + before);
+
+        latencies.put("fast", 2000L);
+        route(router, Currency.NGN, 20);
+        Map<String, Integer> after = route(router, Currency.NGN, 200);
+        assertTrue(after.get("slow") >= 170, "traffic should move off the degraded provider: " + after);
+        assertTrue(router.getStats("fast").getLatency().toMillis() > 1000);
+    }
+
+    @Test
+    void testTrafficShiftsAwayFromFailingProvider() {
+        Set<Currency> all = EnumSet.allOf(Currency.class);
+        FakeProvider.Deposit primary = provider("primary", 100, all);
+        FakeProvider.Deposit secondary = provider("secondary", 150, all);
+        RoutingDepositProvider router = newRouter(primary, secondary);
+        route(router, Currency.NGN, 50);
+
+        answer(primary, request -> FakeProvider.outage());
+        route(router, Currency.NGN, 20);
+        Map<String, Integer> after = route(router, Currency.NGN, 100);
+
+        assertTrue(after.get("secondary") >= 85, "failing provider should lose traffic: " + after);
+        assertTrue(router.getStats("primary").getSuccessRatio() < 0.5);
+    }
+
+    @Test
+    void testProviderThatNeverSucceedsIsNotPreferred() {
+        Set<Currency> all = EnumSet.allOf(Currency.class);
+        FakeProvider.Deposit broken = provider("broken", 10, all);
+        FakeProvider.Deposit healthy = provider("healthy", 300, all);
+        answer(broken, request -> FakeProvider.outage());
+        RoutingDepositProvider router = newRouter(broken, healthy);
+
+        Map<String, Integer> counts = route(router, Currency.NGN, 100);
+
+        // Only its first call and one exploration in ten reach it
+        assertTrue(counts.get("healthy") >= 88, "broken provider kept being tried first: " + counts);
+        assertTrue(broken.checkouts.get() <= 12, "broken provider calls: " + broken.checkouts);
+    }
+
+    @Test
+    void testExplorationNoticesRecovery() {
+        Set<Currency> all = EnumSet.allOf(Currency.class);
+        FakeProvider.Deposit flaky = provider("flaky", 1000, all);
+        FakeProvider.Deposit steady = provider("steady", 200, all);
+        RoutingDepositProvider router = newRouter(flaky, steady);
+        route(router, Currency.NGN, 100);
+
+        latencies.put("flaky", 50L);
+        Map<String, Integer> after = route(router, Currency.NGN, 200);
+
+        assertTrue(after.get("flaky") >= 120, "recovered provider should win back traffic: " + after);
+    }
+
+    @Test
+    void testOnlyRoutesToCapableProviders() {
+        FakeProvider.Deposit nairaOnly = provider("naira-only", 10, EnumSet.of(Currency.NGN));
+        FakeProvider.Deposit everywhere = provider("everywhere", 500, EnumSet.allOf(Currency.class));
+        RoutingDepositProvider router = newRouter(nairaOnly, everywhere);
+
+        assertEquals(Map.of("everywhere", 50), route(router, Currency.UGX, 50));
+    }
+
+    @Test
+    void testVerificationAsksTheProviderThatCreatedTheCheckout() {
+        FakeProvider.Deposit nairaOnly = provider("naira-only", 10, EnumSet.of(Currency.NGN));
+        FakeProvider.Deposit everywhere = provider("everywhere", 500, EnumSet.allOf(Currency.class));
+        RoutingDepositProvider router = newRouter(nairaOnly, everywhere);
+        route(router, Currency.UGX, 1);
+
+        assertTrue(router.fetchTransaction("ref").isSuccess());
+        assertTrue(router.fetchTransactionAsync("ref").join().isSuccess());
+        assertEquals(0, nairaOnly.fetches.get());
+        assertEquals(2, everywhere.fetches.get());
+
+        // Unknown references are still tried everywhere, and the misses do not count against anyone
+        assertEquals(Integer.valueOf(404), router.fetchTransaction("unknown").getError().getHttpStatus());
+        assertEquals(1, nairaOnly.fetches.get());
+        assertEquals(1.0, router.getStats("naira-only").getSuccessRatio());
+        assertEquals(1.0, router.getStats("everywhere").getSuccessRatio());
+    }
+
+    @Test
+    void testNoEligibleProvider() {
+        FakeProvider.Deposit nairaOnly = provider("naira-only", 10, EnumSet.of(Currency.NGN));
+        RoutingDepositProvider router = newRouter(nairaOnly);
+
+        assertEquals(Map.of("failed", 3), route(router, Currency.USD, 3));
+        assertEquals(0, router.getStats("naira-only").getCalls());
+    }
+
+    @Test
+    void testRejectedCheckoutsDoNotCountAgainstTheProvider() {
+        Set<Currency> all = EnumSet.allOf(Currency.class);
+        FakeProvider.Deposit picky = provider("picky", 100, all);
+        FakeProvider.Deposit other = provider("other", 150, all);
+        RoutingDepositProvider router = newRouter(picky, other);
+
+        answer(picky, request -> FakeProvider.rejected(400, "Invalid email"));
+        route(router, Currency.NGN, 20);
+        assertEquals(1.0, router.getStats("picky").getSuccessRatio());
+
+        // A 503 or 429 is an outage even though the provider answered
+        answer(picky, request -> FakeProvider.rejected(503, "Service unavailable"));
+        route(router, Currency.NGN, 20);
+        answer(picky, request -> FakeProvider.rejected(429, "Too many requests"));
+        route(router, Currency.NGN, 20);
+        assertTrue(router.getStats("picky").getSuccessRatio() < 0.5);
+    }
+}
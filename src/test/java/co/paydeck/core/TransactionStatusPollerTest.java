@@ -0,0 +1,163 @@
+package co.paydeck.core;
+
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.deposit.TransactionResponseData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionStatusPollerTest {
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+    private final FakeProvider.Deposit provider = FakeProvider.deposit("fake");
+    private final Map<String, AtomicInteger> lookups = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile int pendingChecks = 2;
+    private TransactionStatusPoller poller;
+
+    @BeforeEach
+    void setUp() {
+        provider.onFetch = this::lookUp;
+    }
+
+    // Each reference stays PENDING for `pendingChecks` lookups; every lookup takes a few milliseconds
+    private CompletableFuture<PaydeckResponse<TransactionResponseData>> lookUp(String reference) {
+        int lookup = lookups.computeIfAbsent(reference, ref -> new AtomicInteger()).incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> future = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            inFlight.decrementAndGet();
+            TransactionStatus status = lookup > pendingChecks ? TransactionStatus.SUCCESSFUL : TransactionStatus.PENDING;
+            future.complete(PaydeckResponse.success(TransactionResponseData.builder()
+                .merchantTransactionReference(reference)
+                .status(status)
+                .build()));
+        }, 2, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    @AfterEach
+    void tearDown() {
+        poller.close();
+        scheduler.shutdownNow();
+    }
+
+    private TransactionStatusPoller.Builder newPoller() {
+        return TransactionStatusPoller.builder()
+            .provider(provider)
+            .tickDuration(Duration.ofMillis(5))
+            .wheelSize(8)
+            .initialDelay(Duration.ofMillis(10))
+            .maxDelay(Duration.ofMillis(60))
+            .backoffMultiplier(2)
+            .maxAge(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testResolvesEveryReferenceUnderConcurrencyCap() {
+        List<String> resolved = new ArrayList<>();
+        poller = newPoller()
+            .maxConcurrentChecks(8)
+            .onResolved((reference, response) -> {
+                synchronized (resolved) {
+                    resolved.add(reference);
+                }
+            })
+            .build();
+
+        List<CompletableFuture<PaydeckResponse<TransactionResponseData>>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(poller.register("ref-" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).orTimeout(20, TimeUnit.SECONDS).join();
+
+        for (CompletableFuture<PaydeckResponse<TransactionResponseData>> future : futures) {
+            assertEquals(TransactionStatus.SUCCESSFUL, future.join().getData().getStatus());
+        }
+        assertEquals(1500, poller.getChecks());
+        assertEquals(500, resolved.size());
+        assertEquals(0, poller.getOutstanding());
+        assertTrue(maxInFlight.get() <= 8, "in flight: " + maxInFlight.get());
+    }
+
+    @Test
+    void testBacksOffBetweenChecks() {
+        pendingChecks = 3;
+        poller = newPoller().maxConcurrentChecks(4).build();
+
+        long start = System.nanoTime();
+        poller.register("ref-1").orTimeout(5, TimeUnit.SECONDS).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Delays of 10, 20, 40 and 60 ms before the four checks
+        assertTrue(elapsedMillis >= 130, "elapsed " + elapsedMillis + "ms");
+        assertEquals(4, lookups.get("ref-1").get());
+    }
+
+    @Test
+    void testDuplicateRegistrationSharesFuture() {
+        poller = newPoller().build();
+
+        assertSame(poller.register("ref-1"), poller.register("ref-1"));
+    }
+
+    @Test
+    void testGivesUpAfterMaxAge() {
+        pendingChecks = Integer.MAX_VALUE;
+        poller = newPoller().maxAge(Duration.ofMillis(100)).build();
+
+        PaydeckResponse<TransactionResponseData> response =
+            poller.register("ref-1").orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertEquals(TransactionStatus.PENDING, response.getData().getStatus());
+        assertEquals(0, poller.getOutstanding());
+    }
+
+    @Test
+    void testCancel() {
+        poller = newPoller().build();
+        CompletableFuture<PaydeckResponse<TransactionResponseData>> future = poller.register("ref-1");
+
+        assertTrue(poller.cancel("ref-1"));
+        assertTrue(future.isCancelled());
+        assertFalse(poller.cancel("ref-1"));
+    }
+
+    @Test
+    void testFailedChecksKeepPolling() {
+        AtomicInteger checks = new AtomicInteger();
+        provider.onFetch = reference -> {
+            switch (checks.incrementAndGet()) {
+                case 1:
+                    throw new IllegalStateException("connection pool shut down");
+                case 2:
+                    return CompletableFuture.failedFuture(new IllegalStateException("connection reset"));
+                case 3:
+                    return CompletableFuture.completedFuture(FakeProvider.outage());
+                default:
+                    return lookUp(reference);
+            }
+        };
+        pendingChecks = 0;
+        poller = newPoller().build();
+
+        PaydeckResponse<TransactionResponseData> response =
+            poller.register("ref-1").orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertEquals(TransactionStatus.SUCCESSFUL, response.getData().getStatus());
+        assertEquals(4, poller.getChecks());
+    }
+}
@@ -0,0 +1,60 @@
+package co.paydeck.model;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testConversionsUseCurrencyExponent() {
+        assertAll("Exponents",
+            () -> assertEquals(150000, Money.of(new BigDecimal("1500"), Currency.NGN).getMinorUnits()),
+            () -> assertEquals(1540, Money.of(new BigDecimal("15.4"), Currency.USD).getMinorUnits()),
+            () -> assertEquals(5000, Money.of(new BigDecimal("5000"), Currency.UGX).getMinorUnits()),
+            () -> assertEquals(new BigDecimal("1500.00"), Money.ofMinor(150000, Currency.NGN).toBigDecimal()),
+            () -> assertEquals(new BigDecimal("5000"), Money.ofMinor(5000, Currency.UGX).toBigDecimal())
+        );
+    }
+
+    @Test
+    void testLargeAmountsDoNotOverflow() {
+        // Above the 21.4M NGN where int kobo conversion used to wrap
+        Money amount = Money.of(new BigDecimal("25000000.75"), Currency.NGN);
+
+        assertEquals(2_500_000_075L, amount.getMinorUnits());
+        assertEquals(new BigDecimal("25000000.75"), amount.toBigDecimal());
+    }
+
+    @Test
+    void testInexactAmountsAreRejected() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("12.345"), Currency.NGN));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("100.5"), Currency.UGX));
+        assertThrows(ArithmeticException.class, () -> Money.parse("12.345", Currency.NGN));
+        assertThrows(ArithmeticException.class,
+            () -> Money.ofMinor(Long.MAX_VALUE, Currency.NGN).plus(Money.ofMinor(1, Currency.NGN)));
+    }
+
+    @Test
+    void testParse() {
+        assertAll("Parsing",
+            () -> assertEquals(Money.ofMinor(150000, Currency.NGN), Money.parse("1500", Currency.NGN)),
+            () -> assertEquals(Money.ofMinor(10140, Currency.NGN), Money.parse("101.4", Currency.NGN)),
+            () -> assertEquals(Money.ofMinor(10140, Currency.NGN), Money.parse("101.400", Currency.NGN)),
+            () -> assertEquals(Money.ofMinor(-1250, Currency.USD), Money.parse("-12.5", Currency.USD)),
+            () -> assertEquals(Money.ofMinor(5000, Currency.UGX), Money.parse("5000.00", Currency.UGX)),
+            () -> assertThrows(NumberFormatException.class, () -> Money.parse("1e3", Currency.NGN)),
+            () -> assertThrows(NumberFormatException.class, () -> Money.parse(".", Currency.NGN))
+        );
+    }
+
+    @Test
+    void testArithmeticRequiresSameCurrency() {
+        Money naira = Money.ofMinor(100, Currency.NGN);
+
+        assertEquals(Money.ofMinor(250, Currency.NGN), naira.plus(Money.ofMinor(150, Currency.NGN)));
+        assertEquals(Money.ofMinor(-50, Currency.NGN), naira.minus(Money.ofMinor(150, Currency.NGN)));
+        assertEquals("NGN 1.00", naira.toString());
+        assertThrows(IllegalArgumentException.class, () -> naira.plus(Money.ofMinor(100, Currency.USD)));
+    }
+}
@@ -0,0 +1,92 @@
+package co.paydeck.model;
+
+import org.junit.jupiter.api.Test;
+import java.util.EnumSet;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderCapabilitiesTest {
+    private final ProviderCapabilities capabilities = ProviderCapabilities.DEFAULT;
+
+    @Test
+    void testEligibleProvidersForCheckout() {
+        assertEquals(EnumSet.allOf(Provider.class), ProviderCapabilities.toSet(
+            capabilities.eligibleProviders(EnumSet.of(PaymentMethod.CARD), Currency.NGN, "NG")));
+        assertEquals(EnumSet.of(Provider.FLUTTERWAVE), ProviderCapabilities.toSet(
+            capabilities.eligibleProviders(EnumSet.of(PaymentMethod.CARD, PaymentMethod.MOBILE_MONEY), null, null)));
+        assertEquals(EnumSet.of(Provider.PAYSTACK), ProviderCapabilities.toSet(
+            capabilities.eligibleProviders(EnumSet.of(PaymentMethod.QR), Currency.NGN, "ng")));
+
+        int none = capabilities.eligibleProviders(EnumSet.of(PaymentMethod.QR), Currency.UGX, null);
+        assertEquals(0, none);
+        assertEquals(0, capabilities.eligibleProviders(EnumSet.of(PaymentMethod.CARD), null, "US"));
+        assertEquals(0, capabilities.eligibleProviders(EnumSet.of(PaymentMethod.CARD), null, "N1"));
+    }
+
+    @Test
+    void testPerProviderQueriesMatchTheIndex() {
+        assertTrue(capabilities.supportsPaymentMethods(Provider.PAYSTACK, EnumSet.of(PaymentMethod.CARD, PaymentMethod.QR)));
+        assertFalse(capabilities.supportsPaymentMethods(Provider.PAYSTACK, EnumSet.of(PaymentMethod.MOBILE_MONEY)));
+        assertTrue(capabilities.supportsPaymentMethods(Provider.FLUTTERWAVE, EnumSet.noneOf(PaymentMethod.class)));
+        assertTrue(capabilities.supportsCurrency(Provider.FLUTTERWAVE, Currency.UGX));
+        assertFalse(capabilities.supportsCurrency(Provider.PAYSTACK, Currency.EUR));
+        assertFalse(capabilities.supportsCurrency(Provider.PAYSTACK, null));
+        assertTrue(capabilities.supportsCountry(Provider.PAYSTACK, "ZA"));
+        assertFalse(capabilities.supportsCountry(Provider.PAYSTACK, "ZAF"));
+        assertFalse(capabilities.supportsCountry(Provider.PAYSTACK, null));
+
+        for (Provider provider : Provider.values()) {
+            int eligible = capabilities.eligibleProviders(EnumSet.of(PaymentMethod.USSD), Currency.GBP, "KE");
+            assertEquals(ProviderCapabilities.contains(eligible, provider),
+                capabilities.supportsPaymentMethods(provider, EnumSet.of(PaymentMethod.USSD))
+                    && capabilities.supportsCurrency(provider, Currency.GBP)
+                    && capabilities.supportsCountry(provider, "KE"));
+        }
+    }
+
+    @Test
+    void testPayoutMethods() {
+        assertTrue(capabilities.supportsPayoutMethods(Provider.PAYSTACK, EnumSet.of(PaymentMethod.BANK_TRANSFER)));
+        assertTrue(capabilities.supportsPayoutMethods(Provider.PAYSTACK,
+            EnumSet.of(PaymentMethod.BANK_TRANSFER, PaymentMethod.CARD)));
+        assertFalse(capabilities.supportsPayoutMethods(Provider.PAYSTACK, EnumSet.of(PaymentMethod.CARD)));
+        assertFalse(capabilities.supportsPayoutMethods(Provider.FLUTTERWAVE, EnumSet.of(PaymentMethod.BANK_TRANSFER)));
+    }
+
+    @Test
+    void testCountryNamesAndQueryParams() {
+        assertEquals("South Africa", capabilities.countryName("ZA"));
+        assertEquals("south africa", capabilities.countryParam("za"));
+        assertEquals("nigeria", capabilities.countryParam("NG"));
+        assertEquals("US", capabilities.countryParam("US"));
+        assertNull(capabilities.countryName("US"));
+
+        Map<String, String> countries = capabilities.countries(Provider.FLUTTERWAVE);
+        assertEquals(Map.of("NG", "Nigeria", "GH", "Ghana", "KE", "Kenya", "ZA", "South Africa"), countries);
+        assertEquals(countries, CountryProviderMap.getProviderCountryMap().get("flutterwave"));
+    }
+
+    @Test
+    void testBuilderValidation() {
+        ProviderCapabilities.Builder builder = ProviderCapabilities.builder();
+
+        assertThrows(IllegalStateException.class, () -> builder.currencies(Currency.NGN));
+        assertThrows(IllegalArgumentException.class, () -> builder.country("N1", "Nowhere"));
+        assertThrows(IllegalStateException.class, () -> ProviderCapabilities.builder()
+            .provider(Provider.PAYSTACK)
+            .countries("NG")
+            .build());
+
+        ProviderCapabilities custom = ProviderCapabilities.builder()
+            .country("ug", "Uganda")
+            .provider(Provider.FLUTTERWAVE)
+            .paymentMethods(PaymentMethod.MOBILE_MONEY)
+            .currencies(Currency.UGX)
+            .countries("UG")
+            .build();
+        assertEquals(EnumSet.of(Provider.FLUTTERWAVE), ProviderCapabilities.toSet(
+            custom.eligibleProviders(EnumSet.of(PaymentMethod.MOBILE_MONEY), Currency.UGX, "UG")));
+        assertEquals(EnumSet.of(PaymentMethod.MOBILE_MONEY), custom.paymentMethods(Provider.FLUTTERWAVE));
+        assertTrue(custom.paymentMethods(Provider.PAYSTACK).isEmpty());
+    }
+}
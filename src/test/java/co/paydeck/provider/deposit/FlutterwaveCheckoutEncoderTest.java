@@ -0,0 +1,133 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.Customer;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.model.deposit.CheckoutCustomization;
+import co.paydeck.model.deposit.CheckoutRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlutterwaveCheckoutEncoderTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode encode(CheckoutRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            FlutterwaveCheckoutEncoder.write(request, generator);
+        }
+        return mapper.readTree(out.toByteArray());
+    }
+
+    // The map the provider built before the streaming encoder, serialized the same way it used to be
+    private JsonNode mapPayload(CheckoutRequest request) throws IOException {
+        String methods = request.getPaymentMethods().stream()
+            .map(PaymentMethod::name)
+            .collect(Collectors.joining(","));
+        CheckoutCustomization customization = request.getCustomization();
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("tx_ref", request.getReference());
+        payload.put("amount", request.getAmount());
+        payload.put("currency", request.getCurrency());
+        payload.put("payment_options", methods.toLowerCase());
+        payload.put("redirect_url", customization == null ? null : customization.getReturnUrl());
+
+        Map<String, String> customer = new HashMap<>();
+        customer.put("email", request.getCustomer().getEmail());
+        customer.put("phone_number", request.getCustomer().getPhoneNumber());
+        customer.put("name", request.getCustomer().getFirstName() + " " + request.getCustomer().getLastName());
+        payload.put("customer", customer);
+
+        Map<String, String> customizationData = new HashMap<>();
+        if (customization != null) {
+            customizationData.put("title", customization.getTitle());
+            customizationData.put("description", customization.getDescription());
+            customizationData.put("logo", customization.getLogoUrl());
+        }
+        payload.put("customization", customizationData);
+        payload.put("meta", request.getMetadata());
+        return mapper.readTree(mapper.writeValueAsBytes(payload));
+    }
+
+    @Test
+    void testFullRequestMatchesMapPayload() throws IOException {
+        Map<String, String> metadata = new LinkedHashMap<>();
+        metadata.put("order", "A-1");
+        metadata.put("note", "say \"hi\"\n\\ done");
+        metadata.put("city", "Nairobi — ₦ ✓ 🚀");
+        CheckoutRequest request = CheckoutRequest.builder()
+            .reference("tx-\"quoted\"")
+            .amount(new BigDecimal("1250.50"))
+            .currency(Currency.KES)
+            .customer(Customer.builder()
+                .firstName("Wanjirũ")
+                .lastName("O'Neil \"AJ\"")
+                .email("aj@example.com")
+                .phoneNumber("+254700000000")
+                .build())
+            .paymentMethods(EnumSet.of(PaymentMethod.CARD, PaymentMethod.USSD, PaymentMethod.MOBILE_MONEY))
+            .metadata(metadata)
+            .customization(CheckoutCustomization.builder()
+                .title("Café — checkout")
+                .description("Tab\there")
+                .logoUrl("https://example.com/logo.png?a=1&b=\"2\"")
+                .returnUrl("https://example.com/return")
+                .build())
+            .build();
+
+        JsonNode encoded = encode(request);
+
+        assertEquals(mapPayload(request), encoded);
+        assertEquals("card,ussd,mobile_money", encoded.get("payment_options").asText());
+        assertEquals("Wanjirũ O'Neil \"AJ\"", encoded.get("customer").get("name").asText());
+    }
+
+    @Test
+    void testNullOptionalFieldsMatchMapPayload() throws IOException {
+        CheckoutRequest request = CheckoutRequest.builder()
+            .reference("tx-2")
+            .amount(new BigDecimal("10"))
+            .customer(Customer.builder().firstName("Ada").email("ada@example.com").build())
+            .paymentMethods(EnumSet.noneOf(PaymentMethod.class))
+            .customization(CheckoutCustomization.builder().title("Only a title").build())
+            .build();
+
+        JsonNode encoded = encode(request);
+
+        assertEquals(mapPayload(request), encoded);
+        assertTrue(encoded.get("currency").isNull());
+        assertTrue(encoded.get("meta").isNull());
+        assertTrue(encoded.get("customer").get("phone_number").isNull());
+        assertEquals("Ada null", encoded.get("customer").get("name").asText());
+        assertEquals("", encoded.get("payment_options").asText());
+    }
+
+    @Test
+    void testMissingCustomizationWritesAnEmptyObject() throws IOException {
+        CheckoutRequest request = CheckoutRequest.builder()
+            .reference("tx-3")
+            .amount(new BigDecimal("1"))
+            .currency(Currency.UGX)
+            .customer(Customer.builder().email("a@example.com").build())
+            .paymentMethods(EnumSet.of(PaymentMethod.MOBILE_MONEY))
+            .build();
+
+        JsonNode encoded = encode(request);
+
+        assertEquals(mapPayload(request), encoded);
+        assertTrue(encoded.get("redirect_url").isNull());
+        assertEquals(0, encoded.get("customization").size());
+    }
+}
@@ -0,0 +1,135 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.Customer;
+import co.paydeck.model.PaymentMethod;
+import co.paydeck.model.deposit.CheckoutCustomization;
+import co.paydeck.model.deposit.CheckoutRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaystackCheckoutEncoderTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode encode(CheckoutRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            PaystackCheckoutEncoder.write(request, PaystackCheckoutEncoder.minorUnits(request), generator);
+        }
+        return mapper.readTree(out.toByteArray());
+    }
+
+    // The map the provider built before the streaming encoder, serialized the same way it used to be
+    private JsonNode mapPayload(CheckoutRequest request) throws IOException {
+        String[] channels = request.getPaymentMethods().stream()
+            .map(PaymentMethod::name)
+            .map(String::toLowerCase)
+            .toArray(String[]::new);
+        CheckoutCustomization customization = request.getCustomization();
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("reference", request.getReference());
+        payload.put("amount", request.getAmount().multiply(new BigDecimal("100")).intValue());
+        payload.put("email", request.getCustomer().getEmail());
+        payload.put("currency", request.getCurrency());
+        payload.put("callback_url", customization == null ? null : customization.getReturnUrl());
+        payload.put("channels", channels);
+
+        Map<String, String> customer = new HashMap<>();
+        customer.put("email", request.getCustomer().getEmail());
+        customer.put("phone", request.getCustomer().getPhoneNumber());
+        customer.put("first_name", request.getCustomer().getFirstName());
+        customer.put("last_name", request.getCustomer().getLastName());
+        payload.put("customer", customer);
+
+        Map<String, String> customizationData = new HashMap<>();
+        if (customization != null) {
+            customizationData.put("title", customization.getTitle());
+            customizationData.put("description", customization.getDescription());
+            customizationData.put("logo", customization.getLogoUrl());
+        }
+        payload.put("customization", customizationData);
+        payload.put("metadata", request.getMetadata());
+        return mapper.readTree(mapper.writeValueAsBytes(payload));
+    }
+
+    @Test
+    void testFullRequestMatchesMapPayload() throws IOException {
+        Map<String, String> metadata = new LinkedHashMap<>();
+        metadata.put("order", "A-1");
+        metadata.put("note", "say \"hi\"\n\\ done");
+        metadata.put("city", "Ìbàdàn ₦ 🚀");
+        CheckoutRequest request = CheckoutRequest.builder()
+            .reference("ref-\"quoted\"")
+            .amount(new BigDecimal("1250.50"))
+            .currency(Currency.NGN)
+            .customer(Customer.builder()
+                .firstName("Adébáyọ̀")
+                .lastName("O'Neil \"AJ\"")
+                .email("aj@example.com")
+                .phoneNumber("+2348000000000")
+                .build())
+            .paymentMethods(EnumSet.of(PaymentMethod.CARD, PaymentMethod.BANK_TRANSFER, PaymentMethod.USSD))
+            .metadata(metadata)
+            .customization(CheckoutCustomization.builder()
+                .title("Café — checkout")
+                .description("Tab\there")
+                .logoUrl("https://example.com/logo.png?a=1&b=\"2\"")
+                .returnUrl("https://example.com/return")
+                .build())
+            .build();
+
+        JsonNode encoded = encode(request);
+
+        assertEquals(mapPayload(request), encoded);
+        assertEquals(125050, encoded.get("amount").asLong());
+        assertEquals("Ìbàdàn ₦ 🚀", encoded.get("metadata").get("city").asText());
+    }
+
+    @Test
+    void testNullOptionalFieldsMatchMapPayload() throws IOException {
+        CheckoutRequest request = CheckoutRequest.builder()
+            .reference("ref-2")
+            .amount(new BigDecimal("10"))
+            .customer(Customer.builder().firstName("Ada").email("ada@example.com").build())
+            .paymentMethods(EnumSet.noneOf(PaymentMethod.class))
+            .customization(CheckoutCustomization.builder().title("Only a title").build())
+            .build();
+
+        JsonNode encoded = encode(request);
+
+        assertEquals(mapPayload(request), encoded);
+        assertTrue(encoded.get("currency").isNull());
+        assertTrue(encoded.get("metadata").isNull());
+        assertTrue(encoded.get("customer").get("phone").isNull());
+        assertTrue(encoded.get("customization").get("logo").isNull());
+        assertEquals(0, encoded.get("channels").size());
+    }
+
+    @Test
+    void testMissingCustomizationWritesAnEmptyObject() throws IOException {
+        CheckoutRequest request = CheckoutRequest.builder()
+            .reference("ref-3")
+            .amount(new BigDecimal("1"))
+            .currency(Currency.GHS)
+            .customer(Customer.builder().email("a@example.com").build())
+            .paymentMethods(EnumSet.of(PaymentMethod.MOBILE_MONEY))
+            .build();
+
+        JsonNode encoded = encode(request);
+
+        assertEquals(mapPayload(request), encoded);
+        assertTrue(encoded.get("callback_url").isNull());
+        assertEquals(0, encoded.get("customization").size());
+    }
+}
@@ -0,0 +1,41 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.deposit.TransactionResponseData;
+import co.paydeck.provider.dto.PaystackTransaction;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaystackTransactionMapperTest {
+    private static PaystackTransaction transaction(String currency) {
+        PaystackTransaction data = new PaystackTransaction();
+        data.setId(1);
+        data.setStatus("success");
+        data.setReference("order-1");
+        data.setAmount(500000);
+        data.setFees(7500L);
+        data.setCurrency(currency);
+        return data;
+    }
+
+    @Test
+    void testMissingCurrencyDefaultsToNaira() {
+        TransactionResponseData mapped = PaystackTransactionMapper.toTransactionResponseData(transaction(null));
+
+        assertEquals(Currency.NGN, mapped.getMoney().getCurrency());
+        assertEquals(0, new BigDecimal("5000").compareTo(mapped.getAmount()));
+        assertEquals("NGN", mapped.getCurrency());
+    }
+
+    @Test
+    void testUnknownCurrencyIsNotLabelledNaira() {
+        TransactionResponseData mapped = PaystackTransactionMapper.toTransactionResponseData(transaction("XOF"));
+
+        assertNull(mapped.getMoney());
+        assertNull(mapped.getFeeMoney());
+        assertNull(mapped.getAmount());
+        assertEquals("XOF", mapped.getCurrency());
+        assertEquals("500000", mapped.getProviderMetadata().get("unparsed_amount"));
+    }
+}
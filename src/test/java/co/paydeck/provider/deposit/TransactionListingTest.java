@@ -0,0 +1,93 @@
+package co.paydeck.provider.deposit;
+
+import co.paydeck.model.deposit.TransactionListRequest;
+import co.paydeck.model.deposit.TransactionResponseData;
+import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpTransport;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two pages served in order; the provider has to read the page count from its own meta block
+class TransactionListingTest {
+    private MockWebServer server;
+    private HttpClient.Builder clientBuilder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        clientBuilder = new HttpClient.Builder() {
+            @Override
+            public HttpClient.Builder baseUrl(String ignored) {
+                return super.baseUrl(baseUrl);
+            }
+        }.transport(HttpTransport.builder().build());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private void enqueue(String body) {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody(body));
+    }
+
+    private static List<String> references(Stream<TransactionResponseData> transactions) {
+        try (transactions) {
+            return transactions.map(TransactionResponseData::getMerchantTransactionReference)
+                .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void testPaystackFollowsPageCount() throws InterruptedException {
+        enqueue("{\"status\":true,\"message\":\"ok\","
+            + "\"data\":[{\"id\":1,\"status\":\"success\",\"reference\":\"ps-1\",\"amount\":1000,\"currency\":\"NGN\"},"
+            + "{\"id\":2,\"status\":\"success\",\"reference\":\"ps-2\",\"amount\":2000,\"currency\":\"NGN\"}],"
+            + "\"meta\":{\"total\":3,\"page\":1,\"pageCount\":2}}");
+        enqueue("{\"status\":true,\"message\":\"ok\","
+            + "\"data\":[{\"id\":3,\"status\":\"failed\",\"reference\":\"ps-3\",\"amount\":3000,\"currency\":\"NGN\"}],"
+            + "\"meta\":{\"total\":3,\"page\":2,\"pageCount\":2}}");
+        PaystackProvider provider = new PaystackProvider("sk_test_list", clientBuilder);
+
+        Stream<TransactionResponseData> transactions =
+            provider.listTransactions(TransactionListRequest.builder().pageSize(2).build());
+        assertEquals(0, server.getRequestCount());
+
+        assertEquals(List.of("ps-1", "ps-2", "ps-3"), references(transactions));
+        assertEquals(2, server.getRequestCount());
+        assertEquals("/transaction?perPage=2&page=1", server.takeRequest().getPath());
+        assertEquals("/transaction?perPage=2&page=2", server.takeRequest().getPath());
+    }
+
+    @Test
+    void testFlutterwaveFollowsPageInfo() throws InterruptedException {
+        enqueue("{\"status\":\"success\",\"message\":\"ok\","
+            + "\"data\":[{\"id\":1,\"tx_ref\":\"fw-1\",\"status\":\"successful\",\"amount\":10,\"currency\":\"KES\"},"
+            + "{\"id\":2,\"tx_ref\":\"fw-2\",\"status\":\"successful\",\"amount\":20,\"currency\":\"KES\"}],"
+            + "\"meta\":{\"page_info\":{\"total\":3,\"current_page\":1,\"total_pages\":2}}}");
+        enqueue("{\"status\":\"success\",\"message\":\"ok\","
+            + "\"data\":[{\"id\":3,\"tx_ref\":\"fw-3\",\"status\":\"failed\",\"amount\":30,\"currency\":\"KES\"}],"
+            + "\"meta\":{\"page_info\":{\"total\":3,\"current_page\":2,\"total_pages\":2}}}");
+        FlutterwaveProvider provider = new FlutterwaveProvider("sk_test_list", clientBuilder);
+
+        Stream<TransactionResponseData> transactions =
+            provider.listTransactions(TransactionListRequest.builder().build());
+        assertEquals(0, server.getRequestCount());
+
+        assertEquals(List.of("fw-1", "fw-2", "fw-3"), references(transactions));
+        assertEquals(2, server.getRequestCount());
+        assertEquals("/transactions?page=1", server.takeRequest().getPath());
+        assertEquals("/transactions?page=2", server.takeRequest().getPath());
+    }
+}
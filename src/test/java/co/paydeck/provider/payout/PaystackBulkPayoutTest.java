@@ -0,0 +1,263 @@
+package co.paydeck.provider.payout;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.AccountResolutionData;
+import co.paydeck.model.payout.AccountResolutionRequest;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpTransport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+// A stand-in /transfer/bulk that queues every transfer, except chunks whose first reference starts with "fail"
+class PaystackBulkPayoutTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentLinkedQueue<JsonNode> bulkBodies = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private MockWebServer server;
+    private PaystackProvider provider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                return respond(request);
+            }
+        });
+        server.start();
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        HttpClient.Builder clientBuilder = new HttpClient.Builder() {
+            @Override
+            public HttpClient.Builder baseUrl(String ignored) {
+                return super.baseUrl(baseUrl);
+            }
+        };
+        provider = new PaystackProvider("sk_test_bulk", clientBuilder.transport(HttpTransport.builder().build()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse respond(RecordedRequest request) throws InterruptedException {
+        String path = request.getPath();
+        try {
+            if (path.startsWith("/bank/resolve")) {
+                return path.contains("account_number=0000000000")
+                    ? new MockResponse().setResponseCode(422)
+                        .setBody("{\"status\":false,\"message\":\"Could not resolve account name\"}")
+                    : ok(objectMapper.createObjectNode()
+                        .put("account_number", "0123456789")
+                        .put("account_name", "ADA OBI"));
+            }
+            if (path.startsWith("/transfer/verify/")) {
+                return ok(transfer(path.substring("/transfer/verify/".length()), 150000, "NGN", "success"));
+            }
+            JsonNode body = objectMapper.readTree(request.getBody().readUtf8());
+            if (path.equals("/transfer")) {
+                return ok(transfer(body.get("reference").asText(), body.get("amount").asLong(),
+                    body.get("currency").asText(), "pending"));
+            }
+
+            int active = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(active, Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+
+            bulkBodies.add(body);
+            JsonNode transfers = body.get("transfers");
+            if (transfers.get(0).get("reference").asText().startsWith("fail")) {
+                return new MockResponse().setResponseCode(400)
+                    .setBody("{\"status\":false,\"message\":\"Insufficient balance\"}");
+            }
+            ArrayNode data = objectMapper.createArrayNode();
+            for (JsonNode transfer : transfers) {
+                data.add(transfer(transfer.get("reference").asText(), transfer.get("amount").asLong(),
+                    body.get("currency").asText(), "received"));
+            }
+            return ok(data);
+        } catch (IOException e) {
+            return new MockResponse().setResponseCode(500);
+        }
+    }
+
+    private ObjectNode transfer(String reference, long amount, String currency, String status) {
+        return objectMapper.createObjectNode()
+            .put("reference", reference)
+            .put("amount", amount)
+            .put("currency", currency)
+            .put("status", status)
+            .put("transfer_code", "TRF_" + reference);
+    }
+
+    private MockResponse ok(JsonNode data) {
+        ObjectNode body = objectMapper.createObjectNode().put("status", true).put("message", "Queued");
+        body.set("data", data);
+        return new MockResponse().setBody(body.toString());
+    }
+
+    private static PayoutRequest payout(String reference, String amount, Currency currency) {
+        return PayoutRequest.builder()
+            .merchantTransactionReference(reference)
+            .amount(new BigDecimal(amount))
+            .currency(currency)
+            .recipientCode("RCP_" + reference)
+            .narration("Payroll")
+            .build();
+    }
+
+    private static List<PayoutRequest> payroll(String prefix, int count, Currency currency) {
+        List<PayoutRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(payout(prefix + i, "1500.50", currency));
+        }
+        return requests;
+    }
+
+    @Test
+    void testLargeBatchIsChunkedToTheBulkLimitUnderTheConcurrencyCap() {
+        List<PayoutRequest> requests = payroll("pay-", 1050, null);
+
+        Map<String, PaydeckResponse<TransactionResponseData>> results =
+            provider.initiateBulkPayoutAsync(requests, 3).join();
+
+        assertEquals(11, bulkBodies.size());
+        List<Integer> sizes = new ArrayList<>();
+        for (JsonNode body : bulkBodies) {
+            sizes.add(body.get("transfers").size());
+            assertEquals("balance", body.get("source").asText());
+            assertEquals("NGN", body.get("currency").asText());
+        }
+        assertEquals(10, sizes.stream().filter(size -> size == PaystackProvider.BULK_TRANSFER_LIMIT).count());
+        assertTrue(sizes.contains(50));
+        assertTrue(maxInFlight.get() <= 3, "at most 3 chunks in flight, saw " + maxInFlight.get());
+
+        // Every instruction maps back to its own reference, in input order
+        assertEquals(1050, results.size());
+        List<String> references = new ArrayList<>(results.keySet());
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(requests.get(i).getMerchantTransactionReference(), references.get(i));
+        }
+        TransactionResponseData first = results.get("pay-0").getData();
+        assertEquals(TransactionStatus.PENDING, first.getStatus());
+        assertEquals("TRF_pay-0", first.getTransactionReference());
+        assertEquals(150050, first.getMoney().getMinorUnits());
+        assertEquals(0, new BigDecimal("1500.50").compareTo(first.getAmount()));
+        assertEquals("paystack", first.getProvider());
+    }
+
+    @Test
+    void testFailedChunkOnlyFailsItsOwnReferences() {
+        List<PayoutRequest> requests = new ArrayList<>(payroll("pay-", 100, Currency.NGN));
+        requests.addAll(payroll("fail-", 100, Currency.NGN));
+        requests.addAll(payroll("late-", 20, Currency.NGN));
+
+        Map<String, PaydeckResponse<TransactionResponseData>> results = provider.initiateBulkPayout(requests);
+
+        assertEquals(220, results.size());
+        for (PayoutRequest request : requests) {
+            PaydeckResponse<TransactionResponseData> result = results.get(request.getMerchantTransactionReference());
+            assertEquals(!request.getMerchantTransactionReference().startsWith("fail"), result.isSuccess(),
+                request.getMerchantTransactionReference());
+        }
+        assertTrue(results.get("fail-42").getError().getMessage().contains("Insufficient balance"));
+    }
+
+    @Test
+    void testCurrenciesAreSentAsSeparateBulkRequests() {
+        List<PayoutRequest> requests = new ArrayList<>(payroll("ngn-", 150, Currency.NGN));
+        requests.addAll(payroll("ghs-", 30, Currency.GHS));
+        requests.addAll(payroll("kes-", 5, Currency.KES));
+
+        Map<String, PaydeckResponse<TransactionResponseData>> results = provider.initiateBulkPayout(requests);
+
+        assertEquals(4, bulkBodies.size());
+        for (JsonNode body : bulkBodies) {
+            String prefix = body.get("currency").asText().toLowerCase() + "-";
+            for (JsonNode transfer : body.get("transfers")) {
+                assertTrue(transfer.get("reference").asText().startsWith(prefix));
+            }
+        }
+        assertEquals("GHS", results.get("ghs-7").getData().getCurrency());
+        assertEquals(Currency.KES, results.get("kes-4").getData().getMoney().getCurrency());
+    }
+
+    @Test
+    void testInvalidInstructionsAreRejectedWithoutBeingSent() {
+        List<PayoutRequest> requests = new ArrayList<>(payroll("pay-", 3, null));
+        requests.add(payout("fractional", "10.005", Currency.NGN));
+        requests.add(PayoutRequest.builder()
+            .merchantTransactionReference("no-recipient")
+            .amount(BigDecimal.TEN)
+            .build());
+
+        Map<String, PaydeckResponse<TransactionResponseData>> results = provider.initiateBulkPayout(requests);
+
+        assertEquals("INVALID_AMOUNT", results.get("fractional").getError().getCode());
+        assertEquals("INVALID_RECIPIENT", results.get("no-recipient").getError().getCode());
+        assertTrue(results.get("pay-2").isSuccess());
+        assertEquals(1, bulkBodies.size());
+        assertEquals(3, bulkBodies.peek().get("transfers").size());
+
+        List<PayoutRequest> duplicates = List.of(payout("dup", "1", null), payout("dup", "2", null));
+        assertThrows(IllegalArgumentException.class, () -> provider.initiateBulkPayoutAsync(duplicates, 2));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testSinglePayoutAndVerification() throws InterruptedException {
+        PaydeckResponse<TransactionResponseData> initiated =
+            provider.initiatePayout(payout("single-1", "250", Currency.GHS));
+        PaydeckResponse<TransactionResponseData> verified = provider.fetchTransactionAsync("single-1").join();
+
+        assertTrue(initiated.isSuccess());
+        assertEquals(TransactionStatus.PENDING, initiated.getData().getStatus());
+        assertEquals(25000, initiated.getData().getMoney().getMinorUnits());
+        assertEquals(TransactionStatus.SUCCESSFUL, verified.getData().getStatus());
+        assertEquals("single-1", verified.getData().getMerchantTransactionReference());
+
+        RecordedRequest transfer = server.takeRequest();
+        assertEquals("/transfer", transfer.getPath());
+        assertEquals("Bearer sk_test_bulk", transfer.getHeader("Authorization"));
+    }
+
+    @Test
+    void testAccountResolution() throws InterruptedException {
+        AccountResolutionRequest valid = AccountResolutionRequest.builder()
+            .bankCode("058").accountNumber("0123456789").build();
+        AccountResolutionRequest invalid = valid.toBuilder().accountNumber("0000000000").build();
+
+        PaydeckResponse<AccountResolutionData> resolved = provider.resolveAccount(valid);
+        PaydeckResponse<AccountResolutionData> unknown = provider.resolveAccountAsync(invalid).join();
+
+        assertEquals("ADA OBI", resolved.getData().getAccountName());
+        assertEquals("058", resolved.getData().getBankCode());
+        assertEquals("INVALID_ACCOUNT", unknown.getError().getCode());
+        assertEquals("INVALID_ACCOUNT", provider.resolveAccount(invalid).getError().getCode());
+        assertEquals("/bank/resolve?account_number=0123456789&bank_code=058", server.takeRequest().getPath());
+    }
+}
@@ -0,0 +1,220 @@
+package co.paydeck.provider.payout;
+
+import co.paydeck.model.TransactionStatus;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpTransport;
+import co.paydeck.util.RetryPolicy;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+// A stand-in Paystack that refuses a reference it has seen. A "lost" reference, or a bulk chunk led
+// by one, is queued on its first attempt but answered with a 503, so the retry policy replays it.
+// Recipients are created on the first attempt too; a replay is refused and a fresh request answered
+class PaystackTransferReplayTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final Set<String> answered = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> recipientAttempts = new ConcurrentHashMap<>();
+    private MockWebServer server;
+    private PaystackProvider provider;
+    private volatile boolean verifyDown;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+        server.start();
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        HttpClient.Builder clientBuilder = new HttpClient.Builder() {
+            @Override
+            public HttpClient.Builder baseUrl(String ignored) {
+                return super.baseUrl(baseUrl);
+            }
+        };
+        RetryPolicy retryPolicy = RetryPolicy.builder()
+            .maxAttempts(2)
+            .baseDelay(Duration.ofMillis(1))
+            .maxDelay(Duration.ofMillis(5))
+            .build();
+        provider = new PaystackProvider("sk_test_replay",
+            clientBuilder.transport(HttpTransport.builder().build()).retryPolicy(retryPolicy));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        String path = request.getPath();
+        try {
+            if (path.startsWith("/transfer/verify/")) {
+                String reference = path.substring("/transfer/verify/".length());
+                if (verifyDown) {
+                    return new MockResponse().setResponseCode(502);
+                }
+                return queued.contains(reference) ? ok(transfer(reference)) : rejected(404, "Transfer not found");
+            }
+            JsonNode body = objectMapper.readTree(request.getBody().readUtf8());
+            if (path.equals("/transferrecipient")) {
+                return recipient(body.get("account_number").asText());
+            }
+            if (path.equals("/transfer/bulk")) {
+                return bulk(body.get("transfers"));
+            }
+            String reference = body.get("reference").asText();
+            if (!queued.add(reference)) {
+                return rejected(400, "Duplicate Transfer Reference");
+            }
+            if (reference.startsWith("lost") && answered.add(reference)) {
+                return new MockResponse().setResponseCode(503);
+            }
+            return ok(transfer(reference));
+        } catch (IOException e) {
+            return new MockResponse().setResponseCode(500);
+        }
+    }
+
+    private MockResponse recipient(String accountNumber) {
+        int attempt = recipientAttempts.merge(accountNumber, 1, Integer::sum);
+        if (attempt == 1) {
+            return new MockResponse().setResponseCode(503);
+        }
+        if (attempt == 2) {
+            return rejected(400, "Duplicate recipient");
+        }
+        return ok(objectMapper.createObjectNode().put("recipient_code", "RCP_" + accountNumber));
+    }
+
+    private MockResponse bulk(JsonNode transfers) {
+        List<String> references = new ArrayList<>();
+        transfers.forEach(transfer -> references.add(transfer.get("reference").asText()));
+        for (String reference : references) {
+            if (queued.contains(reference)) {
+                return rejected(400, "Duplicate Transfer Reference");
+            }
+        }
+        queued.addAll(references);
+        if (references.get(0).startsWith("lost") && answered.add(references.get(0))) {
+            return new MockResponse().setResponseCode(503);
+        }
+        ArrayNode data = objectMapper.createArrayNode();
+        references.forEach(reference -> data.add(transfer(reference)));
+        return ok(data);
+    }
+
+    private ObjectNode transfer(String reference) {
+        return objectMapper.createObjectNode()
+            .put("reference", reference)
+            .put("amount", 500000)
+            .put("currency", "NGN")
+            .put("status", "pending")
+            .put("transfer_code", "TRF_" + reference);
+    }
+
+    private MockResponse ok(JsonNode data) {
+        ObjectNode body = objectMapper.createObjectNode().put("status", true).put("message", "Queued");
+        body.set("data", data);
+        return new MockResponse().setBody(body.toString());
+    }
+
+    private static MockResponse rejected(int status, String message) {
+        return new MockResponse().setResponseCode(status)
+            .setBody("{\"status\":false,\"message\":\"" + message + "\"}");
+    }
+
+    private static PayoutRequest payout(String reference) {
+        return PayoutRequest.builder()
+            .merchantTransactionReference(reference)
+            .amount(new BigDecimal("5000"))
+            .recipientCode("RCP_" + reference)
+            .build();
+    }
+
+    @Test
+    void testReplayRejectedAsDuplicateIsConfirmedByLookup() {
+        PaydeckResponse<TransactionResponseData> blocking = provider.initiatePayout(payout("lost-1"));
+        PaydeckResponse<TransactionResponseData> async = provider.initiatePayoutAsync(payout("lost-2")).join();
+
+        assertTrue(blocking.isSuccess());
+        assertEquals(TransactionStatus.PENDING, blocking.getData().getStatus());
+        assertEquals("lost-2", async.getData().getMerchantTransactionReference());
+    }
+
+    @Test
+    void testReplayThatCannotBeLookedUpIsInDoubt() {
+        verifyDown = true;
+
+        PaydeckResponse<TransactionResponseData> response = provider.initiatePayoutAsync(payout("lost-1")).join();
+
+        assertEquals("IN_DOUBT", response.getError().getCode());
+        assertEquals(Integer.valueOf(400), response.getError().getHttpStatus());
+    }
+
+    @Test
+    void testReplayedBulkChunkIsConfirmedPerReference() {
+        List<PayoutRequest> payroll = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            payroll.add(payout("lost-" + i));
+        }
+
+        Map<String, PaydeckResponse<TransactionResponseData>> results = provider.initiateBulkPayout(payroll);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(results.get("lost-" + i).isSuccess(), "lost-" + i);
+        }
+        assertEquals(2 + 3, server.getRequestCount());
+    }
+
+    @Test
+    void testRejectedRecipientReplayIsSentAgain() {
+        PayoutRequest toAccount = PayoutRequest.builder()
+            .merchantTransactionReference("account-1")
+            .amount(new BigDecimal("5000"))
+            .bankCode("058")
+            .accountNumber("0123456789")
+            .build();
+
+        PaydeckResponse<TransactionResponseData> response = provider.initiatePayout(toAccount);
+
+        assertTrue(response.isSuccess());
+        assertEquals(3, recipientAttempts.get("0123456789"));
+    }
+
+    @Test
+    void testRejectionWithoutReplayStands() {
+        queued.add("used-1");
+
+        PaydeckResponse<TransactionResponseData> response = provider.initiatePayout(payout("used-1"));
+
+        assertEquals("PROVIDER_ERROR", response.getError().getCode());
+        assertEquals(Integer.valueOf(400), response.getError().getHttpStatus());
+        assertEquals(1, server.getRequestCount());
+    }
+}
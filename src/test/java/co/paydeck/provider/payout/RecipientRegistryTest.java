@@ -0,0 +1,219 @@
+package co.paydeck.provider.payout;
+
+import co.paydeck.model.Currency;
+import co.paydeck.model.common.PaydeckResponse;
+import co.paydeck.model.payout.PayoutRequest;
+import co.paydeck.model.payout.TransactionResponseData;
+import co.paydeck.util.HttpClient;
+import co.paydeck.util.HttpTransport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Recipients are created as RCP_<bank>_<account>; account numbers starting with "bad" are rejected
+class RecipientRegistryTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger recipientCalls = new AtomicInteger();
+    private final ConcurrentLinkedQueue<String> transferredTo = new ConcurrentLinkedQueue<>();
+    private MockWebServer server;
+    private HttpClient.Builder clientBuilder;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                return respond(request);
+            }
+        });
+        server.start();
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        HttpTransport transport = HttpTransport.builder().build();
+        clientBuilder = new HttpClient.Builder() {
+            @Override
+            public HttpClient.Builder baseUrl(String ignored) {
+                return super.baseUrl(baseUrl);
+            }
+        }.transport(transport);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse respond(RecordedRequest request) throws InterruptedException {
+        try {
+            JsonNode body = objectMapper.readTree(request.getBody().readUtf8());
+            if (request.getPath().equals("/transferrecipient")) {
+                recipientCalls.incrementAndGet();
+                Thread.sleep(50);
+                String account = body.get("account_number").asText();
+                if (account.startsWith("bad")) {
+                    return new MockResponse().setBody("{\"status\":false,\"message\":\"Account number is invalid\"}");
+                }
+                return new MockResponse().setBody("{\"status\":true,\"message\":\"Recipient created\",\"data\":"
+                    + "{\"recipient_code\":\"RCP_" + body.get("bank_code").asText() + "_" + account + "\"}}");
+            }
+
+            JsonNode transfers = request.getPath().equals("/transfer/bulk") ? body.get("transfers") : null;
+            ArrayNode data = objectMapper.createArrayNode();
+            for (JsonNode transfer : transfers != null ? transfers : List.of(body)) {
+                transferredTo.add(transfer.get("recipient").asText());
+                data.addObject()
+                    .put("reference", transfer.get("reference").asText())
+                    .put("amount", transfer.get("amount").asLong())
+                    .put("currency", body.get("currency").asText())
+                    .put("status", "pending");
+            }
+            return new MockResponse().setBody("{\"status\":true,\"message\":\"Queued\",\"data\":"
+                + (transfers != null ? data : data.get(0)) + "}");
+        } catch (IOException e) {
+            return new MockResponse().setResponseCode(500);
+        }
+    }
+
+    private static PayoutRequest toAccount(String reference, String bankCode, String accountNumber) {
+        return PayoutRequest.builder()
+            .merchantTransactionReference(reference)
+            .amount(new BigDecimal("5000"))
+            .bankCode(bankCode)
+            .accountNumber(accountNumber)
+            .accountName("Ada Obi")
+            .build();
+    }
+
+    @Test
+    void testConcurrentPayoutsToOneAccountCreateOneRecipient() {
+        PaystackProvider provider = new PaystackProvider("sk_test", clientBuilder);
+
+        List<CompletableFuture<PaydeckResponse<TransactionResponseData>>> payouts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            payouts.add(provider.initiatePayoutAsync(toAccount("pay-" + i, "058", "0123456789")));
+        }
+        payouts.forEach(payout -> assertTrue(payout.join().isSuccess()));
+
+        assertEquals(1, recipientCalls.get());
+        assertEquals(20, transferredTo.size());
+        transferredTo.forEach(recipient -> assertEquals("RCP_058_0123456789", recipient));
+
+        provider.initiatePayout(toAccount("pay-later", "058", "0123456789"));
+        assertEquals(1, recipientCalls.get());
+    }
+
+    @Test
+    void testRecipientsSurviveRestart() throws IOException {
+        Path file = directory.resolve("recipients.tsv");
+        try (RecipientRegistry registry = RecipientRegistry.open(file)) {
+            PaystackProvider provider = new PaystackProvider("sk_test", clientBuilder, registry);
+            assertTrue(provider.initiatePayout(toAccount("pay-1", "058", "0123456789")).isSuccess());
+            assertTrue(provider.initiatePayout(toAccount("pay-2", "044", "0123456789")).isSuccess());
+            assertEquals(2, registry.size());
+        }
+
+        try (RecipientRegistry registry = RecipientRegistry.open(file)) {
+            assertEquals("RCP_044_0123456789", registry.get("044", "0123456789", Currency.NGN));
+            assertNull(registry.get("044", "0123456789", Currency.GHS));
+
+            PaystackProvider provider = new PaystackProvider("sk_test", clientBuilder, registry);
+            assertTrue(provider.initiatePayout(toAccount("pay-3", "058", "0123456789")).isSuccess());
+        }
+        assertEquals(2, recipientCalls.get());
+        assertEquals(2, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void testTornLastRecordIsSkipped() throws IOException {
+        Path file = directory.resolve("recipients.tsv");
+        Files.writeString(file, "058\t0123456789\tNGN\tRCP_complete\n044\t0123456789\tNGN\tRCP_tor",
+            StandardCharsets.UTF_8);
+
+        try (RecipientRegistry registry = RecipientRegistry.open(file)) {
+            assertEquals("RCP_complete", registry.get("058", "0123456789", null));
+            assertNull(registry.get("044", "0123456789", Currency.NGN));
+
+            registry.getOrCreate("044", "0123456789", Currency.NGN,
+                () -> CompletableFuture.completedFuture("RCP_whole")).join();
+        }
+        try (RecipientRegistry registry = RecipientRegistry.open(file)) {
+            assertEquals("RCP_whole", registry.get("044", "0123456789", Currency.NGN));
+            assertEquals(2, registry.size());
+        }
+        Files.writeString(file, "garbage\n", StandardOpenOption.APPEND);
+        try (RecipientRegistry registry = RecipientRegistry.open(file)) {
+            assertEquals(2, registry.size());
+        }
+    }
+
+    @Test
+    void testFailedCreationIsReportedAndNotRemembered() {
+        PaystackProvider provider = new PaystackProvider("sk_test", clientBuilder);
+
+        PaydeckResponse<TransactionResponseData> first = provider.initiatePayout(toAccount("pay-1", "058", "bad-1"));
+        PaydeckResponse<TransactionResponseData> second = provider.initiatePayout(toAccount("pay-2", "058", "bad-1"));
+
+        assertFalse(first.isSuccess());
+        assertTrue(first.getError().getMessage().contains("Account number is invalid"));
+        assertFalse(second.isSuccess());
+        assertEquals(2, recipientCalls.get());
+        assertTrue(transferredTo.isEmpty());
+
+        PaydeckResponse<TransactionResponseData> missing = provider.initiatePayout(PayoutRequest.builder()
+            .merchantTransactionReference("pay-3")
+            .amount(BigDecimal.ONE)
+            .bankCode("058")
+            .build());
+        assertEquals("INVALID_RECIPIENT", missing.getError().getCode());
+    }
+
+    @Test
+    void testBulkPayoutCreatesEachDistinctRecipientOnce() {
+        PaystackProvider provider = new PaystackProvider("sk_test", clientBuilder);
+        List<PayoutRequest> payroll = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            payroll.add(toAccount("salary-" + i, "058", "00000000" + (i % 10)));
+        }
+        payroll.add(toAccount("salary-bad", "058", "bad-account"));
+        payroll.add(PayoutRequest.builder()
+            .merchantTransactionReference("salary-known")
+            .amount(new BigDecimal("5000"))
+            .recipientCode("RCP_known")
+            .build());
+
+        Map<String, PaydeckResponse<TransactionResponseData>> results = provider.initiateBulkPayout(payroll);
+
+        assertEquals(11, recipientCalls.get());
+        assertEquals(302, results.size());
+        assertFalse(results.get("salary-bad").isSuccess());
+        assertTrue(results.get("salary-bad").getError().getMessage().contains("Account number is invalid"));
+        assertTrue(results.get("salary-known").isSuccess());
+        assertEquals(301, transferredTo.size());
+        assertTrue(transferredTo.contains("RCP_058_000000007"));
+        assertTrue(transferredTo.contains("RCP_known"));
+    }
+}
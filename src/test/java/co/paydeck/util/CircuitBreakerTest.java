@@ -0,0 +1,103 @@
+package co.paydeck.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker newBreaker() {
+        return CircuitBreaker.builder()
+            .slidingWindowSize(10)
+            .minimumCalls(4)
+            .failureRateThreshold(50)
+            .slowCallRateThreshold(100)
+            .slowCallDuration(Duration.ofSeconds(1))
+            .waitDurationInOpenState(Duration.ofSeconds(10))
+            .permittedCallsInHalfOpenState(2)
+            .nanoClock(clock::get)
+            .build();
+    }
+
+    @Test
+    void testOpensWhenFailureRateExceeded() {
+        CircuitBreaker breaker = newBreaker();
+        breaker.onSuccess(0);
+        breaker.onError(0);
+        breaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onError(0);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1, breaker.getRejectedCalls());
+    }
+
+    @Test
+    void testOpensWhenEveryCallIsSlow() {
+        CircuitBreaker breaker = newBreaker();
+        long slow = TimeUnit.SECONDS.toNanos(2);
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess(slow);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenClosesAfterSuccessfulTrials() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.onError(0);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission(), "only two trial calls are permitted");
+
+        breaker.onSuccess(0);
+        breaker.onSuccess(0);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenReopensOnFailedTrial() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.onError(0);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertTrue(breaker.tryAcquirePermission());
+
+        breaker.onError(0);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testLateFailuresDoNotExtendTheOpenPeriod() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.onError(0);
+        }
+
+        // Calls started before the breaker opened keep failing for a while
+        for (int i = 0; i < 9; i++) {
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            breaker.onError(0);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+}
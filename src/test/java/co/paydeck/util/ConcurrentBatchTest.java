@@ -0,0 +1,69 @@
+package co.paydeck.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentBatchTest {
+
+    @Test
+    void testResultsKeyedInInputOrder() {
+        Map<String, String> results = ConcurrentBatch.<String, String>run(
+            List.of("c", "a", "b", "a"),
+            2,
+            key -> CompletableFuture.completedFuture(key.toUpperCase()),
+            (key, error) -> "error"
+        ).join();
+
+        assertEquals(List.of("c", "a", "b"), List.copyOf(results.keySet()));
+        assertEquals("A", results.get("a"));
+    }
+
+    @Test
+    void testFailuresAreReportedPerKey() {
+        Map<String, String> results = ConcurrentBatch.<String, String>run(
+            List.of("ok", "boom"),
+            4,
+            key -> "boom".equals(key)
+                ? CompletableFuture.failedFuture(new IllegalStateException("down"))
+                : CompletableFuture.completedFuture("fine"),
+            (key, error) -> "failed: " + error.getMessage()
+        ).join();
+
+        assertAll("Partial failure",
+            () -> assertEquals("fine", results.get("ok")),
+            () -> assertEquals("failed: down", results.get("boom"))
+        );
+    }
+
+    @Test
+    void testConcurrencyIsBounded() {
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ConcurrentLinkedQueue<CompletableFuture<Integer>> inFlight = new ConcurrentLinkedQueue<>();
+
+        CompletableFuture<Map<Integer, Integer>> batch = ConcurrentBatch.<Integer, Integer>run(
+            List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10),
+            3,
+            key -> {
+                CompletableFuture<Integer> future = new CompletableFuture<>();
+                inFlight.add(future);
+                maxInFlight.accumulateAndGet(inFlight.size(), Math::max);
+                return future;
+            },
+            (key, error) -> -1
+        );
+
+        while (!batch.isDone()) {
+            CompletableFuture<Integer> next = inFlight.poll();
+            assertNotNull(next, "batch stalled");
+            next.complete(0);
+        }
+
+        assertEquals(10, batch.join().size());
+        assertEquals(3, maxInFlight.get());
+    }
+}
@@ -0,0 +1,195 @@
+package co.paydeck.util;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against a local TLS stand-in, so every new connection pays a real handshake
+class ConnectionWarmUpTest {
+    private static final Endpoint VERIFY = Endpoint.of("paystack", "verify", "/transaction/verify/{reference}");
+    private static final HeldCertificate LOCALHOST = new HeldCertificate.Builder()
+        .addSubjectAlternativeName("localhost")
+        .build();
+
+    private final HandshakeCertificates clientCertificates = new HandshakeCertificates.Builder()
+        .addTrustedCertificate(LOCALHOST.certificate())
+        .build();
+    private final InMemoryMetrics metrics = new InMemoryMetrics();
+    private final HttpTransport transport = HttpTransport.builder().build();
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new MockWebServer();
+        server.useHttps(new HandshakeCertificates.Builder()
+            .heldCertificate(LOCALHOST)
+            .build()
+            .sslSocketFactory(), false);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return "HEAD".equals(request.getMethod())
+                    ? new MockResponse()
+                    : new MockResponse().setBody("{\"status\":true}");
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private HttpClient.Builder newClient() throws IOException {
+        server.start(InetAddress.getByName("localhost"), 0);
+        return HttpClient.builder()
+            .baseUrl(server.url("").toString().replaceAll("/$", ""))
+            .transport(transport)
+            .sslSocketFactory(clientCertificates.sslSocketFactory(), clientCertificates.trustManager())
+            .metricsRecorder(metrics)
+            .endpoints(VERIFY);
+    }
+
+    private List<CompletableFuture<Map>> verify(HttpClient httpClient, int calls) {
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            futures.add(httpClient.getAsync("/transaction/verify/ref-" + i, Map.class));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).orTimeout(10, TimeUnit.SECONDS).join();
+        return futures;
+    }
+
+    @Test
+    void testColdClientPaysHandshakeOnFirstCall() throws Exception {
+        server.setProtocols(List.of(Protocol.HTTP_1_1));
+        HttpClient httpClient = newClient().build();
+
+        assertEquals(0, httpClient.getWarmUp().join());
+        verify(httpClient, 1);
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals(0, request.getSequenceNumber());
+        assertNotNull(request.getHandshake());
+        assertEquals(1, metrics.getHistogram(VERIFY, RequestPhase.TLS).getCount());
+    }
+
+    @Test
+    void testWarmUpTakesHandshakesOffFirstCalls() throws Exception {
+        server.setProtocols(List.of(Protocol.HTTP_1_1));
+        HttpClient httpClient = newClient().warmUpConnections(4).build();
+
+        assertEquals(4, httpClient.getWarmUp().get(10, TimeUnit.SECONDS));
+        assertEquals(4, transport.getConnectionPool().idleConnectionCount());
+        verify(httpClient, 4);
+
+        for (int i = 0; i < 4; i++) {
+            RecordedRequest warmUp = server.takeRequest();
+            assertEquals("HEAD", warmUp.getMethod());
+            assertEquals(0, warmUp.getSequenceNumber());
+        }
+        for (int i = 0; i < 4; i++) {
+            RecordedRequest call = server.takeRequest();
+            assertEquals("GET", call.getMethod());
+            assertTrue(call.getSequenceNumber() > 0, "call " + i + " opened a new connection");
+        }
+        assertEquals(4, metrics.getRequests(VERIFY));
+        assertEquals(0, metrics.getHistogram(VERIFY, RequestPhase.TLS).getCount());
+        assertEquals(0, metrics.getHistogram(VERIFY, RequestPhase.CONNECT).getCount());
+        assertEquals(4, transport.getConnectionPool().connectionCount());
+    }
+
+    @Test
+    void testHttp2WarmUpIsOneMultiplexedConnection() throws Exception {
+        HttpClient httpClient = newClient()
+            .warmUpConnections(1)
+            .pingInterval(Duration.ofSeconds(5))
+            .connectionPool(4, Duration.ofMinutes(1))
+            .build();
+
+        assertEquals(1, httpClient.getWarmUp().get(10, TimeUnit.SECONDS));
+        verify(httpClient, 8);
+
+        // All eight concurrent calls are streams on the warmed connection
+        assertEquals(0, metrics.getHistogram(VERIFY, RequestPhase.TLS).getCount());
+        // The client has its own pool, so the transport's stays empty
+        assertEquals(0, transport.getConnectionPool().connectionCount());
+    }
+
+    @Test
+    void testWarmUpResolvesThroughCachingDnsOnce() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        CachingDns dns = CachingDns.builder()
+            .delegate(hostname -> {
+                lookups.incrementAndGet();
+                return List.of(InetAddress.getByName(hostname));
+            })
+            .build();
+        server.setProtocols(List.of(Protocol.HTTP_1_1));
+        HttpClient httpClient = newClient().dns(dns).warmUpConnections(3).build();
+
+        assertEquals(3, httpClient.getWarmUp().get(10, TimeUnit.SECONDS));
+        verify(httpClient, 3);
+
+        assertEquals(1, lookups.get());
+        assertEquals(1, dns.getMisses());
+    }
+
+    @Test
+    void testDnsCacheServesStaleWhileRefreshing() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger lookups = new AtomicInteger();
+        List<Runnable> refreshes = new ArrayList<>();
+        InetAddress first = InetAddress.getByAddress("api.paystack.co", new byte[]{10, 0, 0, 1});
+        InetAddress second = InetAddress.getByAddress("api.paystack.co", new byte[]{10, 0, 0, 2});
+        CachingDns dns = CachingDns.builder()
+            .delegate(hostname -> {
+                if (hostname.startsWith("missing")) {
+                    throw new UnknownHostException(hostname);
+                }
+                return List.of(lookups.incrementAndGet() == 1 ? first : second);
+            })
+            .ttl(Duration.ofSeconds(60))
+            .maxStale(Duration.ofSeconds(60))
+            .refreshExecutor(refreshes::add)
+            .nanoClock(clock::get)
+            .build();
+
+        dns.prefetch("api.paystack.co", "missing.example");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertEquals(List.of(first), dns.lookup("api.paystack.co"));
+
+        // Past the ttl the old address is served while one refresh is queued
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        assertEquals(List.of(first), dns.lookup("api.paystack.co"));
+        assertEquals(List.of(first), dns.lookup("api.paystack.co"));
+        assertEquals(1, refreshes.size());
+        refreshes.get(0).run();
+        assertEquals(List.of(second), dns.lookup("api.paystack.co"));
+
+        // Past ttl + maxStale the lookup resolves on the caller's thread
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(200));
+        assertEquals(List.of(second), dns.lookup("api.paystack.co"));
+        assertThrows(UnknownHostException.class, () -> dns.lookup("missing.example"));
+        assertEquals(3, lookups.get());
+        assertEquals(1, dns.getRefreshes());
+    }
+}
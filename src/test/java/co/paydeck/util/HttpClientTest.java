@@ -0,0 +1,97 @@
+package co.paydeck.util;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientTest {
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void testReusedBuilderDoesNotChangeEarlierClientHeaders() throws Exception {
+        HttpClient.Builder builder = HttpClient.builder()
+            .baseUrl(server.url("").toString().replaceAll("/$", ""))
+            .transport(HttpTransport.builder().build())
+            .addDefaultHeader("Authorization", "Bearer sk_first");
+        HttpClient first = builder.build();
+        builder.addDefaultHeader("Authorization", "Bearer sk_second").build();
+
+        server.enqueue(new MockResponse().setBody("{\"status\":true}"));
+        first.get("/bank", Map.class);
+
+        assertEquals("Bearer sk_first", server.takeRequest().getHeader("Authorization"));
+    }
+
+    @Test
+    void testVirtualThreadModeSpeaksHttp11Only() {
+        HttpClient.Builder builder = HttpClient.builder()
+            .baseUrl(server.url("").toString().replaceAll("/$", ""))
+            .transport(HttpTransport.builder().build());
+
+        assertTrue(builder.build().protocols().contains(Protocol.HTTP_2));
+        assertEquals(List.of(Protocol.HTTP_1_1),
+            builder.executionMode(HttpClient.ExecutionMode.VIRTUAL_THREAD).build().protocols());
+    }
+
+    // More calls to one host than the dispatcher's per-host limit must all be in flight at once
+    @Test
+    void testVirtualThreadModeIsNotCappedByTheDispatcher() throws Exception {
+        int calls = 80;
+        CountDownLatch arrived = new CountDownLatch(calls);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                arrived.countDown();
+                arrived.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setBody("{\"status\":true}");
+            }
+        });
+        HttpClient client = HttpClient.builder()
+            .baseUrl(server.url("").toString().replaceAll("/$", ""))
+            .transport(HttpTransport.builder().build())
+            .executionMode(HttpClient.ExecutionMode.VIRTUAL_THREAD)
+            .build();
+
+        try (ProviderExecutor executor = ProviderExecutor.virtualThreads(calls)) {
+            List<CompletableFuture<Map<?, ?>>> responses = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                responses.add(executor.submit(() -> {
+                    try {
+                        return client.get("/bank", Map.class);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            for (CompletableFuture<Map<?, ?>> response : responses) {
+                assertEquals(true, response.get(10, TimeUnit.SECONDS).get("status"));
+            }
+        }
+        assertEquals(0, arrived.getCount());
+    }
+}
@@ -0,0 +1,110 @@
+package co.paydeck.util;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryMetricsTest {
+    private static final Endpoint VERIFY = Endpoint.of("paystack", "verify", "/transaction/verify/{reference}");
+    private static final Endpoint LIST = Endpoint.of("paystack", "list", "/transaction");
+
+    private MockWebServer server;
+    private InMemoryMetrics metrics;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        metrics = new InMemoryMetrics();
+        httpClient = HttpClient.builder()
+            .baseUrl(server.url("").toString().replaceAll("/$", ""))
+            .transport(HttpTransport.builder().build())
+            .metricsRecorder(metrics)
+            .endpoints(VERIFY, LIST)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void testTemplatesMatchBySegment() {
+        assertTrue(VERIFY.matches("/transaction/verify/ref-1"));
+        assertTrue(VERIFY.matches("/transaction/verify/ref-1?expand=true"));
+        assertFalse(VERIFY.matches("/transaction/verify/"));
+        assertFalse(VERIFY.matches("/transaction/verify/ref-1/extra"));
+        assertFalse(VERIFY.matches("/transactions/verify/ref-1"));
+        assertTrue(LIST.matches("/transaction?perPage=100&page=2"));
+        assertFalse(LIST.matches("/transaction/initialize"));
+    }
+
+    @Test
+    void testRequestsAreKeyedByTemplate() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setBody("{\"status\":true}"));
+            httpClient.get("/transaction/verify/ref-" + i, Map.class);
+        }
+        server.enqueue(new MockResponse().setBody("{\"status\":true}"));
+        httpClient.get("/bank?country=nigeria", Map.class);
+
+        assertEquals(3, metrics.getRequests(VERIFY));
+        assertEquals(3, metrics.getStatusCount(VERIFY, 200));
+        assertEquals(1, metrics.getRequests(Endpoint.OTHER));
+        assertEquals(0, metrics.getInFlight(VERIFY));
+    }
+
+    @Test
+    void testPhasesAreRecorded() throws IOException {
+        server.enqueue(new MockResponse()
+            .setBody("{\"status\":true}")
+            .setHeadersDelay(30, TimeUnit.MILLISECONDS));
+
+        httpClient.get("/transaction/verify/ref-1", Map.class);
+
+        assertEquals(1, metrics.getHistogram(VERIFY, RequestPhase.CONNECT).getCount());
+        assertEquals(1, metrics.getHistogram(VERIFY, RequestPhase.REQUEST).getCount());
+        assertEquals(1, metrics.getHistogram(VERIFY, RequestPhase.RESPONSE).getCount());
+        assertEquals(0, metrics.getHistogram(VERIFY, RequestPhase.TLS).getCount());
+        LatencyHistogram server = metrics.getHistogram(VERIFY, RequestPhase.SERVER);
+        assertTrue(server.getPercentileNanos(50) >= TimeUnit.MILLISECONDS.toNanos(25));
+        assertTrue(metrics.getHistogram(VERIFY, RequestPhase.TOTAL).getMaxNanos() >= server.getMaxNanos());
+    }
+
+    @Test
+    void testErrorsAreCountedByStatus() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("{}"));
+        assertThrows(HttpException.class, () -> httpClient.get("/transaction/verify/missing", Map.class));
+
+        server.shutdown();
+        assertThrows(IOException.class, () -> httpClient.get("/transaction/verify/ref-2", Map.class));
+
+        assertEquals(1, metrics.getStatusCount(VERIFY, 404));
+        assertEquals(1, metrics.getStatusCount(VERIFY, 0));
+        assertEquals(2, metrics.getErrors(VERIFY));
+        assertEquals(0, metrics.getInFlight(VERIFY));
+    }
+
+    @Test
+    void testHistogramPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        long p50 = histogram.getPercentileNanos(50);
+        long p99 = histogram.getPercentileNanos(99);
+        assertEquals(1000, histogram.getCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), histogram.getMaxNanos());
+        assertTrue(Math.abs(p50 - 500_000) <= 500_000 / 8, "p50 " + p50);
+        assertTrue(Math.abs(p99 - 990_000) <= 990_000 / 8, "p99 " + p99);
+    }
+}
@@ -0,0 +1,101 @@
+package co.paydeck.util;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageIteratorTest {
+    private final List<Integer> requested = new ArrayList<>();
+    private final List<CompletableFuture<PageIterator.Page<String>>> inFlight = new ArrayList<>();
+
+    // Three pages of two items; futures are completed by the test so prefetching is observable
+    private CompletableFuture<PageIterator.Page<String>> fetch(int page) {
+        requested.add(page);
+        return page(page);
+    }
+
+    // A page can be completed before it is requested
+    private CompletableFuture<PageIterator.Page<String>> page(int page) {
+        while (inFlight.size() < page) {
+            inFlight.add(new CompletableFuture<>());
+        }
+        return inFlight.get(page - 1);
+    }
+
+    private void completePage(int page) {
+        page(page).complete(new PageIterator.Page<>(List.of("p" + page + "-a", "p" + page + "-b"), page < 3));
+    }
+
+    @Test
+    void testRequestsNextPageWhileCurrentIsConsumed() {
+        PageIterator<String> iterator = new PageIterator<>(1, this::fetch);
+        assertTrue(requested.isEmpty());
+
+        completePage(1);
+        assertEquals("p1-a", iterator.next());
+        assertEquals(List.of(1, 2), requested);
+        assertEquals("p1-b", iterator.next());
+
+        completePage(2);
+        assertEquals("p2-a", iterator.next());
+        assertEquals(List.of(1, 2, 3), requested);
+    }
+
+    @Test
+    void testStreamWalksAllPagesAndStops() {
+        Stream<String> stream = PageIterator.stream(1, page -> CompletableFuture.completedFuture(
+            new PageIterator.Page<>(List.of("p" + page), page < 5)));
+
+        assertEquals(List.of("p1", "p2", "p3", "p4", "p5"), stream.collect(Collectors.toList()));
+    }
+
+    @Test
+    void testEmptyPageEndsWalk() {
+        List<String> items = PageIterator.<String>stream(1, page -> {
+            requested.add(page);
+            return CompletableFuture.completedFuture(new PageIterator.Page<>(List.of(), true));
+        }).collect(Collectors.toList());
+
+        assertTrue(items.isEmpty());
+        assertEquals(List.of(1), requested);
+    }
+
+    @Test
+    void testFailedPageSurfacesAsUncheckedIOException() {
+        PageIterator<String> iterator = new PageIterator<>(1, this::fetch);
+        completePage(1);
+        iterator.next();
+        iterator.next();
+        inFlight.get(1).completeExceptionally(new IOException("boom"));
+
+        UncheckedIOException error = assertThrows(UncheckedIOException.class, iterator::hasNext);
+        assertEquals("boom", error.getCause().getMessage());
+    }
+
+    @Test
+    void testCloseCancelsPrefetch() {
+        Stream<String> stream = PageIterator.stream(1, this::fetch);
+        completePage(1);
+
+        assertEquals("p1-a", stream.findFirst().orElseThrow());
+        stream.close();
+
+        assertEquals(List.of(1, 2), requested);
+        assertTrue(inFlight.get(1).isCancelled());
+    }
+
+    @Test
+    void testNothingIsFetchedUntilFirstHasNext() {
+        Stream<String> stream = PageIterator.stream(1, this::fetch);
+        assertTrue(requested.isEmpty());
+
+        stream.close();
+        assertTrue(requested.isEmpty());
+    }
+}
@@ -0,0 +1,142 @@
+package co.paydeck.util;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private static final String HOST = "api.paystack.co";
+    private final AtomicLong clock = new AtomicLong();
+
+    private RateLimiter newLimiter() {
+        return RateLimiter.builder()
+            .permitsPerSecond(10)
+            .burst(2)
+            .limit("/transaction/initialize", 1, 1)
+            .nanoClock(clock::get)
+            .build();
+    }
+
+    @Test
+    void testBurstThenSteadyRate() {
+        RateLimiter limiter = newLimiter();
+
+        assertEquals(0, limiter.reserve(HOST, "/transaction/verify/ref-1", 0));
+        assertEquals(0, limiter.reserve(HOST, "/transaction/verify/ref-2", 0));
+        assertEquals(-1, limiter.reserve(HOST, "/transaction/verify/ref-3", 0));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100),
+            limiter.reserve(HOST, "/transaction/verify/ref-3", Long.MAX_VALUE));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, limiter.reserve(HOST, "/transaction/verify/ref-4", 0));
+    }
+
+    @Test
+    void testEndpointClassesHaveSeparateBuckets() {
+        RateLimiter limiter = newLimiter();
+
+        assertEquals(0, limiter.reserve(HOST, "/transaction/initialize", 0));
+        assertEquals(-1, limiter.reserve(HOST, "/transaction/initialize", 0));
+        assertEquals(0, limiter.reserve(HOST, "/transaction/verify/ref-1", 0));
+        assertEquals(0, limiter.reserve("api.flutterwave.com", "/transaction/initialize", 0));
+    }
+
+    @Test
+    void testTooManyRequestsHalvesRateAndSuccessRestoresIt() {
+        RateLimiter limiter = newLimiter();
+        String path = "/bank?country=nigeria";
+
+        limiter.onResponse(HOST, path, 429, null);
+        limiter.onResponse(HOST, path, 429, null);
+        assertEquals(5, limiter.getPermitsPerSecond(HOST, path));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        limiter.onResponse(HOST, path, 429, null);
+        assertEquals(2.5, limiter.getPermitsPerSecond(HOST, path));
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onResponse(HOST, path, 200, null);
+        }
+        assertEquals(10, limiter.getPermitsPerSecond(HOST, path));
+    }
+
+    @Test
+    void testRetryAfterHoldsBucket() {
+        RateLimiter limiter = newLimiter();
+        String path = "/transaction/verify/ref";
+
+        limiter.onResponse(HOST, path, 429, "3");
+
+        assertEquals(-1, limiter.reserve(HOST, path, TimeUnit.SECONDS.toNanos(2)));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        assertEquals(0, limiter.reserve(HOST, path, 0));
+    }
+
+    @Test
+    void testFailFastDoesNotReachServer() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        try {
+            RateLimiter limiter = RateLimiter.builder()
+                .permitsPerSecond(100)
+                .burst(5)
+                .mode(RateLimiter.Mode.FAIL_FAST)
+                .build();
+            HttpClient httpClient = HttpClient.builder()
+                .baseUrl(server.url("").toString().replaceAll("/$", ""))
+                .transport(HttpTransport.builder().build())
+                .rateLimiter(limiter)
+                .build();
+            server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "30"));
+
+            HttpException throttled = assertThrows(HttpException.class,
+                () -> httpClient.get("/transaction/verify/ref", Map.class));
+            assertEquals(429, throttled.getStatusCode());
+
+            assertThrows(RateLimitedException.class, () -> httpClient.get("/transaction/verify/ref", Map.class));
+            assertEquals(1, server.getRequestCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testAsyncWaitHoldsNoDispatcherThread() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        try {
+            RateLimiter limiter = RateLimiter.builder()
+                .permitsPerSecond(100)
+                .limit("/transaction/verify", 0.5, 1)
+                .mode(RateLimiter.Mode.BLOCK)
+                .build();
+            HttpClient httpClient = HttpClient.builder()
+                .baseUrl(server.url("").toString().replaceAll("/$", ""))
+                .transport(HttpTransport.builder().maxRequests(1).build())
+                .rateLimiter(limiter)
+                .build();
+            for (int i = 0; i < 3; i++) {
+                server.enqueue(new MockResponse().setBody("{}"));
+            }
+
+            httpClient.getAsync("/transaction/verify/ref-1", Map.class).join();
+            // Waits two seconds for its permit, while the dispatcher's only slot stays free
+            CompletableFuture<Map> waiting = httpClient.getAsync("/transaction/verify/ref-2", Map.class);
+            long start = System.nanoTime();
+            httpClient.getAsync("/bank", Map.class).get(1, TimeUnit.SECONDS);
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+            assertFalse(waiting.isDone());
+            waiting.get(5, TimeUnit.SECONDS);
+            assertEquals(3, server.getRequestCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+}
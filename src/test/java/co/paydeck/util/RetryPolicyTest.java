@@ -0,0 +1,148 @@
+package co.paydeck.util;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+    private MockWebServer server;
+    private RetryPolicy policy;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        policy = RetryPolicy.builder()
+            .maxAttempts(3)
+            .baseDelay(Duration.ofMillis(1))
+            .maxDelay(Duration.ofMillis(5))
+            .build();
+        httpClient = HttpClient.builder()
+            .baseUrl(server.url("").toString().replaceAll("/$", ""))
+            .transport(HttpTransport.builder().build())
+            .retryPolicy(policy)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void testGetIsRetriedOnServiceUnavailable() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setBody("{\"status\":true}"));
+
+        Map<?, ?> response = httpClient.get("/transaction/verify/ref", Map.class);
+
+        assertAll("Retried GET",
+            () -> assertEquals(true, response.get("status")),
+            () -> assertEquals(3, server.getRequestCount()),
+            () -> assertEquals(2, policy.getStats().getRetries()),
+            () -> assertEquals(1, policy.getStats().getRetriedRequests())
+        );
+    }
+
+    @Test
+    void testPostWithoutIdempotencyKeyIsNotRetried() {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("{\"status\":true}"));
+
+        HttpException error = assertThrows(HttpException.class,
+            () -> httpClient.post("/transaction/initialize", Map.of("reference", "ref"), Map.class));
+
+        assertEquals(503, error.getStatusCode());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testPostWithIdempotencyKeyIsRetried() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("{\"status\":true}"));
+
+        Map<?, ?> response = httpClient.postIdempotent(
+            "/transaction/initialize", Map.of("reference", "ref"), Map.class, "ref");
+
+        assertEquals(true, response.get("status"));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void testRejectedReplayIsFlagged() {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(400)
+            .setBody("{\"status\":false,\"message\":\"Duplicate Transaction Reference\"}"));
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        HttpException replayed = assertThrows(HttpException.class, () -> httpClient.postIdempotent(
+            "/transaction/initialize", Map.of("reference", "ref"), Map.class, "ref"));
+        HttpException firstAttempt = assertThrows(HttpException.class, () -> httpClient.postIdempotent(
+            "/transaction/initialize", Map.of("reference", "other"), Map.class, "other"));
+
+        assertTrue(replayed.isRejectedReplay());
+        assertFalse(firstAttempt.isRejectedReplay());
+    }
+
+    @Test
+    void testClientErrorsAreNotRetried() {
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        assertThrows(HttpException.class, () -> httpClient.get("/transaction/verify/ref", Map.class));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testRetryBudgetCapsRetries() {
+        RetryPolicy tightPolicy = RetryPolicy.builder()
+            .retryBudgetPercent(0)
+            .retryBudgetReserve(1)
+            .build();
+
+        assertTrue(tightPolicy.tryAcquireRetry());
+        assertFalse(tightPolicy.tryAcquireRetry());
+        assertEquals(1, tightPolicy.getStats().getBudgetExhausted());
+    }
+
+    @Test
+    void testAsyncBackoffHoldsNoDispatcherThread() throws Exception {
+        RetryPolicy slow = RetryPolicy.builder()
+            .maxAttempts(4)
+            .baseDelay(Duration.ofSeconds(2))
+            .maxDelay(Duration.ofSeconds(2))
+            .build();
+        HttpClient client = HttpClient.builder()
+            .baseUrl(server.url("").toString().replaceAll("/$", ""))
+            .transport(HttpTransport.builder().maxRequests(1).build())
+            .retryPolicy(slow)
+            .build();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return request.getPath().startsWith("/down")
+                    ? new MockResponse().setResponseCode(503)
+                    : new MockResponse().setBody("{\"status\":true}");
+            }
+        });
+
+        CompletableFuture<Map> retrying = client.getAsync("/down/ref", Map.class);
+        assertEquals("/down/ref", server.takeRequest(5, TimeUnit.SECONDS).getPath());
+
+        // The dispatcher's only slot is free while the retry waits out its backoff
+        assertEquals(true, client.getAsync("/bank", Map.class).get(1, TimeUnit.SECONDS).get("status"));
+        assertFalse(retrying.isDone());
+        retrying.cancel(true);
+    }
+}
@@ -0,0 +1,69 @@
+package co.paydeck.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimestampsTest {
+
+    @Test
+    void testParsesProviderTimestamps() {
+        assertEquals(OffsetDateTime.of(2024, 1, 15, 10, 30, 0, 0, ZoneOffset.UTC),
+            Timestamps.parse("2024-01-15T10:30:00.000Z"));
+        assertEquals(OffsetDateTime.of(2024, 8, 22, 9, 15, 42, 123_000_000, ZoneOffset.UTC),
+            Timestamps.parse("2024-08-22T09:15:42.123Z"));
+        assertEquals(OffsetDateTime.of(2024, 8, 22, 9, 15, 42, 0, ZoneOffset.UTC),
+            Timestamps.parse("2024-08-22 09:15:42"));
+    }
+
+    @Test
+    void testKeepsOffsetAndPrecision() {
+        OffsetDateTime parsed = Timestamps.parse("2024-08-22T09:15:42.5+01:00");
+
+        assertEquals(ZoneOffset.ofHours(1), parsed.getOffset());
+        assertEquals(500_000_000, parsed.getNano());
+        assertEquals(OffsetDateTime.parse("2024-08-22T08:15:42.5Z").toInstant(), parsed.toInstant());
+        assertEquals(123_456_789, Timestamps.parse("2024-08-22T09:15:42.123456789Z").getNano());
+        assertEquals(ZoneOffset.ofHoursMinutes(-5, -30), Timestamps.parse("2024-08-22T09:15:42-0530").getOffset());
+        assertEquals(ZoneOffset.ofHours(3), Timestamps.parse("2024-08-22T09:15:42+03").getOffset());
+    }
+
+    @Test
+    void testMalformedInputReturnsNull() {
+        assertNull(Timestamps.parse(null));
+        assertNull(Timestamps.parse(""));
+        assertNull(Timestamps.parse("22/08/2024 09:15"));
+        assertNull(Timestamps.parse("2024-08-22"));
+        assertNull(Timestamps.parse("2024-08-22T09:15:42."));
+        assertNull(Timestamps.parse("2024-08-22T09:15:42.1234567890Z"));
+        assertNull(Timestamps.parse("2024-08-22T09:15:42Zjunk"));
+        assertNull(Timestamps.parse("2024-08-22T09:15:42+1:00"));
+    }
+
+    @Test
+    void testOutOfRangeFieldsReturnNull() {
+        assertNull(Timestamps.parse("2024-13-01T00:00:00Z"));
+        assertNull(Timestamps.parse("2023-02-29T00:00:00Z"));
+        assertNull(Timestamps.parse("2024-04-31T00:00:00Z"));
+        assertNull(Timestamps.parse("2024-01-01T24:00:00Z"));
+        assertNull(Timestamps.parse("2024-01-01T00:60:00Z"));
+        assertNull(Timestamps.parse("2024-01-01T00:00:00+19:00"));
+        assertNotNull(Timestamps.parse("2024-02-29T00:00:00Z"));
+        assertNotNull(Timestamps.parse("2000-02-29T00:00:00Z"));
+        assertNull(Timestamps.parse("1900-02-29T00:00:00Z"));
+    }
+
+    @Test
+    void testAgreesWithJavaTime() {
+        String[] values = {
+            "2024-01-15T10:30:00.000Z",
+            "1999-12-31T23:59:59.999999+14:00",
+            "2031-06-30T12:00:00.1-08:00",
+            "2024-02-29T00:00:00Z",
+        };
+        for (String value : values) {
+            assertEquals(OffsetDateTime.parse(value), Timestamps.parse(value), value);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package co.paydeck.util;
+
+import co.paydeck.util.TransactionJournal.Operation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testInDoubtReferencesSurviveRestart() throws IOException {
+        Path file = directory.resolve("journal.log");
+        try (TransactionJournal journal = TransactionJournal.open(file)) {
+            assertTrue(journal.begin(Operation.PAYOUT, "pay-1").join());
+            assertTrue(journal.begin(Operation.PAYOUT, "pay-2").join());
+            assertTrue(journal.begin(Operation.PAYOUT, "pay-3").join());
+            assertTrue(journal.begin(Operation.CHECKOUT, "pay-2").join());
+            journal.complete(Operation.PAYOUT, "pay-2");
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(file)) {
+            assertEquals(List.of("pay-1", "pay-3"), new ArrayList<>(journal.inDoubt(Operation.PAYOUT)));
+            assertEquals(Set.of("pay-2"), journal.inDoubt(Operation.CHECKOUT));
+            assertEquals(3, journal.getStats().getOpenIntents());
+        }
+    }
+
+    @Test
+    void testOpenReferenceIsRefusedUntilCompleted() throws IOException {
+        try (TransactionJournal journal = TransactionJournal.open(directory.resolve("journal.log"))) {
+            assertTrue(journal.begin(Operation.PAYOUT, "pay-1").join());
+            assertFalse(journal.begin(Operation.PAYOUT, "pay-1").join());
+
+            journal.complete(Operation.PAYOUT, "pay-1");
+            assertTrue(journal.begin(Operation.PAYOUT, "pay-1").join());
+            assertThrows(IllegalArgumentException.class, () -> journal.begin(Operation.PAYOUT, ""));
+        }
+    }
+
+    @Test
+    void testConcurrentIntentsShareSyncs() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (TransactionJournal journal = TransactionJournal.open(directory.resolve("journal.log"))) {
+            List<CompletableFuture<Boolean>> begins = new ArrayList<>();
+            for (int i = 0; i < 4000; i++) {
+                String reference = "pay-" + i;
+                begins.add(CompletableFuture.supplyAsync(() -> journal.begin(Operation.PAYOUT, reference), executor)
+                    .thenCompose(begin -> begin));
+            }
+            begins.forEach(begin -> assertTrue(begin.join()));
+
+            JournalStats stats = journal.getStats();
+            assertEquals(4000, stats.getAppends());
+            assertEquals(4000, stats.getOpenIntents());
+            assertTrue(stats.getSyncs() < stats.getAppends(), "expected grouped syncs, saw " + stats);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException {
+        Path file = directory.resolve("journal.log");
+        try (TransactionJournal journal = TransactionJournal.open(file)) {
+            journal.begin(Operation.PAYOUT, "a").join();
+            journal.begin(Operation.PAYOUT, "b").join();
+        }
+
+        // Each record is an 8-byte header, 4 bytes of prefix and the reference; damage the second one
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(13 + 12);
+            raw.write('x');
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(file)) {
+            assertEquals(Set.of("a"), journal.inDoubt(Operation.PAYOUT));
+            assertTrue(journal.begin(Operation.PAYOUT, "c").join());
+        }
+        try (TransactionJournal journal = TransactionJournal.open(file)) {
+            assertEquals(List.of("a", "c"), new ArrayList<>(journal.inDoubt(Operation.PAYOUT)));
+        }
+    }
+
+    @Test
+    void testFullJournalRollsToItsOpenIntents() throws IOException {
+        Path file = directory.resolve("journal.log");
+        try (TransactionJournal journal = TransactionJournal.open(file, 256)) {
+            journal.begin(Operation.PAYOUT, "keep").join();
+            for (int i = 0; i < 200; i++) {
+                assertTrue(journal.begin(Operation.CHECKOUT, "checkout-" + i).join());
+                journal.complete(Operation.CHECKOUT, "checkout-" + i);
+            }
+            assertTrue(journal.getStats().getRolls() > 10);
+
+            // Open intents alone cannot outgrow the file
+            int opened = 0;
+            try {
+                while (opened < 100) {
+                    Futures.join(journal.begin(Operation.PAYOUT, "open-" + opened));
+                    opened++;
+                }
+                fail("expected the journal to fill up");
+            } catch (IllegalStateException e) {
+                assertFalse(journal.inDoubt(Operation.PAYOUT).contains("open-" + opened));
+            }
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(file, 256)) {
+            assertTrue(journal.inDoubt(Operation.PAYOUT).contains("keep"));
+            assertTrue(journal.inDoubt(Operation.CHECKOUT).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package co.paydeck.webhook;
+
+import co.paydeck.model.Provider;
+import co.paydeck.model.TransactionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookProcessorTest {
+    private static final String PAYSTACK_SECRET = "sk_test_secret";
+    private static final String FLUTTERWAVE_HASH = "my-secret-hash";
+
+    private static final String PAYSTACK_EVENT = "{\"event\":\"charge.success\",\"data\":{\"id\":302961,"
+        + "\"status\":\"success\",\"reference\":\"order-1\",\"amount\":150000,\"fees\":2250,\"currency\":\"NGN\","
+        + "\"channel\":\"card\",\"paid_at\":\"2024-01-15T10:30:00.000Z\",\"customer\":{\"email\":\"a@b.co\"},"
+        + "\"authorization\":{\"authorization_code\":\"AUTH_x\",\"card_type\":\"visa\",\"last4\":\"4081\"}}}";
+
+    private static final String FLUTTERWAVE_EVENT = "{\"event\":\"charge.completed\",\"data\":{\"id\":4975363,"
+        + "\"tx_ref\":\"order-2\",\"flw_ref\":\"FLW-1\",\"amount\":100,\"charged_amount\":101.4,\"app_fee\":1.4,"
+        + "\"currency\":\"NGN\",\"status\":\"successful\",\"payment_type\":\"card\","
+        + "\"created_at\":\"2024-01-15T10:30:00.000Z\"}}";
+
+    private final List<WebhookEvent> received = new CopyOnWriteArrayList<>();
+    private WebhookProcessor processor;
+
+    @AfterEach
+    void tearDown() {
+        processor.close();
+    }
+
+    private WebhookProcessor newProcessor(WebhookHandler handler, int queueCapacity) {
+        return WebhookProcessor.builder()
+            .paystackSecretKey(PAYSTACK_SECRET)
+            .flutterwaveSecretHash(FLUTTERWAVE_HASH)
+            .handler(handler)
+            .queueCapacity(queueCapacity)
+            .build();
+    }
+
+    private static String sign(byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(PAYSTACK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    @Test
+    void testPaystackEventIsVerifiedParsedAndDispatched() throws Exception {
+        processor = newProcessor(received::addAll, 100);
+        byte[] body = PAYSTACK_EVENT.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(WebhookResult.ACCEPTED, processor.receive(Provider.PAYSTACK, body, sign(body)));
+        processor.close();
+
+        WebhookEvent event = received.get(0);
+        assertAll("Paystack webhook",
+            () -> assertEquals("charge.success", event.getEvent()),
+            () -> assertEquals("order-1", event.getTransaction().getMerchantTransactionReference()),
+            () -> assertEquals(TransactionStatus.SUCCESSFUL, event.getTransaction().getStatus()),
+            () -> assertEquals(0, new BigDecimal("1500").compareTo(event.getTransaction().getAmount())),
+            () -> assertEquals("AUTH_x", event.getTransaction().getProviderTransactionReference())
+        );
+    }
+
+    @Test
+    void testSignatureMismatchIsRejected() throws Exception {
+        processor = newProcessor(received::addAll, 100);
+        byte[] body = PAYSTACK_EVENT.getBytes(StandardCharsets.UTF_8);
+        String signature = sign(body);
+        byte[] tampered = PAYSTACK_EVENT.replace("150000", "150001").getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(WebhookResult.INVALID_SIGNATURE, processor.receive(Provider.PAYSTACK, tampered, signature));
+        assertEquals(WebhookResult.INVALID_SIGNATURE,
+            processor.receive(Provider.PAYSTACK, body, "zz" + signature.substring(2)));
+        assertEquals(WebhookResult.INVALID_SIGNATURE, processor.receive(Provider.PAYSTACK, body, null));
+        assertEquals(3, processor.getStats().getInvalidSignatures());
+    }
+
+    @Test
+    void testFlutterwaveRedeliveryIsDeduplicated() {
+        processor = newProcessor(received::addAll, 100);
+        byte[] body = FLUTTERWAVE_EVENT.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(WebhookResult.INVALID_SIGNATURE, processor.receive(Provider.FLUTTERWAVE, body, "wrong-hash"));
+        assertEquals(WebhookResult.ACCEPTED, processor.receive(Provider.FLUTTERWAVE, body, FLUTTERWAVE_HASH));
+        assertEquals(WebhookResult.DUPLICATE, processor.receive(Provider.FLUTTERWAVE, body, FLUTTERWAVE_HASH));
+        processor.close();
+
+        assertEquals(1, received.size());
+        assertEquals("order-2", received.get(0).getTransaction().getMerchantTransactionReference());
+        assertEquals(new BigDecimal("101.4"), received.get(0).getTransaction().getChargedAmount());
+    }
+
+    @Test
+    void testMalformedAndUnmappedEvents() throws Exception {
+        processor = newProcessor(received::addAll, 100);
+        byte[] garbage = "{\"event\":".getBytes(StandardCharsets.UTF_8);
+        byte[] transfer = "{\"event\":\"transfer.success\",\"data\":{\"id\":1}}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(WebhookResult.MALFORMED, processor.receive(Provider.PAYSTACK, garbage, sign(garbage)));
+        assertEquals(WebhookResult.IGNORED, processor.receive(Provider.PAYSTACK, transfer, sign(transfer)));
+    }
+
+    @Test
+    void testFullQueueRefusesAndAllowsRedelivery() throws Exception {
+        CountDownLatch handlerEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        processor = newProcessor(events -> {
+            handlerEntered.countDown();
+            release.await();
+            received.addAll(events);
+        }, 1);
+
+        byte[] first = PAYSTACK_EVENT.getBytes(StandardCharsets.UTF_8);
+        byte[] second = PAYSTACK_EVENT.replace("302961", "302962").getBytes(StandardCharsets.UTF_8);
+        byte[] third = PAYSTACK_EVENT.replace("302961", "302963").getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(WebhookResult.ACCEPTED, processor.receive(Provider.PAYSTACK, first, sign(first)));
+        assertTrue(handlerEntered.await(5, TimeUnit.SECONDS));
+        assertEquals(WebhookResult.ACCEPTED, processor.receive(Provider.PAYSTACK, second, sign(second)));
+        assertEquals(WebhookResult.QUEUE_FULL, processor.receive(Provider.PAYSTACK, third, sign(third)));
+
+        release.countDown();
+        WebhookResult redelivery = WebhookResult.QUEUE_FULL;
+        for (int i = 0; i < 100 && redelivery == WebhookResult.QUEUE_FULL; i++) {
+            Thread.sleep(10);
+            redelivery = processor.receive(Provider.PAYSTACK, third, sign(third));
+        }
+        assertEquals(WebhookResult.ACCEPTED, redelivery);
+        processor.close();
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    void testFailedBatchIsRetried() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        processor = WebhookProcessor.builder()
+            .paystackSecretKey(PAYSTACK_SECRET)
+            .handler(events -> {
+                if (calls.incrementAndGet() < 3) {
+                    throw new IllegalStateException("database down");
+                }
+                received.addAll(events);
+            })
+            .handlerRetryDelay(Duration.ofMillis(1))
+            .build();
+        byte[] body = PAYSTACK_EVENT.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(WebhookResult.ACCEPTED, processor.receive(Provider.PAYSTACK, body, sign(body)));
+        processor.close();
+
+        WebhookStats stats = processor.getStats();
+        assertEquals(1, received.size());
+        assertEquals(2, stats.getHandlerFailures());
+        assertEquals(2, stats.getHandlerRetries());
+        assertEquals(0, stats.getDeadLettered());
+    }
+
+    @Test
+    void testExhaustedBatchIsDeadLetteredAndRedeliveryAccepted() throws Exception {
+        List<WebhookEvent> deadLetters = new CopyOnWriteArrayList<>();
+        CountDownLatch deadLettered = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        processor = WebhookProcessor.builder()
+            .paystackSecretKey(PAYSTACK_SECRET)
+            .handler(events -> {
+                if (calls.incrementAndGet() <= 2) {
+                    throw new IllegalStateException("database down");
+                }
+                received.addAll(events);
+            })
+            .handlerAttempts(2)
+            .handlerRetryDelay(Duration.ofMillis(1))
+            .deadLetterHandler(events -> {
+                deadLetters.addAll(events);
+                deadLettered.countDown();
+            })
+            .build();
+        byte[] body = PAYSTACK_EVENT.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(WebhookResult.ACCEPTED, processor.receive(Provider.PAYSTACK, body, sign(body)));
+        assertTrue(deadLettered.await(5, TimeUnit.SECONDS));
+        assertEquals("order-1", deadLetters.get(0).getTransaction().getMerchantTransactionReference());
+
+        // The dead-lettered delivery no longer counts as seen
+        assertEquals(WebhookResult.ACCEPTED, processor.receive(Provider.PAYSTACK, body, sign(body)));
+        processor.close();
+        assertEquals(1, received.size());
+        assertEquals(1, processor.getStats().getDeadLettered());
+    }
+
+    @Test
+    void testReceiveAfterCloseIsRefused() throws Exception {
+        processor = newProcessor(received::addAll, 100);
+        processor.close();
+        byte[] body = PAYSTACK_EVENT.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(WebhookResult.QUEUE_FULL, processor.receive(Provider.PAYSTACK, body, sign(body)));
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testForgottenKeyIsNotEvictedThroughItsOldPlace() throws Exception {
+        CountDownLatch handlerEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        processor = WebhookProcessor.builder()
+            .paystackSecretKey(PAYSTACK_SECRET)
+            .handler(events -> {
+                handlerEntered.countDown();
+                release.await();
+                received.addAll(events);
+            })
+            .queueCapacity(1)
+            .deduplicationWindow(3)
+            .build();
+        byte[][] events = new byte[5][];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = PAYSTACK_EVENT.replace("302961", "30296" + i).getBytes(StandardCharsets.UTF_8);
+        }
+
+        assertEquals(WebhookResult.ACCEPTED, processor.receive(Provider.PAYSTACK, events[0], sign(events[0])));
+        assertTrue(handlerEntered.await(5, TimeUnit.SECONDS));
+        assertEquals(WebhookResult.ACCEPTED, processor.receive(Provider.PAYSTACK, events[1], sign(events[1])));
+        assertEquals(WebhookResult.QUEUE_FULL, processor.receive(Provider.PAYSTACK, events[2], sign(events[2])));
+        release.countDown();
+
+        WebhookResult redelivery = WebhookResult.QUEUE_FULL;
+        for (int i = 0; i < 100 && redelivery == WebhookResult.QUEUE_FULL; i++) {
+            Thread.sleep(10);
+            redelivery = processor.receive(Provider.PAYSTACK, events[2], sign(events[2]));
+        }
+        assertEquals(WebhookResult.ACCEPTED, redelivery);
+
+        // Two fillers evict the first two keys; the redelivered key is still remembered
+        for (int i = 3; i < 5; i++) {
+            WebhookResult filler = WebhookResult.QUEUE_FULL;
+            for (int attempt = 0; attempt < 100 && filler == WebhookResult.QUEUE_FULL; attempt++) {
+                filler = processor.receive(Provider.PAYSTACK, events[i], sign(events[i]));
+                if (filler == WebhookResult.QUEUE_FULL) {
+                    Thread.sleep(10);
+                }
+            }
+            assertEquals(WebhookResult.ACCEPTED, filler);
+        }
+        assertEquals(WebhookResult.DUPLICATE, processor.receive(Provider.PAYSTACK, events[2], sign(events[2])));
+        processor.close();
+        assertEquals(5, received.size());
+    }
+}